@@ -0,0 +1,419 @@
+package edu.ncsu.csc216.wolf_tasks.model.io;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.ncsu.csc216.wolf_tasks.model.notebook.Notebook;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.Task;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.TaskList;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.TaskLoader;
+
+/**
+ * Reads a Notebook saved in the NotebookFormat.BINARY format. The file is read
+ * through a buffer that can be moved to any offset, so the table is read first
+ * and then the Tasks of each TaskList from the offset the table gives. Binary
+ * files are written by NotebookWriter, so unlike the text format an invalid
+ * record is not skipped: the whole file is rejected.
+ *
+ * In indexed mode only the header and table are read. Each TaskList is given a
+ * TaskLoader that reads its Tasks from the still open file the first time they
+ * are needed, and the file is closed once every TaskList has loaded.
+ *
+ * Where each TaskList's Tasks are in the file is given to the Notebook's
+ * NotebookWriter, so a save can copy the lists that have not changed.
+ *
+ * @author Michael Warstler
+ */
+final class BinaryNotebookParser {
+
+	/** Number of bytes read from the file at a time */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** The open file */
+	private FileChannel channel;
+	/** Path of the open file */
+	private File file;
+	/** Length of the file in bytes */
+	private long size;
+	/** Bytes read from the file, from position bufferStart */
+	private ByteBuffer buffer;
+	/** Position in the file of the first byte in the buffer */
+	private long bufferStart;
+	/** Number of TaskLists whose Tasks have not been read yet */
+	private int unloadedCount;
+
+	/**
+	 * Constructs a BinaryNotebookParser for an open file.
+	 *
+	 * @param channel is the open file.
+	 * @param file    is the path of the open file.
+	 * @throws IOException if the file cannot be read.
+	 */
+	BinaryNotebookParser(FileChannel channel, File file) throws IOException {
+		this.channel = channel;
+		this.file = file.getAbsoluteFile();
+		size = channel.size();
+		buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		buffer.limit(0);
+	}
+
+	/**
+	 * Reads the file into a Notebook, and sets the current task list to the
+	 * ActiveTaskList.
+	 *
+	 * @return is the Notebook read from the file.
+	 * @throws IOException              if the file cannot be read or ends early.
+	 * @throws IllegalArgumentException if the file is not in the binary format or
+	 *                                  holds an invalid record.
+	 */
+	Notebook parse() throws IOException {
+		return parse(false);
+	}
+
+	/**
+	 * Reads the file into a Notebook, and sets the current task list to the
+	 * ActiveTaskList. In indexed mode the Tasks of a TaskList are read when they
+	 * are first needed, so the file must stay open until isLoaded() is true; a
+	 * version 1 file has no index and is always read in full.
+	 *
+	 * @param indexed is true to read only the header and table.
+	 * @return is the Notebook read from the file.
+	 * @throws IOException              if the file cannot be read or ends early.
+	 * @throws IllegalArgumentException if the file is not in the binary format or
+	 *                                  holds an invalid record.
+	 */
+	Notebook parse(boolean indexed) throws IOException {
+		seek(0);
+		for (byte b : NotebookFormat.MAGIC) {
+			if (readByte() != b) {
+				throw new IllegalArgumentException("Unable to load file.");
+			}
+		}
+		int version = readByte();
+		if (version != NotebookFormat.VERSION && version != NotebookFormat.UNINDEXED_VERSION) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		long tableOffset = readLong();
+		Notebook notebook = new Notebook(readString());
+
+		// Table of TaskLists.
+		seek(tableOffset);
+		int count = readCount();
+		if (count > size - tableOffset) {
+			throw new IllegalArgumentException("Unable to load file."); // each entry takes several bytes.
+		}
+		TaskBlock[] blocks = new TaskBlock[count];
+		for (int i = 0; i < count; i++) {
+			blocks[i] = readTableEntry(version, tableOffset);
+		}
+
+		// Tasks of each TaskList, now or when they are needed.
+		ArrayList<TaskList> taskLists = new ArrayList<TaskList>(count);
+		for (TaskBlock block : blocks) {
+			if (indexed && version == NotebookFormat.VERSION) {
+				taskLists.add(new TaskList(block.name, block.completedCount, block));
+				unloadedCount++;
+			} else {
+				TaskList taskList = new TaskList(block.name, block.completedCount);
+				for (Task task : block.readTasks()) {
+					taskList.addTask(task);
+				}
+				taskLists.add(taskList);
+			}
+		}
+
+		// Add every TaskList in one sorted merge.
+		notebook.addTaskLists(taskLists);
+		notebook.setCurrentTaskList("Active Tasks"); // Sets current tasklist = ActiveTaskList.
+
+		// Version 1 tables do not give the length of each TaskList's Tasks.
+		if (version == NotebookFormat.VERSION) {
+			NotebookWriter writer = notebook.getNotebookWriter();
+			writer.setSectionFile(file, NotebookFormat.BINARY);
+			for (int i = 0; i < count; i++) {
+				writer.addSection(taskLists.get(i), blocks[i].offset, blocks[i].length, blocks[i].taskCount,
+						blocks[i].activeCount);
+			}
+		}
+		return notebook;
+	}
+
+	/**
+	 * Tells if the Tasks of every TaskList have been read, so the file is no
+	 * longer needed.
+	 *
+	 * @return is true if no TaskList is waiting to read its Tasks.
+	 */
+	boolean isLoaded() {
+		return unloadedCount == 0;
+	}
+
+	/**
+	 * Reads one TaskList's entry in the table.
+	 *
+	 * @param version     is the version of the file.
+	 * @param tableOffset is the offset of the table, where the Tasks end.
+	 * @return is the entry.
+	 * @throws IOException              if the file cannot be read or ends early.
+	 * @throws IllegalArgumentException if the entry is invalid.
+	 */
+	private TaskBlock readTableEntry(int version, long tableOffset) throws IOException {
+		TaskBlock block = new TaskBlock();
+		block.name = readString();
+		block.completedCount = readCount();
+		block.taskCount = readCount();
+		if (version == NotebookFormat.UNINDEXED_VERSION) {
+			block.offset = readVarint();
+			block.length = -1;
+			return block;
+		}
+		block.activeCount = readCount();
+		block.offset = readVarint();
+		block.length = readVarint();
+		// A Task takes at least 3 bytes, and the Tasks end where the table starts.
+		if (block.activeCount > block.taskCount || block.offset < 0 || block.length < 0
+				|| block.offset > tableOffset || block.length > tableOffset - block.offset
+				|| block.taskCount > block.length / 3) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		return block;
+	}
+
+	/**
+	 * Reads a Task: its flags, name and description.
+	 *
+	 * @return is the Task.
+	 * @throws IOException              if the file cannot be read or ends early.
+	 * @throws IllegalArgumentException if the Task is invalid.
+	 */
+	private Task readTask() throws IOException {
+		int flags = readByte();
+		if ((flags & ~(NotebookFormat.RECURRING | NotebookFormat.ACTIVE)) != 0) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		String name = readString();
+		String description = readString();
+		return new Task(name, description, (flags & NotebookFormat.RECURRING) != 0,
+				(flags & NotebookFormat.ACTIVE) != 0);
+	}
+
+	/**
+	 * One TaskList's entry in the table: where its Tasks are in the file, and how
+	 * many there are. Also reads the Tasks for a TaskList in indexed mode.
+	 */
+	private final class TaskBlock implements TaskLoader {
+		/** Name of the TaskList */
+		private String name;
+		/** Completed count of the TaskList */
+		private int completedCount;
+		/** Number of Tasks */
+		private int taskCount;
+		/** Number of active Tasks */
+		private int activeCount;
+		/** Offset of the first Task */
+		private long offset;
+		/** Length of the Tasks in bytes, or -1 if the file does not give it */
+		private long length;
+
+		/**
+		 * Reads the Tasks from the file, checking that they fill the entry's length
+		 * and hold its number of active Tasks.
+		 *
+		 * @return is the Tasks, in order.
+		 * @throws IOException              if the file cannot be read or ends early.
+		 * @throws IllegalArgumentException if a Task or the entry is invalid.
+		 */
+		private List<Task> readTasks() throws IOException {
+			seek(offset);
+			ArrayList<Task> tasks = new ArrayList<Task>(taskCount);
+			int active = 0;
+			for (int i = 0; i < taskCount; i++) {
+				Task task = readTask();
+				if (task.isActive()) {
+					active++;
+				}
+				tasks.add(task);
+			}
+			if (length != -1 && (bufferStart + buffer.position() != offset + length || active != activeCount)) {
+				throw new IllegalArgumentException("Unable to load file.");
+			}
+			return tasks;
+		}
+
+		/**
+		 * Reads the Tasks of the TaskList, and closes the file once every TaskList
+		 * has read its Tasks.
+		 *
+		 * @return is the Tasks of the TaskList.
+		 * @throws IllegalStateException if the Tasks cannot be read.
+		 */
+		@Override
+		public List<Task> loadTasks() {
+			List<Task> tasks;
+			try {
+				// Drop what was buffered when the table was read, so the Tasks come from
+				// the file as it is now.
+				buffer.clear();
+				buffer.limit(0);
+				bufferStart = 0;
+				tasks = readTasks();
+			} catch (IOException | IllegalArgumentException e) {
+				throw new IllegalStateException("Unable to load task list.");
+			}
+			unloadedCount--;
+			if (unloadedCount == 0) {
+				buffer = null;
+				try {
+					channel.close();
+				} catch (IOException e) {
+					// The Tasks were read; nothing more is needed from the file.
+				}
+			}
+			return tasks;
+		}
+
+		/**
+		 * Tells if any of the Tasks is active, from the table.
+		 *
+		 * @return is true if the active Task count is not zero.
+		 */
+		@Override
+		public boolean hasActiveTasks() {
+			return activeCount > 0;
+		}
+	}
+
+	/**
+	 * Moves to a position in the file. The buffer is kept if it holds the
+	 * position.
+	 *
+	 * @param position is the position to move to.
+	 * @throws IOException if the position is past the end of the file.
+	 */
+	private void seek(long position) throws IOException {
+		if (position < 0 || position > size) {
+			throw new EOFException();
+		}
+		if (position >= bufferStart && position <= bufferStart + buffer.limit()) {
+			buffer.position((int) (position - bufferStart));
+		} else {
+			bufferStart = position;
+			buffer.clear();
+			buffer.limit(0);
+		}
+	}
+
+	/**
+	 * Makes sure the buffer holds at least a number of bytes, reading more of the
+	 * file if it does not.
+	 *
+	 * @param count is the number of bytes needed, at most BUFFER_SIZE.
+	 * @throws IOException if the file cannot be read or ends early.
+	 */
+	private void require(int count) throws IOException {
+		if (buffer.remaining() >= count) {
+			return;
+		}
+		bufferStart += buffer.position();
+		buffer.compact();
+		while (buffer.position() < count) {
+			if (channel.read(buffer, bufferStart + buffer.position()) == -1) {
+				throw new EOFException();
+			}
+		}
+		buffer.flip();
+	}
+
+	/**
+	 * Reads one byte.
+	 *
+	 * @return is the byte, from 0 to 255.
+	 * @throws IOException if the file cannot be read or ends early.
+	 */
+	private int readByte() throws IOException {
+		require(1);
+		return buffer.get() & 0xFF;
+	}
+
+	/**
+	 * Reads an 8 byte big-endian long.
+	 *
+	 * @return is the long.
+	 * @throws IOException if the file cannot be read or ends early.
+	 */
+	private long readLong() throws IOException {
+		require(Long.BYTES);
+		return buffer.getLong();
+	}
+
+	/**
+	 * Reads an unsigned varint.
+	 *
+	 * @return is the value.
+	 * @throws IOException              if the file cannot be read or ends early.
+	 * @throws IllegalArgumentException if the varint is longer than a long.
+	 */
+	private long readVarint() throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < Long.SIZE; shift += 7) {
+			int b = readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Unable to load file.");
+	}
+
+	/**
+	 * Reads a varint that must fit in an int.
+	 *
+	 * @return is the value.
+	 * @throws IOException              if the file cannot be read or ends early.
+	 * @throws IllegalArgumentException if the value is larger than an int.
+	 */
+	private int readCount() throws IOException {
+		long value = readVarint();
+		if (value < 0 || value > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Reads a String: its UTF-8 length in bytes, then its UTF-8 bytes.
+	 *
+	 * @return is the String.
+	 * @throws IOException              if the file cannot be read or ends early.
+	 * @throws IllegalArgumentException if the length is invalid.
+	 */
+	private String readString() throws IOException {
+		int length = readCount();
+		if (length > size - bufferStart - buffer.position()) {
+			throw new EOFException();
+		}
+		if (length <= BUFFER_SIZE) {
+			require(length);
+			String text = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+			buffer.position(buffer.position() + length);
+			return text;
+		}
+
+		// Longer than the buffer: read it from the file directly.
+		ByteBuffer bytes = ByteBuffer.allocate(length);
+		long position = bufferStart + buffer.position();
+		while (bytes.hasRemaining()) {
+			if (channel.read(bytes, position + bytes.position()) == -1) {
+				throw new EOFException();
+			}
+		}
+		seek(position + length);
+		return new String(bytes.array(), 0, length, StandardCharsets.UTF_8);
+	}
+}
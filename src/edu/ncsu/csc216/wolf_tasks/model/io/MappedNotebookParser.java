@@ -0,0 +1,755 @@
+package edu.ncsu.csc216.wolf_tasks.model.io;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import edu.ncsu.csc216.wolf_tasks.model.notebook.Notebook;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.Task;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.TaskList;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.TaskLoader;
+
+/**
+ * Builds a Notebook from a memory mapped notebook file. Record boundaries are
+ * found by scanning the bytes of the file, which works for charsets in which
+ * '#', '*', ',' and the line breaks are single bytes that never appear inside
+ * another character: UTF-8, ISO-8859-1 and US-ASCII. The notebook name, the
+ * TaskList lines and the Task flags are short and are decoded as they are read.
+ * Tasks are either MappedTasks that decode their name and description when they
+ * are first asked for, or Tasks decoded as they are read.
+ *
+ * Every '#' after the first line ends whatever record is being read, so the
+ * sections between them are read independently. They can be read one after
+ * another, or split between the threads of a ForkJoinPool. They can also be
+ * deferred: only the first line of each TaskList record is decoded, and the
+ * TaskList reads its section through a TaskLoader when its Tasks are needed.
+ *
+ * The records are split the same way NotebookParser splits them. A file that
+ * holds bytes the charset cannot decode, or that starts with a character other
+ * than '!', is not read, so that NotebookParser can handle it.
+ *
+ * @author Michael Warstler
+ */
+final class MappedNotebookParser {
+
+	/** Reading the first line of a TaskList record (name and completed count) */
+	private static final int LIST_NAME = 0;
+	/** Reading the first line of a Task record (name, recurring and active) */
+	private static final int TASK_NAME = 1;
+	/** Reading the lines of a Task record after its first line */
+	private static final int TASK_DESCRIPTION = 2;
+	/** Longest a "recurring" or "active" field can be in bytes, in any case */
+	private static final int MAX_FLAG_LENGTH = 36;
+	/** Number of bytes below which a ForkJoin task reads its sections itself */
+	private static final long SPLIT_SIZE = 1024 * 1024;
+
+	/** The mapped file */
+	private MappedText text;
+	/** True if Tasks decode their fields when first asked for */
+	private boolean lazy;
+	/** True if the file is UTF-8, false if it is ISO-8859-1 or US-ASCII */
+	private boolean utf8;
+	/** True if the file is ISO-8859-1 */
+	private boolean latin1;
+	/** Position after the first line, once it is read */
+	private long bodyStart;
+	/** Position after the last character that is not whitespace */
+	private long end;
+
+	/**
+	 * Constructs a MappedNotebookParser for a mapped file. The file's charset must
+	 * be one that canRead() accepts.
+	 *
+	 * @param text is the mapped file.
+	 * @param lazy is true to create MappedTasks, false to decode each Task.
+	 */
+	MappedNotebookParser(MappedText text, boolean lazy) {
+		this.text = text;
+		this.lazy = lazy;
+		Charset charset = text.getCharset();
+		utf8 = StandardCharsets.UTF_8.equals(charset);
+		latin1 = StandardCharsets.ISO_8859_1.equals(charset);
+	}
+
+	/**
+	 * Checks that the records of a file in a charset can be found by scanning its
+	 * bytes.
+	 *
+	 * @param charset is the charset of the file.
+	 * @return is true for UTF-8, ISO-8859-1 and US-ASCII.
+	 */
+	static boolean canRead(Charset charset) {
+		return StandardCharsets.UTF_8.equals(charset) || StandardCharsets.ISO_8859_1.equals(charset)
+				|| StandardCharsets.US_ASCII.equals(charset);
+	}
+
+	/**
+	 * Reads the file, one section after another. The file is trimmed, the first
+	 * line holds the '!' token and the notebook name, and every later '#' or '*'
+	 * starts a new TaskList or Task record. Invalid records are skipped.
+	 *
+	 * @return is the Notebook read from the file, or null if the file must be read
+	 *         by NotebookParser instead.
+	 * @throws IllegalArgumentException if the first line is invalid or a TaskList
+	 *                                  name is used twice.
+	 */
+	Notebook parse() {
+		Notebook notebook = parseHeader();
+		if (notebook == null) {
+			return null;
+		}
+		return addTaskLists(notebook, new Section(false).parse(bodyStart, end));
+	}
+
+	/**
+	 * Reads the file like parse(), without creating any Tasks. Every byte is still
+	 * checked, but only the first line of each TaskList record is decoded. Each
+	 * TaskList is given a TaskLoader that reads its section of the file the first
+	 * time its Tasks are needed, and knows from the first line of each Task record
+	 * whether the section may hold an active Task. The file stays mapped until
+	 * every TaskList has loaded.
+	 *
+	 * The section of each TaskList record that starts with a '#' is given to the
+	 * Notebook's NotebookWriter, so a save can copy the lists that have not
+	 * changed.
+	 *
+	 * @param file is the path of the mapped file.
+	 * @return is the Notebook read from the file, or null if the file must be read
+	 *         by NotebookParser instead.
+	 * @throws IllegalArgumentException if the first line is invalid or a TaskList
+	 *                                  name is used twice.
+	 */
+	Notebook parseDeferred(File file) {
+		Notebook notebook = parseHeader();
+		if (notebook == null) {
+			return null;
+		}
+		Section section = new Section(true);
+		ArrayList<TaskList> taskLists = section.parse(bodyStart, end);
+		if (addTaskLists(notebook, taskLists) == null) {
+			return null;
+		}
+		NotebookWriter writer = notebook.getNotebookWriter();
+		writer.setSectionFile(file.getAbsoluteFile(), NotebookFormat.TEXT);
+		for (int i = 0; i < taskLists.size(); i++) {
+			SectionLoader loader = section.loaders.get(i);
+			if (loader.from > 0 && text.get(loader.from - 1) == '#') {
+				writer.addSection(taskLists.get(i), loader.from - 1, loader.to - loader.from + 1, -1, -1);
+			}
+		}
+		return notebook;
+	}
+
+	/**
+	 * Reads the file like parse(), with its sections split between the threads of
+	 * a ForkJoinPool. The TaskLists are added in the order they are in the file,
+	 * so the Notebook is the same as parse() reads.
+	 *
+	 * @param pool is the pool to read the sections in.
+	 * @return is the Notebook read from the file, or null if the file must be read
+	 *         by NotebookParser instead.
+	 * @throws IllegalArgumentException if the first line is invalid or a TaskList
+	 *                                  name is used twice.
+	 */
+	Notebook parse(ForkJoinPool pool) {
+		Notebook notebook = parseHeader();
+		if (notebook == null) {
+			return null;
+		}
+		return addTaskLists(notebook, pool.invoke(new SectionTask(bodyStart, end)));
+	}
+
+	/**
+	 * Reads the first line: the token is dropped and the rest of the line is the
+	 * notebook name. Sets the range of the rest of the file.
+	 *
+	 * @return is the Notebook, or null if the file must be read by NotebookParser
+	 *         instead.
+	 * @throws IllegalArgumentException if the first line is invalid.
+	 */
+	private Notebook parseHeader() {
+		end = trimmedEnd();
+		long position = 0;
+		int space = spaceLength(position);
+		while (space > 0) {
+			position += space;
+			space = spaceLength(position);
+		}
+		if (position == end) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		byte first = text.get(position);
+		if (first < 0) {
+			return null; // may be a Unicode space, which NotebookParser skips.
+		} else if (first != '!') {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+
+		long headerStart = position;
+		int lineBreak = lineBreakLength(position);
+		while (position < end && lineBreak == 0) {
+			int length = characterLength(position);
+			if (length == -1) {
+				return null;
+			}
+			position += length;
+			lineBreak = lineBreakLength(position);
+		}
+		String header = text.decode(headerStart, position);
+		int nameStart = 1;
+		while (nameStart < header.length() && !Character.isWhitespace(header.charAt(nameStart))) {
+			nameStart++;
+		}
+		if (nameStart == header.length() && position == end) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		Notebook notebook = new Notebook(header.substring(nameStart).trim());
+		bodyStart = Math.min(position + lineBreak, end);
+		return notebook;
+	}
+
+	/**
+	 * Adds the TaskLists read from the file to the Notebook, and sets the current
+	 * task list to the ActiveTaskList.
+	 *
+	 * @param notebook  is the Notebook read from the first line.
+	 * @param taskLists is the valid TaskLists, or null if the file must be read by
+	 *                  NotebookParser instead.
+	 * @return is the Notebook, or null if taskLists is null.
+	 * @throws IllegalArgumentException if a TaskList name is used twice.
+	 */
+	private static Notebook addTaskLists(Notebook notebook, ArrayList<TaskList> taskLists) {
+		if (taskLists == null) {
+			return null;
+		}
+		// Add every TaskList in one sorted merge.
+		notebook.addTaskLists(taskLists);
+		notebook.setCurrentTaskList("Active Tasks"); // Sets current tasklist = ActiveTaskList.
+		return notebook;
+	}
+
+	/**
+	 * Reads the sections in a range of the file. Ranges larger than SPLIT_SIZE are
+	 * split at the first '#' after their middle, and the two halves are read in
+	 * parallel.
+	 */
+	private final class SectionTask extends RecursiveTask<ArrayList<TaskList>> {
+
+		/** ID used for serialization */
+		private static final long serialVersionUID = 1L;
+		/** Position the range starts at, just after a '#' or the first line */
+		private long from;
+		/** Position the range ends at, a '#' or the end of the file */
+		private long to;
+
+		/**
+		 * Constructs a SectionTask for a range of the file.
+		 *
+		 * @param from is the position the range starts at.
+		 * @param to   is the position the range ends at.
+		 */
+		SectionTask(long from, long to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		/**
+		 * Reads the range, splitting it if it is large.
+		 *
+		 * @return is the valid TaskLists in the range in file order, or null if the
+		 *         file must be read by NotebookParser instead.
+		 */
+		@Override
+		protected ArrayList<TaskList> compute() {
+			long split = -1;
+			if (to - from > SPLIT_SIZE) {
+				for (long position = from + (to - from) / 2; position < to && split == -1; position++) {
+					if (text.get(position) == '#') {
+						split = position;
+					}
+				}
+			}
+			if (split == -1) {
+				return new Section(false).parse(from, to);
+			}
+			SectionTask first = new SectionTask(from, split);
+			first.fork();
+			ArrayList<TaskList> second = new SectionTask(split + 1, to).compute();
+			ArrayList<TaskList> taskLists = first.join();
+			if (taskLists == null || second == null) {
+				return null;
+			}
+			taskLists.addAll(second);
+			return taskLists;
+		}
+	}
+
+	/**
+	 * Reads the section of the file that holds one TaskList record, when the
+	 * TaskList's Tasks are first needed.
+	 */
+	private final class SectionLoader implements TaskLoader {
+
+		/** Position of the TaskList record */
+		private long from;
+		/** Position after the TaskList record, a '#' or the end of the file */
+		private long to;
+		/** True if the first line of a Task record in the section is active */
+		private boolean active;
+
+		/**
+		 * Constructs a SectionLoader for a TaskList record.
+		 *
+		 * @param from   is the position of the record.
+		 * @param to     is the position after the record.
+		 * @param active is true if a Task record in it may be active.
+		 */
+		SectionLoader(long from, long to, boolean active) {
+			this.from = from;
+			this.to = to;
+			this.active = active;
+		}
+
+		/**
+		 * Reads the Tasks in the section, skipping invalid Task records.
+		 *
+		 * @return is the Tasks of the TaskList.
+		 * @throws IllegalStateException if the section can no longer be read.
+		 */
+		@Override
+		public List<Task> loadTasks() {
+			ArrayList<Task> tasks = new Section(false).parseTasks(from, to);
+			if (tasks == null) {
+				throw new IllegalStateException("Unable to load task list.");
+			}
+			return tasks;
+		}
+
+		/**
+		 * Tells if a Task record in the section is marked active.
+		 *
+		 * @return is the active field.
+		 */
+		@Override
+		public boolean hasActiveTasks() {
+			return active;
+		}
+	}
+
+	/**
+	 * State of the records being read in one range of the file. Each thread reads
+	 * its own ranges with its own Section.
+	 */
+	private final class Section {
+
+		/** True if TaskLists are given a SectionLoader instead of their Tasks */
+		private boolean deferred;
+		/** Tasks of the range when read for a SectionLoader, or null otherwise */
+		private ArrayList<Task> loaded;
+		/** Position of the TaskList record being read */
+		private long listStart;
+		/** Tasks of the TaskList record being read */
+		private ArrayList<Task> tasks;
+		/** True if a Task record of the TaskList record being read is active */
+		private boolean active;
+		/** SectionLoaders of the TaskLists read so far, when deferred */
+		private ArrayList<SectionLoader> loaders;
+
+		/** Current state of the parser */
+		private int state;
+		/** Position of the first byte of the line being read */
+		private long lineStart;
+		/** Position after the first line of the Task record being read */
+		private long nameLineEnd;
+		/** Position of the first byte of the description being read */
+		private long descriptionStart;
+		/** TaskList record being read, or null if it is invalid */
+		private TaskList taskList;
+		/** Valid TaskLists read so far */
+		private ArrayList<TaskList> taskLists;
+
+		/**
+		 * Constructs a Section that has not read any records.
+		 *
+		 * @param deferred is true to give each TaskList a SectionLoader instead of
+		 *                 creating its Tasks.
+		 */
+		Section(boolean deferred) {
+			this.deferred = deferred;
+			taskLists = new ArrayList<TaskList>();
+			tasks = new ArrayList<Task>();
+			loaders = new ArrayList<SectionLoader>();
+		}
+
+		/**
+		 * Reads the Tasks of the one TaskList record in a range of the file.
+		 *
+		 * @param from is the position of the record.
+		 * @param to   is the position after the record.
+		 * @return is the valid Tasks of the record, or null if the range cannot be
+		 *         read.
+		 */
+		ArrayList<Task> parseTasks(long from, long to) {
+			loaded = new ArrayList<Task>();
+			return parse(from, to) == null ? null : loaded;
+		}
+
+		/**
+		 * Reads the records in a range of the file that starts at the beginning of a
+		 * TaskList record and ends at a '#' or the end of the file.
+		 *
+		 * @param from is the position the range starts at.
+		 * @param to   is the position the range ends at.
+		 * @return is the valid TaskLists in the range, or null if the file must be
+		 *         read by NotebookParser instead.
+		 */
+		ArrayList<TaskList> parse(long from, long to) {
+			state = LIST_NAME;
+			lineStart = from;
+			listStart = from;
+			long position = from;
+			while (position < to) {
+				byte b = text.get(position);
+				if (b >= 0 && b != '\n' && b != '\r' && b != '#' && b != '*') {
+					position++;
+					continue;
+				}
+				int lineBreak = lineBreakLength(position);
+				if (lineBreak > 0) {
+					endLine(position, position + lineBreak);
+					position += lineBreak;
+				} else if (b == '#' || b == '*') {
+					marker(b, position);
+					position++;
+				} else {
+					int length = characterLength(position);
+					if (length == -1) {
+						return null;
+					}
+					position += length;
+				}
+			}
+
+			// The end of the range ends the last record.
+			if (state == LIST_NAME) {
+				taskList = NotebookParser.createTaskList(text.decode(lineStart, to));
+			} else if (state == TASK_NAME) {
+				endTask(lineStart, to, to, to);
+			} else {
+				endTask(lineStart, nameLineEnd, descriptionStart, to);
+			}
+			endTaskList(to);
+			return taskLists;
+		}
+
+		/**
+		 * Handles a line break at the end of a line.
+		 *
+		 * @param position is the position of the line break.
+		 * @param next     is the position after the line break.
+		 */
+		private void endLine(long position, long next) {
+			if (state == LIST_NAME) {
+				taskList = NotebookParser.createTaskList(text.decode(lineStart, position));
+				state = TASK_NAME;
+				lineStart = next;
+			} else if (state == TASK_NAME) {
+				nameLineEnd = position;
+				descriptionStart = next;
+				state = TASK_DESCRIPTION;
+			}
+		}
+
+		/**
+		 * Handles a '#' or '*'. A '#' ends the record being read and starts a TaskList
+		 * record, and a '*' ends a Task record and starts another. A '*' on the first
+		 * line of a TaskList record is part of the line.
+		 *
+		 * @param marker   is the character.
+		 * @param position is the position of the character.
+		 */
+		private void marker(byte marker, long position) {
+			if (state == LIST_NAME) {
+				if (marker == '#') {
+					taskList = NotebookParser.createTaskList(text.decode(lineStart, position));
+					endTaskList(position);
+					lineStart = position + 1;
+				}
+				return;
+			} else if (state == TASK_NAME) {
+				endTask(lineStart, position, position, position);
+			} else {
+				endTask(lineStart, nameLineEnd, descriptionStart, position);
+			}
+			if (marker == '#') {
+				endTaskList(position);
+			} else {
+				state = TASK_NAME;
+			}
+			lineStart = position + 1;
+		}
+
+		/**
+		 * Adds the TaskList record that just ended (if valid) with its Tasks, or with
+		 * a SectionLoader if the Section is deferred, and starts a new one.
+		 *
+		 * @param position is the position after the record.
+		 */
+		private void endTaskList(long position) {
+			if (taskList != null) {
+				if (deferred) {
+					SectionLoader loader = new SectionLoader(listStart, position, active);
+					taskList = new TaskList(taskList.getTaskListName(), taskList.getCompletedCount(), loader);
+					loaders.add(loader);
+				} else if (loaded != null) {
+					loaded.addAll(tasks);
+				} else {
+					for (Task task : tasks) {
+						taskList.addTask(task);
+					}
+				}
+				taskLists.add(taskList);
+				taskList = null;
+			}
+			tasks.clear();
+			active = false;
+			listStart = position + 1;
+			state = LIST_NAME;
+		}
+
+		/**
+		 * Creates a Task (a MappedTask if the parser is lazy) from the record that
+		 * just ended for the TaskList. If the Section is deferred, no Task is
+		 * created; only whether it is active is noted. The first line is split into
+		 * fields as NotebookParser.splitFields() splits it: the first field is the
+		 * name, any others must be recurring or active. Invalid Tasks, and Tasks of
+		 * an invalid TaskList, are skipped.
+		 *
+		 * @param nameStart        is the position of the first line of the record.
+		 * @param nameEnd          is the position after the first line.
+		 * @param descriptionStart is the position of the description.
+		 * @param descriptionEnd   is the position after the description.
+		 */
+		private void endTask(long nameStart, long nameEnd, long descriptionStart, long descriptionEnd) {
+			if (taskList == null) {
+				return;
+			}
+			long nameFrom = -1;
+			long nameTo = -1;
+			boolean recurring = false;
+			boolean active = false;
+			long fieldStart = nameStart;
+			for (long position = nameStart; position <= nameEnd; position++) {
+				if (position < nameEnd && text.get(position) != ',') {
+					continue;
+				}
+				boolean empty = position == fieldStart;
+				if (empty && (fieldStart == nameStart || position == nameEnd)) {
+					// An empty first or last field is dropped.
+				} else if (nameFrom == -1) {
+					nameFrom = fieldStart;
+					nameTo = position;
+				} else if (isFlag(fieldStart, position, "recurring")) {
+					recurring = true;
+				} else if (isFlag(fieldStart, position, "active")) {
+					active = true;
+				} else {
+					return; // invalid format.
+				}
+				fieldStart = position + 1;
+			}
+
+			// The name is trimmed. An empty name is invalid.
+			while (nameFrom < nameTo && isSpace(text.get(nameFrom))) {
+				nameFrom++;
+			}
+			while (nameFrom < nameTo && isSpace(text.get(nameTo - 1))) {
+				nameTo--;
+			}
+			if (nameFrom == nameTo) {
+				return;
+			}
+			if (deferred) {
+				this.active |= active;
+				return;
+			}
+			try {
+				if (lazy) {
+					tasks.add(new MappedTask(text, nameFrom, nameTo, descriptionStart, descriptionEnd, recurring,
+							active));
+				} else {
+					tasks.add(new Task(text.decode(nameFrom, nameTo),
+							text.decodeLines(descriptionStart, descriptionEnd).trim(), recurring, active));
+				}
+			} catch (IllegalArgumentException e) {
+				// Invalid Task, so it is skipped.
+			}
+		}
+	}
+
+	/**
+	 * Checks that a field equals a flag, ignoring case. ASCII fields are compared
+	 * byte by byte, others are decoded first.
+	 *
+	 * @param start is the position of the field.
+	 * @param end   is the position after the field.
+	 * @param flag  is the flag, in lower case.
+	 * @return is true if the field equals the flag.
+	 */
+	private boolean isFlag(long start, long end, String flag) {
+		if (end - start > MAX_FLAG_LENGTH) {
+			return false;
+		}
+		boolean ascii = true;
+		for (long position = start; position < end; position++) {
+			ascii &= text.get(position) >= 0;
+		}
+		if (!ascii) {
+			return flag.equalsIgnoreCase(text.decode(start, end));
+		}
+		if (end - start != flag.length()) {
+			return false;
+		}
+		for (int i = 0; i < flag.length(); i++) {
+			if ((text.get(start + i) | 0x20) != flag.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the end of the file once trailing whitespace is trimmed.
+	 *
+	 * @return is the position after the last character that is not whitespace.
+	 */
+	private long trimmedEnd() {
+		long end = text.length();
+		while (end > 0) {
+			byte b = text.get(end - 1);
+			if (isSpace(b) || latin1 && b == (byte) 0x85) {
+				end--;
+			} else if (utf8 && end >= 2 && b == (byte) 0x85 && text.get(end - 2) == (byte) 0xC2) {
+				end -= 2;
+			} else if (utf8 && end >= 3 && (b == (byte) 0xA8 || b == (byte) 0xA9) && text.get(end - 2) == (byte) 0x80
+					&& text.get(end - 3) == (byte) 0xE2) {
+				end -= 3;
+			} else {
+				break;
+			}
+		}
+		return end;
+	}
+
+	/**
+	 * Gets the length of the whitespace character (including each line break) at
+	 * a position.
+	 *
+	 * @param position is the position of the character.
+	 * @return is the length of the character in bytes, or 0 if it is not
+	 *         whitespace or the file has ended.
+	 */
+	private int spaceLength(long position) {
+		if (position >= end) {
+			return 0;
+		}
+		int lineBreak = lineBreakLength(position);
+		return lineBreak == 0 && isSpace(text.get(position)) ? 1 : lineBreak;
+	}
+
+	/**
+	 * Gets the length of the line break at a position: "\r\n", "\r", "\n", or the
+	 * Unicode line, paragraph and next line separators.
+	 *
+	 * @param position is the position of the line break.
+	 * @return is the length of the line break in bytes, or 0 if there is none.
+	 */
+	private int lineBreakLength(long position) {
+		long length = text.length();
+		if (position >= length) {
+			return 0;
+		}
+		byte b = text.get(position);
+		if (b == '\n') {
+			return 1;
+		} else if (b == '\r') {
+			return position + 1 < length && text.get(position + 1) == '\n' ? 2 : 1;
+		} else if (latin1 && b == (byte) 0x85) {
+			return 1;
+		} else if (utf8 && b == (byte) 0xC2 && position + 1 < length && text.get(position + 1) == (byte) 0x85) {
+			return 2;
+		} else if (utf8 && b == (byte) 0xE2 && position + 2 < length && text.get(position + 1) == (byte) 0x80) {
+			byte last = text.get(position + 2);
+			return last == (byte) 0xA8 || last == (byte) 0xA9 ? 3 : 0;
+		}
+		return 0;
+	}
+
+	/**
+	 * Gets the length of the character at a position, checking that its bytes can
+	 * be decoded.
+	 *
+	 * @param position is the position of the character.
+	 * @return is the length of the character in bytes, or -1 if it cannot be
+	 *         decoded.
+	 */
+	private int characterLength(long position) {
+		int b = text.get(position) & 0xFF;
+		if (b < 0x80 || latin1) {
+			return 1;
+		} else if (!utf8) {
+			return -1;
+		}
+
+		// Length from the first byte, and the range of the second byte that keeps
+		// the character in range and not a surrogate.
+		int length;
+		int min = 0x80;
+		int max = 0xBF;
+		if (b >= 0xC2 && b <= 0xDF) {
+			length = 2;
+		} else if (b == 0xE0) {
+			length = 3;
+			min = 0xA0;
+		} else if (b == 0xED) {
+			length = 3;
+			max = 0x9F;
+		} else if (b >= 0xE1 && b <= 0xEF) {
+			length = 3;
+		} else if (b == 0xF0) {
+			length = 4;
+			min = 0x90;
+		} else if (b >= 0xF1 && b <= 0xF3) {
+			length = 4;
+		} else if (b == 0xF4) {
+			length = 4;
+			max = 0x8F;
+		} else {
+			return -1;
+		}
+		if (position + length > end) {
+			return -1;
+		}
+		for (int i = 1; i < length; i++) {
+			int next = text.get(position + i) & 0xFF;
+			if (next < (i == 1 ? min : 0x80) || next > (i == 1 ? max : 0xBF)) {
+				return -1;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Checks that a byte is a character that String.trim() removes.
+	 *
+	 * @param b is the byte.
+	 * @return is true if the byte is a space or control character.
+	 */
+	private static boolean isSpace(byte b) {
+		return b >= 0 && b <= ' ';
+	}
+}
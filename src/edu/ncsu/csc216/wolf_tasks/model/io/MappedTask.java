@@ -0,0 +1,122 @@
+package edu.ncsu.csc216.wolf_tasks.model.io;
+
+import edu.ncsu.csc216.wolf_tasks.model.tasks.Task;
+
+/**
+ * Task read from a memory mapped notebook file. Its name and description are
+ * kept as ranges of the file and each is decoded the first time it is asked
+ * for. Setting a field replaces the range with the new value. Once both fields
+ * are decoded the Task no longer refers to the file.
+ *
+ * @author Michael Warstler
+ */
+final class MappedTask extends Task {
+
+	/** Mapped file the fields are read from, or null once both are decoded */
+	private MappedText text;
+	/** Position of the first byte of the name, or -1 once it is decoded */
+	private long nameStart;
+	/** Position after the last byte of the name */
+	private long nameEnd;
+	/** Position of the first byte of the description, or -1 once it is decoded */
+	private long descriptionStart;
+	/** Position after the last byte of the description */
+	private long descriptionEnd;
+
+	/**
+	 * Constructs a MappedTask from ranges of a mapped file. The name range must not
+	 * be empty or hold a line break, which the caller has already checked.
+	 *
+	 * @param text             is the mapped file.
+	 * @param nameStart        is the position of the first byte of the name.
+	 * @param nameEnd          is the position after the last byte of the name.
+	 * @param descriptionStart is the position of the first byte of the
+	 *                         description.
+	 * @param descriptionEnd   is the position after the last byte of the
+	 *                         description.
+	 * @param recurring        status for a Task.
+	 * @param active           status for a Task.
+	 */
+	MappedTask(MappedText text, long nameStart, long nameEnd, long descriptionStart, long descriptionEnd,
+			boolean recurring, boolean active) {
+		super(recurring, active);
+		this.text = text;
+		this.nameStart = nameStart;
+		this.nameEnd = nameEnd;
+		this.descriptionStart = descriptionStart;
+		this.descriptionEnd = descriptionEnd;
+	}
+
+	/**
+	 * Gets the name of the Task, decoding it on the first call.
+	 *
+	 * @return is the name of the Task.
+	 */
+	@Override
+	public String getTaskName() {
+		if (nameStart != -1) {
+			super.setTaskName(text.decode(nameStart, nameEnd).trim());
+			nameDecoded();
+		}
+		return super.getTaskName();
+	}
+
+	/**
+	 * Sets the name of the Task. The name in the file is no longer read.
+	 *
+	 * @param taskName is name of Task to set.
+	 * @throws IllegalArgumentException if parameter is null or empty.
+	 */
+	@Override
+	public void setTaskName(String taskName) {
+		super.setTaskName(taskName);
+		nameDecoded();
+	}
+
+	/**
+	 * Gets the Task's description, decoding it on the first call. Line breaks are
+	 * read as '\n' and the description is trimmed, as NotebookParser reads it.
+	 *
+	 * @return is the Task's description.
+	 */
+	@Override
+	public String getTaskDescription() {
+		if (descriptionStart != -1) {
+			super.setTaskDescrption(text.decodeLines(descriptionStart, descriptionEnd).trim());
+			descriptionDecoded();
+		}
+		return super.getTaskDescription();
+	}
+
+	/**
+	 * Sets the Task's description. The description in the file is no longer read.
+	 *
+	 * @param taskDescription are details of Task to set.
+	 * @throws IllegalArgumentException if parameter is null.
+	 */
+	@Override
+	public void setTaskDescrption(String taskDescription) {
+		super.setTaskDescrption(taskDescription);
+		descriptionDecoded();
+	}
+
+	/**
+	 * Marks the name as decoded, and lets go of the file if both fields are.
+	 */
+	private void nameDecoded() {
+		nameStart = -1;
+		if (descriptionStart == -1) {
+			text = null;
+		}
+	}
+
+	/**
+	 * Marks the description as decoded, and lets go of the file if both fields are.
+	 */
+	private void descriptionDecoded() {
+		descriptionStart = -1;
+		if (nameStart == -1) {
+			text = null;
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package edu.ncsu.csc216.wolf_tasks.model.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Read-only view of a notebook file mapped into memory. Files larger than one
+ * mapping can hold are mapped in chunks, and bytes are addressed by their long
+ * position in the file. Ranges of bytes are decoded into Strings only when they
+ * are asked for. The mapping stays open as long as a MappedText is reachable.
+ *
+ * @author Michael Warstler
+ */
+final class MappedText {
+
+	/** Number of bits in the position of a byte within its chunk */
+	private static final int CHUNK_BITS = 30;
+	/** Size in bytes of each mapped chunk */
+	private static final long CHUNK_SIZE = 1L << CHUNK_BITS;
+	/** Mask of the position of a byte within its chunk */
+	private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+	/** Mapped chunks of the file, in order */
+	private MappedByteBuffer[] chunks;
+	/** Length of the file in bytes */
+	private long length;
+	/** Charset the file is decoded with */
+	private Charset charset;
+
+	/**
+	 * Maps the whole of an open file.
+	 *
+	 * @param channel is the open file.
+	 * @param charset is the charset the file is decoded with.
+	 * @throws IOException if the file cannot be mapped.
+	 */
+	MappedText(FileChannel channel, Charset charset) throws IOException {
+		this.charset = charset;
+		length = channel.size();
+		chunks = new MappedByteBuffer[(int) ((length + CHUNK_MASK) >>> CHUNK_BITS)];
+		for (int i = 0; i < chunks.length; i++) {
+			long start = (long) i << CHUNK_BITS;
+			chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(CHUNK_SIZE, length - start));
+		}
+	}
+
+	/**
+	 * Gets the length of the file.
+	 *
+	 * @return is the length of the file in bytes.
+	 */
+	long length() {
+		return length;
+	}
+
+	/**
+	 * Gets the charset the file is decoded with.
+	 *
+	 * @return is the charset field.
+	 */
+	Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * Gets the byte at a position in the file.
+	 *
+	 * @param position is the position of the byte.
+	 * @return is the byte.
+	 */
+	byte get(long position) {
+		return chunks[(int) (position >>> CHUNK_BITS)].get((int) (position & CHUNK_MASK));
+	}
+
+	/**
+	 * Decodes a range of the file into a String.
+	 *
+	 * @param start is the position of the first byte.
+	 * @param end   is the position after the last byte.
+	 * @return is the decoded String.
+	 * @throws IllegalArgumentException if the range is too long for one String.
+	 */
+	String decode(long start, long end) {
+		if (end - start > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		byte[] bytes = new byte[(int) (end - start)];
+		int offset = 0;
+		long position = start;
+		while (position < end) {
+			// Copy from one chunk at a time.
+			ByteBuffer chunk = chunks[(int) (position >>> CHUNK_BITS)].duplicate();
+			int from = (int) (position & CHUNK_MASK);
+			int count = (int) Math.min(end - position, CHUNK_SIZE - from);
+			chunk.position(from);
+			chunk.get(bytes, offset, count);
+			offset += count;
+			position += count;
+		}
+		return new String(bytes, charset);
+	}
+
+	/**
+	 * Decodes a range of the file into a String, replacing each line break
+	 * ("\r\n", "\r", and the Unicode line, paragraph and next line separators)
+	 * with '\n' as NotebookParser reads them.
+	 *
+	 * @param start is the position of the first byte.
+	 * @param end   is the position after the last byte.
+	 * @return is the decoded String with its line breaks normalized.
+	 * @throws IllegalArgumentException if the range is too long for one String.
+	 */
+	String decodeLines(long start, long end) {
+		String decoded = decode(start, end);
+		StringBuilder normalized = null;
+		for (int i = 0; i < decoded.length(); i++) {
+			char c = decoded.charAt(i);
+			boolean lineBreak = c == '\r' || c == '\u2028' || c == '\u2029' || c == '\u0085';
+			if (lineBreak && normalized == null) {
+				normalized = new StringBuilder(decoded.length());
+				normalized.append(decoded, 0, i);
+			}
+			if (normalized != null) {
+				if (c == '\r' && i + 1 < decoded.length() && decoded.charAt(i + 1) == '\n') {
+					continue; // first half of "\r\n".
+				}
+				normalized.append(lineBreak ? '\n' : c);
+			}
+		}
+		return normalized == null ? decoded : normalized.toString();
+	}
+}
@@ -0,0 +1,332 @@
+package edu.ncsu.csc216.wolf_tasks.model.io;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import edu.ncsu.csc216.wolf_tasks.model.notebook.Notebook;
+
+/**
+ * Saves a Notebook to its file in the background once edits to it pause.
+ *
+ * A dedicated scheduler thread polls the Notebook's isChanged() and
+ * getChangeCount(), which it can read without locking. Once the Notebook is
+ * changed and its change count has stopped growing for the delay (or has kept
+ * growing for MAX_DELAY_FACTOR delays), a save starts: a NotebookSnapshot is
+ * taken on the thread that edits the Notebook (the event dispatch thread in
+ * the GUI), written to the file on the scheduler thread, and reported back
+ * with Notebook.snapshotSaved() on the editing thread. Edits never wait for
+ * the file to be written.
+ *
+ * At most one save is in flight. Edits made while a save is in flight are not
+ * in its snapshot, so they leave the Notebook changed and lead to exactly one
+ * follow-up save, debounced like any other. A failed save is retried after the
+ * delay.
+ *
+ * The autosaver counts its saves and the saves it skipped by coalescing: the
+ * changes a save covered beyond the first, each of which would have been a
+ * save of its own had every change been saved. It also reports how long its
+ * saves took, from taking the snapshot to reporting it saved.
+ *
+ * @author Michael Warstler
+ */
+public class NotebookAutosaver {
+
+	/** Default time in milliseconds that edits must pause for before a save */
+	public static final long DEFAULT_DELAY = 2000;
+	/** Number of delays after the first unsaved change that a save waits at most */
+	public static final int MAX_DELAY_FACTOR = 10;
+
+	/** Number of times the Notebook is polled per delay */
+	private static final int POLLS_PER_DELAY = 4;
+	/** Time of the first unsaved change when none has been seen */
+	private static final long NONE = Long.MIN_VALUE;
+
+	/** Notebook that is saved */
+	private final Notebook notebook;
+	/** File the Notebook is saved to */
+	private final File file;
+	/** Format the file is saved in */
+	private final NotebookFormat format;
+	/** Runs tasks on the thread that edits the Notebook */
+	private final Executor notebookThread;
+	/** Time in nanoseconds that edits must pause for before a save */
+	private final long delay;
+	/** Thread that polls the Notebook and writes the file */
+	private final ScheduledExecutorService scheduler;
+	/** Whether start() has been called */
+	private boolean started;
+
+	/** Change count the last successful save covered; scheduler thread only */
+	private long savedCount;
+	/** Change count seen by the last poll; scheduler thread only */
+	private long seenCount;
+	/** Time the first unsaved change was seen, or NONE; scheduler thread only */
+	private long firstChange;
+	/** Time the change count was last seen to grow; scheduler thread only */
+	private long lastChange;
+	/** Whether a save is in flight */
+	private volatile boolean saving;
+	/** Change count when the snapshot of the save in flight was taken */
+	private long snapshotCount;
+
+	/** Number of saves that succeeded */
+	private volatile int saveCount;
+	/** Number of saves that failed */
+	private volatile int failureCount;
+	/** Number of saves skipped by coalescing changes into one save */
+	private volatile long skippedCount;
+	/** Time in nanoseconds the last successful save took */
+	private volatile long lastLatency;
+	/** Longest time in nanoseconds a successful save took */
+	private volatile long maxLatency;
+	/** Total time in nanoseconds of the successful saves */
+	private volatile long totalLatency;
+	/** Failure of the last save, or null if it succeeded */
+	private volatile Throwable lastFailure;
+
+	/**
+	 * Constructs a NotebookAutosaver with the default delay.
+	 *
+	 * @param notebook       is the Notebook to save.
+	 * @param file           is the file to save it to, in the NotebookFormat its
+	 *                       extension names.
+	 * @param notebookThread runs tasks on the thread that edits the Notebook, such
+	 *                       as EventQueue::invokeLater.
+	 * @throws IllegalArgumentException if any parameter is null.
+	 */
+	public NotebookAutosaver(Notebook notebook, File file, Executor notebookThread) {
+		this(notebook, file, notebookThread, DEFAULT_DELAY);
+	}
+
+	/**
+	 * Constructs a NotebookAutosaver. It does not save until start() is called.
+	 *
+	 * @param notebook       is the Notebook to save.
+	 * @param file           is the file to save it to, in the NotebookFormat its
+	 *                       extension names.
+	 * @param notebookThread runs tasks on the thread that edits the Notebook, such
+	 *                       as EventQueue::invokeLater.
+	 * @param delay          is the time in milliseconds that edits must pause for
+	 *                       before a save.
+	 * @throws IllegalArgumentException if any parameter is null, or the delay is
+	 *                                  not positive.
+	 */
+	public NotebookAutosaver(Notebook notebook, File file, Executor notebookThread, long delay) {
+		if (notebook == null) {
+			throw new IllegalArgumentException("Invalid notebook.");
+		}
+		if (file == null) {
+			throw new IllegalArgumentException("Invalid file.");
+		}
+		if (notebookThread == null) {
+			throw new IllegalArgumentException("Invalid executor.");
+		}
+		if (delay <= 0) {
+			throw new IllegalArgumentException("Invalid delay.");
+		}
+		this.notebook = notebook;
+		this.file = file;
+		this.format = NotebookFormat.forFile(file);
+		this.notebookThread = notebookThread;
+		this.delay = TimeUnit.MILLISECONDS.toNanos(delay);
+		scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "NotebookAutosaver " + file.getName());
+			thread.setDaemon(true);
+			return thread;
+		});
+		long count = notebook.getChangeCount();
+		savedCount = notebook.isChanged() ? count - 1 : count;
+		seenCount = count;
+		firstChange = NONE;
+	}
+
+	/**
+	 * Starts polling the Notebook for changes to save.
+	 *
+	 * @throws IllegalStateException if the autosaver was already started or has
+	 *                               been closed.
+	 */
+	public synchronized void start() {
+		if (started || scheduler.isShutdown()) {
+			throw new IllegalStateException("Autosaver already started.");
+		}
+		started = true;
+		long interval = Math.max(1, delay / POLLS_PER_DELAY);
+		scheduler.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Stops the autosaver. No save starts after this returns. A save whose file is
+	 * being written finishes, but is not waited for, so this can be called on the
+	 * thread that edits the Notebook.
+	 */
+	public void close() {
+		scheduler.shutdown();
+	}
+
+	/**
+	 * Gets the file the Notebook is saved to.
+	 *
+	 * @return is the file field.
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Tells if a save is in flight.
+	 *
+	 * @return is the saving field.
+	 */
+	public boolean isSaving() {
+		return saving;
+	}
+
+	/**
+	 * Gets the number of saves that succeeded.
+	 *
+	 * @return is the saveCount field.
+	 */
+	public int getSaveCount() {
+		return saveCount;
+	}
+
+	/**
+	 * Gets the number of saves that failed.
+	 *
+	 * @return is the failureCount field.
+	 */
+	public int getFailureCount() {
+		return failureCount;
+	}
+
+	/**
+	 * Gets the number of saves skipped because their changes were coalesced into
+	 * another save.
+	 *
+	 * @return is the skippedCount field.
+	 */
+	public long getSkippedCount() {
+		return skippedCount;
+	}
+
+	/**
+	 * Gets the time the last successful save took.
+	 *
+	 * @return is the time in nanoseconds, or 0 if no save has succeeded.
+	 */
+	public long getLastLatency() {
+		return lastLatency;
+	}
+
+	/**
+	 * Gets the longest time a successful save took.
+	 *
+	 * @return is the time in nanoseconds, or 0 if no save has succeeded.
+	 */
+	public long getMaxLatency() {
+		return maxLatency;
+	}
+
+	/**
+	 * Gets the average time a successful save took.
+	 *
+	 * @return is the time in nanoseconds, or 0 if no save has succeeded.
+	 */
+	public long getAverageLatency() {
+		int saves = saveCount;
+		return saves == 0 ? 0 : totalLatency / saves;
+	}
+
+	/**
+	 * Gets the failure of the last save.
+	 *
+	 * @return is the exception, or null if the last save succeeded.
+	 */
+	public Throwable getLastFailure() {
+		return lastFailure;
+	}
+
+	/**
+	 * Checks the Notebook for changes and starts a save once they have paused for
+	 * the delay. Runs on the scheduler thread, and must not throw, or no later
+	 * poll would run.
+	 */
+	private void poll() {
+		if (saving) {
+			return;
+		}
+		long now = System.nanoTime();
+		long count = notebook.getChangeCount();
+		if (!notebook.isChanged()) {
+			savedCount = count; // saved by someone else.
+			seenCount = count;
+			firstChange = NONE;
+			return;
+		}
+		if (firstChange == NONE) {
+			firstChange = now;
+			lastChange = now;
+		} else if (count != seenCount) {
+			lastChange = now;
+		}
+		seenCount = count;
+		if (now - lastChange >= delay || now - firstChange >= MAX_DELAY_FACTOR * delay) {
+			save(now);
+		}
+	}
+
+	/**
+	 * Starts a save: the snapshot is taken and reported saved on the Notebook's
+	 * thread, and written here.
+	 *
+	 * @param start is the time the save started.
+	 */
+	private void save(long start) {
+		saving = true;
+		try {
+			CompletableFuture.supplyAsync(() -> {
+				snapshotCount = notebook.getChangeCount();
+				return notebook.snapshot(format);
+			}, notebookThread).thenApplyAsync(snapshot -> {
+				snapshot.save(file);
+				return snapshot;
+			}, scheduler).thenAcceptAsync(snapshot -> notebook.snapshotSaved(snapshot, file), notebookThread)
+					.whenCompleteAsync((result, failure) -> saved(start, failure), scheduler);
+		} catch (RuntimeException e) {
+			saved(start, e); // the Notebook's thread would not take the task.
+		}
+	}
+
+	/**
+	 * Records the end of a save. Runs on the scheduler thread.
+	 *
+	 * @param start   is the time the save started.
+	 * @param failure is why the save failed, or null if it succeeded.
+	 */
+	private void saved(long start, Throwable failure) {
+		long now = System.nanoTime();
+		if (failure == null) {
+			long latency = now - start;
+			skippedCount += Math.max(0, snapshotCount - savedCount - 1);
+			savedCount = snapshotCount;
+			lastLatency = latency;
+			maxLatency = Math.max(maxLatency, latency);
+			totalLatency += latency;
+			saveCount++;
+			firstChange = NONE; // later changes start a new debounce.
+		} else {
+			failureCount++;
+			firstChange = now; // retried after the delay.
+			lastChange = now;
+		}
+		lastFailure = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause()
+				: failure;
+		saving = false;
+	}
+}
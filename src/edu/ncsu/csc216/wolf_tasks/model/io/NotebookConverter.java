@@ -0,0 +1,48 @@
+package edu.ncsu.csc216.wolf_tasks.model.io;
+
+import java.io.File;
+
+import edu.ncsu.csc216.wolf_tasks.model.notebook.Notebook;
+
+/**
+ * Converts notebook files between the TEXT and BINARY NotebookFormats. A text
+ * file is read as NotebookReader.readNotebookFile() reads it, so its invalid
+ * records are dropped from the binary file.
+ *
+ * @author Michael Warstler
+ */
+public class NotebookConverter {
+
+	/**
+	 * Private constructor; NotebookConverter only has static methods.
+	 */
+	private NotebookConverter() {
+		// Not instantiated.
+	}
+
+	/**
+	 * Converts a notebook file in the TEXT format to the BINARY format.
+	 *
+	 * @param textFile   is the file to read.
+	 * @param binaryFile is the file to write.
+	 * @throws IllegalArgumentException if the text file cannot be loaded or the
+	 *                                  binary file cannot be saved.
+	 */
+	public static void textToBinary(File textFile, File binaryFile) {
+		Notebook notebook = NotebookReader.readNotebookFile(textFile);
+		notebook.saveNotebook(binaryFile, NotebookFormat.BINARY);
+	}
+
+	/**
+	 * Converts a notebook file in the BINARY format to the TEXT format.
+	 *
+	 * @param binaryFile is the file to read.
+	 * @param textFile   is the file to write.
+	 * @throws IllegalArgumentException if the binary file cannot be loaded or the
+	 *                                  text file cannot be saved.
+	 */
+	public static void binaryToText(File binaryFile, File textFile) {
+		Notebook notebook = NotebookReader.readBinaryNotebookFile(binaryFile);
+		notebook.saveNotebook(textFile, NotebookFormat.TEXT);
+	}
+}
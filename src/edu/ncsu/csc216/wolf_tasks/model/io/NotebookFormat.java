@@ -0,0 +1,65 @@
+package edu.ncsu.csc216.wolf_tasks.model.io;
+
+import java.io.File;
+
+/**
+ * Formats a Notebook can be saved in. TEXT is the "! # *" format read by
+ * NotebookReader.readNotebookFile(). BINARY is a compact format that is read
+ * without parsing text, with a table of TaskLists and the offsets of their
+ * Tasks:
+ *
+ * <pre>
+ * header:  "WTNB", version byte, 8 byte offset of the table, notebook name
+ * tasks:   for each TaskList, for each Task: flags byte, name, description
+ * table:   TaskList count, then for each TaskList: name, completed count,
+ *          Task count, active Task count, offset of its first Task, byte
+ *          length of its Tasks
+ * </pre>
+ *
+ * The table is an index: a Notebook can be opened from the header and table
+ * alone, and each TaskList's Tasks read later from its offset. Version 1 files
+ * have no active Task count or byte length in the table; they are still read.
+ *
+ * Strings are a varint byte length followed by UTF-8 bytes. Counts and offsets
+ * are unsigned varints, 7 bits to a byte with the high bit set on every byte
+ * but the last.
+ *
+ * @author Michael Warstler
+ */
+public enum NotebookFormat {
+	/** The "! # *" text format */
+	TEXT,
+	/** The binary format */
+	BINARY;
+
+	/** File extension of a Notebook saved in the binary format */
+	public static final String BINARY_EXTENSION = ".wtnb";
+
+	/** First bytes of a file in the binary format */
+	static final byte[] MAGIC = { 'W', 'T', 'N', 'B' };
+	/** Version of the binary format */
+	static final byte VERSION = 2;
+	/** Version of the binary format without active counts or lengths */
+	static final byte UNINDEXED_VERSION = 1;
+	/** Position of the table offset in the binary format */
+	static final int TABLE_OFFSET_POSITION = 5;
+	/** Flag bit of a recurring Task */
+	static final int RECURRING = 1;
+	/** Flag bit of an active Task */
+	static final int ACTIVE = 2;
+
+	/**
+	 * Picks the format of a file by its extension. Files ending in ".wtnb" (in any
+	 * case) are BINARY, others are TEXT.
+	 *
+	 * @param file is the file.
+	 * @return is the format of the file.
+	 */
+	public static NotebookFormat forFile(File file) {
+		String name = file.getName();
+		int length = BINARY_EXTENSION.length();
+		boolean binary = name.length() >= length
+				&& name.regionMatches(true, name.length() - length, BINARY_EXTENSION, 0, length);
+		return binary ? BINARY : TEXT;
+	}
+}
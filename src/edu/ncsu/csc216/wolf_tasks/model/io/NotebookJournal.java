@@ -0,0 +1,1285 @@
+package edu.ncsu.csc216.wolf_tasks.model.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import edu.ncsu.csc216.wolf_tasks.model.notebook.Notebook;
+import edu.ncsu.csc216.wolf_tasks.model.notebook.NotebookObserver;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.ActiveTaskList;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.Task;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.TaskList;
+
+/**
+ * Write-ahead journal of the changes made to a Notebook since it was last saved
+ * to its file (the checkpoint). The journal observes the Notebook and appends
+ * a compact record of each change to "&lt;file&gt;.journal", so an edit is
+ * durable without saving the whole Notebook:
+ *
+ * <pre>
+ * header:  "WTNJ", version byte, 8 byte length and 8 byte modification time of the checkpoint
+ * records: varint payload length, payload, 4 byte CRC32 of the payload
+ * payload: operation byte, then its arguments (TaskList name, index, Task ...)
+ * </pre>
+ *
+ * Strings, counts and Tasks are encoded as in the binary NotebookFormat.
+ *
+ * Records are written by a committer thread. Records appended while a write is
+ * in flight are written together by the next one, with one force for the whole
+ * group, so the Notebook never waits for the disk; sync() waits until every
+ * record appended so far is on disk.
+ *
+ * Saving the Notebook to its file is a checkpoint: the journal is replaced,
+ * atomically, by an empty one naming the new file. A snapshot saved to the file
+ * in the background (Notebook.snapshot()) is a checkpoint too, but the Notebook
+ * may have changed while it was written: the journal is rebased on it, replaced
+ * by one naming the new file and holding only the records appended since the
+ * snapshot was taken. Every snapshot is followed until its save is over, so
+ * saves of snapshots may overlap and land in any order. Once the journal grows
+ * past its checkpoint size, the change that crossed it takes a snapshot, which
+ * a checkpointer thread saves and rebases the journal on, so the Notebook never
+ * waits for a checkpoint either. Which save last wrote the file
+ * is told by the Notebook's NotebookWriter, so the file is never read to find
+ * out. open() reads the file and replays the journal through the same Notebook
+ * methods. Replay stops at the first record that is torn or fails its CRC,
+ * which is cut off. A journal whose header does not match the file's length and
+ * modification time, as the writer checks its section file, is stale (the file
+ * was saved after the journal was written), and is discarded.
+ *
+ * @author Michael Warstler
+ */
+public class NotebookJournal implements NotebookObserver {
+
+	/** Suffix added to the name of the Notebook's file to name its journal */
+	public static final String EXTENSION = ".journal";
+	/** Default size in bytes past which a checkpoint is taken */
+	public static final long DEFAULT_CHECKPOINT_SIZE = 1024 * 1024;
+
+	/** First bytes of a journal */
+	private static final byte[] MAGIC = { 'W', 'T', 'N', 'J' };
+	/** Version of the journal format */
+	private static final byte VERSION = 2;
+	/** Size of the header in bytes */
+	private static final int HEADER_SIZE = MAGIC.length + 1 + Long.BYTES + Long.BYTES;
+	/** Size in bytes of the buffers records are encoded into */
+	private static final int BUFFER_SIZE = 8 * 1024;
+
+	/** Operation that adds a TaskList with its Tasks */
+	private static final byte ADD_TASK_LIST = 1;
+	/** Operation that renames a TaskList */
+	private static final byte EDIT_TASK_LIST = 2;
+	/** Operation that removes a TaskList */
+	private static final byte REMOVE_TASK_LIST = 3;
+	/** Operation that adds a Task */
+	private static final byte ADD_TASK = 4;
+	/** Operation that edits a Task */
+	private static final byte EDIT_TASK = 5;
+	/** Operation that removes a Task */
+	private static final byte REMOVE_TASK = 6;
+	/** Operation that completes a Task */
+	private static final byte COMPLETE_TASK = 7;
+	/** Operation that moves a Task */
+	private static final byte MOVE_TASK = 8;
+
+	/** The Notebook that is journaled */
+	private final Notebook notebook;
+	/** The Notebook's file, which holds the checkpoint */
+	private final File notebookFile;
+	/** The journal file */
+	private final File journalFile;
+	/** Size in bytes past which a checkpoint is taken */
+	private long checkpointSize;
+	/** Size in bytes of the journal, including records not yet written */
+	private long journalSize;
+	/** Buffer the record being appended is encoded into */
+	private ByteBuffer record;
+
+	/** Lock guarding the fields below, shared with the committer thread */
+	private final Object lock = new Object();
+	/** Channel the records are written to */
+	private FileChannel channel;
+	/** Records appended and not yet taken by the committer */
+	private ByteBuffer pending;
+	/** Empty buffer swapped with pending by the committer */
+	private ByteBuffer spare;
+	/** Number of records appended */
+	private long appended;
+	/** Number of appended records that are on disk, or were checkpointed */
+	private long committed;
+	/** Number of writes (each with a force) done by the committer */
+	private long commitCount;
+	/** True while the committer is writing a group */
+	private boolean writing;
+	/** True once the journal is closed */
+	private boolean closed;
+	/** First error writing the journal, or null */
+	private IOException failure;
+	/** The committer thread */
+	private Thread committer;
+	/** The writer's record of the save the journal's header names, or null */
+	private NotebookWriter.SectionFile checkpoint;
+	/**
+	 * Snapshots followed until their saves are over, each with the position in the
+	 * record stream (every record appended, in order) where it was taken
+	 */
+	private final IdentityHashMap<NotebookSnapshot, Long> snapshots = new IdentityHashMap<NotebookSnapshot, Long>();
+	/** Position in the record stream of the first record in the journal */
+	private long recordBase;
+	/** Records before recordBase that a followed snapshot does not hold */
+	private ByteArrayOutputStream keptRecords = new ByteArrayOutputStream();
+	/** Position in the record stream of the first of the keptRecords */
+	private long keptBase;
+	/** Thread that saves the snapshots of automatic checkpoints */
+	private ExecutorService checkpointer;
+	/** True while an automatic checkpoint is in flight */
+	private boolean checkpointing;
+	/** True if the next change must start an automatic checkpoint */
+	private boolean checkpointDue;
+
+	/**
+	 * Constructs a NotebookJournal for the Notebook saved in the given file. The
+	 * journal is not opened.
+	 *
+	 * @param notebook     is the Notebook.
+	 * @param notebookFile is the Notebook's file.
+	 */
+	private NotebookJournal(Notebook notebook, File notebookFile) {
+		this.notebook = notebook;
+		this.notebookFile = notebookFile.getAbsoluteFile();
+		this.journalFile = new File(this.notebookFile.getParentFile(), this.notebookFile.getName() + EXTENSION);
+		checkpointSize = DEFAULT_CHECKPOINT_SIZE;
+		record = ByteBuffer.allocate(BUFFER_SIZE);
+		pending = ByteBuffer.allocate(BUFFER_SIZE);
+		spare = ByteBuffer.allocate(BUFFER_SIZE);
+	}
+
+	/**
+	 * Opens a Notebook saved in the given file (in either NotebookFormat) along
+	 * with its journal. The changes in the journal are replayed, and later changes
+	 * to the Notebook are journaled. If there is no journal, or it is stale, a new
+	 * one is started. The current TaskList of the Notebook is the Active Tasks
+	 * list.
+	 *
+	 * @param notebookFile is the Notebook's file.
+	 * @return is the journal; its Notebook is given by getNotebook().
+	 * @throws IllegalArgumentException if the file cannot be read or the journal
+	 *                                  cannot be opened.
+	 */
+	public static NotebookJournal open(File notebookFile) {
+		Notebook notebook = NotebookReader.readNotebookFileByExtension(notebookFile);
+		NotebookJournal journal = new NotebookJournal(notebook, notebookFile);
+		try {
+			long end = journal.replay();
+			if (end < 0) {
+				journal.reset();
+			} else {
+				journal.openChannel(end);
+			}
+		} catch (IOException | InvalidPathException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		notebook.setCurrentTaskList(ActiveTaskList.ACTIVE_TASKS_NAME);
+		journal.start();
+		return journal;
+	}
+
+	/**
+	 * Saves a Notebook to the given file as its first checkpoint and starts a
+	 * journal for it. Later changes to the Notebook are journaled.
+	 *
+	 * @param notebook     is the Notebook.
+	 * @param notebookFile is the file to save it to.
+	 * @return is the journal.
+	 * @throws IllegalArgumentException if the Notebook cannot be saved or the
+	 *                                  journal cannot be opened.
+	 */
+	public static NotebookJournal create(Notebook notebook, File notebookFile) {
+		NotebookJournal journal = new NotebookJournal(notebook, notebookFile);
+		notebook.saveNotebook(journal.notebookFile);
+		try {
+			journal.reset();
+		} catch (IOException | InvalidPathException e) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+		journal.start();
+		return journal;
+	}
+
+	/**
+	 * Gets the Notebook that is journaled.
+	 *
+	 * @return is the notebook field.
+	 */
+	public Notebook getNotebook() {
+		return notebook;
+	}
+
+	/**
+	 * Gets the journal file.
+	 *
+	 * @return is the journalFile field.
+	 */
+	public File getJournalFile() {
+		return journalFile;
+	}
+
+	/**
+	 * Sets the size in bytes past which a checkpoint is taken after a change.
+	 *
+	 * @param checkpointSize is the size in bytes.
+	 * @throws IllegalArgumentException if checkpointSize is less than 1.
+	 */
+	public void setCheckpointSize(long checkpointSize) {
+		if (checkpointSize < 1) {
+			throw new IllegalArgumentException("Invalid checkpoint size.");
+		}
+		this.checkpointSize = checkpointSize;
+	}
+
+	/**
+	 * Gets the number of writes the committer has made. Each write holds every
+	 * record appended while the one before it was in flight.
+	 *
+	 * @return is the number of writes.
+	 */
+	public long getCommitCount() {
+		synchronized (lock) {
+			return commitCount;
+		}
+	}
+
+	/**
+	 * Saves the Notebook to its file and starts an empty journal.
+	 *
+	 * @throws IllegalArgumentException if the Notebook or the journal cannot be
+	 *                                  saved.
+	 */
+	public void checkpoint() {
+		notebook.saveNotebook(notebookFile);
+		sync();
+	}
+
+	/**
+	 * Waits until every record appended so far is on disk, and any automatic
+	 * checkpoint in flight is done.
+	 *
+	 * @throws IllegalArgumentException if the journal cannot be written.
+	 */
+	public void sync() {
+		synchronized (lock) {
+			long target = appended;
+			try {
+				while ((committed < target || checkpointing) && failure == null) {
+					lock.wait();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (failure != null || committed < target) {
+				throw new IllegalArgumentException("Unable to save file.");
+			}
+		}
+	}
+
+	/**
+	 * Writes every appended record, stops journaling the Notebook, and closes the
+	 * journal file once any automatic checkpoint in flight is done. The journal is
+	 * kept, so the changes are replayed by open().
+	 *
+	 * @throws IllegalArgumentException if the journal cannot be written.
+	 */
+	public void close() {
+		if (notebook.getObserver() == this) {
+			notebook.setObserver(null);
+		}
+		checkpointer.shutdown();
+		try {
+			checkpointer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		synchronized (lock) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			lock.notifyAll();
+		}
+		try {
+			committer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		boolean failed;
+		synchronized (lock) {
+			failed = failure != null || committed < appended;
+			try {
+				channel.close();
+			} catch (IOException e) {
+				failed = true;
+			}
+		}
+		if (failed) {
+			throw new IllegalArgumentException("Unable to save file.");
+		}
+	}
+
+	/**
+	 * Starts the committer thread and journals later changes to the Notebook.
+	 */
+	private void start() {
+		committer = new Thread(this::commitRecords, "NotebookJournal " + notebookFile.getName());
+		committer.setDaemon(true);
+		committer.start();
+		checkpointer = Executors.newSingleThreadExecutor(task -> {
+			Thread thread = new Thread(task, "NotebookJournal checkpoint " + notebookFile.getName());
+			thread.setDaemon(true);
+			return thread;
+		});
+		notebook.setObserver(this);
+	}
+
+	/**
+	 * Body of the committer thread. Takes all pending records at once and writes
+	 * and forces them, until the journal is closed and nothing is pending.
+	 */
+	private void commitRecords() {
+		while (true) {
+			ByteBuffer group;
+			FileChannel output;
+			long target;
+			synchronized (lock) {
+				try {
+					while (pending.position() == 0 && !closed) {
+						lock.wait();
+					}
+				} catch (InterruptedException e) {
+					return;
+				}
+				if (pending.position() == 0) {
+					return;
+				}
+				group = pending;
+				pending = spare;
+				spare = null;
+				output = channel;
+				target = appended;
+				writing = true;
+			}
+			IOException error = null;
+			try {
+				group.flip();
+				while (group.hasRemaining()) {
+					output.write(group);
+				}
+				output.force(false);
+			} catch (IOException e) {
+				error = e;
+			}
+			group.clear();
+			synchronized (lock) {
+				spare = group;
+				writing = false;
+				commitCount++;
+				if (error != null && failure == null) {
+					failure = error;
+				} else if (error == null) {
+					committed = Math.max(committed, target);
+				}
+				lock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Appends the record encoded in the record buffer, then starts an automatic
+	 * checkpoint if the journal has grown past its checkpoint size.
+	 */
+	private void append() {
+		record.flip();
+		CRC32 crc = new CRC32();
+		crc.update(record.array(), 0, record.limit());
+		int length = record.limit();
+		int size = varintSize(length) + length + Integer.BYTES;
+		boolean due;
+		synchronized (lock) {
+			if (closed) {
+				return;
+			}
+			pending = ensure(pending, size);
+			putVarint(pending, length);
+			pending.put(record.array(), 0, length);
+			pending.putInt((int) crc.getValue());
+			appended++;
+			journalSize += size;
+			lock.notifyAll();
+			due = !checkpointing && (journalSize >= checkpointSize || checkpointDue);
+		}
+		if (due) {
+			startCheckpoint();
+		}
+	}
+
+	/**
+	 * Starts an automatic checkpoint: a snapshot of the Notebook is taken here, on
+	 * the thread that changes it, and handed to the checkpointer thread to save
+	 * and rebase the journal on. Does nothing if one is already in flight.
+	 */
+	private void startCheckpoint() {
+		synchronized (lock) {
+			if (checkpointing || closed) {
+				return;
+			}
+			checkpointing = true;
+			checkpointDue = false;
+		}
+		try {
+			NotebookSnapshot snapshot = notebook.snapshot(NotebookFormat.forFile(notebookFile));
+			checkpointer.execute(() -> saveCheckpoint(snapshot));
+		} catch (IllegalArgumentException | RejectedExecutionException e) {
+			// A TaskList could not load its Tasks, or the journal is closing. The
+			// journal still holds every change; the next change tries again.
+			synchronized (lock) {
+				checkpointing = false;
+				lock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Saves the snapshot of an automatic checkpoint to the Notebook's file and
+	 * rebases the journal on it, as snapshotSaved() would. Runs on the checkpointer
+	 * thread. The Notebook's isChanged is left as it is, as only the thread that
+	 * changes the Notebook may set it. A failed save leaves the records in the
+	 * journal.
+	 *
+	 * @param snapshot is the snapshot to save.
+	 */
+	private void saveCheckpoint(NotebookSnapshot snapshot) {
+		try {
+			snapshot.save(notebookFile);
+			synchronized (lock) {
+				awaitIdle();
+				// If another save replaced the file, the next change tries again.
+				checkpointDue = !follow();
+			}
+		} catch (IOException e) {
+			fail(e);
+		} catch (IllegalArgumentException e) {
+			// The journal still holds every change; the next change tries again.
+		} finally {
+			synchronized (lock) {
+				snapshots.remove(snapshot);
+				checkpointing = false;
+				lock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Replaces the journal with an empty one whose header names the Notebook's
+	 * file as its writer last saved or read it, or as it is now if the writer has
+	 * no record of it. Records not yet written, and any earlier error writing
+	 * them, are dropped, as the file holds them. Records that a followed snapshot
+	 * does not hold are kept aside first, as its save may still replace the file.
+	 *
+	 * @throws IOException if the journal cannot be written.
+	 */
+	private void reset() throws IOException {
+		synchronized (lock) {
+			awaitIdle();
+			checkpoint = lastSave();
+			if (checkpoint == null) {
+				restart(streamEnd(), notebookFile.length(), notebookFile.lastModified());
+			} else {
+				restart(streamEnd(), checkpoint.length, checkpoint.modified);
+			}
+		}
+	}
+
+	/**
+	 * Brings the journal in step with the last save of the Notebook's file. If it
+	 * saved the whole Notebook, the journal is reset; if it saved a snapshot the
+	 * journal follows, the journal is rebased on it, keeping the records appended
+	 * since the snapshot was taken. Snapshots whose saves are over and did not
+	 * write the file last are no longer followed. Called holding the lock, with
+	 * the committer idle.
+	 *
+	 * @return is false if the journal cannot tell what the file holds: it was last
+	 *         written by a snapshot the journal did not follow, or the writer has
+	 *         since saved or read another file.
+	 * @throws IOException if the journal cannot be written.
+	 */
+	private boolean follow() throws IOException {
+		NotebookWriter.SectionFile saved = lastSave();
+		snapshots.keySet().removeIf(s -> s.isFinished() && (saved == null || s != saved.snapshot));
+		if (saved == null) {
+			return false;
+		}
+		if (saved == checkpoint) {
+			return true; // the file is still the one the journal names.
+		}
+		if (saved.snapshot == null) {
+			reset();
+			return true;
+		}
+		Long taken = snapshots.get(saved.snapshot);
+		if (taken == null || failure != null && taken != streamEnd()) {
+			return false; // the records after it may not be on disk.
+		}
+		snapshots.remove(saved.snapshot);
+		checkpoint = saved;
+		restart(taken, saved.length, saved.modified);
+		return true;
+	}
+
+	/**
+	 * Gets the position in the record stream after the last record appended.
+	 * Called holding the lock.
+	 *
+	 * @return is the position.
+	 */
+	private long streamEnd() {
+		return recordBase + journalSize - HEADER_SIZE;
+	}
+
+	/**
+	 * Replaces the journal with one whose header names the Notebook's file with
+	 * the given length and modification time, holding the records from the given
+	 * position in the record stream on. The records before it that a followed
+	 * snapshot does not hold are kept aside. If the journal could not be written,
+	 * no snapshot is followed any longer, as the records after it may not be on
+	 * disk. Called holding the lock, with the committer idle.
+	 *
+	 * @param start    is the position in the record stream the file holds every
+	 *                 record before.
+	 * @param length   is the length of the file.
+	 * @param modified is the modification time of the file.
+	 * @throws IOException if the journal cannot be read or written.
+	 */
+	private void restart(long start, long length, long modified) throws IOException {
+		if (failure != null) {
+			snapshots.clear();
+		}
+		long from = start;
+		for (long taken : snapshots.values()) {
+			from = Math.min(from, taken);
+		}
+		byte[] records = readStream(from);
+		int kept = (int) (start - from);
+		keptRecords = new ByteArrayOutputStream();
+		keptRecords.write(records, 0, kept);
+		keptBase = from;
+		recordBase = start;
+		rewrite(length, modified, Arrays.copyOfRange(records, kept, records.length));
+	}
+
+	/**
+	 * Reads the records from the given position in the record stream to its end,
+	 * from the records kept aside and the journal. Called holding the lock, with
+	 * the committer idle.
+	 *
+	 * @param from is the position of the first record.
+	 * @return is the records.
+	 * @throws IOException if the journal cannot be read.
+	 */
+	private byte[] readStream(long from) throws IOException {
+		if (from >= streamEnd()) {
+			return new byte[0];
+		}
+		ByteArrayOutputStream records = new ByteArrayOutputStream();
+		if (from < recordBase) {
+			byte[] kept = keptRecords.toByteArray();
+			int skip = (int) (from - keptBase);
+			records.write(kept, skip, kept.length - skip);
+			from = recordBase;
+		}
+		records.write(readRecords(HEADER_SIZE + from - recordBase));
+		return records.toByteArray();
+	}
+
+	/**
+	 * Gets the writer's record of the last save, or read, of the Notebook's file.
+	 *
+	 * @return is the record, or null if the writer last saved or read another file
+	 *         or the file has changed since.
+	 */
+	private NotebookWriter.SectionFile lastSave() {
+		NotebookWriter.SectionFile saved = notebook.getNotebookWriter().getSectionFile();
+		if (saved == null || !notebookFile.equals(saved.file.getAbsoluteFile()) || !saved.isUnchanged()) {
+			return null;
+		}
+		return saved;
+	}
+
+	/**
+	 * Replaces the journal with one whose header names the Notebook's file with
+	 * the given length and modification time, followed by the given records.
+	 * Called with the committer idle.
+	 *
+	 * @param length   is the length of the file.
+	 * @param modified is the modification time of the file.
+	 * @param records  is the records to start the journal with.
+	 * @throws IOException if the journal cannot be written.
+	 */
+	private void rewrite(long length, long modified, byte[] records) throws IOException {
+		synchronized (lock) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + records.length);
+			header.put(MAGIC).put(VERSION).putLong(length).putLong(modified).put(records);
+			header.flip();
+			Path temp = new File(journalFile.getParentFile(), journalFile.getName() + ".tmp").toPath();
+			try (FileChannel output = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				while (header.hasRemaining()) {
+					output.write(header);
+				}
+				output.force(true);
+			}
+			try {
+				Files.move(temp, journalFile.toPath(), StandardCopyOption.ATOMIC_MOVE,
+						StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			pending.clear();
+			committed = appended;
+			failure = null; // the file and the records hold every change.
+			openChannel(HEADER_SIZE + records.length);
+		}
+	}
+
+	/**
+	 * Waits until the committer is not writing a group. Called holding the lock.
+	 *
+	 * @throws IOException if interrupted.
+	 */
+	private void awaitIdle() throws IOException {
+		while (writing) {
+			try {
+				lock.wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted.");
+			}
+		}
+	}
+
+	/**
+	 * Reads the records appended from the given position in the journal to its
+	 * end, including those not yet written. Called holding the lock, with the
+	 * committer idle and no error writing the journal, so every record taken by
+	 * the committer is in the file.
+	 *
+	 * @param from is the position of the first record.
+	 * @return is the records.
+	 * @throws IOException if the journal cannot be read.
+	 */
+	private byte[] readRecords(long from) throws IOException {
+		ByteBuffer records = ByteBuffer.allocate((int) (journalSize - from));
+		records.limit((int) (journalSize - pending.position() - from));
+		try (FileChannel input = FileChannel.open(journalFile.toPath(), StandardOpenOption.READ)) {
+			while (records.hasRemaining()) {
+				if (input.read(records, from + records.position()) < 0) {
+					throw new IOException("Journal is truncated.");
+				}
+			}
+		}
+		records.limit(records.capacity());
+		records.put(pending.array(), 0, pending.position());
+		return records.array();
+	}
+
+	/**
+	 * Opens the journal for writing at the given position, cutting off anything
+	 * after it, and closes the channel it was open on before.
+	 *
+	 * @param position is the end of the last good record.
+	 * @throws IOException if the journal cannot be opened.
+	 */
+	private void openChannel(long position) throws IOException {
+		FileChannel output = FileChannel.open(journalFile.toPath(), StandardOpenOption.WRITE);
+		try {
+			output.truncate(position);
+			output.position(position);
+			output.force(false);
+		} catch (IOException e) {
+			output.close();
+			throw e;
+		}
+		synchronized (lock) {
+			FileChannel old = channel;
+			channel = output;
+			journalSize = position;
+			if (old != null) {
+				old.close();
+			}
+		}
+	}
+
+	/**
+	 * Replays the records of the journal into the Notebook, up to the first that
+	 * is torn, fails its CRC, or cannot be applied.
+	 *
+	 * @return is the end of the last record replayed, or -1 if there is no
+	 *         journal or it does not match the Notebook's file.
+	 * @throws IOException if the journal cannot be read.
+	 */
+	private long replay() throws IOException {
+		if (!journalFile.isFile()) {
+			return -1;
+		}
+		ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(journalFile.toPath()));
+		if (in.remaining() < HEADER_SIZE) {
+			return -1;
+		}
+		for (byte b : MAGIC) {
+			if (in.get() != b) {
+				return -1;
+			}
+		}
+		if (in.get() != VERSION || in.getLong() != notebookFile.length()
+				|| in.getLong() != notebookFile.lastModified()) {
+			return -1;
+		}
+		checkpoint = lastSave();
+		while (in.hasRemaining()) {
+			int start = in.position();
+			try {
+				int length = (int) readVarint(in);
+				if (length < 1 || in.remaining() - Integer.BYTES < length) {
+					return start; // torn.
+				}
+				CRC32 crc = new CRC32();
+				crc.update(in.array(), in.position(), length);
+				if (in.getInt(in.position() + length) != (int) crc.getValue()) {
+					return start;
+				}
+				ByteBuffer payload = ByteBuffer.wrap(in.array(), in.position(), length).slice();
+				in.position(in.position() + length + Integer.BYTES);
+				apply(payload);
+			} catch (RuntimeException e) {
+				// A bad varint or a record the Notebook rejects ends the journal.
+				return start;
+			}
+		}
+		return in.position();
+	}
+
+	/**
+	 * Applies one record to the Notebook through its methods. The whole payload is
+	 * decoded and checked first, so a record that is not valid leaves the Notebook
+	 * as it was and the journal can be cut off before it.
+	 *
+	 * @param payload is the record's payload.
+	 * @throws IllegalArgumentException if the record is not valid.
+	 */
+	private void apply(ByteBuffer payload) {
+		byte operation = payload.get();
+		if (operation == ADD_TASK_LIST) {
+			TaskList taskList = new TaskList(readString(payload), readInt(payload));
+			int taskCount = readInt(payload);
+			for (int i = 0; i < taskCount; i++) {
+				taskList.addTask(readTask(payload));
+			}
+			checkEnd(payload);
+			notebook.addTaskList(taskList);
+			return;
+		}
+		String taskListName = readString(payload);
+		String newName = null;
+		Task task = null;
+		int idx = 0;
+		Move move = null;
+		switch (operation) {
+		case EDIT_TASK_LIST:
+			newName = readString(payload);
+			break;
+		case REMOVE_TASK_LIST:
+			break;
+		case ADD_TASK:
+			task = readTask(payload);
+			break;
+		case EDIT_TASK:
+			idx = readInt(payload);
+			task = readTask(payload);
+			break;
+		case REMOVE_TASK:
+		case COMPLETE_TASK:
+			idx = readInt(payload);
+			break;
+		case MOVE_TASK:
+			idx = readInt(payload);
+			move = readMove(payload);
+			break;
+		default:
+			throw new IllegalArgumentException("Invalid operation.");
+		}
+		checkEnd(payload);
+
+		select(taskListName);
+		switch (operation) {
+		case EDIT_TASK_LIST:
+			notebook.editTaskList(newName);
+			break;
+		case REMOVE_TASK_LIST:
+			notebook.removeTaskList();
+			break;
+		case ADD_TASK:
+			notebook.addTask(task);
+			break;
+		case EDIT_TASK:
+			notebook.editTask(idx, task.getTaskName(), task.getTaskDescription(), task.isRecurring(),
+					task.isActive());
+			break;
+		case REMOVE_TASK:
+			notebook.removeTask(idx);
+			break;
+		case COMPLETE_TASK:
+			notebook.completeTask(idx);
+			break;
+		default:
+			move(idx, move);
+			break;
+		}
+	}
+
+	/**
+	 * Checks that a record's payload has been decoded to its end.
+	 *
+	 * @param payload is the record's payload.
+	 * @throws IllegalArgumentException if bytes are left over.
+	 */
+	private static void checkEnd(ByteBuffer payload) {
+		if (payload.hasRemaining()) {
+			throw new IllegalArgumentException("Invalid record.");
+		}
+	}
+
+	/**
+	 * Makes the named TaskList the Notebook's current TaskList.
+	 *
+	 * @param taskListName is the name of the TaskList.
+	 * @throws IllegalArgumentException if the Notebook has no such TaskList.
+	 */
+	private void select(String taskListName) {
+		notebook.setCurrentTaskList(taskListName);
+		if (!taskListName.equals(notebook.getCurrentTaskList().getTaskListName())
+				|| ActiveTaskList.ACTIVE_TASKS_NAME.equals(taskListName)) {
+			throw new IllegalArgumentException("Invalid name.");
+		}
+	}
+
+	/**
+	 * Reads the Move of a MOVE_TASK record, written as its ordinal.
+	 *
+	 * @param in is the buffer to read from.
+	 * @return is the Move.
+	 * @throws IllegalArgumentException if the ordinal is not a Move's.
+	 */
+	private static Move readMove(ByteBuffer in) {
+		Move[] moves = Move.values();
+		int move = readInt(in);
+		if (move >= moves.length) {
+			throw new IllegalArgumentException("Invalid operation.");
+		}
+		return moves[move];
+	}
+
+	/**
+	 * Moves a Task of the current TaskList as a MOVE_TASK record says.
+	 *
+	 * @param idx  is the index of the Task.
+	 * @param move is the Move.
+	 */
+	private void move(int idx, Move move) {
+		switch (move) {
+		case UP:
+			notebook.moveTaskUp(idx);
+			break;
+		case DOWN:
+			notebook.moveTaskDown(idx);
+			break;
+		case TO_FRONT:
+			notebook.moveTaskToFront(idx);
+			break;
+		default:
+			notebook.moveTaskToBack(idx);
+			break;
+		}
+	}
+
+	/**
+	 * Journals a TaskList that was added, with its Tasks.
+	 *
+	 * @param taskList is the TaskList that was added.
+	 */
+	@Override
+	public void taskListAdded(TaskList taskList) {
+		record.clear();
+		record.put(ADD_TASK_LIST);
+		putString(taskList.getTaskListName());
+		putVarint(taskList.getCompletedCount());
+		putVarint(taskList.getTasks().size());
+		for (Task task : taskList.getTasks()) {
+			putTask(task);
+		}
+		append();
+	}
+
+	/**
+	 * Journals a TaskList that was renamed.
+	 *
+	 * @param oldName is the name the TaskList had.
+	 * @param newName is the name the TaskList has now.
+	 */
+	@Override
+	public void taskListEdited(String oldName, String newName) {
+		record.clear();
+		record.put(EDIT_TASK_LIST);
+		putString(oldName);
+		putString(newName);
+		append();
+	}
+
+	/**
+	 * Journals a TaskList that was removed.
+	 *
+	 * @param taskListName is the name of the TaskList.
+	 */
+	@Override
+	public void taskListRemoved(String taskListName) {
+		record.clear();
+		record.put(REMOVE_TASK_LIST);
+		putString(taskListName);
+		append();
+	}
+
+	/**
+	 * Journals a Task that was added.
+	 *
+	 * @param taskListName is the name of the TaskList.
+	 * @param task         is the Task that was added.
+	 */
+	@Override
+	public void taskAdded(String taskListName, Task task) {
+		record.clear();
+		record.put(ADD_TASK);
+		putString(taskListName);
+		putTask(task);
+		append();
+	}
+
+	/**
+	 * Journals a Task that was edited.
+	 *
+	 * @param taskListName is the name of the TaskList.
+	 * @param idx          is the index of the Task.
+	 * @param task         is the Task, with its new fields.
+	 */
+	@Override
+	public void taskEdited(String taskListName, int idx, Task task) {
+		record.clear();
+		record.put(EDIT_TASK);
+		putString(taskListName);
+		putVarint(idx);
+		putTask(task);
+		append();
+	}
+
+	/**
+	 * Journals a Task that was removed.
+	 *
+	 * @param taskListName is the name of the TaskList.
+	 * @param idx          is the index the Task had.
+	 */
+	@Override
+	public void taskRemoved(String taskListName, int idx) {
+		record.clear();
+		record.put(REMOVE_TASK);
+		putString(taskListName);
+		putVarint(idx);
+		append();
+	}
+
+	/**
+	 * Journals a Task that was completed.
+	 *
+	 * @param taskListName is the name of the TaskList.
+	 * @param idx          is the index the Task had.
+	 */
+	@Override
+	public void taskCompleted(String taskListName, int idx) {
+		record.clear();
+		record.put(COMPLETE_TASK);
+		putString(taskListName);
+		putVarint(idx);
+		append();
+	}
+
+	/**
+	 * Journals a Task that was moved.
+	 *
+	 * @param taskListName is the name of the TaskList.
+	 * @param idx          is the index the Task had.
+	 * @param move         is how the Task was moved.
+	 */
+	@Override
+	public void taskMoved(String taskListName, int idx, Move move) {
+		record.clear();
+		record.put(MOVE_TASK);
+		putString(taskListName);
+		putVarint(idx);
+		putVarint(move.ordinal());
+		append();
+	}
+
+	/**
+	 * Starts an empty journal if the Notebook was saved to its file, which is now
+	 * the checkpoint. If a snapshot's save has replaced the file since, the journal
+	 * follows that save instead, as snapshotSaved() does. Saves to other files are
+	 * ignored.
+	 *
+	 * @param file is the file the Notebook was saved to.
+	 */
+	@Override
+	public void notebookSaved(File file) {
+		if (!notebookFile.equals(file.getAbsoluteFile())) {
+			return;
+		}
+		followSave();
+	}
+
+	/**
+	 * Notes where the journal is when a snapshot is taken: the records appended
+	 * from here on are the changes the snapshot does not hold. The snapshot is
+	 * followed until its save is over.
+	 *
+	 * @param snapshot is the snapshot that was taken.
+	 */
+	@Override
+	public void snapshotTaken(NotebookSnapshot snapshot) {
+		synchronized (lock) {
+			snapshots.put(snapshot, streamEnd());
+		}
+	}
+
+	/**
+	 * Rebases the journal on a snapshot saved to the Notebook's file: the journal
+	 * is replaced by one naming the file as the snapshot left it, holding the
+	 * records appended since the snapshot was taken. The Notebook is not saved
+	 * again. If a later save already replaced the snapshot's file, the journal
+	 * follows that save instead. Saves to other files are ignored.
+	 *
+	 * @param snapshot is the snapshot that was saved.
+	 * @param file     is the file it was saved to.
+	 */
+	@Override
+	public void snapshotSaved(NotebookSnapshot snapshot, File file) {
+		if (notebookFile.equals(file.getAbsoluteFile())) {
+			followSave();
+		}
+	}
+
+	/**
+	 * Brings the journal in step with a save of the Notebook's file. Only if the
+	 * journal cannot tell what the file holds (it was written by a snapshot that
+	 * was not followed, as it was taken before the journal started or after the
+	 * journal could not be written) is an automatic checkpoint started, to bring
+	 * the file and journal back in step.
+	 */
+	private void followSave() {
+		boolean followed;
+		try {
+			synchronized (lock) {
+				awaitIdle();
+				followed = follow();
+				if (!followed) {
+					checkpointDue = true; // if one is in flight, the change after it starts another.
+				}
+			}
+			if (!followed) {
+				startCheckpoint();
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			fail(e); // includes an InvalidPathException.
+		}
+	}
+
+	/**
+	 * Records the first error writing the journal, which sync() and close()
+	 * report.
+	 *
+	 * @param e is the error.
+	 */
+	private void fail(Exception e) {
+		synchronized (lock) {
+			if (failure == null) {
+				failure = e instanceof IOException ? (IOException) e : new IOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Encodes a Task into the record buffer as the binary NotebookFormat does:
+	 * flags byte, name, description.
+	 *
+	 * @param task is the Task.
+	 */
+	private void putTask(Task task) {
+		int flags = (task.isRecurring() ? NotebookFormat.RECURRING : 0)
+				| (task.isActive() ? NotebookFormat.ACTIVE : 0);
+		record = ensure(record, 1);
+		record.put((byte) flags);
+		putString(task.getTaskName());
+		putString(task.getTaskDescription());
+	}
+
+	/**
+	 * Encodes a String into the record buffer as its UTF-8 length in bytes, as a
+	 * varint, followed by its UTF-8 bytes.
+	 *
+	 * @param text is the String.
+	 */
+	private void putString(String text) {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		putVarint(bytes.length);
+		record = ensure(record, bytes.length);
+		record.put(bytes);
+	}
+
+	/**
+	 * Encodes an unsigned varint into the record buffer.
+	 *
+	 * @param value is the value, which must not be negative.
+	 */
+	private void putVarint(long value) {
+		record = ensure(record, 10);
+		putVarint(record, value);
+	}
+
+	/**
+	 * Puts an unsigned varint: 7 bits to a byte, low bits first, with the high bit
+	 * set on every byte but the last.
+	 *
+	 * @param buffer is the buffer, which must have room.
+	 * @param value  is the value, which must not be negative.
+	 */
+	private static void putVarint(ByteBuffer buffer, long value) {
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Gives the number of bytes a value takes as a varint.
+	 *
+	 * @param value is the value, which must not be negative.
+	 * @return is the number of bytes.
+	 */
+	private static int varintSize(long value) {
+		int size = 1;
+		while ((value & ~0x7FL) != 0) {
+			value >>>= 7;
+			size++;
+		}
+		return size;
+	}
+
+	/**
+	 * Returns a buffer with room for the given number of bytes past its position:
+	 * the buffer itself, or a larger copy of it.
+	 *
+	 * @param buffer is the buffer.
+	 * @param needed is the number of bytes needed.
+	 * @return is a buffer with the same contents and enough room.
+	 */
+	private static ByteBuffer ensure(ByteBuffer buffer, int needed) {
+		if (buffer.remaining() >= needed) {
+			return buffer;
+		}
+		int capacity = Math.max(buffer.capacity() * 2, buffer.position() + needed);
+		ByteBuffer larger = ByteBuffer.allocate(capacity);
+		buffer.flip();
+		larger.put(buffer);
+		return larger;
+	}
+
+	/**
+	 * Reads an unsigned varint.
+	 *
+	 * @param in is the buffer to read from.
+	 * @return is the value.
+	 * @throws IllegalArgumentException if the varint is longer than a long.
+	 */
+	private static long readVarint(ByteBuffer in) {
+		long value = 0;
+		for (int shift = 0; shift < Long.SIZE; shift += 7) {
+			byte b = in.get();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Invalid record.");
+	}
+
+	/**
+	 * Reads a varint that must fit in an int.
+	 *
+	 * @param in is the buffer to read from.
+	 * @return is the value.
+	 * @throws IllegalArgumentException if the value does not fit in an int.
+	 */
+	private static int readInt(ByteBuffer in) {
+		long value = readVarint(in);
+		if (value > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Invalid record.");
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Reads a String written by putString().
+	 *
+	 * @param in is the buffer to read from.
+	 * @return is the String.
+	 */
+	private static String readString(ByteBuffer in) {
+		int length = readInt(in);
+		String text = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+		in.position(in.position() + length);
+		return text;
+	}
+
+	/**
+	 * Reads a Task written by putTask().
+	 *
+	 * @param in is the buffer to read from.
+	 * @return is the Task.
+	 */
+	private static Task readTask(ByteBuffer in) {
+		int flags = in.get();
+		String name = readString(in);
+		String description = readString(in);
+		return new Task(name, description, (flags & NotebookFormat.RECURRING) != 0,
+				(flags & NotebookFormat.ACTIVE) != 0);
+	}
+}
@@ -0,0 +1,348 @@
+package edu.ncsu.csc216.wolf_tasks.model.io;
+
+import java.util.ArrayList;
+
+import edu.ncsu.csc216.wolf_tasks.model.notebook.Notebook;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.Task;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.TaskList;
+
+/**
+ * Single pass state machine that builds a Notebook from the characters of a
+ * notebook file. Characters are fed in blocks through parse() as they are read,
+ * and each TaskList and Task is built as soon as its record ends, so the file is
+ * never held in memory as a whole.
+ *
+ * The parser accepts exactly what the original Scanner based reader accepted:
+ * line breaks are normalized, the file is trimmed, the first line holds the '!'
+ * token and the notebook name, and every later '#' or '*' (even in the middle of
+ * a line) starts a new TaskList or Task record. Invalid records are skipped.
+ *
+ * @author Michael Warstler
+ */
+final class NotebookParser {
+
+	/** Reading the whitespace before the '!' token */
+	private static final int HEADER_START = 0;
+	/** Reading the '!' token */
+	private static final int HEADER_TOKEN = 1;
+	/** Reading the rest of the first line (the notebook name) */
+	private static final int HEADER_NAME = 2;
+	/** Reading the first line of a TaskList record (name and completed count) */
+	private static final int LIST_NAME = 3;
+	/** Reading the first line of a Task record (name, recurring and active) */
+	private static final int TASK_NAME = 4;
+	/** Reading the lines of a Task record after its first line */
+	private static final int TASK_DESCRIPTION = 5;
+
+	/** Current state of the parser */
+	private int state;
+	/** True once a character other than leading whitespace has been seen */
+	private boolean started;
+	/** True if the last character was a carriage return */
+	private boolean afterReturn;
+	/** Whitespace held back until a later character shows it is not trailing */
+	private StringBuilder pendingSpace;
+	/** Text of the line (or description) being read */
+	private StringBuilder text;
+	/** First line of the Task record being read */
+	private String taskNameLine;
+	/** The Notebook, once the first line has been read */
+	private Notebook notebook;
+	/** TaskList record being read, or null if it is invalid */
+	private TaskList taskList;
+	/** Valid TaskLists read so far */
+	private ArrayList<TaskList> taskLists;
+
+	/**
+	 * Constructs a NotebookParser that has not read any characters.
+	 */
+	NotebookParser() {
+		state = HEADER_START;
+		pendingSpace = new StringBuilder();
+		text = new StringBuilder();
+		taskLists = new ArrayList<TaskList>();
+	}
+
+	/**
+	 * Parses the next block of characters from the file. Line breaks ("\r\n", "\r",
+	 * "\n", and the Unicode line and paragraph separators) are read as '\n', and
+	 * whitespace is held back so that the end of the file is trimmed.
+	 *
+	 * @param chars  is the array holding the characters.
+	 * @param length is the number of characters in the array to parse.
+	 * @throws IllegalArgumentException if the first line is invalid.
+	 */
+	void parse(char[] chars, int length) {
+		for (int i = 0; i < length; i++) {
+			char c = chars[i];
+			if (c == '\n' && afterReturn) {
+				afterReturn = false;
+				continue; // second half of "\r\n".
+			}
+			afterReturn = c == '\r';
+			if (c == '\r' || c == '\u2028' || c == '\u2029' || c == '\u0085') {
+				c = '\n';
+			}
+
+			if (c <= ' ') {
+				// Leading whitespace is dropped; later whitespace waits for the next character.
+				if (started) {
+					pendingSpace.append(c);
+				}
+			} else {
+				started = true;
+				for (int j = 0; j < pendingSpace.length(); j++) {
+					accept(pendingSpace.charAt(j));
+				}
+				pendingSpace.setLength(0);
+				accept(c);
+			}
+		}
+	}
+
+	/**
+	 * Ends the file. Trailing whitespace is dropped and the last record is built.
+	 * The valid TaskLists are added to the Notebook, and the current task list is
+	 * set to the ActiveTaskList.
+	 *
+	 * @return is the Notebook read from the file.
+	 * @throws IllegalArgumentException if the first line is invalid or a TaskList
+	 *                                  name is used twice.
+	 */
+	Notebook finish() {
+		if (state == HEADER_START || state == HEADER_TOKEN) {
+			throw new IllegalArgumentException("Unable to load file.");
+		} else if (state == HEADER_NAME) {
+			startNotebook();
+		} else if (state == LIST_NAME) {
+			startTaskList();
+		} else {
+			endTask();
+		}
+		endTaskList();
+
+		// Add every TaskList in one sorted merge.
+		notebook.addTaskLists(taskLists);
+		notebook.setCurrentTaskList("Active Tasks"); // Sets current tasklist = ActiveTaskList.
+		return notebook;
+	}
+
+	/**
+	 * Moves the state machine forward by one character of the trimmed file.
+	 *
+	 * @param c is the character.
+	 */
+	private void accept(char c) {
+		switch (state) {
+		case HEADER_START:
+			// The first token must start with '!'.
+			if (!Character.isWhitespace(c)) {
+				if (c != '!') {
+					throw new IllegalArgumentException("Unable to load file.");
+				}
+				state = HEADER_TOKEN;
+			}
+			break;
+		case HEADER_TOKEN:
+			// The token is dropped. The rest of the line is the notebook name.
+			if (c == '\n') {
+				startNotebook();
+			} else if (Character.isWhitespace(c)) {
+				text.append(c);
+				state = HEADER_NAME;
+			}
+			break;
+		case HEADER_NAME:
+			if (c == '\n') {
+				startNotebook();
+			} else {
+				text.append(c);
+			}
+			break;
+		case LIST_NAME:
+			if (c == '#') {
+				startTaskList();
+				endTaskList();
+			} else if (c == '\n') {
+				startTaskList();
+				state = TASK_NAME;
+			} else {
+				text.append(c);
+			}
+			break;
+		case TASK_NAME:
+			if (c == '#' || c == '*') {
+				endTask();
+				endRecord(c);
+			} else if (c == '\n') {
+				taskNameLine = text.toString();
+				text.setLength(0);
+				state = TASK_DESCRIPTION;
+			} else {
+				text.append(c);
+			}
+			break;
+		default:
+			if (c == '#' || c == '*') {
+				endTask();
+				endRecord(c);
+			} else {
+				text.append(c);
+			}
+			break;
+		}
+	}
+
+	/**
+	 * Starts the next record after a Task record ends at a '#' or '*'.
+	 *
+	 * @param marker is the character that ended the record.
+	 */
+	private void endRecord(char marker) {
+		if (marker == '#') {
+			endTaskList();
+		} else {
+			state = TASK_NAME;
+		}
+	}
+
+	/**
+	 * Creates the Notebook from the name read on the first line. The rest of the
+	 * file is TaskList records.
+	 *
+	 * @throws IllegalArgumentException if the name is invalid.
+	 */
+	private void startNotebook() {
+		notebook = new Notebook(text.toString().trim());
+		text.setLength(0);
+		state = LIST_NAME;
+	}
+
+	/**
+	 * Creates the TaskList from the first line of its record. The TaskList is left
+	 * null if the line is invalid, so the record's Tasks are skipped.
+	 */
+	private void startTaskList() {
+		taskList = createTaskList(text.toString());
+		text.setLength(0);
+	}
+
+	/**
+	 * Adds the TaskList record that just ended (if valid) and starts a new one.
+	 */
+	private void endTaskList() {
+		if (taskList != null) {
+			taskLists.add(taskList);
+			taskList = null;
+		}
+		state = LIST_NAME;
+	}
+
+	/**
+	 * Creates the Task from the record that just ended and adds it to the TaskList.
+	 * Invalid Tasks, and Tasks of an invalid TaskList, are skipped.
+	 */
+	private void endTask() {
+		String nameLine;
+		String description;
+		if (state == TASK_NAME) {
+			nameLine = text.toString();
+			description = "";
+		} else {
+			nameLine = taskNameLine;
+			description = text.toString().trim();
+		}
+		text.setLength(0);
+		if (taskList == null) {
+			return;
+		}
+
+		// The first field is the name, any others must be recurring or active.
+		ArrayList<String> fields = splitFields(nameLine);
+		if (fields.size() == 0) {
+			return;
+		}
+		boolean recurring = false;
+		boolean active = false;
+		for (int i = 1; i < fields.size(); i++) {
+			if ("recurring".equalsIgnoreCase(fields.get(i))) {
+				recurring = true;
+			} else if ("active".equalsIgnoreCase(fields.get(i))) {
+				active = true;
+			} else {
+				return; // invalid format.
+			}
+		}
+		try {
+			taskList.addTask(new Task(fields.get(0).trim(), description, recurring, active));
+		} catch (IllegalArgumentException e) {
+			// Invalid Task, so it is skipped.
+		}
+	}
+
+	/**
+	 * Creates a TaskList from the first line of its record: the name and the
+	 * completed count, separated by a comma.
+	 *
+	 * @param line is the first line of the record.
+	 * @return is the TaskList, or null if the line is invalid.
+	 */
+	static TaskList createTaskList(String line) {
+		ArrayList<String> fields = splitFields(line);
+		if (fields.size() >= 2 && isInteger(fields.get(1))) {
+			try {
+				return new TaskList(fields.get(0).trim(), Integer.parseInt(fields.get(1)));
+			} catch (IllegalArgumentException e) {
+				// Invalid name or completed count. (Also thrown for an int that overflows.)
+				return null;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Splits a line into comma separated fields the same way a Scanner with a ","
+	 * delimiter does: one leading and one trailing comma do not make an empty
+	 * field, but every other pair of commas does.
+	 *
+	 * @param line is the line to split.
+	 * @return is the fields of the line.
+	 */
+	static ArrayList<String> splitFields(String line) {
+		ArrayList<String> fields = new ArrayList<String>();
+		int start = 0;
+		for (int i = 0; i <= line.length(); i++) {
+			if (i == line.length() || line.charAt(i) == ',') {
+				fields.add(line.substring(start, i));
+				start = i + 1;
+			}
+		}
+		if (fields.get(0).isEmpty()) {
+			fields.remove(0);
+		}
+		if (!fields.isEmpty() && fields.get(fields.size() - 1).isEmpty()) {
+			fields.remove(fields.size() - 1);
+		}
+		return fields;
+	}
+
+	/**
+	 * Checks that a field is an optional sign followed by decimal digits, as read
+	 * by Scanner.nextInt(). Whitespace is not allowed.
+	 *
+	 * @param field is the field to check.
+	 * @return is true if the field is an integer.
+	 */
+	static boolean isInteger(String field) {
+		int start = field.startsWith("-") || field.startsWith("+") ? 1 : 0;
+		if (start == field.length()) {
+			return false;
+		}
+		for (int i = start; i < field.length(); i++) {
+			if (!Character.isDigit(field.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,30 @@
+package edu.ncsu.csc216.wolf_tasks.model.io;
+
+/**
+ * Interface for an object that follows a long load or save and can cancel it.
+ * A load reports the bytes of the file read so far, and a save the TaskLists
+ * written so far. Both check isCancelled() between blocks or TaskLists, and stop
+ * with a java.util.concurrent.CancellationException once it returns true: a
+ * cancelled load returns no Notebook, and a cancelled save leaves the file it
+ * would have replaced as it was. Both methods are called on the thread doing
+ * the work.
+ *
+ * @author Michael Warstler
+ */
+public interface NotebookProgress {
+
+	/**
+	 * Called as the work proceeds.
+	 *
+	 * @param done  is the amount of work done so far.
+	 * @param total is the amount of work in all.
+	 */
+	void progress(long done, long total);
+
+	/**
+	 * Tells if the work should stop.
+	 *
+	 * @return is true if the work is cancelled.
+	 */
+	boolean isCancelled();
+}
@@ -1,183 +1,306 @@
 package edu.ncsu.csc216.wolf_tasks.model.io;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.NoSuchElementException;
-import java.util.Scanner;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
 
 import edu.ncsu.csc216.wolf_tasks.model.notebook.Notebook;
-import edu.ncsu.csc216.wolf_tasks.model.tasks.AbstractTaskList;
-import edu.ncsu.csc216.wolf_tasks.model.tasks.Task;
-import edu.ncsu.csc216.wolf_tasks.model.tasks.TaskList;
 
 /**
  * Handles reading in file contents to create a Notebook object.
- * 
+ *
  * @author Michael Warstler
  */
 public class NotebookReader {
 
+	/** Number of characters read from the file at a time */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
 	/**
-	 * Reads in file contents and creates a Notebook object. Utilizes helper methods
-	 * processTaskList() and processTask() to simplify process. Invalid task lists
-	 * or task (can't be constructed or information is missing) are ignored.
-	 * 
+	 * Reads in file contents and creates a Notebook object. The file is read once,
+	 * in blocks, through a NotebookParser that builds each TaskList and Task as it
+	 * goes. Invalid task lists or task (can't be constructed or information is
+	 * missing) are ignored.
+	 *
 	 * @param fileName is name of file to process.
 	 * @return is a Notebook object created from the file's contents.
 	 * @throws IllegalArgumentException if the file cannot be loaded.
-	 * @throws FileNotFoundException    if the file does not exist on the file
-	 *                                  system.
 	 */
 	public static Notebook readNotebookFile(File fileName) {
-		try {
-			Scanner fileReader = new Scanner(fileName); // Create Scanner for File.
-			String fileAsString = ""; // Set up String to hold entire File.
-			Notebook notebook; // Set up Notebook object to create and add TaskList (and Task) to.
-
-			// Put entire File contents into a String.
-			while (fileReader.hasNextLine()) {
-				fileAsString += fileReader.nextLine() + "\n"; // separate lines with newline.
-			}
-			fileReader.close();
-			fileAsString = fileAsString.trim(); // remove unnecessary whitespace.
-
-			// Check that first character is correct (!).
-			Scanner s1 = new Scanner(fileAsString);
-			String notebookName = "";
-			notebookName = s1.next(); // Just grab the '!' first.
-			if (notebookName.charAt(0) != '!') {
-				s1.close();
-				throw new IllegalArgumentException("Unable to load file");
-			} else {
-				notebookName = s1.nextLine().trim(); // Rest of line 1 goes to NotebookName.
-				notebook = new Notebook(notebookName); // Create Notebook with name read from file.
-			}
+		return readNotebookFile(fileName, null);
+	}
 
-			// Process the rest of fileAsString, while dividing into TaskLists.
-			s1.useDelimiter("\\r?\\n?[#]");
-			while (s1.hasNext()) {
-				TaskList taskList = processTaskList(s1.next()); // process contents of a String representing a TaskList.
-				// Only add VALID TaskList
-				if (taskList != null) {
-					notebook.addTaskList(taskList);
+	/**
+	 * Reads in file contents and creates a Notebook object, like
+	 * readNotebookFile(), reporting the bytes read after each block.
+	 *
+	 * @param fileName is name of file to process.
+	 * @param progress follows the read and can cancel it, or is null.
+	 * @return is a Notebook object created from the file's contents.
+	 * @throws IllegalArgumentException if the file cannot be loaded.
+	 * @throws CancellationException    if the progress cancelled the read.
+	 */
+	public static Notebook readNotebookFile(File fileName, NotebookProgress progress) {
+		try (FileChannel channel = FileChannel.open(fileName.toPath(), StandardOpenOption.READ)) {
+			Reader reader = Channels.newReader(channel, Charset.defaultCharset().newDecoder(), -1);
+			NotebookParser parser = new NotebookParser();
+			char[] buffer = new char[BUFFER_SIZE];
+			long size = channel.size();
+			checkCancelled(progress);
+			int length = read(reader, buffer);
+			while (length != -1) {
+				parser.parse(buffer, length);
+				if (progress != null) {
+					progress.progress(Math.min(channel.position(), size), size);
+					checkCancelled(progress);
 				}
+				length = read(reader, buffer);
+			}
+			Notebook notebook = parser.finish();
+			if (progress != null) {
+				progress.progress(size, size);
 			}
-			s1.close();
-
-			// Return the completed Notebook
-			notebook.setCurrentTaskList("Active Tasks"); // Sets current tasklist = ActiveTaskList.
 			return notebook;
 
-		} catch (FileNotFoundException | IllegalArgumentException e) {
+		} catch (IOException | IllegalArgumentException e) {
 			// Error found with a Notebook or TaskList name, or could not load the file.
 			throw new IllegalArgumentException("Unable to load file.");
 		}
 	}
 
 	/**
-	 * Reads in a specific line relating to a taskList and produces a TaskList
-	 * object.
-	 * 
-	 * @param taskListContents is a String representing a taskList from a read in
-	 *                         file.
-	 * @return is a TaskList object created from the processed parameter or null, if
-	 *         a TaskList could not be created.
+	 * Reads in a file saved in the NotebookFormat.BINARY format and creates a
+	 * Notebook object. The table of TaskLists is read first, then the Tasks of
+	 * each TaskList from its offset. No text is parsed.
+	 *
+	 * @param fileName is name of file to process.
+	 * @return is a Notebook object created from the file's contents.
+	 * @throws IllegalArgumentException if the file cannot be loaded or is not in
+	 *                                  the binary format.
 	 */
-	private static TaskList processTaskList(String taskListContents) {
+	public static Notebook readBinaryNotebookFile(File fileName) {
+		try (FileChannel channel = FileChannel.open(fileName.toPath(), StandardOpenOption.READ)) {
+			return new BinaryNotebookParser(channel, fileName).parse();
+		} catch (IOException | IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Reads in a file saved in the NotebookFormat.BINARY format and creates a
+	 * Notebook object from its table alone, so the time taken depends on the
+	 * number of TaskLists rather than the number of Tasks. Each TaskList reads its
+	 * Tasks from the file the first time they are needed, such as when it is made
+	 * the current list or the Notebook is saved; the Active Tasks list reads only
+	 * the TaskLists that have active Tasks. The file stays open until every
+	 * TaskList has read its Tasks.
+	 *
+	 * A TaskList that cannot read its Tasks later (for example because the file
+	 * was changed) throws an IllegalStateException and stays unloaded. Version 1
+	 * binary files have no index and are read in full.
+	 *
+	 * @param fileName is name of file to process.
+	 * @return is a Notebook object created from the file's contents.
+	 * @throws IllegalArgumentException if the file cannot be loaded or is not in
+	 *                                  the binary format.
+	 */
+	public static Notebook readIndexedNotebookFile(File fileName) {
+		FileChannel channel = null;
 		try {
-			// Create Scanner for entire TaskList String
-			Scanner taskListScnr = new Scanner(taskListContents);
-
-			// Create scanner and variables specifically for line 1 (TaskListName and
-			// completed count)
-			String nameLine = taskListScnr.nextLine(); // first line is TaskListName with completed count.
-			Scanner nameLineScnr = new Scanner(nameLine); // Used to separate Name and completed.
-			nameLineScnr.useDelimiter(",");
-			String taskListName = nameLineScnr.next().trim(); // get just the name
-			int completedCount = nameLineScnr.nextInt(); // get just the completed count
-			nameLineScnr.close(); // No longer need Scanner for line 1.
-
-			// Create a TaskList object from the data read on line 1 of taskListContents.
-			TaskList taskList = new TaskList(taskListName, completedCount);
-
-			// Read in rest of taskListContents and create Task objects to be added to this
-			// TaskList.
-			taskListScnr.useDelimiter("\\r?\\n?[*]");
-			while (taskListScnr.hasNext()) {
-				// Create Task objects to be added to the TaskList.
-				Task task = processTask(taskList, taskListScnr.next());
-				// Only add VALID Tasks
-				if (task != null) {
-					taskList.addTask(task);
-				}
+			channel = FileChannel.open(fileName.toPath(), StandardOpenOption.READ);
+			BinaryNotebookParser parser = new BinaryNotebookParser(channel, fileName);
+			Notebook notebook = parser.parse(true);
+			if (parser.isLoaded()) {
+				channel.close();
 			}
-			taskListScnr.close();
-
-			// Close TaskList Scanner and return the TaskList object.
-			return taskList;
-
-		} catch (NoSuchElementException | IllegalArgumentException e) {
-			// Any issues with reading the TaskList return null, so this TaskList is
-			// skipped.
-			return null;
+			return notebook;
+		} catch (IOException | IllegalArgumentException e) {
+			close(channel);
+			throw new IllegalArgumentException("Unable to load file.");
 		}
 	}
 
 	/**
-	 * Processes a Task from a specific string of a taskList object.
-	 * 
-	 * @param taskList     is the particular AbstractTaskList that the taskContents
-	 *                     would belong to.
-	 * @param taskContents is the information of possibly many Tasks in String form
-	 *                     from the file.
-	 * @return is a Task object created after processing. Return is null if there
-	 *         are any issues with reading in a Task.
+	 * Closes a file that could not be read, if it was opened.
+	 *
+	 * @param channel is the file, or null.
 	 */
-	private static Task processTask(AbstractTaskList taskList, String taskContents) {
-		try {
-			// Create scanner for entire Task String.
-			Scanner taskScnr = new Scanner(taskContents);
-
-			// Create scanner and variables specifically for line 1 (TaskName, recurring,
-			// active)
-			String nameLine = taskScnr.nextLine(); // first line of TaskContents
-			Scanner nameLineScnr = new Scanner(nameLine); // Used to separate name, recurring, active
-			nameLineScnr.useDelimiter(",");
-			String taskName = nameLineScnr.next().trim(); // First token of line 1 for Task is always name.
-			// Check for recurring and active. Should only be 2 tokens remaining.
-			boolean recurring = false;
-			boolean active = false;
-			while (nameLineScnr.hasNext()) {
-				String value = nameLineScnr.next();
-				if ("recurring".equalsIgnoreCase(value)) {
-					recurring = true;
-				} else if ("active".equalsIgnoreCase(value)) {
-					active = true;
-				} else {
-					nameLineScnr.close();
-					taskScnr.close();
-					return null; // invalid format.
-				}
+	private static void close(FileChannel channel) {
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				// Already failing; the file is not needed.
 			}
-			nameLineScnr.close();
+		}
+	}
 
-			// Read in rest of taskContents (contents after line 1 == description)
-			String taskDescription = "";
-			while (taskScnr.hasNextLine()) {
-				taskDescription += taskScnr.nextLine() + "\n";
+	/**
+	 * Reads in a file in the NotebookFormat its extension names: BINARY for a
+	 * ".wtnb" file, TEXT otherwise. Binary files are read through their index, as
+	 * readIndexedNotebookFile() reads them.
+	 *
+	 * @param fileName is name of file to process.
+	 * @return is a Notebook object created from the file's contents.
+	 * @throws IllegalArgumentException if the file cannot be loaded.
+	 */
+	public static Notebook readNotebookFileByExtension(File fileName) {
+		return readNotebookFileByExtension(fileName, null);
+	}
+
+	/**
+	 * Reads in a file in the NotebookFormat its extension names, like
+	 * readNotebookFileByExtension(), reporting the bytes read. A binary file only
+	 * has its table read, so its progress goes straight to the end.
+	 *
+	 * @param fileName is name of file to process.
+	 * @param progress follows the read and can cancel it, or is null.
+	 * @return is a Notebook object created from the file's contents.
+	 * @throws IllegalArgumentException if the file cannot be loaded.
+	 * @throws CancellationException    if the progress cancelled the read.
+	 */
+	public static Notebook readNotebookFileByExtension(File fileName, NotebookProgress progress) {
+		if (NotebookFormat.forFile(fileName) == NotebookFormat.BINARY) {
+			checkCancelled(progress);
+			Notebook notebook = readIndexedNotebookFile(fileName);
+			if (progress != null) {
+				progress.progress(fileName.length(), fileName.length());
 			}
-			taskDescription = taskDescription.trim(); // remove unnecessary whitespace.
-			taskScnr.close();
-
-			// Create Task object using name, description, recurring, and active
-			Task task = new Task(taskName, taskDescription, recurring, active);
-			// Register the TaskList with the new Task and return the Task.
-			task.addTaskList(taskList);
-			return task;
-
-		} catch (NoSuchElementException | IllegalArgumentException e) {
-			// Any issues with reading the Task will return null, so this Task is skipped.
-			return null;
+			return notebook;
+		}
+		return readNotebookFile(fileName, progress);
+	}
+
+	/**
+	 * Stops a read that has been cancelled.
+	 *
+	 * @param progress follows the read, or is null.
+	 * @throws CancellationException if the progress cancelled the read.
+	 */
+	private static void checkCancelled(NotebookProgress progress) {
+		if (progress != null && progress.isCancelled()) {
+			throw new CancellationException();
+		}
+	}
+
+	/**
+	 * Reads in file contents and creates a Notebook object, like
+	 * readNotebookFile(), without decoding the Tasks. The file is mapped into
+	 * memory and its records are found by scanning its bytes. Each Task decodes its
+	 * name and description from the mapped file the first time they are asked for,
+	 * so the file stays mapped while any Task has a field that has not been read.
+	 * This suits very large notebooks that are mostly browsed. Some platforms
+	 * cannot replace a file that is mapped, so such a Notebook may not be saveable
+	 * over the file it was read from.
+	 *
+	 * Files in a charset other than UTF-8, ISO-8859-1 or US-ASCII, and files with
+	 * bytes that cannot be decoded, are read by readNotebookFile() instead.
+	 *
+	 * @param fileName is name of file to process.
+	 * @return is a Notebook object created from the file's contents.
+	 * @throws IllegalArgumentException if the file cannot be loaded.
+	 */
+	public static Notebook readMappedNotebookFile(File fileName) {
+		Charset charset = Charset.defaultCharset();
+		if (!MappedNotebookParser.canRead(charset)) {
+			return readNotebookFile(fileName);
+		}
+		Notebook notebook;
+		try (FileChannel channel = FileChannel.open(fileName.toPath(), StandardOpenOption.READ)) {
+			// The mapping stays valid once the channel is closed.
+			notebook = new MappedNotebookParser(new MappedText(channel, charset), true).parse();
+		} catch (IOException | IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		return notebook != null ? notebook : readNotebookFile(fileName);
+	}
+
+	/**
+	 * Reads in file contents and creates a Notebook object, like
+	 * readNotebookFile(), from a pass that creates no Tasks. The file is mapped
+	 * into memory and its bytes are scanned, but only the notebook name and the
+	 * first line of each TaskList are decoded, so the TaskList names are ready at
+	 * once. Each TaskList parses its Tasks from the mapped file the first time
+	 * they are needed, such as when it is made the current list; the Active Tasks
+	 * list parses only the TaskLists with a Task marked active. Memory then grows
+	 * with the TaskLists that are opened rather than the size of the file. As with
+	 * readMappedNotebookFile(), the file stays mapped until every TaskList has
+	 * parsed its Tasks.
+	 *
+	 * Files in a charset other than UTF-8, ISO-8859-1 or US-ASCII, and files with
+	 * bytes that cannot be decoded, are read by readNotebookFile() instead.
+	 *
+	 * @param fileName is name of file to process.
+	 * @return is a Notebook object created from the file's contents.
+	 * @throws IllegalArgumentException if the file cannot be loaded.
+	 */
+	public static Notebook readDeferredNotebookFile(File fileName) {
+		Charset charset = Charset.defaultCharset();
+		if (!MappedNotebookParser.canRead(charset)) {
+			return readNotebookFile(fileName);
+		}
+		Notebook notebook;
+		try (FileChannel channel = FileChannel.open(fileName.toPath(), StandardOpenOption.READ)) {
+			// The mapping stays valid once the channel is closed.
+			notebook = new MappedNotebookParser(new MappedText(channel, charset), false).parseDeferred(fileName);
+		} catch (IOException | IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		return notebook != null ? notebook : readNotebookFile(fileName);
+	}
+
+	/**
+	 * Reads in file contents and creates a Notebook object, like
+	 * readNotebookFile(), using every core. The file is mapped into memory and
+	 * split at '#' characters into sections, which the common ForkJoinPool reads
+	 * into TaskLists in parallel. The TaskLists are then added to the Notebook in
+	 * one sorted merge, in the order they are in the file, so the Notebook is the
+	 * same as readNotebookFile() reads. Every Task is decoded as it is read, and
+	 * the file is not held once the Notebook is returned.
+	 *
+	 * Files in a charset other than UTF-8, ISO-8859-1 or US-ASCII, and files with
+	 * bytes that cannot be decoded, are read by readNotebookFile() instead.
+	 *
+	 * @param fileName is name of file to process.
+	 * @return is a Notebook object created from the file's contents.
+	 * @throws IllegalArgumentException if the file cannot be loaded.
+	 */
+	public static Notebook readParallelNotebookFile(File fileName) {
+		Charset charset = Charset.defaultCharset();
+		if (!MappedNotebookParser.canRead(charset)) {
+			return readNotebookFile(fileName);
+		}
+		Notebook notebook;
+		try (FileChannel channel = FileChannel.open(fileName.toPath(), StandardOpenOption.READ)) {
+			notebook = new MappedNotebookParser(new MappedText(channel, charset), false)
+					.parse(ForkJoinPool.commonPool());
+		} catch (IOException | IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		return notebook != null ? notebook : readNotebookFile(fileName);
+	}
+
+	/**
+	 * Reads the next block of characters from the file. As with the Scanner the
+	 * reader used to use, the file ends at the first bytes that cannot be decoded.
+	 *
+	 * @param reader is the Reader for the file.
+	 * @param buffer is the array to read into.
+	 * @return is the number of characters read, or -1 at the end of the file.
+	 * @throws IOException if the file cannot be read.
+	 */
+	private static int read(Reader reader, char[] buffer) throws IOException {
+		try {
+			return reader.read(buffer);
+		} catch (CharacterCodingException e) {
+			return -1;
 		}
 	}
 }
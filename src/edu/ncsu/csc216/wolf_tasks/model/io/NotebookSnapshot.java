@@ -0,0 +1,213 @@
+package edu.ncsu.csc216.wolf_tasks.model.io;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import edu.ncsu.csc216.wolf_tasks.model.tasks.Task;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.TaskList;
+import edu.ncsu.csc216.wolf_tasks.model.util.ISortedList;
+
+/**
+ * Immutable version of a Notebook's contents, taken by NotebookWriter.snapshot()
+ * so that it can be saved on another thread while the Notebook keeps changing.
+ *
+ * A snapshot is copy-on-write against the last file its writer saved or read.
+ * A TaskList whose section in that file is still current is not copied: the
+ * snapshot only records its name, completed count and modification count, and
+ * the save copies its section from the file as an incremental save would. Only
+ * the Tasks of lists that changed since are copied, as new Task objects. Taking
+ * a snapshot is therefore cheap after a save, and never loads a list that was
+ * not loaded.
+ *
+ * @author Michael Warstler
+ */
+public final class NotebookSnapshot {
+
+	/** Writer that took the snapshot and saves it */
+	private final NotebookWriter writer;
+	/** Name of the Notebook */
+	private final String notebookName;
+	/** Format the snapshot is saved in */
+	private final NotebookFormat format;
+	/** Version of each TaskList, in the Notebook's order */
+	private final List<Entry> entries;
+	/** Whether a save of the snapshot has finished, whether or not it succeeded */
+	private volatile boolean finished;
+
+	/**
+	 * Constructs a NotebookSnapshot. Called by NotebookWriter.snapshot().
+	 *
+	 * @param writer       is the writer that saves the snapshot.
+	 * @param notebookName is the name of the Notebook.
+	 * @param format       is the format the snapshot is saved in.
+	 * @param entries      is the version of each TaskList, in order.
+	 */
+	NotebookSnapshot(NotebookWriter writer, String notebookName, NotebookFormat format, List<Entry> entries) {
+		this.writer = writer;
+		this.notebookName = notebookName;
+		this.format = format;
+		this.entries = Collections.unmodifiableList(new ArrayList<Entry>(entries));
+	}
+
+	/**
+	 * Gets the name of the Notebook when the snapshot was taken.
+	 *
+	 * @return is the notebookName field.
+	 */
+	public String getNotebookName() {
+		return notebookName;
+	}
+
+	/**
+	 * Gets the format the snapshot is saved in.
+	 *
+	 * @return is the format field.
+	 */
+	public NotebookFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Gets the names of the TaskLists when the snapshot was taken.
+	 *
+	 * @return is the names, in order.
+	 */
+	public String[] getTaskListsNames() {
+		String[] names = new String[entries.size()];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = entries.get(i).name;
+		}
+		return names;
+	}
+
+	/**
+	 * Checks whether a Notebook's contents are still the ones in the snapshot: it
+	 * has the same name and the same TaskLists, in the same order, none of which
+	 * has changed since.
+	 *
+	 * @param notebookName is the name of the Notebook.
+	 * @param taskLists    is the lists of TaskLists in the Notebook.
+	 * @return is true if saving the Notebook now would write the same file.
+	 */
+	public boolean isCurrent(String notebookName, ISortedList<TaskList> taskLists) {
+		if (!this.notebookName.equals(notebookName) || taskLists.size() != entries.size()) {
+			return false;
+		}
+		for (int i = 0; i < entries.size(); i++) {
+			Entry entry = entries.get(i);
+			TaskList taskList = taskLists.get(i);
+			if (entry.taskList != taskList || entry.modificationCount != taskList.getModificationCount()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Saves the snapshot to a file, like NotebookWriter.writeNotebook(). Safe to
+	 * call from any thread while the Notebook changes. Saves by the same writer run
+	 * one at a time.
+	 *
+	 * @param file is the file to save to.
+	 * @throws IllegalArgumentException if unable to save to file, including when
+	 *                                  the file a TaskList's section was to be
+	 *                                  copied from has since changed.
+	 */
+	public void save(File file) {
+		save(file, null);
+	}
+
+	/**
+	 * Saves the snapshot to a file, like save(), reporting the TaskLists written
+	 * after each one.
+	 *
+	 * @param file     is the file to save to.
+	 * @param progress follows the save and can cancel it, or is null.
+	 * @throws IllegalArgumentException if unable to save to file.
+	 * @throws CancellationException    if the progress cancelled the save, which
+	 *                                  leaves the file as it was.
+	 */
+	public void save(File file, NotebookProgress progress) {
+		try {
+			writer.writeSnapshot(file, this, progress);
+		} finally {
+			finished = true;
+		}
+	}
+
+	/**
+	 * Tells if a save of the snapshot has finished, whether or not it succeeded.
+	 * A NotebookJournal stops following a snapshot whose save is over once a later
+	 * save has replaced its file.
+	 *
+	 * @return is the finished field.
+	 */
+	boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * Gets the version of each TaskList.
+	 *
+	 * @return is the entries, in order.
+	 */
+	List<Entry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * Version of one TaskList in a save.
+	 */
+	static final class Entry {
+		/** TaskList the entry is a version of, which keys its section */
+		final TaskList taskList;
+		/** Name of the TaskList */
+		final String name;
+		/** Completed count of the TaskList */
+		final int completedCount;
+		/** Modification count of the TaskList */
+		final long modificationCount;
+		/** Copies of the Tasks, or null if they are not copied */
+		private final Task[] tasks;
+		/** Whether the Tasks are read from the TaskList itself when not copied */
+		private final boolean live;
+
+		/**
+		 * Constructs an Entry for a TaskList as it is now.
+		 *
+		 * @param taskList is the TaskList.
+		 * @param tasks    is copies of the Tasks, or null if they are not copied.
+		 * @param live     is true if the TaskList does not change until the save is
+		 *                 done, so its Tasks can be read from it.
+		 */
+		Entry(TaskList taskList, Task[] tasks, boolean live) {
+			this.taskList = taskList;
+			this.name = taskList.getTaskListName();
+			this.completedCount = taskList.getCompletedCount();
+			this.modificationCount = taskList.getModificationCount();
+			this.tasks = tasks;
+			this.live = live;
+		}
+
+		/**
+		 * Gets the Tasks to encode for the entry.
+		 *
+		 * @return is the Tasks, in order.
+		 * @throws IllegalStateException if the Tasks were neither copied nor can be
+		 *                               read from the TaskList.
+		 */
+		Iterable<Task> getTasks() {
+			if (tasks != null) {
+				return Arrays.asList(tasks);
+			}
+			if (!live) {
+				throw new IllegalStateException("Section is stale.");
+			}
+			return taskList.getTasks();
+		}
+	}
+}
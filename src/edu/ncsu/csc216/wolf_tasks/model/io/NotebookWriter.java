@@ -1,47 +1,839 @@
 package edu.ncsu.csc216.wolf_tasks.model.io;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
-import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.CancellationException;
 
+import edu.ncsu.csc216.wolf_tasks.model.tasks.Task;
 import edu.ncsu.csc216.wolf_tasks.model.tasks.TaskList;
 import edu.ncsu.csc216.wolf_tasks.model.util.ISortedList;
 
 /**
  * Saves contents of a Notebook to a file location.
- * 
+ *
+ * A save never truncates the file it replaces. The Notebook is encoded into a
+ * reusable buffer and streamed to a temporary file next to the target, which is
+ * then renamed over the target in one atomic step. A crash mid-save leaves the
+ * old file in place. How much of this is forced to disk is set by the writer's
+ * Durability. The Notebook can be written in either NotebookFormat.
+ *
+ * Saves are incremental. The writer remembers where each TaskList's section is
+ * in the last file it wrote (or that a NotebookReader read for the Notebook),
+ * along with the list's modification count at the time. A TaskList that has
+ * not changed since is not encoded again: its section is copied from that file
+ * into the new one with FileChannel.transferTo(), without loading its Tasks.
+ * Only changed TaskLists, the first line and the binary table are encoded. The
+ * file is not used if its size or modification time has changed, or if it is
+ * in the other format.
+ *
+ * The same sections make snapshot() cheap: a NotebookSnapshot copies only the
+ * Tasks of TaskLists that changed since the last save, and can then be saved on
+ * another thread while the Notebook keeps changing. Saves by one writer run one
+ * at a time, but taking a snapshot never waits for a save.
+ *
  * @author Michael Warstler
  */
 public class NotebookWriter {
 
+	/** Size in bytes of the buffer the Notebook is encoded into */
+	private static final int BUFFER_SIZE = 256 * 1024;
+
+	/**
+	 * How far a save is forced to disk before it returns.
+	 */
+	public enum Durability {
+		/**
+		 * Nothing is forced. The rename is still atomic, so a crash of the program
+		 * leaves either the old or the new file, but a power loss may not.
+		 */
+		NONE,
+		/**
+		 * The temporary file is forced to disk when it is closed, before it is
+		 * renamed, so the target always holds a complete file. The rename itself may
+		 * be lost on a power loss.
+		 */
+		ON_CLOSE,
+		/**
+		 * The temporary file is forced before the rename and the directory after it,
+		 * so the new file is on disk when the save returns.
+		 */
+		PER_SAVE
+	}
+
+	/** Durability of each save */
+	private Durability durability;
+	/** Buffer the Notebook is encoded into, reused between saves */
+	private ByteBuffer buffer;
+	/** Encoder for the platform's default charset */
+	private CharsetEncoder encoder;
+	/** Encoder for the strings of the binary format */
+	private CharsetEncoder utf8Encoder;
+	/** Channel of the temporary file being written */
+	private FileChannel channel;
+	/** Number of bytes written to the channel */
+	private long written;
+	/** File the sections were written to or read from, or null if none */
+	private volatile SectionFile sectionFile;
+	/** Section file being copied from during a save */
+	private SectionFile sourceFile;
+	/** Channel of the sourceFile during a save, or null if it is not used */
+	private FileChannel source;
+	/** Sections of the TaskLists in the file being written */
+	private IdentityHashMap<TaskList, Section> newSections;
+	/** Follows the save being written, or null */
+	private NotebookProgress progress;
+
+	/**
+	 * Constructs a NotebookWriter with the given Durability. Its buffer is created
+	 * on the first save and reused by later saves.
+	 *
+	 * @param durability is how far each save is forced to disk.
+	 * @throws IllegalArgumentException if durability is null.
+	 */
+	public NotebookWriter(Durability durability) {
+		setDurability(durability);
+		// Same output as a PrintStream: characters that cannot be encoded become '?'.
+		encoder = Charset.defaultCharset().newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		utf8Encoder = StandardCharsets.UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	/**
+	 * Gets the Durability of each save.
+	 *
+	 * @return is the durability field.
+	 */
+	public Durability getDurability() {
+		return durability;
+	}
+
 	/**
-	 * Writes contents of a Notebook to a file. Utilizes a Task's toString() method to properly format output.
-	 * 
+	 * Sets the Durability of later saves.
+	 *
+	 * @param durability is how far each save is forced to disk.
+	 * @throws IllegalArgumentException if durability is null.
+	 */
+	public void setDurability(Durability durability) {
+		if (durability == null) {
+			throw new IllegalArgumentException("Invalid durability.");
+		}
+		this.durability = durability;
+	}
+
+	/**
+	 * Writes contents of a Notebook to a file with a one-time NotebookWriter whose
+	 * saves are PER_SAVE durable.
+	 *
 	 * @param fileName     is name of file to write/save to.
 	 * @param notebookName is the name of the Notebook object.
 	 * @param taskLists    is the lists of TaskLists in the Notebook.
 	 * @throws IllegalArgumentException if unable to save to file.
 	 */
 	public static void writeNotebookFile(File fileName, String notebookName, ISortedList<TaskList> taskLists) {
+		new NotebookWriter(Durability.PER_SAVE).writeNotebook(fileName, notebookName, taskLists);
+	}
+
+	/**
+	 * Writes contents of a Notebook to a file in the TEXT format. Each Task is
+	 * written in the format of Task.toString().
+	 *
+	 * @param fileName     is name of file to write/save to.
+	 * @param notebookName is the name of the Notebook object.
+	 * @param taskLists    is the lists of TaskLists in the Notebook.
+	 * @throws IllegalArgumentException if unable to save to file.
+	 */
+	public void writeNotebook(File fileName, String notebookName, ISortedList<TaskList> taskLists) {
+		writeNotebook(fileName, notebookName, taskLists, NotebookFormat.TEXT);
+	}
+
+	/**
+	 * Writes contents of a Notebook to a file in a format. The contents are written
+	 * to a temporary file in the same directory, which is renamed over the file
+	 * once it is complete.
+	 *
+	 * @param fileName     is name of file to write/save to.
+	 * @param notebookName is the name of the Notebook object.
+	 * @param taskLists    is the lists of TaskLists in the Notebook.
+	 * @param format       is the format to write.
+	 * @throws IllegalArgumentException if the format is null or unable to save to
+	 *                                  file.
+	 */
+	public void writeNotebook(File fileName, String notebookName, ISortedList<TaskList> taskLists,
+			NotebookFormat format) {
+		if (format == null) {
+			throw new IllegalArgumentException("Invalid format.");
+		}
+		List<NotebookSnapshot.Entry> entries = new ArrayList<NotebookSnapshot.Entry>(taskLists.size());
+		for (TaskList taskList : taskLists) {
+			entries.add(new NotebookSnapshot.Entry(taskList, null, true));
+		}
+		write(fileName, notebookName, entries, format, null, null);
+	}
+
+	/**
+	 * Takes a snapshot of a Notebook's contents that can be saved later, from any
+	 * thread, while the Notebook changes. The Tasks of each TaskList that has
+	 * changed since its section was recorded, or that has no section in a file of
+	 * this format, are copied; this loads the list if it is not loaded. Must be
+	 * called on the thread that changes the Notebook.
+	 *
+	 * @param notebookName is the name of the Notebook object.
+	 * @param taskLists    is the lists of TaskLists in the Notebook.
+	 * @param format       is the format the snapshot is saved in.
+	 * @return is the snapshot.
+	 * @throws IllegalArgumentException if the format is null or a TaskList could
+	 *                                  not load its Tasks.
+	 */
+	public NotebookSnapshot snapshot(String notebookName, ISortedList<TaskList> taskLists, NotebookFormat format) {
+		if (format == null) {
+			throw new IllegalArgumentException("Invalid format.");
+		}
+		SectionFile state = sectionFile;
+		if (state != null && (state.format != format || !state.isUnchanged())) {
+			state = null;
+		}
+		List<NotebookSnapshot.Entry> entries = new ArrayList<NotebookSnapshot.Entry>(taskLists.size());
 		try {
-			PrintStream output = new PrintStream(fileName);
-			
-			// Set up first line of output file.
-			output.print("! " + notebookName + "\n");
-			
-			// Go through each TaskList
-			for (int i = 0; i < taskLists.size(); i++) {
-				// TaskList header
-				TaskList taskList = taskLists.get(i);
-				output.print("# " + taskList.getTaskListName() + "," + taskList.getCompletedCount() + "\n");
-				// Go through each Task from the TaskList
-				for (int k = 0; k < taskList.getTasks().size(); k++) {
-					output.print(taskList.getTasks().get(k).toString() + "\n");
+			for (TaskList taskList : taskLists) {
+				Task[] tasks = null;
+				if (state == null || state.section(taskList) == null) {
+					tasks = new Task[taskList.getTasks().size()];
+					int idx = 0;
+					for (Task task : taskList.getTasks()) {
+						tasks[idx++] = new Task(task.getTaskName(), task.getTaskDescription(), task.isRecurring(),
+								task.isActive());
+					}
 				}
+				entries.add(new NotebookSnapshot.Entry(taskList, tasks, false));
 			}
-			output.close();
-		} catch (IOException e) {
+		} catch (IllegalStateException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		return new NotebookSnapshot(this, notebookName, format, entries);
+	}
+
+	/**
+	 * Saves a snapshot taken by this writer. Called by NotebookSnapshot.save().
+	 *
+	 * @param fileName is name of file to write/save to.
+	 * @param snapshot is the snapshot.
+	 * @param progress follows the save and can cancel it, or is null.
+	 * @throws IllegalArgumentException if unable to save to file.
+	 * @throws CancellationException    if the progress cancelled the save.
+	 */
+	void writeSnapshot(File fileName, NotebookSnapshot snapshot, NotebookProgress progress) {
+		write(fileName, snapshot.getNotebookName(), snapshot.getEntries(), snapshot.getFormat(), progress, snapshot);
+	}
+
+	/**
+	 * Writes versions of a Notebook's TaskLists to a file in a format. The
+	 * contents are written to a temporary file in the same directory, which is
+	 * renamed over the file once it is complete.
+	 *
+	 * @param fileName     is name of file to write/save to.
+	 * @param notebookName is the name of the Notebook object.
+	 * @param entries      is the version of each TaskList, in order.
+	 * @param format       is the format to write.
+	 * @param progress     follows the save and can cancel it, or is null.
+	 * @param snapshot     is the snapshot being saved, or null.
+	 * @throws IllegalArgumentException if unable to save to file.
+	 * @throws CancellationException    if the progress cancelled the save.
+	 */
+	private synchronized void write(File fileName, String notebookName, List<NotebookSnapshot.Entry> entries,
+			NotebookFormat format, NotebookProgress progress, NotebookSnapshot snapshot) {
+		File target = fileName.getAbsoluteFile();
+		File temp = new File(target.getParentFile(), target.getName() + ".tmp");
+		try {
+			try (FileChannel output = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				channel = output;
+				written = 0;
+				source = openSectionFile(format);
+				newSections = new IdentityHashMap<TaskList, Section>();
+				if (buffer == null) {
+					buffer = ByteBuffer.allocate(BUFFER_SIZE);
+				}
+				buffer.clear();
+				this.progress = progress;
+				if (format == NotebookFormat.BINARY) {
+					writeBinary(notebookName, entries);
+				} else {
+					writeText(notebookName, entries);
+				}
+				if (durability != Durability.NONE) {
+					output.force(true);
+				}
+			} finally {
+				channel = null;
+				closeSectionFile();
+			}
+
+			move(temp.toPath(), target.toPath());
+			if (durability == Durability.PER_SAVE) {
+				forceDirectory(target.getParentFile().toPath());
+			}
+			sectionFile = new SectionFile(target, format, newSections, snapshot);
+		} catch (CancellationException e) {
+			temp.delete();
+			throw e;
+		} catch (IOException | InvalidPathException | IllegalStateException e) {
+			// IllegalStateException: a TaskList could not load its Tasks, or a
+			// snapshot's section is no longer in the section file.
+			temp.delete();
 			throw new IllegalArgumentException("Unable to save file.");
+		} finally {
+			newSections = null;
+			this.progress = null;
+		}
+	}
+
+	/**
+	 * Records the file that later sections are in, as it is now. Any sections of
+	 * the previous file are dropped. Called by a NotebookReader for the file it
+	 * read, and after each save.
+	 *
+	 * @param file   is the file.
+	 * @param format is the format of the file.
+	 */
+	void setSectionFile(File file, NotebookFormat format) {
+		sectionFile = new SectionFile(file, format, new IdentityHashMap<TaskList, Section>(), null);
+	}
+
+	/**
+	 * Gets the record of the last file this writer saved, or that a NotebookReader
+	 * read for the Notebook. A NotebookJournal uses it to tell which save wrote the
+	 * Notebook's file without reading the file.
+	 *
+	 * @return is the sectionFile field, or null if there is none or it went stale.
+	 */
+	SectionFile getSectionFile() {
+		return sectionFile;
+	}
+
+	/**
+	 * Records where a TaskList's section is in the section file, as of the list's
+	 * current modification count. In the TEXT format the section starts with the
+	 * '#' of the TaskList record and ends where the next record starts; in the
+	 * BINARY format it is the list's Tasks.
+	 *
+	 * @param taskList    is the TaskList.
+	 * @param offset      is the position of the section.
+	 * @param length      is the length of the section in bytes.
+	 * @param taskCount   is the number of Tasks, or -1 if it is not known.
+	 * @param activeCount is the number of active Tasks, or -1 if it is not known.
+	 */
+	void addSection(TaskList taskList, long offset, long length, int taskCount, int activeCount) {
+		sectionFile.sections.put(taskList,
+				new Section(offset, length, taskCount, activeCount, taskList.getModificationCount()));
+	}
+
+	/**
+	 * Opens the section file for a save, if its sections can be copied: it is in
+	 * the format being written and has not changed since they were recorded.
+	 *
+	 * @param format is the format being written.
+	 * @return is the open section file, or null if it is not used.
+	 */
+	private FileChannel openSectionFile(NotebookFormat format) {
+		sourceFile = sectionFile;
+		if (sourceFile == null || format != sourceFile.format || sourceFile.sections.isEmpty()) {
+			return null;
+		}
+		if (!sourceFile.isUnchanged()) {
+			sectionFile = null; // changed by something else, so its sections are stale.
+			return null;
+		}
+		try {
+			return FileChannel.open(sourceFile.file.toPath(), StandardOpenOption.READ);
+		} catch (IOException | InvalidPathException e) {
+			return null; // every TaskList is encoded instead.
+		}
+	}
+
+	/**
+	 * Closes the section file after a save, if it was opened.
+	 */
+	private void closeSectionFile() {
+		if (source != null) {
+			try {
+				source.close();
+			} catch (IOException e) {
+				// Only read from, so nothing is lost.
+			}
+			source = null;
+		}
+		sourceFile = null;
+	}
+
+	/**
+	 * Finds the section of an unchanged TaskList in the open section file.
+	 *
+	 * @param entry is the version of the TaskList being written.
+	 * @return is its section, or null if the list must be encoded.
+	 */
+	private Section unchangedSection(NotebookSnapshot.Entry entry) {
+		if (source == null) {
+			return null;
+		}
+		Section section = sourceFile.sections.get(entry.taskList);
+		if (section == null || section.modificationCount != entry.modificationCount) {
+			return null;
+		}
+		return section;
+	}
+
+	/**
+	 * Copies a section from the section file to the end of the file being
+	 * written, after writing out the buffer.
+	 *
+	 * @param section is the section to copy.
+	 * @throws IOException if the section cannot be copied.
+	 */
+	private void copy(Section section) throws IOException {
+		flush();
+		long position = section.offset;
+		long end = section.offset + section.length;
+		while (position < end) {
+			long count = source.transferTo(position, end - position, channel);
+			if (count <= 0) {
+				throw new EOFException(); // the section file is shorter than recorded.
+			}
+			position += count;
+		}
+		written += section.length;
+	}
+
+	/**
+	 * Checks that a section of the TEXT format in the section file ends with a
+	 * line break.
+	 *
+	 * @param section is the section.
+	 * @return is true if the last byte of the section is '\n' or '\r'.
+	 * @throws IOException if the section file cannot be read.
+	 */
+	private boolean endsWithLineBreak(Section section) throws IOException {
+		if (section.length == 0) {
+			return true;
+		}
+		ByteBuffer last = ByteBuffer.allocate(1);
+		if (source.read(last, section.offset + section.length - 1) != 1) {
+			throw new EOFException();
+		}
+		byte b = last.get(0);
+		return b == '\n' || b == '\r';
+	}
+
+	/**
+	 * Gets the position in the file being written that the next byte goes to.
+	 *
+	 * @return is the number of bytes written and buffered.
+	 */
+	private long position() {
+		return written + buffer.position();
+	}
+
+	/**
+	 * Writes a Notebook in the TEXT format.
+	 *
+	 * @param notebookName is the name of the Notebook object.
+	 * @param entries      is the version of each TaskList, in order.
+	 * @throws IOException if the file cannot be written.
+	 */
+	private void writeText(String notebookName, List<NotebookSnapshot.Entry> entries) throws IOException {
+		// Set up first line of output file.
+		write("! ");
+		write(notebookName);
+		write("\n");
+
+		// Go through each TaskList
+		int done = 0;
+		progress(done, entries.size());
+		for (NotebookSnapshot.Entry entry : entries) {
+			long start = position();
+			Section section = unchangedSection(entry);
+			if (section != null) {
+				copy(section);
+				if (!endsWithLineBreak(section)) {
+					write("\n"); // the last section of a file that was read may not end its line.
+				}
+				addNewSection(entry, start, section.taskCount, section.activeCount);
+				progress(++done, entries.size());
+				continue;
+			}
+			// TaskList header
+			write("# ");
+			write(entry.name);
+			write(",");
+			write(String.valueOf(entry.completedCount));
+			write("\n");
+			// Go through each Task from the TaskList
+			for (Task task : entry.getTasks()) {
+				writeTask(task);
+			}
+			addNewSection(entry, start, -1, -1);
+			progress(++done, entries.size());
+		}
+		flush();
+	}
+
+	/**
+	 * Records the section of a TaskList that has just been written, from its start
+	 * to the current position.
+	 *
+	 * @param entry       is the version of the TaskList that was written.
+	 * @param start       is the position of the section.
+	 * @param taskCount   is the number of Tasks, or -1 if it is not known.
+	 * @param activeCount is the number of active Tasks, or -1 if it is not known.
+	 */
+	private void addNewSection(NotebookSnapshot.Entry entry, long start, int taskCount, int activeCount) {
+		newSections.put(entry.taskList,
+				new Section(start, position() - start, taskCount, activeCount, entry.modificationCount));
+	}
+
+	/**
+	 * Reports the TaskLists written so far, and stops a save that has been
+	 * cancelled. Called before the first TaskList and after each one.
+	 *
+	 * @param done  is the number of TaskLists written.
+	 * @param total is the number of TaskLists.
+	 * @throws CancellationException if the save is cancelled.
+	 */
+	private void progress(int done, int total) {
+		if (progress != null) {
+			progress.progress(done, total);
+			if (progress.isCancelled()) {
+				throw new CancellationException();
+			}
+		}
+	}
+
+	/**
+	 * Writes a Notebook in the BINARY format. The Tasks of each TaskList are
+	 * written first, then the table, and the table's offset is written into the
+	 * header last.
+	 *
+	 * @param notebookName is the name of the Notebook object.
+	 * @param entries      is the version of each TaskList, in order.
+	 * @throws IOException if the file cannot be written.
+	 */
+	private void writeBinary(String notebookName, List<NotebookSnapshot.Entry> entries) throws IOException {
+		buffer.put(NotebookFormat.MAGIC);
+		buffer.put(NotebookFormat.VERSION);
+		buffer.putLong(0); // table offset, once it is known.
+		writeString(notebookName);
+
+		long[] offsets = new long[entries.size() + 1];
+		int[] taskCounts = new int[entries.size()];
+		int[] activeCounts = new int[entries.size()];
+		int idx = 0;
+		progress(idx, entries.size());
+		for (NotebookSnapshot.Entry entry : entries) {
+			offsets[idx] = position();
+			Section section = unchangedSection(entry);
+			if (section != null && section.taskCount != -1) {
+				copy(section);
+				taskCounts[idx] = section.taskCount;
+				activeCounts[idx] = section.activeCount;
+			} else {
+				for (Task task : entry.getTasks()) {
+					int flags = (task.isRecurring() ? NotebookFormat.RECURRING : 0)
+							| (task.isActive() ? NotebookFormat.ACTIVE : 0);
+					writeVarint(flags);
+					writeString(task.getTaskName());
+					writeString(task.getTaskDescription());
+					taskCounts[idx]++;
+					if (task.isActive()) {
+						activeCounts[idx]++;
+					}
+				}
+			}
+			addNewSection(entry, offsets[idx], taskCounts[idx], activeCounts[idx]);
+			idx++;
+			progress(idx, entries.size());
+		}
+		offsets[idx] = position(); // end of the last TaskList.
+
+		long tableOffset = position();
+		writeVarint(entries.size());
+		idx = 0;
+		for (NotebookSnapshot.Entry entry : entries) {
+			writeString(entry.name);
+			writeVarint(entry.completedCount);
+			writeVarint(taskCounts[idx]);
+			writeVarint(activeCounts[idx]);
+			writeVarint(offsets[idx]);
+			writeVarint(offsets[idx + 1] - offsets[idx]);
+			idx++;
+		}
+		flush();
+
+		ByteBuffer offset = ByteBuffer.allocate(Long.BYTES);
+		offset.putLong(tableOffset);
+		offset.flip();
+		while (offset.hasRemaining()) {
+			channel.write(offset, NotebookFormat.TABLE_OFFSET_POSITION + offset.position());
+		}
+	}
+
+	/**
+	 * Writes an unsigned varint: 7 bits to a byte, low bits first, with the high
+	 * bit set on every byte but the last.
+	 *
+	 * @param value is the value to write, which must not be negative.
+	 * @throws IOException if the file cannot be written.
+	 */
+	private void writeVarint(long value) throws IOException {
+		if (buffer.remaining() < 10) {
+			flush();
+		}
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Writes a String as its UTF-8 length in bytes, as a varint, followed by its
+	 * UTF-8 bytes. Unpaired surrogates are written as '?'.
+	 *
+	 * @param text is the String to write.
+	 * @throws IOException if the file cannot be written.
+	 */
+	private void writeString(String text) throws IOException {
+		long length = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c < 0x80) {
+				length++;
+			} else if (c < 0x800) {
+				length += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+					&& Character.isLowSurrogate(text.charAt(i + 1))) {
+				length += 4;
+				i++;
+			} else if (Character.isSurrogate(c)) {
+				length++; // replaced with '?'.
+			} else {
+				length += 3;
+			}
+		}
+		writeVarint(length);
+		encode(text, utf8Encoder);
+	}
+
+	/**
+	 * Writes a Task in the format of Task.toString() (followed by a newline),
+	 * without building the String.
+	 *
+	 * @param task is the Task to write.
+	 * @throws IOException if the file cannot be written.
+	 */
+	private void writeTask(Task task) throws IOException {
+		write("* ");
+		write(task.getTaskName());
+		if (task.isRecurring()) {
+			write(",recurring");
+		}
+		if (task.isActive()) {
+			write(",active");
+		}
+		write("\n");
+		write(task.getTaskDescription());
+		write("\n");
+	}
+
+	/**
+	 * Encodes a String in the default charset into the buffer.
+	 *
+	 * @param text is the String to write.
+	 * @throws IOException if the file cannot be written.
+	 */
+	private void write(String text) throws IOException {
+		encode(text, encoder);
+	}
+
+	/**
+	 * Encodes a String into the buffer, writing the buffer to the file each time it
+	 * fills.
+	 *
+	 * @param text    is the String to write.
+	 * @param encoder is the encoder to use.
+	 * @throws IOException if the file cannot be written.
+	 */
+	private void encode(String text, CharsetEncoder encoder) throws IOException {
+		CharBuffer chars = CharBuffer.wrap(text);
+		CoderResult result = encoder.encode(chars, buffer, true);
+		while (result.isOverflow()) {
+			flush();
+			result = encoder.encode(chars, buffer, true);
+		}
+		while (encoder.flush(buffer).isOverflow()) {
+			flush();
+		}
+		encoder.reset();
+	}
+
+	/**
+	 * Writes the contents of the buffer to the file and clears the buffer.
+	 *
+	 * @throws IOException if the file cannot be written.
+	 */
+	private void flush() throws IOException {
+		buffer.flip();
+		written += buffer.limit();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Renames the temporary file over the target in one atomic step, or with a
+	 * plain replacing move if the file system cannot do it atomically.
+	 *
+	 * @param temp   is the temporary file.
+	 * @param target is the file to replace.
+	 * @throws IOException if the file cannot be moved.
+	 */
+	private static void move(Path temp, Path target) throws IOException {
+		try {
+			Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Where a TaskList's section is in a file, and the list's modification count
+	 * when it was there.
+	 */
+	private static final class Section {
+		/** Position of the section */
+		private final long offset;
+		/** Length of the section in bytes */
+		private final long length;
+		/** Number of Tasks, or -1 if it is not known */
+		private final int taskCount;
+		/** Number of active Tasks, or -1 if it is not known */
+		private final int activeCount;
+		/** Modification count of the TaskList when the section was recorded */
+		private final long modificationCount;
+
+		/**
+		 * Constructs a Section.
+		 *
+		 * @param offset            is the position of the section.
+		 * @param length            is the length of the section in bytes.
+		 * @param taskCount         is the number of Tasks, or -1.
+		 * @param activeCount       is the number of active Tasks, or -1.
+		 * @param modificationCount is the TaskList's modification count.
+		 */
+		Section(long offset, long length, int taskCount, int activeCount, long modificationCount) {
+			this.offset = offset;
+			this.length = length;
+			this.taskCount = taskCount;
+			this.activeCount = activeCount;
+			this.modificationCount = modificationCount;
+		}
+	}
+
+	/**
+	 * A file that TaskLists' sections can be copied from, as it was when they were
+	 * recorded. Replaced, not changed, once a save completes, so a snapshot can
+	 * read it while a save runs. Each save makes a new one, so it also stands for
+	 * the save that wrote the file.
+	 */
+	static final class SectionFile {
+		/** The file */
+		final File file;
+		/** Format of the file */
+		private final NotebookFormat format;
+		/** Length of the file when its sections were recorded */
+		final long length;
+		/** Modification time of the file when its sections were recorded */
+		final long modified;
+		/** Snapshot whose save wrote the file, or null */
+		final NotebookSnapshot snapshot;
+		/** Sections of the TaskLists in the file, by TaskList */
+		private final IdentityHashMap<TaskList, Section> sections;
+
+		/**
+		 * Constructs a SectionFile for a file as it is now.
+		 *
+		 * @param file     is the file.
+		 * @param format   is the format of the file.
+		 * @param sections is the sections of the TaskLists in the file.
+		 * @param snapshot is the snapshot whose save wrote the file, or null if the
+		 *                 whole Notebook was saved or the file was read.
+		 */
+		SectionFile(File file, NotebookFormat format, IdentityHashMap<TaskList, Section> sections,
+				NotebookSnapshot snapshot) {
+			this.file = file;
+			this.format = format;
+			this.length = file.length();
+			this.modified = file.lastModified();
+			this.snapshot = snapshot;
+			this.sections = sections;
+		}
+
+		/**
+		 * Checks that the file has not been changed by something else since its
+		 * sections were recorded.
+		 *
+		 * @return is true if its size and modification time are the same.
+		 */
+		boolean isUnchanged() {
+			return file.length() == length && file.lastModified() == modified;
+		}
+
+		/**
+		 * Finds the section of a TaskList that can be copied as the list is now.
+		 * Binary sections whose Task counts are not known are never copied.
+		 *
+		 * @param taskList is the TaskList.
+		 * @return is its section, or null if the list must be encoded.
+		 */
+		private Section section(TaskList taskList) {
+			Section section = sections.get(taskList);
+			if (section == null || section.modificationCount != taskList.getModificationCount()
+					|| format == NotebookFormat.BINARY && section.taskCount == -1) {
+				return null;
+			}
+			return section;
+		}
+	}
+
+	/**
+	 * Forces a directory to disk so a rename in it is durable. Not every platform
+	 * can open a directory, so this is skipped where it fails.
+	 *
+	 * @param directory is the directory to force.
+	 */
+	private static void forceDirectory(Path directory) {
+		try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+			dir.force(true);
+		} catch (IOException e) {
+			// The file itself is already on disk; only the rename may not be.
 		}
 	}
 }
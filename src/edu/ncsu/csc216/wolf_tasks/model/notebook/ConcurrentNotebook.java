@@ -0,0 +1,511 @@
+package edu.ncsu.csc216.wolf_tasks.model.notebook;
+
+import java.io.File;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import edu.ncsu.csc216.wolf_tasks.model.io.NotebookFormat;
+import edu.ncsu.csc216.wolf_tasks.model.io.NotebookSnapshot;
+import edu.ncsu.csc216.wolf_tasks.model.notebook.NotebookObserver.Move;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.AbstractTaskList;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.ActiveTaskList;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.Task;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.TaskList;
+
+/**
+ * Thread-safe facade over a Notebook, for many reader threads and some writer
+ * threads. The facade has a StampedLock over the Notebook's structure (its
+ * TaskLists and their names), and each list has its own StampedLock
+ * (AbstractTaskList.getLock()):
+ *
+ * Changes to the structure (adding, renaming or removing a TaskList) and
+ * setCurrentTaskList() take the structure write lock, and so run alone. A save
+ * takes it only while it takes a snapshot of the Notebook; the file is written
+ * from the snapshot while other threads keep editing.
+ *
+ * Edits to the Tasks of a TaskList (addTask(), editTask(), removeTask(),
+ * completeTask(), moveTask()) take the structure read lock and the write lock
+ * of the TaskList, so edits to different TaskLists run in parallel. An edit
+ * that touches the Active Tasks list (its Task is or becomes active, or has
+ * been active, so that the Active Tasks list is registered with it) also takes
+ * the Active Tasks list's write lock. Locks are always taken in the same order
+ * (structure, then the TaskList, then the Active Tasks list), so they cannot
+ * deadlock. Edits that would take locks out of that order take the structure
+ * write lock instead: edits addressed to the Active Tasks list, edits to a
+ * TaskList that has not loaded its Tasks, and any edit while the Notebook has a
+ * NotebookObserver (such as a NotebookJournal, whose records must be in the
+ * order the edits were made).
+ *
+ * Reads (getTaskListsNames(), getTasksAsArray(), getCurrentTaskListName(),
+ * getCurrentTasksAsArray(), isChanged()) are first tried optimistically,
+ * without locking: the read runs and its result is kept only if neither the
+ * structure nor the list read was written meanwhile. A read that raced a write
+ * (and so may have seen the Notebook half changed, or failed because of it)
+ * runs again under the read locks. Reads return copies, never the Notebook's
+ * own lists or the arrays its lists cache for getTasksAsArray() and
+ * getTaskListsNames(), so nothing leaks out of the locks, and a read that
+ * raced a write cannot leave a torn array in a cache. A read that would load Tasks
+ * from a file changes the Notebook, so it takes the structure write lock.
+ *
+ * Tasks are named by their TaskList's name and index, so an edit does not
+ * depend on another thread's choice of current TaskList, and does not change
+ * it.
+ *
+ * The Notebook must not be used directly while it is wrapped.
+ *
+ * @author Michael Warstler
+ */
+public class ConcurrentNotebook {
+
+	/** The wrapped Notebook */
+	private final Notebook notebook;
+	/** Lock guarding every use of the notebook */
+	private final StampedLock lock = new StampedLock();
+
+	/**
+	 * Constructs a ConcurrentNotebook that wraps the given Notebook.
+	 *
+	 * @param notebook is the Notebook to wrap.
+	 * @throws IllegalArgumentException if notebook is null.
+	 */
+	public ConcurrentNotebook(Notebook notebook) {
+		if (notebook == null) {
+			throw new IllegalArgumentException("Invalid notebook.");
+		}
+		this.notebook = notebook;
+	}
+
+	/**
+	 * Gets the Notebook's name, which never changes.
+	 *
+	 * @return is the Notebook's name.
+	 */
+	public String getNotebookName() {
+		return notebook.getNotebookName();
+	}
+
+	/**
+	 * Tells if the Notebook has changed since it was last saved.
+	 *
+	 * @return is true if the Notebook has changed.
+	 */
+	public boolean isChanged() {
+		return read(notebook::isChanged);
+	}
+
+	/**
+	 * Gets the names of the Active Tasks list and the TaskLists, in order.
+	 *
+	 * @return is a new array of the names.
+	 */
+	public String[] getTaskListsNames() {
+		return read(notebook::buildTaskListsNames);
+	}
+
+	/**
+	 * Gets the name of the current TaskList.
+	 *
+	 * @return is the name.
+	 */
+	public String getCurrentTaskListName() {
+		return read(() -> notebook.peekCurrentTaskList().getTaskListName());
+	}
+
+	/**
+	 * Gets the rows of the current TaskList, as its getTasksAsArray() does.
+	 *
+	 * @return is a new array of the rows.
+	 * @throws IllegalStateException if the Tasks cannot be loaded.
+	 */
+	public String[][] getCurrentTasksAsArray() {
+		return readRows(notebook::peekCurrentTaskList, ConcurrentNotebook::copyRows);
+	}
+
+	/**
+	 * Gets the rows of the named list, which may be the Active Tasks list, as its
+	 * getTasksAsArray() does.
+	 *
+	 * @param taskListName is the name of the list.
+	 * @return is a new array of the rows.
+	 * @throws IllegalArgumentException if there is no list with that name.
+	 * @throws IllegalStateException    if the Tasks cannot be loaded.
+	 */
+	public String[][] getTasksAsArray(String taskListName) {
+		return readRows(() -> find(taskListName), ConcurrentNotebook::copyRows);
+	}
+
+	/**
+	 * Gets a page of the rows of the named list, which may be the Active Tasks
+	 * list, as its getTasksAsArray(offset, limit) does. Only the rows of the page
+	 * are copied while the list is read.
+	 *
+	 * @param taskListName is the name of the list.
+	 * @param offset       is the index of the first Task.
+	 * @param limit        is the largest number of rows.
+	 * @return is a new array of the rows.
+	 * @throws IllegalArgumentException  if there is no list with that name.
+	 * @throws IndexOutOfBoundsException if offset or limit is negative.
+	 * @throws IllegalStateException     if the Tasks cannot be loaded.
+	 */
+	public String[][] getTasksAsArray(String taskListName, int offset, int limit) {
+		if (offset < 0 || limit < 0) {
+			throw new IndexOutOfBoundsException("Invalid range.");
+		}
+		return readRows(() -> find(taskListName), list -> list.getTasksAsArray(offset, limit));
+	}
+
+	/**
+	 * Sets the current TaskList, as Notebook.setCurrentTaskList() does.
+	 *
+	 * @param taskListName is the name of the list.
+	 */
+	public void setCurrentTaskList(String taskListName) {
+		write(() -> {
+			notebook.setCurrentTaskList(taskListName);
+			return null;
+		});
+	}
+
+	/**
+	 * Adds a TaskList, which becomes the current TaskList. The TaskList must not
+	 * be used by the caller afterwards.
+	 *
+	 * @param taskList is the TaskList to add.
+	 * @throws IllegalArgumentException as Notebook.addTaskList() does.
+	 */
+	public void addTaskList(TaskList taskList) {
+		write(() -> {
+			notebook.addTaskList(taskList);
+			return null;
+		});
+	}
+
+	/**
+	 * Renames the named TaskList.
+	 *
+	 * @param taskListName is the name of the TaskList.
+	 * @param newName      is its new name.
+	 * @throws IllegalArgumentException if there is no such TaskList, or as
+	 *                                  Notebook.editTaskList() does.
+	 */
+	public void editTaskList(String taskListName, String newName) {
+		writeTaskList(taskListName, () -> notebook.editTaskList(newName));
+	}
+
+	/**
+	 * Removes the named TaskList.
+	 *
+	 * @param taskListName is the name of the TaskList.
+	 * @throws IllegalArgumentException if there is no such TaskList, or it is the
+	 *                                  Active Tasks list.
+	 */
+	public void removeTaskList(String taskListName) {
+		writeTaskList(taskListName, notebook::removeTaskList);
+	}
+
+	/**
+	 * Adds a Task to the end of the named TaskList. Nothing is added to the
+	 * Active Tasks list. The Task must not be used by the caller afterwards.
+	 *
+	 * @param taskListName is the name of the TaskList.
+	 * @param task         is the Task to add.
+	 * @throws IllegalArgumentException if there is no such TaskList.
+	 */
+	public void addTask(String taskListName, Task task) {
+		writeTo(taskListName, list -> task, task.isActive(), list -> {
+			notebook.addTask(list, task);
+			return null;
+		});
+	}
+
+	/**
+	 * Edits a Task of the named TaskList, as Notebook.editTask() does.
+	 *
+	 * @param taskListName    is the name of the TaskList.
+	 * @param idx             is the index of the Task.
+	 * @param taskName        is the Task's new name.
+	 * @param taskDescription is the Task's new description.
+	 * @param recurring       is the Task's new recurring status.
+	 * @param active          is the Task's new active status.
+	 * @throws IllegalArgumentException  if there is no such TaskList or a field is
+	 *                                   invalid.
+	 * @throws IndexOutOfBoundsException if idx is out of bounds.
+	 */
+	public void editTask(String taskListName, int idx, String taskName, String taskDescription, boolean recurring,
+			boolean active) {
+		writeTo(taskListName, list -> list.getTask(idx), active, list -> {
+			notebook.editTask(list, idx, taskName, taskDescription, recurring, active);
+			return null;
+		});
+	}
+
+	/**
+	 * Removes a Task of the named list, as Notebook.removeTask() does.
+	 *
+	 * @param taskListName is the name of the list.
+	 * @param idx          is the index of the Task.
+	 * @return is the name of the removed Task.
+	 * @throws IllegalArgumentException  if there is no such list.
+	 * @throws IndexOutOfBoundsException if idx is out of bounds.
+	 */
+	public String removeTask(String taskListName, int idx) {
+		return writeTo(taskListName, list -> list.getTask(idx), false,
+				list -> notebook.removeTask(list, idx).getTaskName());
+	}
+
+	/**
+	 * Completes a Task of the named list, as Notebook.completeTask() does.
+	 *
+	 * @param taskListName is the name of the list.
+	 * @param idx          is the index of the Task.
+	 * @throws IllegalArgumentException  if there is no such list.
+	 * @throws IndexOutOfBoundsException if idx is out of bounds.
+	 */
+	public void completeTask(String taskListName, int idx) {
+		writeTo(taskListName, list -> list.getTask(idx), false, list -> {
+			notebook.completeTask(list, idx);
+			return null;
+		});
+	}
+
+	/**
+	 * Moves a Task of the named TaskList.
+	 *
+	 * @param taskListName is the name of the TaskList.
+	 * @param idx          is the index of the Task.
+	 * @param move         is how to move it.
+	 * @throws IllegalArgumentException  if there is no such TaskList, it is the
+	 *                                   Active Tasks list, or move is null.
+	 * @throws IndexOutOfBoundsException if idx is out of bounds.
+	 */
+	public void moveTask(String taskListName, int idx, Move move) {
+		if (move == null) {
+			throw new IllegalArgumentException("Invalid move.");
+		}
+		writeTo(taskListName, list -> list.getTask(idx), false, list -> {
+			notebook.moveTask(list, idx, move);
+			return null;
+		});
+	}
+
+	/**
+	 * Saves the Notebook to the given file. Only taking a snapshot of the Notebook
+	 * holds the write lock; the snapshot is written without any lock, so other
+	 * threads keep editing while the file is written.
+	 *
+	 * @param notebookFile is the file to save to.
+	 * @throws IllegalArgumentException if unable to save to file.
+	 */
+	public void saveNotebook(File notebookFile) {
+		NotebookSnapshot snapshot = write(() -> notebook.snapshot(NotebookFormat.forFile(notebookFile)));
+		snapshot.save(notebookFile);
+		write(() -> {
+			notebook.snapshotSaved(snapshot, notebookFile);
+			return null;
+		});
+	}
+
+	/**
+	 * Finds the named list.
+	 *
+	 * @param taskListName is the name of the list.
+	 * @return is the list.
+	 * @throws IllegalArgumentException if there is no list with that name.
+	 */
+	private AbstractTaskList find(String taskListName) {
+		AbstractTaskList list = notebook.findTaskList(taskListName);
+		if (list == null) {
+			throw new IllegalArgumentException("Invalid name.");
+		}
+		return list;
+	}
+
+	/**
+	 * Reads the rows of a list: first optimistically, then under the structure
+	 * and list read locks, and under the structure write lock if the list must be
+	 * loaded first.
+	 *
+	 * @param finder finds the list; it must not change the Notebook.
+	 * @param rows   copies the rows out of the list.
+	 * @return is the rows.
+	 * @throws IllegalArgumentException if the finder does.
+	 * @throws IllegalStateException    if the list cannot be loaded.
+	 */
+	private String[][] readRows(Supplier<AbstractTaskList> finder, Function<AbstractTaskList, String[][]> rows) {
+		long stamp = lock.tryOptimisticRead();
+		if (stamp != 0) {
+			try {
+				AbstractTaskList list = finder.get();
+				StampedLock listLock = list.getLock();
+				long listStamp = listLock.tryOptimisticRead();
+				if (listStamp != 0 && notebook.isReadable(list)) {
+					String[][] copy = rows.apply(list);
+					if (listLock.validate(listStamp) && lock.validate(stamp)) {
+						return copy;
+					}
+				}
+			} catch (RuntimeException e) {
+				// Retried under the read locks.
+			}
+		}
+		stamp = lock.readLock();
+		try {
+			AbstractTaskList list = finder.get();
+			if (notebook.isReadable(list)) {
+				StampedLock listLock = list.getLock();
+				long listStamp = listLock.readLock();
+				try {
+					return rows.apply(list);
+				} finally {
+					listLock.unlockRead(listStamp);
+				}
+			}
+		} finally {
+			lock.unlockRead(stamp);
+		}
+		return write(() -> {
+			AbstractTaskList list = finder.get();
+			notebook.load(list);
+			return rows.apply(list);
+		});
+	}
+
+	/**
+	 * Builds a new array of all the rows of a list, bypassing the array the list
+	 * caches for getTasksAsArray().
+	 *
+	 * @param list is the list.
+	 * @return is the rows.
+	 */
+	private static String[][] copyRows(AbstractTaskList list) {
+		return list.getTasksAsArray(0, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Runs a read: first optimistically, then under the read lock if a write may
+	 * have interfered. The reader must not change the Notebook. Any exception it
+	 * throws during the optimistic attempt is ignored, as it may come from seeing a
+	 * half-done write; the locked attempt throws it again if it was real.
+	 *
+	 * @param <T>    is the type of the result.
+	 * @param reader is the read.
+	 * @return is the result of the read.
+	 */
+	private <T> T read(Supplier<T> reader) {
+		long stamp = lock.tryOptimisticRead();
+		if (stamp != 0) {
+			try {
+				T result = reader.get();
+				if (lock.validate(stamp)) {
+					return result;
+				}
+			} catch (RuntimeException e) {
+				// Retried under the read lock.
+			}
+		}
+		stamp = lock.readLock();
+		try {
+			return reader.get();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Runs a write under the write lock.
+	 *
+	 * @param <T>    is the type of the result.
+	 * @param writer is the write.
+	 * @return is the result of the write.
+	 */
+	private <T> T write(Supplier<T> writer) {
+		long stamp = lock.writeLock();
+		try {
+			return writer.get();
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Runs a change to the named TaskList itself under the structure write lock,
+	 * with the TaskList made the current list for the change. The current list is
+	 * then set back, by name, to the list that was current before (or the Active
+	 * Tasks list if it is gone).
+	 *
+	 * @param taskListName is the name of the TaskList.
+	 * @param change       is the change to the current list.
+	 * @throws IllegalArgumentException if there is no list with that name.
+	 */
+	private void writeTaskList(String taskListName, Runnable change) {
+		write(() -> {
+			AbstractTaskList current = notebook.peekCurrentTaskList();
+			AbstractTaskList list = find(taskListName);
+			try {
+				notebook.setCurrentTaskList(list.getTaskListName());
+				change.run();
+			} finally {
+				notebook.setCurrentTaskList(current.getTaskListName());
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * Runs an edit of a TaskList under the structure read lock and the locks of
+	 * the lists the edit touches: the TaskList, then the Active Tasks list if the
+	 * Task involved is or becomes active, or is registered with it. If the edit
+	 * cannot be made that way (see the class comment), it is made under the
+	 * structure write lock, after loading the list.
+	 *
+	 * @param <T>          is the type of the result.
+	 * @param taskListName is the name of the list.
+	 * @param involved     finds the Task the edit involves, given the list.
+	 * @param activates    is true if the edit may make the Task active.
+	 * @param writer       is the edit, given the list.
+	 * @return is the result of the edit.
+	 * @throws IllegalArgumentException if there is no list with that name.
+	 */
+	private <T> T writeTo(String taskListName, Function<AbstractTaskList, Task> involved, boolean activates,
+			Function<AbstractTaskList, T> writer) {
+		long stamp = lock.readLock();
+		try {
+			AbstractTaskList list = find(taskListName);
+			AbstractTaskList active = notebook.findTaskList(ActiveTaskList.ACTIVE_TASKS_NAME);
+			if (list != active && notebook.getObserver() == null && notebook.isReadable(list)) {
+				StampedLock listLock = list.getLock();
+				long listStamp = listLock.writeLock();
+				try {
+					Task task = involved.apply(list);
+					boolean touchesActive = activates || task.isActive();
+					boolean confined = true;
+					for (AbstractTaskList registered : task.getTaskLists()) {
+						touchesActive |= registered == active;
+						confined &= registered == active || registered == list;
+					}
+					if (confined && !touchesActive) {
+						return writer.apply(list);
+					} else if (confined) {
+						StampedLock activeLock = active.getLock();
+						long activeStamp = activeLock.writeLock();
+						try {
+							return writer.apply(list);
+						} finally {
+							activeLock.unlockWrite(activeStamp);
+						}
+					}
+				} finally {
+					listLock.unlockWrite(listStamp);
+				}
+			}
+		} finally {
+			lock.unlockRead(stamp);
+		}
+		return write(() -> {
+			AbstractTaskList list = find(taskListName);
+			notebook.load(list);
+			return writer.apply(list);
+		});
+	}
+}
@@ -1,30 +1,67 @@
 package edu.ncsu.csc216.wolf_tasks.model.notebook;
 
 import java.io.File;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
 
+import edu.ncsu.csc216.wolf_tasks.model.io.NotebookFormat;
+import edu.ncsu.csc216.wolf_tasks.model.io.NotebookSnapshot;
 import edu.ncsu.csc216.wolf_tasks.model.io.NotebookWriter;
+import edu.ncsu.csc216.wolf_tasks.model.io.NotebookWriter.Durability;
+import edu.ncsu.csc216.wolf_tasks.model.notebook.NotebookObserver.Move;
 import edu.ncsu.csc216.wolf_tasks.model.tasks.AbstractTaskList;
 import edu.ncsu.csc216.wolf_tasks.model.tasks.ActiveTaskList;
 import edu.ncsu.csc216.wolf_tasks.model.tasks.Task;
 import edu.ncsu.csc216.wolf_tasks.model.tasks.TaskList;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.TaskListObserver;
 import edu.ncsu.csc216.wolf_tasks.model.util.ISortedList;
-import edu.ncsu.csc216.wolf_tasks.model.util.SortedList;
+import edu.ncsu.csc216.wolf_tasks.model.util.ISwapList;
+import edu.ncsu.csc216.wolf_tasks.model.util.SkipSortedList;
 
 /**
  * Contains an ISortedList of TaskList(s), one ActiveTaskList, and one TaskList
  * representing the currentTaskList, a name, and a boolean flag to keep track if
  * the Notebook has been changed since the last save.
  * 
+ * The ActiveTaskList is kept up to date incrementally: each TaskList in the
+ * Notebook reports its Task changes to the Notebook's observer, which inserts
+ * or removes only the affected Tasks. A TaskList that has not loaded its Tasks
+ * adds them to the ActiveTaskList when it loads; lists with active Tasks are
+ * loaded when the ActiveTaskList is next fetched through getCurrentTaskList().
+ * 
+ * Each change made through the Notebook's methods is reported, once it has
+ * succeeded, to the Notebook's NotebookObserver (if one is set), such as a
+ * NotebookJournal that records it.
+ * 
  * @author Michael Warstler
  */
 public class Notebook {
 
 	/** Notebook's name */
 	private String notebookName;
-	/** Tracks if Notebook has been changed since last save */
-	private boolean isChanged;
+	/**
+	 * Tracks if Notebook has been changed since last save. Volatile, as
+	 * ConcurrentNotebook sets it from edits to different TaskLists at once. Those
+	 * edits only ever set it true, so racing writes cannot lose a change; it is
+	 * only set false by saves, which run alone. Counting the edits needs more than
+	 * volatile, so changeCount is atomic.
+	 */
+	private volatile boolean isChanged;
+	/**
+	 * Number of changes made to the Notebook, which only ever grows. Atomic, as
+	 * the edits that set isChanged at once must each be counted.
+	 */
+	private final AtomicLong changeCount = new AtomicLong();
 	/** The SortedList of TaskList objects contained in the Notebook */
 	private ISortedList<TaskList> taskLists;
+	/** Index of the TaskList objects in taskLists by their normalized name */
+	private HashMap<String, TaskList> taskListIndex;
+	/** Names last built by getTaskListsNames(), or null if none have been */
+	private String[] taskListsNames;
+	/** Modification count of taskLists when the taskListsNames were built */
+	private int taskListsNamesCount;
 	/** The active task list for the Notebook */
 	private ActiveTaskList activeTaskList;
 	/**
@@ -32,10 +69,18 @@ public class Notebook {
 	 * standard TaskList
 	 */
 	private AbstractTaskList currentTaskList;
+	/** Observer that keeps the activeTaskList in step with the TaskLists */
+	private TaskListObserver activeTaskObserver;
+	/** True if a TaskList that has not loaded its Tasks may have active Tasks */
+	private boolean activeTasksPending;
+	/** Writer used to save the Notebook, which reuses its buffer between saves */
+	private NotebookWriter notebookWriter;
+	/** Observer notified of changes made through the Notebook, or null */
+	private NotebookObserver observer;
 
 	/**
 	 * Constructs a Notebook object with the given name. Field isChanged is set
-	 * true. The taskLists field is constructed as a SortedList and the
+	 * true. The taskLists field is constructed as a SkipSortedList and the
 	 * activeTaskList field is constructed (and set) to the currentTaskList.
 	 * 
 	 * @param name of Notebook to set.
@@ -43,22 +88,145 @@ public class Notebook {
 	 *                                  setNoteBookeName().
 	 */
 	public Notebook(String name) {
+		this(name, new SkipSortedList<TaskList>());
+	}
+
+	/**
+	 * Constructs a Notebook object with the given name that stores its TaskLists
+	 * in the given (empty) ISortedList implementation. Field isChanged is set true
+	 * and the activeTaskList field is constructed (and set) to the
+	 * currentTaskList.
+	 * 
+	 * @param name      of Notebook to set.
+	 * @param taskLists is the empty ISortedList to hold the Notebook's TaskLists.
+	 * @throws IllegalArgumentException when name is invalid through
+	 *                                  setNoteBookeName(), or if taskLists is null
+	 *                                  or not empty.
+	 */
+	public Notebook(String name, ISortedList<TaskList> taskLists) {
 		setNotebookName(name);
-		isChanged = true;
-		taskLists = new SortedList<TaskList>();
+		if (taskLists == null || taskLists.size() != 0) {
+			throw new IllegalArgumentException("Invalid task lists.");
+		}
+		markChanged();
+		this.taskLists = taskLists;
+		taskListIndex = new HashMap<String, TaskList>();
 		activeTaskList = new ActiveTaskList();
 		currentTaskList = activeTaskList;
+		activeTaskObserver = new ActiveTaskObserver();
+		notebookWriter = new NotebookWriter(Durability.PER_SAVE);
 	}
 
 	/**
-	 * Saves the current Notebook to the given file. Field isChanged is changed to
-	 * false.
+	 * Saves the current Notebook to the given file, in the NotebookFormat its
+	 * extension names: BINARY for a ".wtnb" file, TEXT otherwise. The file is
+	 * replaced atomically, and forced to disk as set by setSaveDurability()
+	 * (PER_SAVE by default). Field isChanged is changed to false.
 	 * 
 	 * @param notebookFile is the file to save notebook to.
+	 * @throws IllegalArgumentException if unable to save to file.
 	 */
 	public void saveNotebook(File notebookFile) {
-		NotebookWriter.writeNotebookFile(notebookFile, notebookName, taskLists);
+		saveNotebook(notebookFile, NotebookFormat.forFile(notebookFile));
+	}
+
+	/**
+	 * Saves the current Notebook to the given file in the given format. Field
+	 * isChanged is changed to false. TaskLists that have not changed since the
+	 * last save, or since the Notebook was read, are copied from that file rather
+	 * than written again (see NotebookWriter).
+	 * 
+	 * @param notebookFile is the file to save notebook to.
+	 * @param format       is the format to save in.
+	 * @throws IllegalArgumentException if the format is null or unable to save to
+	 *                                  file.
+	 */
+	public void saveNotebook(File notebookFile, NotebookFormat format) {
+		notebookWriter.writeNotebook(notebookFile, notebookName, taskLists, format);
 		isChanged = false;
+		if (observer != null) {
+			observer.notebookSaved(notebookFile);
+		}
+	}
+
+	/**
+	 * Takes a snapshot of the Notebook that can be saved on another thread while
+	 * the Notebook keeps changing. Only the Tasks of TaskLists changed since the
+	 * last save are copied (see NotebookSnapshot). Once the snapshot is saved,
+	 * snapshotSaved() must be called on the thread that changes the Notebook. The
+	 * observer (if any) is told of the snapshot.
+	 *
+	 * @param format is the format the snapshot is saved in.
+	 * @return is the snapshot.
+	 * @throws IllegalArgumentException if the format is null or a TaskList could
+	 *                                  not load its Tasks.
+	 */
+	public NotebookSnapshot snapshot(NotebookFormat format) {
+		NotebookSnapshot snapshot = notebookWriter.snapshot(notebookName, taskLists, format);
+		if (observer != null) {
+			observer.snapshotTaken(snapshot);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Records that a snapshot of the Notebook was saved to a file. If the Notebook
+	 * has not changed since the snapshot, field isChanged is changed to false;
+	 * otherwise the Notebook stays changed. The observer (if any) is told of the
+	 * save, and brings itself in step with the file without the Notebook being
+	 * saved again (a NotebookJournal keeps only the changes made since the
+	 * snapshot).
+	 *
+	 * @param snapshot     is the snapshot that was saved.
+	 * @param notebookFile is the file it was saved to.
+	 */
+	public void snapshotSaved(NotebookSnapshot snapshot, File notebookFile) {
+		if (snapshot.isCurrent(notebookName, taskLists)) {
+			isChanged = false;
+		}
+		if (observer != null) {
+			observer.snapshotSaved(snapshot, notebookFile);
+		}
+	}
+
+	/**
+	 * Sets the observer that is notified of each change made through the
+	 * Notebook's methods, and of each save. Null removes the current observer.
+	 * 
+	 * @param observer is the NotebookObserver to notify, or null.
+	 */
+	public void setObserver(NotebookObserver observer) {
+		this.observer = observer;
+	}
+
+	/**
+	 * Gets the observer that is notified of changes made through the Notebook.
+	 * 
+	 * @return is the observer field, or null if there is none.
+	 */
+	public NotebookObserver getObserver() {
+		return observer;
+	}
+
+	/**
+	 * Sets how far each later save is forced to disk before saveNotebook()
+	 * returns.
+	 * 
+	 * @param durability is the Durability of each save.
+	 * @throws IllegalArgumentException if durability is null.
+	 */
+	public void setSaveDurability(Durability durability) {
+		notebookWriter.setDurability(durability);
+	}
+
+	/**
+	 * Gets the NotebookWriter that saves the Notebook. A NotebookReader tells it
+	 * where each TaskList was in the file it read.
+	 * 
+	 * @return is the notebookWriter field.
+	 */
+	public NotebookWriter getNotebookWriter() {
+		return notebookWriter;
 	}
 
 	/**
@@ -99,12 +267,39 @@ public class Notebook {
 	 * @param change is true/false for changed or not.
 	 */
 	public void setChanged(boolean change) {
-		isChanged = change;
+		if (change) {
+			markChanged();
+		} else {
+			isChanged = false;
+		}
+	}
+
+	/**
+	 * Gets the number of changes made to the Notebook since it was constructed.
+	 * Each change sets isChanged and adds at least one to the count; saving does
+	 * not reset it. Another thread can compare counts to see whether the Notebook
+	 * changed in between, without locking it.
+	 *
+	 * @return is the value of the changeCount field.
+	 */
+	public long getChangeCount() {
+		return changeCount.get();
+	}
+
+	/**
+	 * Records a change: isChanged is set true and changeCount grows by one. Safe
+	 * to call from edits on several threads at once (see ConcurrentNotebook): no
+	 * increment is lost.
+	 */
+	private void markChanged() {
+		isChanged = true;
+		changeCount.incrementAndGet();
 	}
 
 	/**
-	 * Adds the taskList to the list of task lists. The currentTaskList is updated
-	 * to the new task list. The isChanged field is updated to true.
+	 * Adds the taskList to the list of task lists. Its active Tasks are added to
+	 * the activeTaskList. The currentTaskList is updated to the new task list. The
+	 * isChanged field is updated to true.
 	 * 
 	 * @param taskList is the taskList to add.
 	 * @throws IllegalArgumentException if the parameter's name matches
@@ -117,66 +312,220 @@ public class Notebook {
 			throw new IllegalArgumentException("Invalid name.");
 		}
 		// Check if param name matches any name in taskLists.
-		if (taskLists.size() != 0) {
-			for (int i = 0; i < taskLists.size(); i++) {
-				if (taskList.getTaskListName().equalsIgnoreCase(taskLists.get(i).getTaskListName())) {
-					throw new IllegalArgumentException("Invalid name.");
-				}
-			}
+		String key = normalize(taskList.getTaskListName());
+		if (taskListIndex.containsKey(key)) {
+			throw new IllegalArgumentException("Invalid name.");
 		}
 
-		// If no exceptions, add the TaskList object to taskLists field.
+		// If no exceptions, add the TaskList object to taskLists field and the index.
 		taskLists.add(taskList);
-		getActiveTaskList();	// update the ActiveTaskList to include any possible new tasks.
+		taskListIndex.put(key, taskList);
+		addActiveTasks(taskList);
 		currentTaskList = taskList; // Update currentTaskList to be param.
-		isChanged = true;
+		markChanged();
+		if (observer != null) {
+			observer.taskListAdded(taskList);
+		}
 	}
 
 	/**
-	 * Gets a list of task list names. ActiveTasks list is always first.
+	 * Adds a batch of TaskLists to the list of task lists in one sorted merge. The
+	 * ActiveTaskList is rebuilt once for the whole batch and the isChanged field is
+	 * updated to true. The currentTaskList is not changed. If any TaskList is
+	 * invalid, none of them are added.
+	 * 
+	 * @param batch is the TaskLists to add.
+	 * @throws IllegalArgumentException if any name matches activeTaskList's name
+	 *                                  or is a duplicate of another TaskList in the
+	 *                                  batch or the Notebook (case IN-sensitive).
+	 */
+	public void addTaskLists(Collection<TaskList> batch) {
+		// Check every new name against the index and the rest of the batch.
+		HashSet<String> names = new HashSet<String>();
+		names.add(normalize(ActiveTaskList.ACTIVE_TASKS_NAME));
+		for (TaskList taskList : batch) {
+			String key = normalize(taskList.getTaskListName());
+			if (taskListIndex.containsKey(key) || !names.add(key)) {
+				throw new IllegalArgumentException("Invalid name.");
+			}
+		}
+
+		// If no exceptions, merge the batch into the taskLists field and the index.
+		taskLists.addAll(batch);
+		for (TaskList taskList : batch) {
+			taskListIndex.put(normalize(taskList.getTaskListName()), taskList);
+		}
+		markChanged();
+		rebuildActiveTaskList(); // one pass is cheaper than inserting each active Task.
+		if (observer != null) {
+			for (TaskList taskList : batch) {
+				observer.taskListAdded(taskList);
+			}
+		}
+	}
+
+	/**
+	 * Normalizes a TaskList name so that names that are equal ignoring case (as
+	 * defined by String.equalsIgnoreCase()) have the same normalized form.
+	 * 
+	 * @param name to normalize.
+	 * @return is the normalized name.
+	 */
+	private static String normalize(String name) {
+		char[] chars = name.toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Gets a list of task list names. ActiveTasks list is always first. The names
+	 * are kept until the taskLists field changes (a TaskList is renamed by
+	 * removing and adding it back), so repeated calls only copy them. The caller
+	 * may modify the returned array without affecting the Notebook or later calls.
 	 * 
 	 * @return is list of task list names.
 	 */
 	public String[] getTaskListsNames() {
+		if (taskListsNames == null || taskListsNamesCount != taskLists.getModificationCount()) {
+			taskListsNames = buildTaskListsNames();
+			taskListsNamesCount = taskLists.getModificationCount();
+		}
+		return taskListsNames.clone();
+	}
+
+	/**
+	 * Builds a new array of the task list names, as getTaskListsNames() returns
+	 * them. ConcurrentNotebook reads through it, so that reads never share or
+	 * store an array.
+	 * 
+	 * @return is a new list of task list names.
+	 */
+	String[] buildTaskListsNames() {
 		String[] nameArray = new String[taskLists.size() + 1]; // +1 for activelist.
 																
 		// First name is always "Active Tasks
 		nameArray[0] = ActiveTaskList.ACTIVE_TASKS_NAME;
 
 		// Remaining names from taskLists field added. (These are already sorted.)
-		for (int i = 0; i < taskLists.size(); i++) {
-			nameArray[i + 1] = taskLists.get(i).getTaskListName(); 										
+		int i = 1;
+		for (TaskList taskList : taskLists) {
+			nameArray[i] = taskList.getTaskListName();
+			i++;
 		}
 		return nameArray;
 	}
 
 	/**
-	 * Whenever a change occurs, the ActiveTaskList field is cleared and
-	 * reconstructed. Active Tasks in the ActiveTaskList are ordered first by the
-	 * Task's TaskList name, then the subsequent Active Tasks by priority.
-	 */
-	private void getActiveTaskList() {
-		// Check if there has been a Notebook change.
-		if (isChanged) {
-			// Clear the existing ActiveTaskList
-			activeTaskList.clearTasks();
-
-			// Go through taskLists (SortedList) field
-			for (int i = 0; i < taskLists.size(); i++) {
-				TaskList list = taskLists.get(i); // get each TaskList object.
-				// Cycle through the TaskList object and check each Task if Active.
-				for (int k = 0; k < list.getTasks().size(); k++) {
-					// Get each Task in the TaskList.
-					Task task = list.getTasks().get(k);
-					// If a Task is Active, add it to the ActiveTaskList (field/Object).
-					if (task.isActive()) {
-						activeTaskList.addTask(task);
-					}
+	 * Clears and reconstructs the ActiveTaskList field, and registers the
+	 * Notebook's observer with every TaskList. Active Tasks in the ActiveTaskList
+	 * are ordered first by the Task's TaskList name, then the subsequent Active
+	 * Tasks by priority.
+	 */
+	private void rebuildActiveTaskList() {
+		// Clear the existing ActiveTaskList
+		activeTaskList.clearTasks();
+
+		// Go through taskLists (SortedList) field
+		for (TaskList list : taskLists) {
+			list.setObserver(activeTaskObserver);
+			// A list that has not loaded adds its active Tasks when it loads.
+			if (!list.isLoaded()) {
+				activeTasksPending |= list.hasUnloadedActiveTasks();
+				continue;
+			}
+			// Cycle through the TaskList object and check each Task if Active.
+			for (Task task : list.getTasks()) {
+				// If a Task is Active (and not already added through another list), add it
+				// to the ActiveTaskList (field/Object).
+				if (task.isActive() && activeTaskList.getTasks().indexOf(task) == -1) {
+					activeTaskList.addTask(task);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Registers the Notebook's observer with the TaskList and adds its active
+	 * Tasks to the ActiveTaskList in order.
+	 * 
+	 * @param taskList is the TaskList whose Tasks to add.
+	 */
+	private void addActiveTasks(TaskList taskList) {
+		taskList.setObserver(activeTaskObserver);
+		if (!taskList.isLoaded()) {
+			activeTasksPending |= taskList.hasUnloadedActiveTasks();
+			return;
+		}
+		for (Task task : taskList.getTasks()) {
+			addActiveTask(task);
+		}
+	}
+
+	/**
+	 * Unregisters the Notebook's observer from the TaskList and removes its Tasks
+	 * from the ActiveTaskList.
+	 * 
+	 * @param taskList is the TaskList whose Tasks to remove.
+	 */
+	private void removeActiveTasks(TaskList taskList) {
+		taskList.setObserver(null);
+		if (!taskList.isLoaded()) {
+			return; // none of its Tasks are in the ActiveTaskList.
+		}
+		for (Task task : taskList.getTasks()) {
+			activeTaskList.getTasks().removeElement(task);
+		}
+	}
+
+	/**
+	 * Adds the Task to the ActiveTaskList if it is active and not already there.
+	 * The ActiveTaskList is kept ordered, so its index is found with a binary
+	 * search.
+	 * 
+	 * @param task is the Task to add.
+	 */
+	private void addActiveTask(Task task) {
+		ISwapList<Task> activeTasks = activeTaskList.getTasks();
+		if (task.isActive() && activeTasks.indexOf(task) == -1) {
+			// Find the first active Task that is ordered after the new Task.
+			int low = 0;
+			int high = activeTasks.size();
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (compareActiveTasks(activeTasks.get(mid), task) < 0) {
+					low = mid + 1;
+				} else {
+					high = mid;
 				}
 			}
+			activeTaskList.addTask(low, task);
 		}
 	}
 
+	/**
+	 * Compares two Tasks in ActiveTaskList order: first by the Task's TaskList
+	 * name, then by their index in that TaskList.
+	 * 
+	 * @param task1 is the first Task to compare.
+	 * @param task2 is the second Task to compare.
+	 * @return is negative, zero, or positive as task1 is ordered before, with, or
+	 *         after task2.
+	 */
+	private int compareActiveTasks(Task task1, Task task2) {
+		String listName = task1.getTaskListName();
+		int byList = listName.compareTo(task2.getTaskListName());
+		if (byList != 0) {
+			return byList;
+		}
+		TaskList taskList = taskListIndex.get(normalize(listName));
+		if (taskList == null) {
+			return 0;
+		}
+		return Integer.compare(taskList.getTasks().indexOf(task1), taskList.getTasks().indexOf(task2));
+	}
+
 	/**
 	 * Sets the currentTaskList field to the AbstractTaskList with the given
 	 * parameter name. If the name parameter is not found, then the currentTaskList
@@ -185,74 +534,150 @@ public class Notebook {
 	 * @param taskListName to set as the currentTaskList.
 	 */
 	public void setCurrentTaskList(String taskListName) {
-		// Track if the currentTaskList has taken the parameter name.
-		boolean matchFound = false;
-
-		// Go through the taskLists field.
-		for (int i = 0; i < taskLists.size(); i++) {
-			// If the param name matches a TaskList name, set that to the currentTaskList
-			// field.
-			if (taskListName.equals(taskLists.get(i).getTaskListName())) {
-				currentTaskList = taskLists.get(i);
-				matchFound = true;
-			}
-		}
-
-		// If no match found in the taskLists field, set current = active.
-		if (!matchFound) {
-			// Rebuild ActiveTaskList (if needed) and set current = active.
-			getActiveTaskList();
+		// Look up the param name in the index. The index ignores case, so the match
+		// must still be checked for the exact name.
+		TaskList taskList = taskListName == null ? null : taskListIndex.get(normalize(taskListName));
+		if (taskList != null && taskListName.equals(taskList.getTaskListName())) {
+			currentTaskList = taskList;
+		} else {
+			// If no match found in the taskLists field, set current = active.
 			currentTaskList = activeTaskList;
 		}
 	}
 
 	/**
-	 * Gets the currentTaskList.
+	 * Gets the currentTaskList. If it is the ActiveTaskList, the TaskLists with
+	 * active Tasks that have not been loaded are loaded first.
 	 * 
 	 * @return is the currentTaskList field.
+	 * @throws IllegalStateException if a TaskList cannot be loaded.
 	 */
 	public AbstractTaskList getCurrentTaskList() {
+		if (currentTaskList == activeTaskList && activeTasksPending) {
+			loadActiveTasks();
+		}
 		return currentTaskList;
 	}
 
+	/**
+	 * Gets the currentTaskList without loading anything. Used by
+	 * ConcurrentNotebook, whose optimistic reads must not change the Notebook.
+	 * 
+	 * @return is the currentTaskList field.
+	 */
+	AbstractTaskList peekCurrentTaskList() {
+		return currentTaskList;
+	}
+
+	/**
+	 * Finds the list with the given name (case sensitive), which may be the
+	 * activeTaskList, without changing the currentTaskList.
+	 * 
+	 * @param taskListName is the name of the list.
+	 * @return is the list, or null if there is none with that name.
+	 */
+	AbstractTaskList findTaskList(String taskListName) {
+		if (ActiveTaskList.ACTIVE_TASKS_NAME.equals(taskListName)) {
+			return activeTaskList;
+		}
+		TaskList taskList = taskListName == null ? null : taskListIndex.get(normalize(taskListName));
+		return taskList != null && taskListName.equals(taskList.getTaskListName()) ? taskList : null;
+	}
+
+	/**
+	 * Tells if the list's Tasks can be read without loading anything first.
+	 * 
+	 * @param list is a list found by findTaskList().
+	 * @return is true if reading the list does not change the Notebook.
+	 */
+	boolean isReadable(AbstractTaskList list) {
+		return list == activeTaskList ? !activeTasksPending : list.isLoaded();
+	}
+
+	/**
+	 * Loads whatever reading the list needs: its Tasks, or for the
+	 * activeTaskList, every TaskList with active Tasks.
+	 * 
+	 * @param list is a list found by findTaskList().
+	 * @throws IllegalStateException if a TaskList cannot be loaded.
+	 */
+	void load(AbstractTaskList list) {
+		if (list == activeTaskList) {
+			if (activeTasksPending) {
+				loadActiveTasks();
+			}
+		} else {
+			list.getTasks();
+		}
+	}
+
+	/**
+	 * Loads every TaskList that has active Tasks and has not loaded them. Each
+	 * list adds its active Tasks to the ActiveTaskList through the observer.
+	 * 
+	 * @throws IllegalStateException if a TaskList cannot be loaded.
+	 */
+	private void loadActiveTasks() {
+		for (TaskList list : taskLists) {
+			if (list.hasUnloadedActiveTasks()) {
+				list.getTasks();
+			}
+		}
+		activeTasksPending = false;
+	}
+
 	/**
 	 * Edits the currentTaskList's name with the parameter. Will remove
-	 * currentTaskList from SortedList, edit, then add back to taskLists field.
+	 * currentTaskList from SortedList, edit, then add back to taskLists field. The
+	 * name index is updated only once the new name has been checked, so a rejected
+	 * name leaves the Notebook unchanged. The name is checked as addTaskList()
+	 * checks it, ignoring case, except that the current name may change case. The
+	 * list's active Tasks are moved to their place for the new name in the
+	 * ActiveTaskList.
 	 * 
 	 * @param taskListName is name to try to change currentTaskList to.
 	 * @throws IllegalArgumentException if the currentTaskList is an ActiveTaskList
-	 *                                  or if the param name matches "Active Tasks"
-	 *                                  or is a duplicate of the name of another
-	 *                                  TaskList (case insensitive).
+	 *                                  or if the param name is null, empty, matches
+	 *                                  "Active Tasks" (case insensitive), is the
+	 *                                  current name, or is a duplicate of the name
+	 *                                  of another TaskList (case insensitive).
 	 */
 	public void editTaskList(String taskListName) {
 		// check exception.
 		if (currentTaskList == activeTaskList) {
 			throw new IllegalArgumentException("The Active Tasks list may not be edited.");
 		}
-		// Check if param name matches existing TaskList names
-		for (int i = 0; i < taskLists.size(); i++) {
-			if (taskListName.equals(taskLists.get(i).getTaskListName())) {
-				throw new IllegalArgumentException("Invalid name.");
-			}
+		if (taskListName == null || "".equals(taskListName)) {
+			throw new IllegalArgumentException("Invalid name.");
 		}
-		// Check if param = "Active Tasks"
-		if (taskListName.equals(ActiveTaskList.ACTIVE_TASKS_NAME)) {
+		// Check if param = "Active Tasks" or the current name.
+		String key = normalize(taskListName);
+		if (key.equals(normalize(ActiveTaskList.ACTIVE_TASKS_NAME))
+				|| taskListName.equals(currentTaskList.getTaskListName())) {
+			throw new IllegalArgumentException("Invalid name.");
+		}
+		// Check if param name matches another TaskList name. Only the case of the
+		// current name may change.
+		TaskList existing = taskListIndex.get(key);
+		if (existing != null && existing != currentTaskList) {
 			throw new IllegalArgumentException("Invalid name.");
 		}
 
 		// Find and remove currentTaskList from taskLists
-		for (int k = 0; k < taskLists.size(); k++) {
-			// If currentTaskList is found, remove it from the taskLists field.
-			if (currentTaskList == taskLists.get(k)) {
-				taskLists.remove(k); // removes current from taskLists.
-			}
-		}
+		removeCurrentFromTaskLists();
 
-		// Edit the currentTaskList name and add back to taskLists field.
-		currentTaskList.setTaskListName(taskListName);
-		taskLists.add((TaskList) currentTaskList); // must cast to concrete TaskList to add.
-		isChanged = true;
+		// Edit the currentTaskList name and add back to taskLists field and the index.
+		TaskList taskList = (TaskList) currentTaskList; // must cast to concrete TaskList to add.
+		String oldName = taskList.getTaskListName();
+		removeActiveTasks(taskList);
+		taskList.setTaskListName(taskListName);
+		taskLists.add(taskList);
+		taskListIndex.put(key, taskList);
+		addActiveTasks(taskList);
+		markChanged();
+		if (observer != null) {
+			observer.taskListEdited(oldName, taskListName);
+		}
 	}
 
 	/**
@@ -268,60 +693,332 @@ public class Notebook {
 			throw new IllegalArgumentException("The Active Tasks list may not be deleted.");
 		}
 
-		// Find and remove currentTaskList from taskLists
-		for (int k = 0; k < taskLists.size(); k++) {
-			// If currentTaskList is found, remove it from the taskLists field.
-			if (currentTaskList == taskLists.get(k)) {
-				taskLists.remove(k); // removes current from taskLists.
-			}
-		}
+		// Find and remove currentTaskList from taskLists, and its Tasks from active.
+		removeCurrentFromTaskLists();
+		removeActiveTasks((TaskList) currentTaskList);
 
 		// Set current to be active and changed to true.
+		String taskListName = currentTaskList.getTaskListName();
 		currentTaskList = activeTaskList;
-		isChanged = true;
+		markChanged();
+		if (observer != null) {
+			observer.taskListRemoved(taskListName);
+		}
+	}
+
+	/**
+	 * Finds the currentTaskList in the taskLists field by its rank and removes it,
+	 * along with its entry in the name index.
+	 */
+	private void removeCurrentFromTaskLists() {
+		taskListIndex.remove(normalize(currentTaskList.getTaskListName()));
+		int idx = taskLists.indexOf((TaskList) currentTaskList);
+		// If currentTaskList is found, remove it from the taskLists field.
+		if (idx != -1) {
+			taskLists.remove(idx);
+		}
 	}
 
 	/**
 	 * Adds a Task object to the currentTaskList. If the Task parameter is active,
-	 * the activeTaskList is also updated accordingly. If the currentTaskList is not
+	 * the activeTaskList is also updated accordingly (by the observer). If the currentTaskList is not
 	 * a TaskList, nothing is done. (does this use instanceof or do I check if
 	 * currentTaskList == activeTaskList)
 	 * 
 	 * @param t is Task object to add.
 	 */
 	public void addTask(Task t) {
-		// Only add if current is not the ActiveTaskList.
-		if (currentTaskList instanceof TaskList) {
-			currentTaskList.addTask(t); // add to current task list.
-			isChanged = true;
+		addTask(currentTaskList, t);
+	}
+
+	/**
+	 * Adds a Task object to the given list, as addTask(Task) does for the
+	 * currentTaskList.
+	 * 
+	 * @param list is the list to add to.
+	 * @param t    is Task object to add.
+	 */
+	void addTask(AbstractTaskList list, Task t) {
+		// Only add if the list is not the ActiveTaskList.
+		if (list instanceof TaskList) {
+			list.addTask(t); // add to the task list.
+			markChanged();
+			if (observer != null) {
+				observer.taskAdded(list.getTaskListName(), t);
+			}
 		}
-		// Rebuild ActiveTaskList so that edited Task is either added or removed from
-		// ActiveTaskList.
-		getActiveTaskList();
 	}
 
 	/**
 	 * Edits fields of a Task with the parameter values. A Task can only be edited
 	 * if the currentTaskList is a TaskList, otherwise method does nothing. If the
-	 * Task is active, the ActiveTaskList is updated.
+	 * Task's active status changes, the observer updates the ActiveTaskList. All
+	 * the values are checked before any is set, so an invalid edit changes
+	 * nothing.
 	 * 
 	 * @param idx             of currentTaskList to edit.
 	 * @param taskName        of Task to edit.
 	 * @param taskDescription of Task to edit.
 	 * @param recurring       status of Task to edit.
 	 * @param active          status of Task to edit.
+	 * @throws IllegalArgumentException  if the name or description is null or
+	 *                                   empty.
+	 * @throws IndexOutOfBoundsException if idx is out of bounds.
 	 */
 	public void editTask(int idx, String taskName, String taskDescription, boolean recurring, boolean active) {
-		// Only edit if current is not the ActiveTaskList
-		if (currentTaskList instanceof TaskList) {
-			isChanged = true;
-			currentTaskList.getTask(idx).setTaskName(taskName);
-			currentTaskList.getTask(idx).setTaskDescrption(taskDescription);
-			currentTaskList.getTask(idx).setRecurring(recurring);
-			currentTaskList.getTask(idx).setActive(active);
-		}
-		// Rebuild ActiveTaskList so that edited Task is either added or removed from
-		// ActiveTaskList.
-		getActiveTaskList();
+		editTask(currentTaskList, idx, taskName, taskDescription, recurring, active);
+	}
+
+	/**
+	 * Edits fields of a Task of the given list, as editTask() does for the
+	 * currentTaskList.
+	 * 
+	 * @param list            is the list holding the Task.
+	 * @param idx             of the list to edit.
+	 * @param taskName        of Task to edit.
+	 * @param taskDescription of Task to edit.
+	 * @param recurring       status of Task to edit.
+	 * @param active          status of Task to edit.
+	 */
+	void editTask(AbstractTaskList list, int idx, String taskName, String taskDescription, boolean recurring,
+			boolean active) {
+		// Only edit if the list is not the ActiveTaskList
+		if (list instanceof TaskList) {
+			Task task = list.getTask(idx);
+			// Check the values first, so the edit applies fully or not at all.
+			Task.checkTaskInformation(taskName, taskDescription);
+			markChanged();
+			task.setTaskName(taskName);
+			task.setTaskDescrption(taskDescription);
+			task.setRecurring(recurring);
+			task.setActive(active);
+			if (observer != null) {
+				observer.taskEdited(list.getTaskListName(), idx, task);
+			}
+		}
+	}
+
+	/**
+	 * Removes the Task at the given index of the currentTaskList. Removing a Task
+	 * from the activeTaskList only takes it out of that list, until the
+	 * activeTaskList is next rebuilt; it is not reported to the observer.
+	 * 
+	 * @param idx of currentTaskList to remove.
+	 * @return is the removed Task.
+	 * @throws IndexOutOfBoundsException if idx is out of bounds for the
+	 *                                   currentTaskList.
+	 */
+	public Task removeTask(int idx) {
+		return removeTask(currentTaskList, idx);
+	}
+
+	/**
+	 * Removes the Task at the given index of the given list, as removeTask(int)
+	 * does for the currentTaskList.
+	 * 
+	 * @param list is the list to remove from.
+	 * @param idx  of the list to remove.
+	 * @return is the removed Task.
+	 * @throws IndexOutOfBoundsException if idx is out of bounds for the list.
+	 */
+	Task removeTask(AbstractTaskList list, int idx) {
+		Task removed = list.removeTask(idx);
+		if (list instanceof TaskList) {
+			markChanged();
+			if (observer != null) {
+				observer.taskRemoved(list.getTaskListName(), idx);
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * Completes the Task at the given index of the currentTaskList. The Task is
+	 * removed from every list holding it and, if it is recurring, a copy is added
+	 * back (see Task.completeTask()). The change is reported against the TaskList
+	 * that holds the Task.
+	 * 
+	 * @param idx of currentTaskList to complete.
+	 * @throws IndexOutOfBoundsException if idx is out of bounds for the
+	 *                                   currentTaskList.
+	 */
+	public void completeTask(int idx) {
+		completeTask(getCurrentTaskList(), idx);
+	}
+
+	/**
+	 * Completes the Task at the given index of the given list, as
+	 * completeTask(int) does for the currentTaskList.
+	 * 
+	 * @param list is the list holding the Task.
+	 * @param idx  of the list to complete.
+	 * @throws IndexOutOfBoundsException if idx is out of bounds for the list.
+	 */
+	void completeTask(AbstractTaskList list, int idx) {
+		Task task = list.getTask(idx);
+		AbstractTaskList owner = list;
+		int ownerIdx = idx;
+		if (owner == activeTaskList) {
+			TaskList taskList = taskListIndex.get(normalize(task.getTaskListName()));
+			if (taskList != null) {
+				owner = taskList;
+				ownerIdx = taskList.getTasks().indexOf(task);
+			}
+		}
+		task.completeTask();
+		markChanged();
+		if (observer != null) {
+			observer.taskCompleted(owner.getTaskListName(), ownerIdx);
+		}
+	}
+
+	/**
+	 * Moves the Task at the given index of the currentTaskList to index-1.
+	 * 
+	 * @param idx of currentTaskList to move.
+	 * @throws IllegalArgumentException  if the currentTaskList is the
+	 *                                   activeTaskList.
+	 * @throws IndexOutOfBoundsException if idx is out of bounds.
+	 */
+	public void moveTaskUp(int idx) {
+		moveTask(currentTaskList, idx, Move.UP);
+	}
+
+	/**
+	 * Moves the Task at the given index of the currentTaskList to index+1.
+	 * 
+	 * @param idx of currentTaskList to move.
+	 * @throws IllegalArgumentException  if the currentTaskList is the
+	 *                                   activeTaskList.
+	 * @throws IndexOutOfBoundsException if idx is out of bounds.
+	 */
+	public void moveTaskDown(int idx) {
+		moveTask(currentTaskList, idx, Move.DOWN);
+	}
+
+	/**
+	 * Moves the Task at the given index of the currentTaskList to the front.
+	 * 
+	 * @param idx of currentTaskList to move.
+	 * @throws IllegalArgumentException  if the currentTaskList is the
+	 *                                   activeTaskList.
+	 * @throws IndexOutOfBoundsException if idx is out of bounds.
+	 */
+	public void moveTaskToFront(int idx) {
+		moveTask(currentTaskList, idx, Move.TO_FRONT);
+	}
+
+	/**
+	 * Moves the Task at the given index of the currentTaskList to the back.
+	 * 
+	 * @param idx of currentTaskList to move.
+	 * @throws IllegalArgumentException  if the currentTaskList is the
+	 *                                   activeTaskList.
+	 * @throws IndexOutOfBoundsException if idx is out of bounds.
+	 */
+	public void moveTaskToBack(int idx) {
+		moveTask(currentTaskList, idx, Move.TO_BACK);
+	}
+
+	/**
+	 * Moves the Task at the given index of the given list, marks the Notebook
+	 * changed and tells the observer (if any).
+	 * 
+	 * @param list is the list holding the Task.
+	 * @param idx  of the list to move.
+	 * @param move is how to move the Task.
+	 * @throws IllegalArgumentException  if the list is the activeTaskList.
+	 * @throws IndexOutOfBoundsException if idx is out of bounds.
+	 */
+	void moveTask(AbstractTaskList list, int idx, Move move) {
+		switch (move) {
+		case UP:
+			list.moveTaskUp(idx);
+			break;
+		case DOWN:
+			list.moveTaskDown(idx);
+			break;
+		case TO_FRONT:
+			list.moveTaskToFront(idx);
+			break;
+		default:
+			list.moveTaskToBack(idx);
+			break;
+		}
+		markChanged();
+		if (observer != null) {
+			observer.taskMoved(list.getTaskListName(), idx, move);
+		}
+	}
+
+	/**
+	 * Keeps the activeTaskList up to date as the Tasks in the Notebook's TaskLists
+	 * change. Each change only inserts or removes the affected Task.
+	 */
+	private class ActiveTaskObserver implements TaskListObserver {
+
+		/**
+		 * Adds the Task to the activeTaskList if it is active.
+		 * 
+		 * @param taskList is the TaskList that changed.
+		 * @param task     is the Task that was added.
+		 */
+		@Override
+		public void taskAdded(AbstractTaskList taskList, Task task) {
+			addActiveTask(task);
+		}
+
+		/**
+		 * Removes the Task from the activeTaskList.
+		 * 
+		 * @param taskList is the TaskList that changed.
+		 * @param task     is the Task that was removed.
+		 */
+		@Override
+		public void taskRemoved(AbstractTaskList taskList, Task task) {
+			activeTaskList.getTasks().removeElement(task);
+		}
+
+		/**
+		 * Moves the Task to its new place in the activeTaskList, if it is there.
+		 * 
+		 * @param taskList is the TaskList that changed.
+		 * @param task     is the Task that was moved.
+		 */
+		@Override
+		public void taskMoved(AbstractTaskList taskList, Task task) {
+			if (activeTaskList.getTasks().removeElement(task)) {
+				addActiveTask(task);
+			}
+		}
+
+		/**
+		 * Adds the Task to or removes it from the activeTaskList to match its
+		 * active status.
+		 * 
+		 * @param taskList is the TaskList holding the Task.
+		 * @param task     is the Task that changed.
+		 */
+		@Override
+		public void taskActiveChanged(AbstractTaskList taskList, Task task) {
+			if (task.isActive()) {
+				addActiveTask(task);
+			} else {
+				activeTaskList.getTasks().removeElement(task);
+			}
+		}
+
+		/**
+		 * Adds the active Tasks of a TaskList that has just loaded to the
+		 * activeTaskList.
+		 * 
+		 * @param taskList is the TaskList that loaded its Tasks.
+		 */
+		@Override
+		public void tasksLoaded(AbstractTaskList taskList) {
+			for (Task task : taskList.getTasks()) {
+				addActiveTask(task);
+			}
+		}
 	}
 }
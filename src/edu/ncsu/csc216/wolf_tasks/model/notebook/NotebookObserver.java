@@ -0,0 +1,121 @@
+package edu.ncsu.csc216.wolf_tasks.model.notebook;
+
+import java.io.File;
+
+import edu.ncsu.csc216.wolf_tasks.model.io.NotebookSnapshot;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.Task;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.TaskList;
+
+/**
+ * Interface for an object that is notified of each change made through a
+ * Notebook's methods, after the change succeeds. A Notebook has at most one
+ * observer, set through Notebook.setObserver(). Changes are reported against
+ * the TaskList they were made to, by name, so that calling the same Notebook
+ * methods with the same arguments on a copy of the Notebook repeats them. A
+ * change made through the ActiveTaskList is reported against the TaskList that
+ * holds the Task.
+ *
+ * @author Michael Warstler
+ */
+public interface NotebookObserver {
+
+	/** Ways a Task can be moved within its TaskList */
+	enum Move {
+		/** Moved to index-1 */
+		UP,
+		/** Moved to index+1 */
+		DOWN,
+		/** Moved to the front */
+		TO_FRONT,
+		/** Moved to the back */
+		TO_BACK
+	}
+
+	/**
+	 * Called after a TaskList, with any Tasks it holds, is added.
+	 *
+	 * @param taskList is the TaskList that was added.
+	 */
+	void taskListAdded(TaskList taskList);
+
+	/**
+	 * Called after a TaskList is renamed.
+	 *
+	 * @param oldName is the name the TaskList had.
+	 * @param newName is the name the TaskList has now.
+	 */
+	void taskListEdited(String oldName, String newName);
+
+	/**
+	 * Called after a TaskList is removed.
+	 *
+	 * @param taskListName is the name of the TaskList that was removed.
+	 */
+	void taskListRemoved(String taskListName);
+
+	/**
+	 * Called after a Task is added to the end of a TaskList.
+	 *
+	 * @param taskListName is the name of the TaskList.
+	 * @param task         is the Task that was added.
+	 */
+	void taskAdded(String taskListName, Task task);
+
+	/**
+	 * Called after the fields of a Task are edited.
+	 *
+	 * @param taskListName is the name of the TaskList.
+	 * @param idx          is the index of the Task in the TaskList.
+	 * @param task         is the Task, with its new fields.
+	 */
+	void taskEdited(String taskListName, int idx, Task task);
+
+	/**
+	 * Called after a Task is removed from a TaskList.
+	 *
+	 * @param taskListName is the name of the TaskList.
+	 * @param idx          is the index the Task had.
+	 */
+	void taskRemoved(String taskListName, int idx);
+
+	/**
+	 * Called after a Task is completed.
+	 *
+	 * @param taskListName is the name of the TaskList.
+	 * @param idx          is the index the Task had.
+	 */
+	void taskCompleted(String taskListName, int idx);
+
+	/**
+	 * Called after a Task is moved within a TaskList.
+	 *
+	 * @param taskListName is the name of the TaskList.
+	 * @param idx          is the index the Task had.
+	 * @param move         is how the Task was moved.
+	 */
+	void taskMoved(String taskListName, int idx, Move move);
+
+	/**
+	 * Called after the Notebook is saved to a file.
+	 *
+	 * @param file is the file the Notebook was saved to.
+	 */
+	void notebookSaved(File file);
+
+	/**
+	 * Called after a snapshot of the Notebook is taken by Notebook.snapshot().
+	 *
+	 * @param snapshot is the snapshot.
+	 */
+	void snapshotTaken(NotebookSnapshot snapshot);
+
+	/**
+	 * Called after a snapshot is saved to a file, by Notebook.snapshotSaved(). The
+	 * Notebook may have changed since the snapshot was taken; if it has not, it is
+	 * no longer changed when this is called.
+	 *
+	 * @param snapshot is the snapshot that was saved.
+	 * @param file     is the file it was saved to.
+	 */
+	void snapshotSaved(NotebookSnapshot snapshot, File file);
+}
@@ -1,5 +1,8 @@
 package edu.ncsu.csc216.wolf_tasks.model.tasks;
 
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
 import edu.ncsu.csc216.wolf_tasks.model.util.ISwapList;
 import edu.ncsu.csc216.wolf_tasks.model.util.SwapList;
 
@@ -7,7 +10,15 @@ import edu.ncsu.csc216.wolf_tasks.model.util.SwapList;
  * Abstract class that is the top of the hierarchy for task lists. The
  * AbstractTaskLists knows its taskListName, the ISwapList of Task objects, and
  * the number of completed tasks. Can add/remove task from a list, return a task
- * from a list, complete a task in a list, and get tasks as an array.
+ * from a list, complete a task in a list, and get tasks as an array. Changes to
+ * the tasks are reported to the list's TaskListObserver, if one is set. A list
+ * with a TaskLoader reads its Tasks the first time any of them is needed. Every
+ * change made through the list to its name, completed count, order or Tasks
+ * (including edits to a Task's fields) increments its modification count, so a
+ * saved copy of the list can be told apart from a changed one.
+ * The rows of getTasksAsArray() are only rebuilt once that count or the
+ * ISwapList's own count has changed, as the ISwapList may also be changed
+ * through getTasks(); each call returns its own copy of them.
  * 
  * @author Michael Warstler
  */
@@ -19,6 +30,20 @@ public abstract class AbstractTaskList {
 	private int completedCount;
 	/** ISwapList of task objects */
 	private ISwapList<Task> tasks;
+	/** Observer notified of changes to the tasks, or null if there is none */
+	private TaskListObserver observer;
+	/** Loader of the Tasks, or null once they are loaded */
+	private TaskLoader loader;
+	/** Number of changes made to the list and its Tasks */
+	private long modificationCount;
+	/** Rows last built by getTasksAsArray(), or null if none have been */
+	private String[][] tasksArray;
+	/** Modification count when the tasksArray rows were built */
+	private long tasksArrayCount;
+	/** Modification count of the tasks ISwapList when the tasksArray rows were built */
+	private int tasksArraySwapCount;
+	/** Lock that guards the list when it is shared between threads */
+	private final StampedLock lock = new StampedLock();
 
 	/**
 	 * Constructor for AbstractTaskList. Sets fields for taskListName and
@@ -36,10 +61,11 @@ public abstract class AbstractTaskList {
 			throw new IllegalArgumentException("Invalid completed count.");
 		}
 
-		// Set fields and construct a SwapList for the Tasks.
+		// Set fields and construct a SwapList for the Tasks. Tasks are located by
+		// identity, so the SwapList keeps a position index.
 		setTaskListName(taskListName);
 		this.completedCount = completedCount;
-		tasks = new SwapList<Task>();
+		tasks = new SwapList<Task>(true);
 	}
 
 	/**
@@ -62,17 +88,91 @@ public abstract class AbstractTaskList {
 			throw new IllegalArgumentException("Invalid name.");
 		}
 		this.taskListName = taskListName;
+		modificationCount++;
 	}
 
 	/**
-	 * Gets the SwapList of task objects.
+	 * Gets the SwapList of task objects. The Tasks are loaded first if they have
+	 * not been.
 	 * 
 	 * @return is the tasks field.
+	 * @throws IllegalStateException if the Tasks cannot be loaded.
 	 */
 	public ISwapList<Task> getTasks() {
+		if (loader != null) {
+			load();
+		}
 		return tasks;
 	}
 
+	/**
+	 * Sets the TaskLoader that reads the Tasks the first time they are needed.
+	 * 
+	 * @param loader is the TaskLoader.
+	 */
+	void setTaskLoader(TaskLoader loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * Tells if the Tasks have been loaded. A list without a TaskLoader is always
+	 * loaded.
+	 * 
+	 * @return is true if the Tasks are in memory.
+	 */
+	public boolean isLoaded() {
+		return loader == null;
+	}
+
+	/**
+	 * Tells if the list has active Tasks that have not been loaded yet.
+	 * 
+	 * @return is true if the list is not loaded and its TaskLoader has active
+	 *         Tasks.
+	 */
+	public boolean hasUnloadedActiveTasks() {
+		return loader != null && loader.hasActiveTasks();
+	}
+
+	/**
+	 * Loads the Tasks from the TaskLoader and registers the list with each of
+	 * them, then tells the observer (if any). The Tasks are not reported one by
+	 * one as added.
+	 * 
+	 * @throws IllegalStateException if the Tasks cannot be loaded.
+	 */
+	private void load() {
+		List<Task> loaded = loader.loadTasks();
+		loader = null;
+		for (Task t : loaded) {
+			tasks.add(t);
+			t.addTaskList(this);
+		}
+		if (observer != null) {
+			observer.tasksLoaded(this);
+		}
+	}
+
+	/**
+	 * Sets the observer that is notified of changes to the tasks. Null removes the
+	 * current observer.
+	 * 
+	 * @param observer is the TaskListObserver to notify, or null.
+	 */
+	public void setObserver(TaskListObserver observer) {
+		this.observer = observer;
+	}
+
+	/**
+	 * Gets the lock that guards the list when it is shared between threads, as by
+	 * ConcurrentNotebook. The list does not take the lock itself.
+	 * 
+	 * @return is the lock field.
+	 */
+	public StampedLock getLock() {
+		return lock;
+	}
+
 	/**
 	 * Gets the number of completed tasks.
 	 * 
@@ -82,6 +182,25 @@ public abstract class AbstractTaskList {
 		return completedCount;
 	}
 
+	/**
+	 * Gets the number of changes made to the list's name, completed count, order
+	 * and Tasks. Loading the Tasks from a TaskLoader is not a change.
+	 * 
+	 * @return is the modificationCount field.
+	 */
+	public long getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Counts a change to a field of a Task in the list. Called by the Task.
+	 * 
+	 * @param t is the Task that changed.
+	 */
+	void taskChanged(Task t) {
+		modificationCount++;
+	}
+
 	/**
 	 * Adds the Task to the END of the list. Current instance of the TaskList adds
 	 * itself to the task.
@@ -89,11 +208,28 @@ public abstract class AbstractTaskList {
 	 * @param t is task object to add.
 	 */
 	public void addTask(Task t) {
-		// Add task to the AbstractTaskList. (added to end)
-		tasks.add(t);
+		addTask(getTasks().size(), t);
+	}
+
+	/**
+	 * Adds the Task at the given index of the list. Current instance of the
+	 * TaskList adds itself to the task.
+	 * 
+	 * @param idx is the index to add the task at.
+	 * @param t   is task object to add.
+	 * @throws IndexOutOfBoundsException if idx is less than 0 or greater than the
+	 *                                   number of tasks.
+	 */
+	public void addTask(int idx, Task t) {
+		// Add task to the AbstractTaskList at the index.
+		getTasks().add(idx, t);
 
 		// Add this instance of this (Abstract)TaskList to (be registered) to the Task
-		tasks.get(tasks.size() - 1).addTaskList(this); // ensures TaskList always goes to last task.
+		t.addTaskList(this);
+		modificationCount++;
+		if (observer != null) {
+			observer.taskAdded(this, t);
+		}
 	}
 
 	/**
@@ -103,7 +239,83 @@ public abstract class AbstractTaskList {
 	 * @return is the task that was removed from the list.
 	 */
 	public Task removeTask(int idx) {
-		return tasks.remove(idx);
+		Task removedTask = getTasks().remove(idx);
+		modificationCount++;
+		if (observer != null) {
+			observer.taskRemoved(this, removedTask);
+		}
+		return removedTask;
+	}
+
+	/**
+	 * Moves the Task at the given index to index-1. If the Task is already at the
+	 * front of the list, the list is not changed.
+	 * 
+	 * @param idx is index of the Task to move up.
+	 * @throws IndexOutOfBoundsException if the idx is out of bounds for the list
+	 */
+	public void moveTaskUp(int idx) {
+		getTasks().moveUp(idx);
+		taskMoved(idx == 0 ? idx : idx - 1);
+	}
+
+	/**
+	 * Moves the Task at the given index to index+1. If the Task is already at the
+	 * end of the list, the list is not changed.
+	 * 
+	 * @param idx is index of the Task to move down.
+	 * @throws IndexOutOfBoundsException if the idx is out of bounds for the list
+	 */
+	public void moveTaskDown(int idx) {
+		getTasks().moveDown(idx);
+		taskMoved(idx == tasks.size() - 1 ? idx : idx + 1);
+	}
+
+	/**
+	 * Moves the Task at the given index to the front of the list.
+	 * 
+	 * @param idx is index of the Task to move to the front.
+	 * @throws IndexOutOfBoundsException if the idx is out of bounds for the list
+	 */
+	public void moveTaskToFront(int idx) {
+		getTasks().moveToFront(idx);
+		taskMoved(0);
+	}
+
+	/**
+	 * Moves the Task at the given index to the end of the list.
+	 * 
+	 * @param idx is index of the Task to move to the back.
+	 * @throws IndexOutOfBoundsException if the idx is out of bounds for the list
+	 */
+	public void moveTaskToBack(int idx) {
+		getTasks().moveToBack(idx);
+		taskMoved(tasks.size() - 1);
+	}
+
+	/**
+	 * Notifies the observer (if any) that the Task now at the given index moved.
+	 * 
+	 * @param idx is the new index of the moved Task.
+	 */
+	private void taskMoved(int idx) {
+		modificationCount++;
+		if (observer != null) {
+			observer.taskMoved(this, tasks.get(idx));
+		}
+	}
+
+	/**
+	 * Notifies the observer (if any) that the active status of a Task in the list
+	 * changed. Called by the Task.
+	 * 
+	 * @param t is the Task that changed.
+	 */
+	void taskActiveChanged(Task t) {
+		modificationCount++;
+		if (observer != null) {
+			observer.taskActiveChanged(this, t);
+		}
 	}
 
 	/**
@@ -113,7 +325,7 @@ public abstract class AbstractTaskList {
 	 * @return is Task at the idx param from the task list.
 	 */
 	public Task getTask(int idx) {
-		return tasks.get(idx);
+		return getTasks().get(idx);
 	}
 
 	/**
@@ -123,19 +335,93 @@ public abstract class AbstractTaskList {
 	 * @param t is the task to complete.
 	 */
 	public void completeTask(Task t) {
-		// Find task to remove
-		for (int i = 0; i < tasks.size(); i++) {
-			if (t == tasks.get(i)) {
-				removeTask(i); // param == task in list, remove at this index.
-			}
+		// Find task to remove by identity and remove it.
+		if (getTasks().removeElement(t) && observer != null) {
+			observer.taskRemoved(this, t);
 		}
 		completedCount++;
+		modificationCount++;
 	}
 
 	/**
-	 * Returns a 2D string array. Contents are defined by child classes.
+	 * Returns a 2D string array with a row for each Task. The first column is
+	 * defined by child classes and the second is the Task's name. The rows are
+	 * kept until the list's modification count or that of its ISwapList changes,
+	 * so repeated calls on an unchanged list only copy them. The caller may
+	 * modify the returned array without affecting the list or later calls.
 	 * 
 	 * @return is a 2D array.
+	 * @throws IllegalStateException if the Tasks cannot be loaded.
+	 */
+	public String[][] getTasksAsArray() {
+		if (tasksArray == null || tasksArrayCount != modificationCount
+				|| tasksArraySwapCount != tasks.getModificationCount()) {
+			tasksArray = getTasksAsArray(0, Integer.MAX_VALUE); // loads the Tasks first, if needed.
+			tasksArrayCount = modificationCount;
+			tasksArraySwapCount = tasks.getModificationCount();
+		}
+		String[][] rows = new String[tasksArray.length][];
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = tasksArray[i].clone();
+		}
+		return rows;
+	}
+
+	/**
+	 * Returns one row of getTasksAsArray(), for the Task at the given index,
+	 * without building the other rows.
+	 * 
+	 * @param idx is the index of the Task.
+	 * @return is a String array.
+	 * @throws IndexOutOfBoundsException if idx is out of bounds.
+	 */
+	public abstract String[] getTaskAsArray(int idx);
+
+	/**
+	 * Returns the rows of getTasksAsArray() for at most limit Tasks, starting at
+	 * the Task at index offset. Only those rows are built, so a page of a long
+	 * list costs the size of the page.
+	 * 
+	 * @param offset is the index of the first Task.
+	 * @param limit  is the largest number of rows to return.
+	 * @return is a 2D array with min(limit, size - offset) rows, which is empty if
+	 *         offset is at or past the end of the list.
+	 * @throws IndexOutOfBoundsException if offset or limit is negative.
+	 */
+	public String[][] getTasksAsArray(int offset, int limit) {
+		String[][] rows = new String[rangeSize(offset, limit)][];
+		visitTasks(offset, limit, (idx, firstColumn, task) -> {
+			rows[idx - offset] = new String[] { firstColumn, task.getTaskName() };
+			return true;
+		});
+		return rows;
+	}
+
+	/**
+	 * Hands the rows of getTasksAsArray() for at most limit Tasks, starting at the
+	 * Task at index offset, to a visitor in order, until it returns false. No
+	 * array is built.
+	 * 
+	 * @param offset  is the index of the first Task.
+	 * @param limit   is the largest number of rows to visit.
+	 * @param visitor is the visitor.
+	 * @return is the number of rows visited.
+	 * @throws IndexOutOfBoundsException if offset or limit is negative.
 	 */
-	public abstract String[][] getTasksAsArray();
+	public abstract int visitTasks(int offset, int limit, TaskRowVisitor visitor);
+
+	/**
+	 * Finds the number of Tasks in a range of the list.
+	 * 
+	 * @param offset is the index of the first Task.
+	 * @param limit  is the largest number of Tasks.
+	 * @return is the number of Tasks from offset, at most limit.
+	 * @throws IndexOutOfBoundsException if offset or limit is negative.
+	 */
+	protected int rangeSize(int offset, int limit) {
+		if (offset < 0 || limit < 0) {
+			throw new IndexOutOfBoundsException("Invalid range.");
+		}
+		return (int) Math.max(0, Math.min((long) offset + limit, getTasks().size()) - offset);
+	}
 }
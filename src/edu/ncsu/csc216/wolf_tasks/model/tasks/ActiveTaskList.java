@@ -3,7 +3,9 @@ package edu.ncsu.csc216.wolf_tasks.model.tasks;
 /**
  * Represents the ActiveTaskList, a type of AbstractTaskList only containing
  * Tasks that are "active" status. Contains all AbstractTaskList functionality,
- * except ActiveTaskList has a unique name...
+ * except ActiveTaskList has a unique name... Its rows name each Task's
+ * TaskList, so renaming a TaskList must remove and re-add its active Tasks, as
+ * Notebook.editTaskList() does, for getTasksAsArray() to be rebuilt.
  * 
  * @author Michael Warstler
  */
@@ -22,20 +24,69 @@ public class ActiveTaskList extends AbstractTaskList {
 
 	/**
 	 * Overrides the method to check that the Task is active before adding to the
-	 * end of the ISwapList.
+	 * ISwapList. Adding to the end of the list also comes through this method.
 	 * 
-	 * @param t is the Task object to attempt to add.
+	 * @param idx is the index to add the Task at.
+	 * @param t   is the Task object to attempt to add.
 	 * @throws IllegalArgumentException if the Task is not active.
 	 */
 	@Override
-	public void addTask(Task t) {
+	public void addTask(int idx, Task t) {
 		if (!t.isActive()) {
 			throw new IllegalArgumentException("Cannot add task to Active Tasks.");
 		} else {
-			super.addTask(t);
+			super.addTask(idx, t);
 		}
 	}
 
+	/**
+	 * The order of the ActiveTaskList comes from the TaskLists, so its Tasks may
+	 * not be moved.
+	 * 
+	 * @param idx is index of the Task to move up.
+	 * @throws IllegalArgumentException always.
+	 */
+	@Override
+	public void moveTaskUp(int idx) {
+		throw new IllegalArgumentException("The Active Tasks list may not be reordered.");
+	}
+
+	/**
+	 * The order of the ActiveTaskList comes from the TaskLists, so its Tasks may
+	 * not be moved.
+	 * 
+	 * @param idx is index of the Task to move down.
+	 * @throws IllegalArgumentException always.
+	 */
+	@Override
+	public void moveTaskDown(int idx) {
+		throw new IllegalArgumentException("The Active Tasks list may not be reordered.");
+	}
+
+	/**
+	 * The order of the ActiveTaskList comes from the TaskLists, so its Tasks may
+	 * not be moved.
+	 * 
+	 * @param idx is index of the Task to move to the front.
+	 * @throws IllegalArgumentException always.
+	 */
+	@Override
+	public void moveTaskToFront(int idx) {
+		throw new IllegalArgumentException("The Active Tasks list may not be reordered.");
+	}
+
+	/**
+	 * The order of the ActiveTaskList comes from the TaskLists, so its Tasks may
+	 * not be moved.
+	 * 
+	 * @param idx is index of the Task to move to the back.
+	 * @throws IllegalArgumentException always.
+	 */
+	@Override
+	public void moveTaskToBack(int idx) {
+		throw new IllegalArgumentException("The Active Tasks list may not be reordered.");
+	}
+
 	/**
 	 * Overrides the super's method to ensure that the parameter value matches the
 	 * expected name (constant). If param matches constant, then name is set through
@@ -55,24 +106,39 @@ public class ActiveTaskList extends AbstractTaskList {
 	}
 
 	/**
-	 * Provides a 2D String array where the first column is the name of the TaskList
-	 * that the Task belongs to (or at least the TaskList at index 0) and the name
-	 * of the Task.
+	 * Provides the row of getTasksAsArray() for the Task at the given index: the
+	 * name of the TaskList it belongs to and its name.
 	 * 
-	 * @return is 2D String representation of Tasks in the ActiveTaskList.
+	 * @param idx is the index of the Task.
+	 * @return is String array representation of the Task.
+	 * @throws IndexOutOfBoundsException if idx is out of bounds.
 	 */
 	@Override
-	public String[][] getTasksAsArray() {
-		// Create 2D string array
-		String[][] taskArray = new String[getTasks().size()][2];
+	public String[] getTaskAsArray(int idx) {
+		Task task = getTask(idx);
+		return new String[] { task.getTaskListName(), task.getTaskName() };
+	}
 
-		// For each Task in the ActiveTaskList, get the TaskListName and TaskName
-		// associated.
-		for (int i = 0; i < taskArray.length; i++) {
-			taskArray[i][0] = getTasks().get(i).getTaskListName();
-			taskArray[i][1] = getTasks().get(i).getTaskName();
+	/**
+	 * Hands a range of the rows of getTasksAsArray() to a visitor: the name of
+	 * each Task's TaskList, and the Task.
+	 * 
+	 * @param offset  is the index of the first Task.
+	 * @param limit   is the largest number of rows to visit.
+	 * @param visitor is the visitor.
+	 * @return is the number of rows visited.
+	 * @throws IndexOutOfBoundsException if offset or limit is negative.
+	 */
+	@Override
+	public int visitTasks(int offset, int limit, TaskRowVisitor visitor) {
+		int end = offset + rangeSize(offset, limit);
+		for (int idx = offset; idx < end; idx++) {
+			Task task = getTask(idx);
+			if (!visitor.visitRow(idx, task.getTaskListName(), task)) {
+				return idx - offset + 1;
+			}
 		}
-		return taskArray;
+		return end - offset;
 	}
 
 	/**
@@ -38,7 +38,38 @@ public class Task implements Cloneable {
 		setTaskDescrption(taskDetails);
 		setRecurring(recurring);
 		setActive(active);
-		taskLists = new SwapList<AbstractTaskList>();
+		taskLists = new SwapList<AbstractTaskList>(true);
+	}
+
+	/**
+	 * Constructor for a subclass that supplies its own name and description, such
+	 * as one read lazily from a file. The subclass must override getTaskName() and
+	 * getTaskDescription(). Sets recurring and active fields, and sets taskLists to
+	 * an empty swapList of AbstractTaskList(s).
+	 * 
+	 * @param recurring status for a Task.
+	 * @param active    status for a Task.
+	 */
+	protected Task(boolean recurring, boolean active) {
+		setRecurring(recurring);
+		setActive(active);
+		taskLists = new SwapList<AbstractTaskList>(true);
+	}
+
+	/**
+	 * Checks a Task's name and description as the constructor and setters do,
+	 * without constructing or changing a Task, so a caller can check an edit
+	 * before applying any of it.
+	 * 
+	 * @param taskName        is the name to check.
+	 * @param taskDescription is the description to check.
+	 * @throws IllegalArgumentException if taskName is null or empty, or
+	 *                                  taskDescription is null.
+	 */
+	public static void checkTaskInformation(String taskName, String taskDescription) {
+		if (taskName == null || "".equals(taskName) || taskDescription == null) {
+			throw new IllegalArgumentException("Incomplete task information.");
+		}
 	}
 
 	/**
@@ -62,6 +93,7 @@ public class Task implements Cloneable {
 			throw new IllegalArgumentException("Incomplete task information.");
 		}
 		this.taskName = taskName;
+		changed();
 	}
 
 	/**
@@ -85,6 +117,7 @@ public class Task implements Cloneable {
 			throw new IllegalArgumentException("Incomplete task information.");
 		}
 		this.taskDescription = taskDescription;
+		changed();
 	}
 
 	/**
@@ -102,7 +135,22 @@ public class Task implements Cloneable {
 	 * @param recurring is true if recurring, false otherwise.
 	 */
 	public void setRecurring(boolean recurring) {
-		this.recurring = recurring;
+		if (this.recurring != recurring) {
+			this.recurring = recurring;
+			changed();
+		}
+	}
+
+	/**
+	 * Tells each registered AbstractTaskList that a field of the Task changed.
+	 * taskLists is null while the constructor runs.
+	 */
+	private void changed() {
+		if (taskLists != null) {
+			for (AbstractTaskList taskList : taskLists) {
+				taskList.taskChanged(this);
+			}
+		}
 	}
 
 	/**
@@ -115,12 +163,22 @@ public class Task implements Cloneable {
 	}
 
 	/**
-	 * Sets the active status of the Task.
+	 * Sets the active status of the Task. If the status changes, each registered
+	 * AbstractTaskList is notified so its observer can update.
 	 * 
 	 * @param active is true if active, false otherwise.
 	 */
 	public void setActive(boolean active) {
+		boolean changed = this.active != active;
 		this.active = active;
+
+		// taskLists is null while the constructor runs. An observer may register
+		// another list with the Task, so loop by index rather than with a cursor.
+		if (changed && taskLists != null) {
+			for (int i = 0; i < taskLists.size(); i++) {
+				taskLists.get(i).taskActiveChanged(this);
+			}
+		}
 	}
 
 	/**
@@ -137,11 +195,11 @@ public class Task implements Cloneable {
 		}
 
 		// Create a clone of this Task.
-		Task clonedTask = new Task(taskName, taskDescription, recurring, active);
+		Task clonedTask = new Task(getTaskName(), getTaskDescription(), recurring, active);
 
 		// Add each taskList object stored in taskLists field to the cloned Task.
-		for (int i = 0; i < taskLists.size(); i++) {
-			clonedTask.addTaskList(taskLists.get(i));
+		for (AbstractTaskList taskList : taskLists) {
+			clonedTask.addTaskList(taskList);
 		}
 		return clonedTask;
 	}
@@ -154,15 +212,15 @@ public class Task implements Cloneable {
 	 */
 	public String toString() {
 		// Different outputs depending on active/recurring status.
-		String initialTaskString = "* " + taskName;
+		String initialTaskString = "* " + getTaskName();
 		if (active && recurring) {
-			return initialTaskString + ",recurring,active\n" + taskDescription;
+			return initialTaskString + ",recurring,active\n" + getTaskDescription();
 		} else if (active && !recurring) {
-			return initialTaskString + ",active\n" + taskDescription;
+			return initialTaskString + ",active\n" + getTaskDescription();
 		} else if (!active && recurring) {
-			return initialTaskString + ",recurring\n" + taskDescription;
+			return initialTaskString + ",recurring\n" + getTaskDescription();
 		} else {
-			return initialTaskString + "\n" + taskDescription;
+			return initialTaskString + "\n" + getTaskDescription();
 		}
 	}
 
@@ -182,6 +240,20 @@ public class Task implements Cloneable {
 		return taskLists.get(0).getTaskListName();
 	}
 
+	/**
+	 * Gets the AbstractTaskLists registered with the Task, in the order they were
+	 * registered.
+	 * 
+	 * @return is a new array of the registered AbstractTaskLists.
+	 */
+	public AbstractTaskList[] getTaskLists() {
+		AbstractTaskList[] lists = new AbstractTaskList[taskLists.size()];
+		for (int i = 0; i < lists.length; i++) {
+			lists[i] = taskLists.get(i);
+		}
+		return lists;
+	}
+
 	/**
 	 * If the AbstractTaskList is NOT already registered with the Task object, then
 	 * the parameter is added to the end of the taskLists field.
@@ -195,16 +267,8 @@ public class Task implements Cloneable {
 			throw new IllegalArgumentException("Incomplete task information.");
 		}
 
-		// See if param is already in the registered taskLists field for this Task.
-		boolean alreadyRegistered = false;
-		for (int i = 0; i < taskLists.size(); i++) {
-			if (taskLists.get(i) == taskList) {
-				alreadyRegistered = true;
-			}
-		}
-
 		// Only register parameter with the Task, if it has not been registered before.
-		if (!alreadyRegistered) {
+		if (taskLists.indexOf(taskList) == -1) {
 			taskLists.add(taskList);
 		}
 	}
@@ -213,22 +277,27 @@ public class Task implements Cloneable {
 	 * Completes the Task object and notify the taskLists by sharing the current
 	 * Task instance via the TaskList.completeTask(Task) method. If the task is
 	 * recurring, the Task is cloned and the cloned Task is added to each registered
-	 * AbstractTaskList.
+	 * AbstractTaskList that does not already hold it (an observer may have added it
+	 * to the ActiveTaskList already). A clone that is not active is not added to an
+	 * ActiveTaskList.
 	 * 
 	 * @throws CloneNotSupportedException if unable to clone the recurring task.
 	 */
 	public void completeTask() {
 		// Cycle through taskLists[] and call on each TaskList.completeTask to complete
-		for (int i = 0; i < taskLists.size(); i++) {
-			taskLists.get(i).completeTask(this); // send current Task.
+		for (AbstractTaskList taskList : taskLists) {
+			taskList.completeTask(this); // send current Task.
 		}
 
 		// If recurring, clone and add back to each registered AbstractTaskList
 		if (recurring) {
 			try {
 				Task clonedTask = (Task) clone();
-				for (int k = 0; k < taskLists.size(); k++) {
-					taskLists.get(k).addTask(clonedTask);
+				for (AbstractTaskList taskList : taskLists) {
+					boolean skip = taskList instanceof ActiveTaskList && !clonedTask.isActive();
+					if (!skip && taskList.getTasks().indexOf(clonedTask) == -1) {
+						taskList.addTask(clonedTask);
+					}
 				}
 			} catch (CloneNotSupportedException e) {
 				// TODO - do something? Getting green Jenkins ball...
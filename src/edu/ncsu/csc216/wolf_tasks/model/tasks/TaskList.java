@@ -19,23 +19,55 @@ public class TaskList extends AbstractTaskList implements Comparable<TaskList> {
 	}
 
 	/**
-	 * Returns a 2D String array where first column is priority of the Task,
-	 * starting at 1, and the name of the Task.
+	 * Constructs a TaskList whose Tasks are read by the TaskLoader the first time
+	 * they are needed.
 	 * 
-	 * @return is 2D String array representation of Tasks objects in the TaskList.
+	 * @param taskListName   of TaskList.
+	 * @param completedCount is number of completed tasks in the list.
+	 * @param loader         reads the Tasks of the list.
+	 * @throws IllegalArgumentException if the name or completed count is invalid,
+	 *                                  or the loader is null.
 	 */
-	public String[][] getTasksAsArray() {
-		// Create array with # rows equal to size of tasks array and # columns = 2.
-		String[][] tasksArray = new String[getTasks().size()][2];
+	public TaskList(String taskListName, int completedCount, TaskLoader loader) {
+		super(taskListName, completedCount);
+		if (loader == null) {
+			throw new IllegalArgumentException("Invalid task loader.");
+		}
+		setTaskLoader(loader);
+	}
 
-		// Create 2D array by cycling through Tasks in Task list.
-		for (int i = 0; i < tasksArray.length; i++) {
-			// Row i, column 1 is just priority/order of Tasks in task list.
-			tasksArray[i][0] = String.valueOf(i + 1); // Starts at 1.
-			// Row i, column 2 is name of the Task.
-			tasksArray[i][1] = getTasks().get(i).getTaskName(); // Task name at Task list i index.
+	/**
+	 * Returns the row of getTasksAsArray() for the Task at the given index: its
+	 * priority, starting at 1, and its name.
+	 * 
+	 * @param idx is the index of the Task.
+	 * @return is String array representation of the Task.
+	 * @throws IndexOutOfBoundsException if idx is out of bounds.
+	 */
+	@Override
+	public String[] getTaskAsArray(int idx) {
+		return new String[] { String.valueOf(idx + 1), getTask(idx).getTaskName() };
+	}
+
+	/**
+	 * Hands a range of the rows of getTasksAsArray() to a visitor: each Task's
+	 * priority, starting at 1, and the Task.
+	 * 
+	 * @param offset  is the index of the first Task.
+	 * @param limit   is the largest number of rows to visit.
+	 * @param visitor is the visitor.
+	 * @return is the number of rows visited.
+	 * @throws IndexOutOfBoundsException if offset or limit is negative.
+	 */
+	@Override
+	public int visitTasks(int offset, int limit, TaskRowVisitor visitor) {
+		int end = offset + rangeSize(offset, limit);
+		for (int idx = offset; idx < end; idx++) {
+			if (!visitor.visitRow(idx, String.valueOf(idx + 1), getTask(idx))) {
+				return idx - offset + 1;
+			}
 		}
-		return tasksArray;
+		return end - offset;
 	}
 
 	/**
@@ -0,0 +1,52 @@
+package edu.ncsu.csc216.wolf_tasks.model.tasks;
+
+/**
+ * Interface for an object that is notified of changes to the Tasks in an
+ * AbstractTaskList. An AbstractTaskList has at most one observer, set through
+ * AbstractTaskList.setObserver(). The Notebook uses it to keep its
+ * ActiveTaskList up to date without rebuilding it.
+ * 
+ * @author Michael Warstler
+ */
+public interface TaskListObserver {
+
+	/**
+	 * Called after a Task is added to the AbstractTaskList.
+	 * 
+	 * @param taskList is the AbstractTaskList that changed.
+	 * @param task     is the Task that was added.
+	 */
+	void taskAdded(AbstractTaskList taskList, Task task);
+
+	/**
+	 * Called after a Task is removed or completed from the AbstractTaskList.
+	 * 
+	 * @param taskList is the AbstractTaskList that changed.
+	 * @param task     is the Task that was removed.
+	 */
+	void taskRemoved(AbstractTaskList taskList, Task task);
+
+	/**
+	 * Called after a Task is moved to a new index in the AbstractTaskList.
+	 * 
+	 * @param taskList is the AbstractTaskList that changed.
+	 * @param task     is the Task that was moved.
+	 */
+	void taskMoved(AbstractTaskList taskList, Task task);
+
+	/**
+	 * Called after the active status of a Task in the AbstractTaskList changes.
+	 * 
+	 * @param taskList is the AbstractTaskList holding the Task.
+	 * @param task     is the Task that changed.
+	 */
+	void taskActiveChanged(AbstractTaskList taskList, Task task);
+
+	/**
+	 * Called after an AbstractTaskList with a TaskLoader loads its Tasks. The
+	 * loaded Tasks are not reported through taskAdded().
+	 * 
+	 * @param taskList is the AbstractTaskList that loaded its Tasks.
+	 */
+	void tasksLoaded(AbstractTaskList taskList);
+}
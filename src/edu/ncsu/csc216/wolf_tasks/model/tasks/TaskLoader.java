@@ -0,0 +1,30 @@
+package edu.ncsu.csc216.wolf_tasks.model.tasks;
+
+import java.util.List;
+
+/**
+ * Interface for an object that reads the Tasks of a TaskList the first time they
+ * are needed, such as from an indexed notebook file. A TaskList created with a
+ * TaskLoader holds no Tasks until one of its Task methods is called.
+ *
+ * @author Michael Warstler
+ */
+public interface TaskLoader {
+
+	/**
+	 * Reads the Tasks of the TaskList, in order. Called at most once per TaskList
+	 * that succeeds.
+	 *
+	 * @return is the Tasks of the TaskList.
+	 * @throws IllegalStateException if the Tasks cannot be read. The TaskList is
+	 *                               left unloaded, so a later call tries again.
+	 */
+	List<Task> loadTasks();
+
+	/**
+	 * Tells if any of the Tasks to be read is active, without reading them.
+	 *
+	 * @return is true if any of the Tasks is active.
+	 */
+	boolean hasActiveTasks();
+}
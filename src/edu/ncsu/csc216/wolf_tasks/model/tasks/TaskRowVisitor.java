@@ -0,0 +1,22 @@
+package edu.ncsu.csc216.wolf_tasks.model.tasks;
+
+/**
+ * Interface for an object that is handed the rows of an AbstractTaskList one at
+ * a time by AbstractTaskList.visitTasks(), with the same columns as
+ * getTasksAsArray(), so that no array is built for the rows.
+ *
+ * @author Michael Warstler
+ */
+public interface TaskRowVisitor {
+
+	/**
+	 * Called for each row visited, in order.
+	 *
+	 * @param idx         is the index of the Task in the list.
+	 * @param firstColumn is the first column of the row: the Task's priority in a
+	 *                    TaskList, or its TaskList's name in the ActiveTaskList.
+	 * @param task        is the Task, whose name is the second column.
+	 * @return is true to visit the next row, or false to stop.
+	 */
+	boolean visitRow(int idx, String firstColumn, Task task);
+}
@@ -1,5 +1,8 @@
 package edu.ncsu.csc216.wolf_tasks.model.util;
 
+import java.util.Collection;
+import java.util.Iterator;
+
 /**
  * Interface for a list that keeps objects in sorted order as defined by the
  * Comparable interface.
@@ -8,7 +11,7 @@ package edu.ncsu.csc216.wolf_tasks.model.util;
  * 
  * @param <E> type for ISortedList; must implement Comparable
  */
-public interface ISortedList<E extends Comparable<E>> {
+public interface ISortedList<E extends Comparable<E>> extends Iterable<E> {
 
 	/**
 	 * Adds the element to the list in sorted order.
@@ -19,6 +22,18 @@ public interface ISortedList<E extends Comparable<E>> {
 	 */
 	void add(E element);
 
+	/**
+	 * Adds every element of the batch to the list in sorted order. The batch is
+	 * sorted once and merged with the list in a single pass. If any element cannot
+	 * be added, the list is left unchanged.
+	 * 
+	 * @param elements elements to add
+	 * @throws NullPointerException     if elements or any element is null
+	 * @throws IllegalArgumentException if an element is a duplicate of another
+	 *                                  element of the batch or of the list
+	 */
+	void addAll(Collection<E> elements);
+
 	/**
 	 * Returns the element from the given index. The element is removed from the
 	 * list.
@@ -37,6 +52,14 @@ public interface ISortedList<E extends Comparable<E>> {
 	 */
 	boolean contains(E element);
 
+	/**
+	 * Returns the index of the element in the sorted list.
+	 * 
+	 * @param element element to search for
+	 * @return index of the element, or -1 if the element is not in the list
+	 */
+	int indexOf(E element);
+
 	/**
 	 * Returns the element at the given index.
 	 * 
@@ -53,4 +76,24 @@ public interface ISortedList<E extends Comparable<E>> {
 	 */
 	int size();
 
-}
\ No newline at end of file
+	/**
+	 * Returns the number of changes made to the list. Every change to the
+	 * elements or their order counts, so two calls that return the same count saw
+	 * the same list.
+	 * 
+	 * @return number of changes made to the list
+	 */
+	int getModificationCount();
+
+	/**
+	 * Returns a fail-fast iterator over the elements of the list, in order. The
+	 * iterator's remove() method removes the last returned element in place.
+	 * Modifying the list by any other means while iterating causes the iterator
+	 * to throw a ConcurrentModificationException.
+	 * 
+	 * @return iterator over the elements of the list
+	 */
+	@Override
+	Iterator<E> iterator();
+
+}
\ No newline at end of file
@@ -1,5 +1,7 @@
 package edu.ncsu.csc216.wolf_tasks.model.util;
 
+import java.util.Iterator;
+
 /**
  * Interface for a list that changes the position of elements through swap
  * operations.
@@ -8,7 +10,7 @@ package edu.ncsu.csc216.wolf_tasks.model.util;
  *
  * @param <E> type for the ISwapList
  */
-public interface ISwapList<E> {
+public interface ISwapList<E> extends Iterable<E> {
 
 	/**
 	 * Adds the element to the end of the list.
@@ -19,6 +21,19 @@ public interface ISwapList<E> {
 	 */
 	void add(E element);
 
+	/**
+	 * Adds the element at the given index. Elements at and after the index move
+	 * back one.
+	 * 
+	 * @param idx     index to add the element at
+	 * @param element element to add
+	 * @throws NullPointerException      if element is null
+	 * @throws IllegalArgumentException  if element cannot be added
+	 * @throws IndexOutOfBoundsException if the idx is less than 0 or greater than
+	 *                                   size
+	 */
+	void add(int idx, E element);
+
 	/**
 	 * Returns the element from the given index. The element is removed from the
 	 * list.
@@ -74,6 +89,23 @@ public interface ISwapList<E> {
 	 */
 	E get(int idx);
 
+	/**
+	 * Returns the index of the given element, or -1 if the element is not in the
+	 * list.
+	 * 
+	 * @param element element to search for
+	 * @return index of the element or -1 if not found
+	 */
+	int indexOf(E element);
+
+	/**
+	 * Removes the given element from the list, if it is present.
+	 * 
+	 * @param element element to remove
+	 * @return true if the element was found and removed
+	 */
+	boolean removeElement(E element);
+
 	/**
 	 * Returns the number of elements in the list.
 	 * 
@@ -81,4 +113,24 @@ public interface ISwapList<E> {
 	 */
 	int size();
 
-}
\ No newline at end of file
+	/**
+	 * Returns the number of changes made to the list. Every change to the
+	 * elements or their order counts, so two calls that return the same count saw
+	 * the same list.
+	 * 
+	 * @return number of changes made to the list
+	 */
+	int getModificationCount();
+
+	/**
+	 * Returns a fail-fast iterator over the elements of the list, in order. The
+	 * iterator's remove() method removes the last returned element in place.
+	 * Modifying the list by any other means while iterating causes the iterator
+	 * to throw a ConcurrentModificationException.
+	 * 
+	 * @return iterator over the elements of the list
+	 */
+	@Override
+	Iterator<E> iterator();
+
+}
\ No newline at end of file
@@ -0,0 +1,454 @@
+package edu.ncsu.csc216.wolf_tasks.model.util;
+
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Indexable skip list implementation of the ISortedList interface. Elements are
+ * kept in sorted order as defined by Comparable.compareTo(). Each forward link
+ * of a node stores a span (the number of elements the link skips over), which
+ * allows add, remove, contains and get(idx) to run in expected O(log n) time
+ * instead of the linear walks of SortedList. Elements that compare as equal
+ * (compareTo() returns 0) are treated as duplicates.
+ *
+ * @param <E> is generic type.
+ * @author Michael Warstler
+ */
+public class SkipSortedList<E extends Comparable<E>> implements ISortedList<E> {
+
+	/** Maximum number of levels a node can be linked into */
+	private static final int MAX_LEVEL = 32;
+	/** Sentinel node in front of the first element. Holds no data */
+	private SkipNode<E> head;
+	/** Number of levels currently in use (at least 1) */
+	private int level;
+	/** Number of elements currently in the list */
+	private int size;
+	/** Generator used to pick the level of new nodes */
+	private Random random;
+	/** Number of structural changes, used to make iterators fail-fast */
+	private int modCount;
+
+	/**
+	 * Constructor for the SkipSortedList. Size initialized to 0 and the head
+	 * sentinel is linked at every level.
+	 */
+	public SkipSortedList() {
+		head = new SkipNode<E>(null, MAX_LEVEL);
+		level = 1;
+		size = 0;
+		random = new Random();
+	}
+
+	/**
+	 * Adds an element to the list in sorted order.
+	 *
+	 * @param element is the object to add to the list.
+	 * @throws NullPointerException     if parameter is null.
+	 * @throws IllegalArgumentException if parameter compares equal to an existing
+	 *                                  element.
+	 */
+	@Override
+	public void add(E element) {
+		// Check for null param.
+		if (element == null) {
+			throw new NullPointerException("Cannot add null element.");
+		}
+
+		// Find the last node before element on each level, and its rank (position).
+		SkipNode<E>[] update = newNodeArray(MAX_LEVEL);
+		int[] rank = new int[MAX_LEVEL];
+		SkipNode<E> current = head;
+		for (int i = level - 1; i >= 0; i--) {
+			rank[i] = i == level - 1 ? 0 : rank[i + 1];
+			while (current.next[i] != null && current.next[i].data.compareTo(element) < 0) {
+				rank[i] += current.span[i];
+				current = current.next[i];
+			}
+			update[i] = current;
+		}
+
+		// Check for duplicate
+		if (current.next[0] != null && current.next[0].data.compareTo(element) == 0) {
+			throw new IllegalArgumentException("Cannot add duplicate element.");
+		}
+
+		// Levels above the current height start at the head and span the whole list.
+		int nodeLevel = randomLevel();
+		if (nodeLevel > level) {
+			for (int i = level; i < nodeLevel; i++) {
+				rank[i] = 0;
+				update[i] = head;
+				head.span[i] = size;
+			}
+			level = nodeLevel;
+		}
+
+		// Link the new node in, splitting the spans of the links it sits under.
+		SkipNode<E> node = new SkipNode<E>(element, nodeLevel);
+		for (int i = 0; i < nodeLevel; i++) {
+			node.next[i] = update[i].next[i];
+			update[i].next[i] = node;
+			node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+			update[i].span[i] = rank[0] - rank[i] + 1;
+		}
+		// Links above the new node now skip over one more element.
+		for (int i = nodeLevel; i < level; i++) {
+			update[i].span[i]++;
+		}
+		size++;
+		modCount++;
+	}
+
+	/**
+	 * Adds a batch of elements in sorted order. The batch is sorted once and
+	 * merged with the existing elements, checking for duplicates during the merge.
+	 * The list is then rebuilt from the merged order by appending each node at the
+	 * end of every level it joins, which is O(n + m) instead of m separate adds.
+	 *
+	 * @param elements is the batch of objects to add to the list.
+	 * @throws NullPointerException     if elements or any element is null.
+	 * @throws IllegalArgumentException if an element is a duplicate.
+	 */
+	@Override
+	public void addAll(Collection<E> elements) {
+		E[] merged = SortedBatch.merge(this, SortedBatch.sort(elements));
+
+		// Last node linked on each level and its rank (position, starting at 1).
+		head = new SkipNode<E>(null, MAX_LEVEL);
+		level = 1;
+		SkipNode<E>[] last = newNodeArray(MAX_LEVEL);
+		int[] lastRank = new int[MAX_LEVEL];
+		for (int i = 0; i < MAX_LEVEL; i++) {
+			last[i] = head;
+		}
+		for (int r = 1; r <= merged.length; r++) {
+			int nodeLevel = randomLevel();
+			level = Math.max(level, nodeLevel);
+			SkipNode<E> node = new SkipNode<E>(merged[r - 1], nodeLevel);
+			for (int i = 0; i < nodeLevel; i++) {
+				last[i].next[i] = node;
+				last[i].span[i] = r - lastRank[i];
+				last[i] = node;
+				lastRank[i] = r;
+			}
+		}
+		// The last link on each level spans to the end of the list.
+		size = merged.length;
+		for (int i = 0; i < level; i++) {
+			last[i].span[i] = size - lastRank[i];
+		}
+		modCount++;
+	}
+
+	/**
+	 * Picks a level for a new node. Each additional level is used with probability
+	 * 1/2.
+	 *
+	 * @return is a level between 1 and MAX_LEVEL.
+	 */
+	private int randomLevel() {
+		int nodeLevel = 1;
+		while (nodeLevel < MAX_LEVEL && random.nextBoolean()) {
+			nodeLevel++;
+		}
+		return nodeLevel;
+	}
+
+	/**
+	 * Creates an array of node references. Generic arrays cannot be created
+	 * directly, so a wildcard array is cast.
+	 *
+	 * @param length of the array.
+	 * @return is an empty array of the given length.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <E> SkipNode<E>[] newNodeArray(int length) {
+		return (SkipNode<E>[]) new SkipNode<?>[length];
+	}
+
+	/**
+	 * Removes an element/node at an index parameter.
+	 *
+	 * @param idx is index of list to remove.
+	 * @return is the element at the idx location that was removed.
+	 * @throws IndexOutOfBoundsException if the idx is out of bounds for the list
+	 */
+	@Override
+	public E remove(int idx) {
+		checkIndex(idx);
+
+		// Find the node before idx on each level. Ranks start at 1 for element 0.
+		SkipNode<E>[] update = newNodeArray(MAX_LEVEL);
+		SkipNode<E> current = head;
+		int traversed = 0;
+		for (int i = level - 1; i >= 0; i--) {
+			while (current.next[i] != null && traversed + current.span[i] <= idx) {
+				traversed += current.span[i];
+				current = current.next[i];
+			}
+			update[i] = current;
+		}
+
+		// Unlink the node, merging its spans into the links before it.
+		SkipNode<E> removed = current.next[0];
+		for (int i = 0; i < level; i++) {
+			if (update[i].next[i] == removed) {
+				update[i].span[i] += removed.span[i] - 1;
+				update[i].next[i] = removed.next[i];
+			} else {
+				update[i].span[i]--;
+			}
+		}
+		// Drop levels that no longer hold any nodes.
+		while (level > 1 && head.next[level - 1] == null) {
+			level--;
+		}
+		size--;
+		modCount++;
+		return removed.data;
+	}
+
+	/**
+	 * Checks the index parameter for possible out of bounds exceptions. Cannot get
+	 * or remove an index value less than 0 or equal/greater to size.
+	 *
+	 * @param idx of list to check exceptions for.
+	 * @throws IndexOutOfBoundsException if idx is less than 0 or greater than or
+	 *                                   equal to size.
+	 */
+	private void checkIndex(int idx) {
+		if (idx < 0 || idx >= size) {
+			throw new IndexOutOfBoundsException("Invalid index.");
+		}
+	}
+
+	/**
+	 * Determines if an element is in the SkipSortedList or not.
+	 *
+	 * @param element to search for.
+	 * @return is true if the list has the element, false otherwise.
+	 */
+	@Override
+	public boolean contains(E element) {
+		if (element == null) {
+			return false;
+		}
+		SkipNode<E> current = head;
+		for (int i = level - 1; i >= 0; i--) {
+			while (current.next[i] != null && current.next[i].data.compareTo(element) < 0) {
+				current = current.next[i];
+			}
+		}
+		SkipNode<E> candidate = current.next[0];
+		return candidate != null && candidate.data.equals(element);
+	}
+
+	/**
+	 * Finds the index (rank) of an element by searching down the levels and adding
+	 * up the spans of the links followed.
+	 *
+	 * @param element to search for.
+	 * @return is the index of the element or -1 if it is not in the list.
+	 */
+	@Override
+	public int indexOf(E element) {
+		if (element == null) {
+			return -1;
+		}
+		SkipNode<E> current = head;
+		int traversed = 0;
+		for (int i = level - 1; i >= 0; i--) {
+			while (current.next[i] != null && current.next[i].data.compareTo(element) < 0) {
+				traversed += current.span[i];
+				current = current.next[i];
+			}
+		}
+		SkipNode<E> candidate = current.next[0];
+		if (candidate != null && candidate.data.equals(element)) {
+			return traversed; // rank of candidate is traversed + 1, so its index is traversed.
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the element at the parameter index from the sorted list.
+	 *
+	 * @param idx is the index of the list to return.
+	 * @return is the element stored at the index of the sorted list.
+	 * @throws IndexOutOfBoundsException if the idx is out of bounds for the list
+	 */
+	@Override
+	public E get(int idx) {
+		checkIndex(idx);
+		// Follow links as long as they do not pass rank idx + 1 (the element's rank).
+		SkipNode<E> current = head;
+		int traversed = 0;
+		for (int i = level - 1; i >= 0; i--) {
+			while (current.next[i] != null && traversed + current.span[i] <= idx + 1) {
+				traversed += current.span[i];
+				current = current.next[i];
+			}
+		}
+		return current.data;
+	}
+
+	/**
+	 * Provides the size field.
+	 *
+	 * @return is the size field.
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Provides the modCount field, which also keeps the cursors fail-fast.
+	 * 
+	 * @return is the modCount field.
+	 */
+	@Override
+	public int getModificationCount() {
+		return modCount;
+	}
+
+	/**
+	 * Provides a fail-fast iterator that walks the bottom level of the list. Each
+	 * step is O(1); remove() costs O(log n).
+	 *
+	 * @return is an iterator over the list's elements in sorted order.
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return new Cursor();
+	}
+
+	//////////////////////////////////////////////////////////////////
+	//PRIVATE INNER CLASS: CURSOR
+	//////////////////////////////////////////////////////////////////
+
+	/**
+	 * Forward iterator over the SkipSortedList. Tracks the index of the last
+	 * returned element so that remove() can unlink it on every level.
+	 *
+	 * @author Michael Warstler
+	 */
+	private class Cursor implements Iterator<E> {
+		/** Node holding the element returned by the next call to next() */
+		private SkipNode<E> nextNode;
+		/** Index of the element returned by the next call to next() */
+		private int nextIndex;
+		/** True if the last returned element may be removed */
+		private boolean canRemove;
+		/** Value of modCount the cursor expects the list to have */
+		private int expectedModCount;
+
+		/**
+		 * Constructs a cursor positioned before the first element.
+		 */
+		public Cursor() {
+			nextNode = head.next[0];
+			nextIndex = 0;
+			expectedModCount = modCount;
+		}
+
+		/**
+		 * Determines if there are elements left to visit.
+		 *
+		 * @return is true if next() will return an element.
+		 */
+		@Override
+		public boolean hasNext() {
+			return nextNode != null;
+		}
+
+		/**
+		 * Returns the next element in sorted order.
+		 *
+		 * @return is the next element.
+		 * @throws NoSuchElementException          if there are no elements left.
+		 * @throws ConcurrentModificationException if the list was changed outside
+		 *                                         the cursor.
+		 */
+		@Override
+		public E next() {
+			checkForComodification();
+			if (nextNode == null) {
+				throw new NoSuchElementException();
+			}
+			E data = nextNode.data;
+			nextNode = nextNode.next[0];
+			nextIndex++;
+			canRemove = true;
+			return data;
+		}
+
+		/**
+		 * Removes the last element returned by next() from the list.
+		 *
+		 * @throws IllegalStateException           if next() has not been called
+		 *                                         since the last remove.
+		 * @throws ConcurrentModificationException if the list was changed outside
+		 *                                         the cursor.
+		 */
+		@Override
+		public void remove() {
+			if (!canRemove) {
+				throw new IllegalStateException();
+			}
+			checkForComodification();
+			nextIndex--;
+			SkipSortedList.this.remove(nextIndex);
+			canRemove = false;
+			expectedModCount = modCount;
+		}
+
+		/**
+		 * Checks that the list has only been changed through this cursor.
+		 *
+		 * @throws ConcurrentModificationException if the list was changed.
+		 */
+		private void checkForComodification() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+	}
+
+	//////////////////////////////////////////////////////////////////
+	//PRIVATE INNER CLASS: SKIPNODE
+	//////////////////////////////////////////////////////////////////
+
+	/**
+	 * Establishes a node for the SkipSortedList. Each node contains data, a
+	 * reference to the next node on each of its levels, and the number of
+	 * elements each of those references skips over.
+	 *
+	 * @param <E> is generic type of the node's data.
+	 * @author Michael Warstler
+	 */
+	private static class SkipNode<E> {
+		/** The data/object that the node contains */
+		public E data;
+		/** Reference to the "next" node on each level */
+		public SkipNode<E>[] next;
+		/** Number of positions moved by following next[i] */
+		public int[] span;
+
+		/**
+		 * Constructor for a node linked into the given number of levels.
+		 *
+		 * @param data      of node to set up new node with.
+		 * @param nodeLevel is the number of levels the node is linked into.
+		 */
+		public SkipNode(E data, int nodeLevel) {
+			this.data = data;
+			this.next = newNodeArray(nodeLevel);
+			this.span = new int[nodeLevel];
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package edu.ncsu.csc216.wolf_tasks.model.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Helper for the ISortedList addAll() implementations. Copies a batch of
+ * elements into an array and sorts it once so that it can be merged with an
+ * existing sorted list in a single pass.
+ * 
+ * @author Michael Warstler
+ */
+final class SortedBatch {
+
+	/**
+	 * Private constructor; SortedBatch only has static methods.
+	 */
+	private SortedBatch() {
+		// not instantiated
+	}
+
+	/**
+	 * Copies the elements into a new array sorted by compareTo(). The sort is
+	 * stable, so elements that compare equal keep their original order.
+	 * 
+	 * @param <E>      type of the elements.
+	 * @param elements is the batch to sort.
+	 * @return is a sorted array holding the batch.
+	 * @throws NullPointerException if elements or any element is null.
+	 */
+	@SuppressWarnings("unchecked")
+	static <E extends Comparable<E>> E[] sort(Collection<E> elements) {
+		if (elements == null) {
+			throw new NullPointerException("Cannot add null elements.");
+		}
+		E[] batch = (E[]) new Comparable<?>[elements.size()];
+		int i = 0;
+		for (E element : elements) {
+			if (element == null) {
+				throw new NullPointerException("Cannot add null element.");
+			}
+			batch[i] = element;
+			i++;
+		}
+		Arrays.sort(batch);
+		return batch;
+	}
+
+	/**
+	 * Merges a sorted list with a sorted batch into one sorted array. When an
+	 * element of the list and of the batch compare equal, the list's element comes
+	 * first.
+	 * 
+	 * @param <E>      type of the elements.
+	 * @param list     is the sorted list to merge.
+	 * @param batch    is the sorted batch to merge.
+	 * @return is a sorted array holding every element of the list and batch.
+	 * @throws IllegalArgumentException if two neighboring elements of the merged
+	 *                                  order compare equal.
+	 */
+	@SuppressWarnings("unchecked")
+	static <E extends Comparable<E>> E[] merge(ISortedList<E> list, E[] batch) {
+		E[] merged = (E[]) new Comparable<?>[list.size() + batch.length];
+		int b = 0;
+		int m = 0;
+		for (E existing : list) {
+			// Take every batch element that comes before the existing element.
+			while (b < batch.length && batch[b].compareTo(existing) < 0) {
+				m = append(merged, m, batch[b]);
+				b++;
+			}
+			m = append(merged, m, existing);
+		}
+		while (b < batch.length) {
+			m = append(merged, m, batch[b]);
+			b++;
+		}
+		return merged;
+	}
+
+	/**
+	 * Appends an element to the merged array, checking it against the element
+	 * before it for a duplicate.
+	 * 
+	 * @param <E>     type of the elements.
+	 * @param merged  is the array being filled.
+	 * @param m       is the number of elements already in merged.
+	 * @param element is the element to append.
+	 * @return is the new number of elements in merged.
+	 * @throws IllegalArgumentException if element compares equal to the previous
+	 *                                  element.
+	 */
+	private static <E extends Comparable<E>> int append(E[] merged, int m, E element) {
+		if (m > 0 && merged[m - 1].compareTo(element) == 0) {
+			throw new IllegalArgumentException("Cannot add duplicate element.");
+		}
+		merged[m] = element;
+		return m + 1;
+	}
+}
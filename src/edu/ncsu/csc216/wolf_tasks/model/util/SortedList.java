@@ -1,5 +1,10 @@
 package edu.ncsu.csc216.wolf_tasks.model.util;
 
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
 /**
  * Handles functionality of multiple TaskList objects (represented by taskLists
  * field in Notebook class). Can add/remove task lists. Can return individual
@@ -16,6 +21,8 @@ public class SortedList<E extends Comparable<E>> implements ISortedList<E> {
 	private int size;
 	/** Initial node of the LinkedList */
 	private ListNode front;
+	/** Number of structural changes, used to make iterators fail-fast */
+	private int modCount;
 
 	/**
 	 * Constructor for the SortedList. Size initialized to 0 and front initialized
@@ -53,8 +60,8 @@ public class SortedList<E extends Comparable<E>> implements ISortedList<E> {
 			// Check if element is a duplicate of another.
 			ListNode current = front;
 			for (int i = 0; i < size; i++) {
-				// Check for duplicate
-				if (current.data.equals(element)) {
+				// Check for duplicate: an element that compares equal, as in addAll().
+				if (current.data.compareTo(element) == 0) {
 					throw new IllegalArgumentException("Cannot add duplicate element.");
 				}
 				current = current.next; // shift to next node. At last node, current would become null here.
@@ -86,6 +93,49 @@ public class SortedList<E extends Comparable<E>> implements ISortedList<E> {
 			}
 		}
 		size++;
+		modCount++;
+	}
+
+	/**
+	 * Adds a batch of elements in sorted order. The batch is sorted once, then
+	 * merged with the existing nodes into a new chain of nodes in a single pass.
+	 * An element is a duplicate if it compares equal to its neighbor in the merged
+	 * order, as in add().
+	 * The front of the list is only replaced once the whole merge succeeded.
+	 * 
+	 * @param elements is the batch of objects to add to the list.
+	 * @throws NullPointerException     if elements or any element is null.
+	 * @throws IllegalArgumentException if an element is a duplicate.
+	 */
+	@Override
+	public void addAll(Collection<E> elements) {
+		E[] batch = SortedBatch.sort(elements);
+
+		ListNode mergedFront = new ListNode(null, null); // placeholder in front of the merged chain.
+		ListNode tail = mergedFront;
+		ListNode current = front;
+		int b = 0;
+		while (current != null || b < batch.length) {
+			// Take from the batch only if it comes strictly before the existing element.
+			E next;
+			if (b < batch.length && (current == null || batch[b].compareTo(current.data) < 0)) {
+				next = batch[b];
+				b++;
+			} else {
+				next = current.data;
+				current = current.next;
+			}
+			// Check for duplicate with the previous element of the merged order.
+			if (tail != mergedFront && tail.data.compareTo(next) == 0) {
+				throw new IllegalArgumentException("Cannot add duplicate element.");
+			}
+			tail.next = new ListNode(next, null);
+			tail = tail.next;
+		}
+
+		front = mergedFront.next;
+		size += batch.length;
+		modCount++;
 	}
 
 	/**
@@ -115,6 +165,7 @@ public class SortedList<E extends Comparable<E>> implements ISortedList<E> {
 			current.next = current.next.next; // Skips the removed index and sets the "next" value to 2 nodes over.
 		}
 		size--;
+		modCount++;
 		return value;
 	}
 
@@ -150,6 +201,25 @@ public class SortedList<E extends Comparable<E>> implements ISortedList<E> {
 		return false; // element not found
 	}
 
+	/**
+	 * Finds the index of an element in the SortedList.
+	 * 
+	 * @param element to search for.
+	 * @return is the index of the element or -1 if it is not in the list.
+	 */
+	@Override
+	public int indexOf(E element) {
+		// Cycle through list looking for element
+		int idx = 0;
+		for (E data : this) {
+			if (data.equals(element)) {
+				return idx; // element found
+			}
+			idx++;
+		}
+		return -1; // element not found
+	}
+
 	/**
 	 * Gets the element at the parameter index from the sorted list.
 	 * 
@@ -178,6 +248,126 @@ public class SortedList<E extends Comparable<E>> implements ISortedList<E> {
 		return size;
 	}
 
+	/**
+	 * Provides the modCount field, which also keeps the cursors fail-fast.
+	 * 
+	 * @return is the modCount field.
+	 */
+	@Override
+	public int getModificationCount() {
+		return modCount;
+	}
+
+	/**
+	 * Provides a fail-fast iterator that walks the nodes from front to back. Each
+	 * step is O(1), so a full traversal is linear instead of the quadratic cost of
+	 * calling get(i) for every index.
+	 * 
+	 * @return is an iterator over the list's elements in sorted order.
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return new Cursor();
+	}
+
+	//////////////////////////////////////////////////////////////////
+	//PRIVATE INNER CLASS: CURSOR
+	//////////////////////////////////////////////////////////////////
+
+	/**
+	 * Forward iterator over the SortedList. Keeps a reference to the node before
+	 * the last returned one so that remove() can unlink it in place.
+	 * 
+	 * @author Michael Warstler
+	 */
+	private class Cursor implements Iterator<E> {
+		/** Node holding the element returned by the next call to next() */
+		private ListNode nextNode;
+		/** Node returned by the last call to next(), null if none or removed */
+		private ListNode lastReturned;
+		/** Node in front of lastReturned, null if lastReturned is the front */
+		private ListNode previous;
+		/** Value of modCount the cursor expects the list to have */
+		private int expectedModCount;
+
+		/**
+		 * Constructs a cursor positioned before the front of the list.
+		 */
+		public Cursor() {
+			nextNode = front;
+			expectedModCount = modCount;
+		}
+
+		/**
+		 * Determines if there are elements left to visit.
+		 * 
+		 * @return is true if next() will return an element.
+		 */
+		@Override
+		public boolean hasNext() {
+			return nextNode != null;
+		}
+
+		/**
+		 * Returns the next element in sorted order.
+		 * 
+		 * @return is the next element.
+		 * @throws NoSuchElementException          if there are no elements left.
+		 * @throws ConcurrentModificationException if the list was changed outside
+		 *                                         the cursor.
+		 */
+		@Override
+		public E next() {
+			checkForComodification();
+			if (nextNode == null) {
+				throw new NoSuchElementException();
+			}
+			// The last returned node (if it is still in the list) now comes before next.
+			if (lastReturned != null) {
+				previous = lastReturned;
+			}
+			lastReturned = nextNode;
+			nextNode = nextNode.next;
+			return lastReturned.data;
+		}
+
+		/**
+		 * Removes the last element returned by next() from the list.
+		 * 
+		 * @throws IllegalStateException           if next() has not been called
+		 *                                         since the last remove.
+		 * @throws ConcurrentModificationException if the list was changed outside
+		 *                                         the cursor.
+		 */
+		@Override
+		public void remove() {
+			if (lastReturned == null) {
+				throw new IllegalStateException();
+			}
+			checkForComodification();
+			if (previous == null) {
+				front = lastReturned.next;
+			} else {
+				previous.next = lastReturned.next;
+			}
+			lastReturned = null;
+			size--;
+			modCount++;
+			expectedModCount = modCount;
+		}
+
+		/**
+		 * Checks that the list has only been changed through this cursor.
+		 * 
+		 * @throws ConcurrentModificationException if the list was changed.
+		 */
+		private void checkForComodification() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+	}
+
 	//////////////////////////////////////////////////////////////////
 	//PRIVATE INNER CLASS: LISTNODE
 	//////////////////////////////////////////////////////////////////
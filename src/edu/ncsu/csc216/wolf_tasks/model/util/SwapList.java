@@ -1,11 +1,29 @@
 package edu.ncsu.csc216.wolf_tasks.model.util;
 
+import java.util.ConcurrentModificationException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
 /**
  * Handles implementation of ISwapList interface. Controls functionality of an
  * array containing generic type E. Array methods involve adding/removing
  * elements, moving elements up/down/front/back, returning an element and the
  * size of the array.
  * 
+ * The array is used as a circular buffer: index 0 of the list is stored at the
+ * head offset and later indexes wrap around the end of the array. Removing an
+ * element only shifts the elements on the shorter side of it, so removing from
+ * either end and moving the first or last element to the other end are O(1).
+ * 
+ * An indexed SwapList also keeps an identity hash map from each element to its
+ * array position, which makes duplicate checks, indexOf() and removeElement()
+ * O(1) lookups. Indexed lists compare elements by identity (==), so they are
+ * meant for element types that do not override equals(), such as Task. The map
+ * is only built once the list reaches INDEX_THRESHOLD elements; smaller lists
+ * (such as the few lists a Task belongs to) are scanned, which is as fast and
+ * keeps them small.
+ * 
  * @param <E> represents the generic type
  * @author Michael Warstler
  */
@@ -13,19 +31,84 @@ public class SwapList<E> implements ISwapList<E> {
 
 	/** Initial Capacity of the SwapList */
 	private static final int INITIAL_CAPACITY = 10;
+	/** Size at which an indexed SwapList builds its position map */
+	private static final int INDEX_THRESHOLD = 16;
 	/** Array to hold E objects */
 	private E[] list;
+	/** Position in the array that holds index 0 of the list */
+	private int head;
 	/** Indicates the number of elements currently in the list field */
 	private int size;
+	/** Number of changes to the list, used to make iterators fail-fast */
+	private int modCount;
+	/** True if elements are compared by identity and their positions indexed */
+	private boolean indexed;
+	/** Array position of each element, or null if there is no index (yet) */
+	private IdentityHashMap<E, Integer> positions;
+
+	/**
+	 * Constructor for the SwapList. Sets up the list array as an object array. Head
+	 * and size initialized to 0.
+	 */
+	public SwapList() {
+		this(false);
+	}
 
 	/**
-	 * Constructor for the SwapList. Sets up the list array as an object array. Size
+	 * Constructor for the SwapList that optionally keeps an identity index of
+	 * element positions. Sets up the list array as an object array. Head and size
 	 * initialized to 0.
+	 * 
+	 * @param indexed is true to keep the identity position index.
 	 */
 	@SuppressWarnings("unchecked")
-	public SwapList() {
+	public SwapList(boolean indexed) {
 		list = (E[]) new Object[INITIAL_CAPACITY];
+		head = 0;
 		size = 0;
+		this.indexed = indexed;
+	}
+
+	/**
+	 * Builds the position map of an indexed list once it reaches INDEX_THRESHOLD
+	 * elements.
+	 */
+	private void checkIndexed() {
+		if (indexed && positions == null && size >= INDEX_THRESHOLD) {
+			positions = new IdentityHashMap<E, Integer>();
+			for (int i = 0; i < size; i++) {
+				positions.put(list[slot(i)], slot(i));
+			}
+		}
+	}
+
+	/**
+	 * Stores an element at an array position, keeping the position index (if any)
+	 * up to date.
+	 * 
+	 * @param position is the array position to store into.
+	 * @param element  is the element to store.
+	 */
+	private void place(int position, E element) {
+		list[position] = element;
+		if (positions != null) {
+			positions.put(element, position);
+		}
+	}
+
+	/**
+	 * Converts a list index into its position in the circular array.
+	 * 
+	 * @param idx is the list index (0 to size-1, or size for the free slot after
+	 *            the last element).
+	 * @return is the array position holding that index.
+	 */
+	private int slot(int idx) {
+		int position = head + idx;
+		if (position >= list.length) {
+			position -= list.length;
+		}
+		return position;
 	}
 
 	/**
@@ -44,10 +127,8 @@ public class SwapList<E> implements ISwapList<E> {
 		}
 
 		// Check for duplicate
-		for (int i = 0; i < size; i++) {
-			if (list[i].equals(element)) {
-				throw new IllegalArgumentException("Cannot add a duplicate element");
-			}
+		if (indexOf(element) != -1) {
+			throw new IllegalArgumentException("Cannot add a duplicate element");
 		}
 
 		// see if needing to grow the array. + 1 since we want array to always be
@@ -55,8 +136,54 @@ public class SwapList<E> implements ISwapList<E> {
 		checkCapacity(size + 1);
 
 		// Add element to end of the list and increment size.
-		list[size] = element;
+		place(slot(size), element);
+		size++;
+		modCount++;
+		checkIndexed();
+	}
+
+	/**
+	 * Adds the element at the given index. Only the elements on the shorter side of
+	 * the index are shifted to make room.
+	 * 
+	 * @param idx     index to add the element at
+	 * @param element element to add
+	 * @throws NullPointerException      if element is null
+	 * @throws IllegalArgumentException  if element is a duplicate to another in the
+	 *                                   list.
+	 * @throws IndexOutOfBoundsException if the idx is less than 0 or greater than
+	 *                                   size
+	 */
+	@Override
+	public void add(int idx, E element) {
+		if (idx < 0 || idx > size) {
+			throw new IndexOutOfBoundsException("Invalid index.");
+		}
+		// Check for null
+		if (element == null) {
+			throw new NullPointerException("Cannot add null element.");
+		}
+		// Check for duplicate
+		if (indexOf(element) != -1) {
+			throw new IllegalArgumentException("Cannot add a duplicate element");
+		}
+		checkCapacity(size + 1);
+		if (idx < size / 2) {
+			// Step the head back one and shift the front part of the list into it.
+			head = head == 0 ? list.length - 1 : head - 1;
+			for (int i = 0; i < idx; i++) {
+				place(slot(i), list[slot(i + 1)]);
+			}
+		} else {
+			// Shift the back part of the list into the free slot after the last element.
+			for (int i = size; i > idx; i--) {
+				place(slot(i), list[slot(i - 1)]);
+			}
+		}
+		place(slot(idx), element);
 		size++;
+		modCount++;
+		checkIndexed();
 	}
 
 	/**
@@ -77,11 +204,18 @@ public class SwapList<E> implements ISwapList<E> {
 		// length/capacity, grow the array.
 		if (newCapacity >= list.length) {
 			E[] newArray = (E[]) new Object[list.length * 2]; // set up new array
-			// Copy elements from original into new array.
+			// Copy elements from original into new array, unwrapping them from index 0.
 			for (int i = 0; i < size; i++) {
-				newArray[i] = list[i];
+				newArray[i] = list[slot(i)];
 			}
 			list = newArray; // sets the original array to the new array.
+			head = 0;
+			// Every element changed position, so rebuild the index.
+			if (positions != null) {
+				for (int i = 0; i < size; i++) {
+					positions.put(list[i], i);
+				}
+			}
 		}
 	}
 
@@ -97,18 +231,39 @@ public class SwapList<E> implements ISwapList<E> {
 	public E remove(int idx) {
 		checkIndex(idx);
 		// Store the removed element
-		E removedElement = list[idx];
+		E removedElement = list[slot(idx)];
+		if (positions != null) {
+			positions.remove(removedElement);
+		}
+		closeGap(idx);
+		modCount++;
+		return removedElement;
+	}
 
-		// Start at index param and set element at that index to the next element in
-		// list. Stop at the element before the last one (size - 1).
-		for (int i = idx; i < size - 1; i++) {
-			list[i] = list[i + 1];
+	/**
+	 * Removes the element at idx by shifting the shorter side of the list over it.
+	 * Elements before idx shift back one (and the head moves forward), or elements
+	 * after idx shift forward one. Size is decremented. The element at idx is not
+	 * removed from the position index; callers remove or re-place it.
+	 * 
+	 * @param idx index of the element to close the gap over.
+	 */
+	private void closeGap(int idx) {
+		if (idx < size / 2) {
+			// Shift the front part of the list back over idx and advance the head.
+			for (int i = idx; i > 0; i--) {
+				place(slot(i), list[slot(i - 1)]);
+			}
+			list[head] = null;
+			head = slot(1);
+		} else {
+			// Shift the back part of the list forward over idx.
+			for (int i = idx; i < size - 1; i++) {
+				place(slot(i), list[slot(i + 1)]);
+			}
+			list[slot(size - 1)] = null;
 		}
-		// Set the last element to null (it is already in previous index now)
-		list[size - 1] = null;
-		// Decrement size
 		size--;
-		return removedElement;
 	}
 
 	/**
@@ -137,9 +292,10 @@ public class SwapList<E> implements ISwapList<E> {
 
 		// Front of list does nothing, else swap idx element with idx-1.
 		if (idx != 0) {
-			E movedElement = list[idx]; // temporarily store value
-			list[idx] = list[idx - 1];
-			list[idx - 1] = movedElement;
+			E movedElement = list[slot(idx)]; // temporarily store value
+			place(slot(idx), list[slot(idx - 1)]);
+			place(slot(idx - 1), movedElement);
+			modCount++;
 		}
 	}
 
@@ -155,9 +311,10 @@ public class SwapList<E> implements ISwapList<E> {
 		checkIndex(idx);
 		// Back of list does nothing, else swap idx element with idx+1.
 		if (idx != size - 1) {
-			E movedElement = list[idx]; // temporarily store value
-			list[idx] = list[idx + 1];
-			list[idx + 1] = movedElement;
+			E movedElement = list[slot(idx)]; // temporarily store value
+			place(slot(idx), list[slot(idx + 1)]);
+			place(slot(idx + 1), movedElement);
+			modCount++;
 		}
 	}
 
@@ -174,13 +331,13 @@ public class SwapList<E> implements ISwapList<E> {
 
 		// Front of list does nothing, else move element from idx to front.
 		if (idx != 0) {
-			E movedElement = list[idx]; // temporarily store value
-			// Only shift values earlier than index.
-			for (int i = idx; i > 0; i--) {
-				list[i] = list[i - 1];
-			}
-			// Swap the front with the element previously at idx
-			list[0] = movedElement;
+			E movedElement = list[slot(idx)]; // temporarily store value
+			// Take the element out, then step the head back one to make room at the front.
+			closeGap(idx);
+			head = head == 0 ? list.length - 1 : head - 1;
+			place(head, movedElement);
+			size++;
+			modCount++;
 		}
 	}
 
@@ -197,13 +354,12 @@ public class SwapList<E> implements ISwapList<E> {
 
 		// Back of list does nothing, else move element from idx to back.
 		if (idx != size - 1) {
-			E movedElement = list[idx]; // temporarily store value
-			// Only shift values earlier than index.
-			for (int i = idx; i < size - 1; i++) {
-				list[i] = list[i + 1];
-			}
-			// Swap the back with the element previously at idx
-			list[size - 1] = movedElement;
+			E movedElement = list[slot(idx)]; // temporarily store value
+			// Take the element out, then place it in the free slot after the last element.
+			closeGap(idx);
+			place(slot(size), movedElement);
+			size++;
+			modCount++;
 		}
 	}
 
@@ -217,7 +373,58 @@ public class SwapList<E> implements ISwapList<E> {
 	@Override
 	public E get(int idx) {
 		checkIndex(idx);
-		return list[idx];
+		return list[slot(idx)];
+	}
+
+	/**
+	 * Returns the index of the given element, or -1 if it is not in the list. An
+	 * indexed list looks the element up by identity in O(1) (or scans by identity
+	 * while it is small); otherwise the list is scanned comparing with equals().
+	 * 
+	 * @param element element to search for
+	 * @return index of the element or -1 if not found
+	 */
+	@Override
+	public int indexOf(E element) {
+		if (positions != null) {
+			Integer position = positions.get(element);
+			if (position == null) {
+				return -1;
+			}
+			// Convert the array position back into a list index.
+			int idx = position - head;
+			return idx < 0 ? idx + list.length : idx;
+		}
+		if (indexed) {
+			for (int i = 0; i < size; i++) {
+				if (list[slot(i)] == element) {
+					return i;
+				}
+			}
+			return -1;
+		}
+		for (int i = 0; i < size; i++) {
+			if (list[slot(i)].equals(element)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Removes the given element from the list, if it is present.
+	 * 
+	 * @param element element to remove
+	 * @return true if the element was found and removed
+	 */
+	@Override
+	public boolean removeElement(E element) {
+		int idx = indexOf(element);
+		if (idx == -1) {
+			return false;
+		}
+		remove(idx);
+		return true;
 	}
 
 	/**
@@ -229,4 +436,112 @@ public class SwapList<E> implements ISwapList<E> {
 	public int size() {
 		return size;
 	}
+
+	/**
+	 * Provides the modCount field, which also keeps the cursors fail-fast.
+	 * 
+	 * @return is the modCount field.
+	 */
+	@Override
+	public int getModificationCount() {
+		return modCount;
+	}
+
+	/**
+	 * Provides a fail-fast iterator over the list from index 0 to size-1.
+	 * 
+	 * @return is an iterator over the list's elements.
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return new Cursor();
+	}
+
+	//////////////////////////////////////////////////////////////////
+	//PRIVATE INNER CLASS: CURSOR
+	//////////////////////////////////////////////////////////////////
+
+	/**
+	 * Forward iterator over the SwapList. remove() removes the last returned
+	 * element and steps the cursor back so that no element is skipped.
+	 * 
+	 * @author Michael Warstler
+	 */
+	private class Cursor implements Iterator<E> {
+		/** Index of the element returned by the next call to next() */
+		private int cursor;
+		/** Index of the last returned element, -1 if none or removed */
+		private int lastReturned;
+		/** Value of modCount the cursor expects the list to have */
+		private int expectedModCount;
+
+		/**
+		 * Constructs a cursor positioned before index 0.
+		 */
+		public Cursor() {
+			cursor = 0;
+			lastReturned = -1;
+			expectedModCount = modCount;
+		}
+
+		/**
+		 * Determines if there are elements left to visit.
+		 * 
+		 * @return is true if next() will return an element.
+		 */
+		@Override
+		public boolean hasNext() {
+			return cursor < size;
+		}
+
+		/**
+		 * Returns the next element in the list.
+		 * 
+		 * @return is the next element.
+		 * @throws NoSuchElementException          if there are no elements left.
+		 * @throws ConcurrentModificationException if the list was changed outside
+		 *                                         the cursor.
+		 */
+		@Override
+		public E next() {
+			checkForComodification();
+			if (cursor >= size) {
+				throw new NoSuchElementException();
+			}
+			lastReturned = cursor;
+			cursor++;
+			return list[slot(lastReturned)];
+		}
+
+		/**
+		 * Removes the last element returned by next() from the list.
+		 * 
+		 * @throws IllegalStateException           if next() has not been called
+		 *                                         since the last remove.
+		 * @throws ConcurrentModificationException if the list was changed outside
+		 *                                         the cursor.
+		 */
+		@Override
+		public void remove() {
+			if (lastReturned < 0) {
+				throw new IllegalStateException();
+			}
+			checkForComodification();
+			SwapList.this.remove(lastReturned);
+			cursor = lastReturned;
+			lastReturned = -1;
+			expectedModCount = modCount;
+		}
+
+		/**
+		 * Checks that the list has only been changed through this cursor.
+		 * 
+		 * @throws ConcurrentModificationException if the list was changed.
+		 */
+		private void checkForComodification() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+	}
 }
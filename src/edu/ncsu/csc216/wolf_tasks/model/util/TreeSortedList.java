@@ -0,0 +1,520 @@
+package edu.ncsu.csc216.wolf_tasks.model.util;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Order-statistic AVL tree implementation of the ISortedList interface. Each
+ * node knows the height and number of elements of its subtree, so add,
+ * remove(idx), get(idx), contains and indexOf are all O(log n) in the worst
+ * case. Elements that compare as equal (compareTo() returns 0) are treated as
+ * duplicates, so uniqueness is checked during the same descent that finds the
+ * insertion point.
+ *
+ * @param <E> is generic type.
+ * @author Michael Warstler
+ */
+public class TreeSortedList<E extends Comparable<E>> implements ISortedList<E> {
+
+	/** Root node of the tree, null when the list is empty */
+	private TreeNode<E> root;
+	/** Number of structural changes, used to make iterators fail-fast */
+	private int modCount;
+
+	/**
+	 * Constructor for the TreeSortedList. The tree starts out empty.
+	 */
+	public TreeSortedList() {
+		root = null;
+	}
+
+	/**
+	 * Adds an element to the list in sorted order.
+	 *
+	 * @param element is the object to add to the list.
+	 * @throws NullPointerException     if parameter is null.
+	 * @throws IllegalArgumentException if parameter compares equal to an existing
+	 *                                  element.
+	 */
+	@Override
+	public void add(E element) {
+		// Check for null param.
+		if (element == null) {
+			throw new NullPointerException("Cannot add null element.");
+		}
+		root = insert(root, element);
+		modCount++;
+	}
+
+	/**
+	 * Inserts an element into the subtree and rebalances on the way back up.
+	 *
+	 * @param node    is the root of the subtree.
+	 * @param element is the element to insert.
+	 * @return is the new root of the subtree.
+	 * @throws IllegalArgumentException if the element is a duplicate. Nothing has
+	 *                                  been changed when this is thrown.
+	 */
+	private TreeNode<E> insert(TreeNode<E> node, E element) {
+		if (node == null) {
+			return new TreeNode<E>(element);
+		}
+		int compare = element.compareTo(node.data);
+		if (compare < 0) {
+			node.left = insert(node.left, element);
+		} else if (compare > 0) {
+			node.right = insert(node.right, element);
+		} else {
+			throw new IllegalArgumentException("Cannot add duplicate element.");
+		}
+		return rebalance(node);
+	}
+
+	/**
+	 * Adds a batch of elements in sorted order. The batch is sorted once and
+	 * merged with the existing elements, checking for duplicates during the merge,
+	 * and a perfectly balanced tree is then built from the merged order in O(n +
+	 * m).
+	 *
+	 * @param elements is the batch of objects to add to the list.
+	 * @throws NullPointerException     if elements or any element is null.
+	 * @throws IllegalArgumentException if an element is a duplicate.
+	 */
+	@Override
+	public void addAll(Collection<E> elements) {
+		E[] merged = SortedBatch.merge(this, SortedBatch.sort(elements));
+		root = build(merged, 0, merged.length);
+		modCount++;
+	}
+
+	/**
+	 * Builds a balanced subtree from a sorted range of elements.
+	 *
+	 * @param sorted is the sorted array of elements.
+	 * @param from   is the first index of the range (inclusive).
+	 * @param to     is the end of the range (exclusive).
+	 * @return is the root of the subtree, or null for an empty range.
+	 */
+	private static <E> TreeNode<E> build(E[] sorted, int from, int to) {
+		if (from >= to) {
+			return null;
+		}
+		int middle = (from + to) >>> 1;
+		TreeNode<E> node = new TreeNode<E>(sorted[middle]);
+		node.left = build(sorted, from, middle);
+		node.right = build(sorted, middle + 1, to);
+		update(node);
+		return node;
+	}
+
+	/**
+	 * Removes an element/node at an index parameter.
+	 *
+	 * @param idx is index of list to remove.
+	 * @return is the element at the idx location that was removed.
+	 * @throws IndexOutOfBoundsException if the idx is out of bounds for the list
+	 */
+	@Override
+	public E remove(int idx) {
+		E value = get(idx);
+		root = removeAt(root, idx);
+		modCount++;
+		return value;
+	}
+
+	/**
+	 * Removes the node with the given rank from the subtree and rebalances on the
+	 * way back up.
+	 *
+	 * @param node is the root of the subtree.
+	 * @param idx  is the rank of the node to remove within the subtree.
+	 * @return is the new root of the subtree.
+	 */
+	private TreeNode<E> removeAt(TreeNode<E> node, int idx) {
+		int leftSize = size(node.left);
+		if (idx < leftSize) {
+			node.left = removeAt(node.left, idx);
+		} else if (idx > leftSize) {
+			node.right = removeAt(node.right, idx - leftSize - 1);
+		} else {
+			// Node with at most one child is replaced by that child.
+			if (node.left == null) {
+				return node.right;
+			}
+			if (node.right == null) {
+				return node.left;
+			}
+			// Otherwise take the data of the in-order successor and remove it instead.
+			TreeNode<E> successor = node.right;
+			while (successor.left != null) {
+				successor = successor.left;
+			}
+			node.data = successor.data;
+			node.right = removeAt(node.right, 0);
+		}
+		return rebalance(node);
+	}
+
+	/**
+	 * Determines if an element is in the TreeSortedList or not.
+	 *
+	 * @param element to search for.
+	 * @return is true if the list has the element, false otherwise.
+	 */
+	@Override
+	public boolean contains(E element) {
+		return indexOf(element) != -1;
+	}
+
+	/**
+	 * Returns the index (rank) of the element in the sorted list.
+	 *
+	 * @param element to search for.
+	 * @return is the index of the element or -1 if it is not in the list.
+	 */
+	@Override
+	public int indexOf(E element) {
+		if (element == null) {
+			return -1;
+		}
+		// Every time the search goes right, the left subtree and node come before.
+		TreeNode<E> node = root;
+		int rank = 0;
+		while (node != null) {
+			int compare = element.compareTo(node.data);
+			if (compare < 0) {
+				node = node.left;
+			} else if (compare > 0) {
+				rank += size(node.left) + 1;
+				node = node.right;
+			} else {
+				return node.data.equals(element) ? rank + size(node.left) : -1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the element at the parameter index from the sorted list.
+	 *
+	 * @param idx is the index of the list to return.
+	 * @return is the element stored at the index of the sorted list.
+	 * @throws IndexOutOfBoundsException if the idx is out of bounds for the list
+	 */
+	@Override
+	public E get(int idx) {
+		if (idx < 0 || idx >= size()) {
+			throw new IndexOutOfBoundsException("Invalid index.");
+		}
+		TreeNode<E> node = root;
+		while (true) {
+			int leftSize = size(node.left);
+			if (idx < leftSize) {
+				node = node.left;
+			} else if (idx > leftSize) {
+				idx -= leftSize + 1;
+				node = node.right;
+			} else {
+				return node.data;
+			}
+		}
+	}
+
+	/**
+	 * Provides the number of elements in the list.
+	 *
+	 * @return is the size of the tree.
+	 */
+	@Override
+	public int size() {
+		return size(root);
+	}
+
+	/**
+	 * Provides the modCount field, which also keeps the cursors fail-fast.
+	 * 
+	 * @return is the modCount field.
+	 */
+	@Override
+	public int getModificationCount() {
+		return modCount;
+	}
+
+	/**
+	 * Provides the height of the tree, found by walking every path rather than
+	 * read from the heights the nodes keep, so tests can check the balance.
+	 *
+	 * @return is the number of nodes on the longest path from the root, 0 if
+	 *         the list is empty.
+	 */
+	int height() {
+		return measure(root);
+	}
+
+	/**
+	 * Measures the height of a possibly empty subtree by walking it.
+	 *
+	 * @param node is the root of the subtree.
+	 * @return is the height of the subtree, 0 if empty.
+	 */
+	private static <E> int measure(TreeNode<E> node) {
+		return node == null ? 0 : Math.max(measure(node.left), measure(node.right)) + 1;
+	}
+
+	/**
+	 * Provides a fail-fast iterator that walks the tree in order. A full traversal
+	 * is linear; remove() costs O(log n).
+	 *
+	 * @return is an iterator over the list's elements in sorted order.
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return new Cursor();
+	}
+
+	/**
+	 * Size of a possibly empty subtree.
+	 *
+	 * @param node is the root of the subtree.
+	 * @return is the number of elements in the subtree.
+	 */
+	private static <E> int size(TreeNode<E> node) {
+		return node == null ? 0 : node.size;
+	}
+
+	/**
+	 * Height of a possibly empty subtree.
+	 *
+	 * @param node is the root of the subtree.
+	 * @return is the height of the subtree, 0 if empty.
+	 */
+	private static <E> int height(TreeNode<E> node) {
+		return node == null ? 0 : node.height;
+	}
+
+	/**
+	 * Recomputes the height and size of a node from its children.
+	 *
+	 * @param node to update.
+	 */
+	private static <E> void update(TreeNode<E> node) {
+		node.height = Math.max(height(node.left), height(node.right)) + 1;
+		node.size = size(node.left) + size(node.right) + 1;
+	}
+
+	/**
+	 * Restores the AVL balance of a node whose subtrees differ in height by at
+	 * most two, and updates its height and size.
+	 *
+	 * @param node to rebalance.
+	 * @return is the new root of the subtree.
+	 */
+	private static <E> TreeNode<E> rebalance(TreeNode<E> node) {
+		update(node);
+		int balance = height(node.left) - height(node.right);
+		if (balance > 1) {
+			if (height(node.left.left) < height(node.left.right)) {
+				node.left = rotateLeft(node.left);
+			}
+			return rotateRight(node);
+		}
+		if (balance < -1) {
+			if (height(node.right.right) < height(node.right.left)) {
+				node.right = rotateRight(node.right);
+			}
+			return rotateLeft(node);
+		}
+		return node;
+	}
+
+	/**
+	 * Rotates the subtree to the left, making the right child the new root.
+	 *
+	 * @param node is the current root of the subtree.
+	 * @return is the new root of the subtree.
+	 */
+	private static <E> TreeNode<E> rotateLeft(TreeNode<E> node) {
+		TreeNode<E> newRoot = node.right;
+		node.right = newRoot.left;
+		newRoot.left = node;
+		update(node);
+		update(newRoot);
+		return newRoot;
+	}
+
+	/**
+	 * Rotates the subtree to the right, making the left child the new root.
+	 *
+	 * @param node is the current root of the subtree.
+	 * @return is the new root of the subtree.
+	 */
+	private static <E> TreeNode<E> rotateRight(TreeNode<E> node) {
+		TreeNode<E> newRoot = node.left;
+		node.left = newRoot.right;
+		newRoot.right = node;
+		update(node);
+		update(newRoot);
+		return newRoot;
+	}
+
+	//////////////////////////////////////////////////////////////////
+	//PRIVATE INNER CLASS: CURSOR
+	//////////////////////////////////////////////////////////////////
+
+	/**
+	 * In-order iterator over the TreeSortedList. Keeps the path of nodes still to
+	 * visit on a stack; after a remove() the tree may have rotated, so the path is
+	 * rebuilt from the root by rank.
+	 *
+	 * @author Michael Warstler
+	 */
+	private class Cursor implements Iterator<E> {
+		/** Nodes whose element (and right subtree) have not been visited yet */
+		private ArrayDeque<TreeNode<E>> path;
+		/** Index of the element returned by the next call to next() */
+		private int nextIndex;
+		/** True if the last returned element may be removed */
+		private boolean canRemove;
+		/** Value of modCount the cursor expects the list to have */
+		private int expectedModCount;
+
+		/**
+		 * Constructs a cursor positioned before the first element.
+		 */
+		public Cursor() {
+			path = new ArrayDeque<TreeNode<E>>();
+			nextIndex = 0;
+			expectedModCount = modCount;
+			seek(0);
+		}
+
+		/**
+		 * Rebuilds the path so that next() returns the element at idx.
+		 *
+		 * @param idx is the index of the next element to return.
+		 */
+		private void seek(int idx) {
+			path.clear();
+			TreeNode<E> node = root;
+			while (node != null) {
+				int leftSize = size(node.left);
+				if (idx < leftSize) {
+					path.push(node);
+					node = node.left;
+				} else if (idx > leftSize) {
+					idx -= leftSize + 1;
+					node = node.right;
+				} else {
+					path.push(node);
+					node = null;
+				}
+			}
+		}
+
+		/**
+		 * Determines if there are elements left to visit.
+		 *
+		 * @return is true if next() will return an element.
+		 */
+		@Override
+		public boolean hasNext() {
+			return !path.isEmpty();
+		}
+
+		/**
+		 * Returns the next element in sorted order.
+		 *
+		 * @return is the next element.
+		 * @throws NoSuchElementException          if there are no elements left.
+		 * @throws ConcurrentModificationException if the list was changed outside
+		 *                                         the cursor.
+		 */
+		@Override
+		public E next() {
+			checkForComodification();
+			if (path.isEmpty()) {
+				throw new NoSuchElementException();
+			}
+			TreeNode<E> node = path.pop();
+			// The successors of node are the leftmost path of its right subtree.
+			TreeNode<E> child = node.right;
+			while (child != null) {
+				path.push(child);
+				child = child.left;
+			}
+			nextIndex++;
+			canRemove = true;
+			return node.data;
+		}
+
+		/**
+		 * Removes the last element returned by next() from the list.
+		 *
+		 * @throws IllegalStateException           if next() has not been called
+		 *                                         since the last remove.
+		 * @throws ConcurrentModificationException if the list was changed outside
+		 *                                         the cursor.
+		 */
+		@Override
+		public void remove() {
+			if (!canRemove) {
+				throw new IllegalStateException();
+			}
+			checkForComodification();
+			nextIndex--;
+			TreeSortedList.this.remove(nextIndex);
+			seek(nextIndex);
+			canRemove = false;
+			expectedModCount = modCount;
+		}
+
+		/**
+		 * Checks that the list has only been changed through this cursor.
+		 *
+		 * @throws ConcurrentModificationException if the list was changed.
+		 */
+		private void checkForComodification() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+	}
+
+	//////////////////////////////////////////////////////////////////
+	//PRIVATE INNER CLASS: TREENODE
+	//////////////////////////////////////////////////////////////////
+
+	/**
+	 * Establishes a node for the TreeSortedList. Each node contains data, its two
+	 * children, and the height and number of elements of its subtree.
+	 *
+	 * @param <E> is generic type of the node's data.
+	 * @author Michael Warstler
+	 */
+	private static class TreeNode<E> {
+		/** The data/object that the node contains */
+		public E data;
+		/** Subtree of elements that come before data */
+		public TreeNode<E> left;
+		/** Subtree of elements that come after data */
+		public TreeNode<E> right;
+		/** Height of the subtree rooted at this node */
+		public int height;
+		/** Number of elements in the subtree rooted at this node */
+		public int size;
+
+		/**
+		 * Constructor for a leaf node.
+		 *
+		 * @param data of node to set up new node with.
+		 */
+		public TreeNode(E data) {
+			this.data = data;
+			this.height = 1;
+			this.size = 1;
+		}
+	}
+}
@@ -2,12 +2,16 @@ package edu.ncsu.csc216.wolf_tasks.view.ui;
 
 import java.awt.Container;
 import java.awt.Dimension;
+import java.awt.EventQueue;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -26,7 +30,10 @@ import javax.swing.JTable;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
+import javax.swing.ProgressMonitor;
 import javax.swing.ScrollPaneConstants;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
 import javax.swing.border.Border;
 import javax.swing.border.EtchedBorder;
 import javax.swing.border.TitledBorder;
@@ -34,7 +41,11 @@ import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 import javax.swing.table.AbstractTableModel;
 
+import edu.ncsu.csc216.wolf_tasks.model.io.NotebookAutosaver;
+import edu.ncsu.csc216.wolf_tasks.model.io.NotebookFormat;
+import edu.ncsu.csc216.wolf_tasks.model.io.NotebookProgress;
 import edu.ncsu.csc216.wolf_tasks.model.io.NotebookReader;
+import edu.ncsu.csc216.wolf_tasks.model.io.NotebookSnapshot;
 import edu.ncsu.csc216.wolf_tasks.model.notebook.Notebook;
 import edu.ncsu.csc216.wolf_tasks.model.tasks.AbstractTaskList;
 import edu.ncsu.csc216.wolf_tasks.model.tasks.ActiveTaskList;
@@ -85,6 +96,10 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 	
 	/** Current notebook - null if no notebook created. */
 	private Notebook notebook;
+	/** Autosaver of the current notebook to its file - null if it has no file. */
+	private NotebookAutosaver autosaver;
+	/** Load or save running in the background - null if none. */
+	private BackgroundTask<?> background;
 	
 	/**
 	 * Constructs a ServiceWolfGUI object that will contain a JMenuBar and a
@@ -170,6 +185,10 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 
 	@Override
 	public void actionPerformed(ActionEvent e) {
+		if (background != null) {
+			JOptionPane.showMessageDialog(this, "Wait for the Notebook to finish loading or saving.");
+			return;
+		}
 		if (e.getSource() == itemNew) {
 			if (notebook != null && notebook.isChanged()) {
 				int select = JOptionPane.showConfirmDialog(null, "Current Notebook is unsaved. Would you like to save before creating a new Notebook?", "Warning", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
@@ -185,22 +204,18 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 				if (notebook != null && notebook.isChanged()) {
 					int select = JOptionPane.showConfirmDialog(null, "Current Notebook is unsaved. Would you like to save before creating a new Notebook?", "Warning", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
 					if (select == 1) {
-						notebook = NotebookReader.readNotebookFile(new File(getFileName(true)));
-						pnlTaskList.updateTaskLists();
+						load(new File(getFileName(true)));
 					}
 				} else {
-					notebook = NotebookReader.readNotebookFile(new File(getFileName(true)));
-					pnlTaskList.updateTaskLists();
+					load(new File(getFileName(true)));
 				}
-			} catch (IllegalArgumentException iae) {
-				JOptionPane.showMessageDialog(this, "Unable to load file.");
 			} catch (IllegalStateException ise) {
 				//ignore the exception
 			}
 		} else if (e.getSource() == itemSave) {
 			//Save current service group and incidents
 			try {
-				notebook.saveNotebook(new File(getFileName(false)));
+				save(new File(getFileName(false)), false);
 			} catch (IllegalArgumentException exp) {
 				JOptionPane.showMessageDialog(this, "Unable to save file.");
 			} catch (IllegalStateException exp) {
@@ -210,8 +225,7 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 			if (notebook != null && notebook.isChanged()) {
 				//Quit the program
 				try {
-					notebook.saveNotebook(new File(getFileName(false)));
-					System.exit(0);  //Ignore SpotBugs warning here - this is the only place to quit the program!
+					save(new File(getFileName(false)), true);
 				} catch (IllegalArgumentException exp) {
 					JOptionPane.showMessageDialog(this, "Unable to save file.");
 				} catch (IllegalStateException exp) {
@@ -221,6 +235,13 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 				System.exit(0);
 			}
 		}
+		updateNotebook();
+	}
+	
+	/**
+	 * Shows the current notebook's name, task lists and save status.
+	 */
+	private void updateNotebook() {
 		if (notebook != null) {
 			notebookBorder.setTitle("Notebook: " + notebook.getNotebookName());
 		}
@@ -230,7 +251,59 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 		itemSave.setEnabled(notebook != null && notebook.isChanged());
 		repaint();
 		validate();
-		
+	}
+	
+	/**
+	 * Loads a notebook in the background. The loaded notebook replaces the
+	 * current one once the whole file is read; a cancelled load leaves the
+	 * current notebook in place.
+	 * @param file the file to load
+	 */
+	private void load(File file) {
+		background = new BackgroundTask<Notebook>("Loading " + file.getName(), "Unable to load file.") {
+			@Override
+			protected Notebook doInBackground() {
+				return NotebookReader.readNotebookFileByExtension(file, this);
+			}
+
+			@Override
+			protected void succeeded(Notebook loaded) {
+				notebook = loaded;
+				autosave(file);
+			}
+		};
+		background.execute();
+	}
+	
+	/**
+	 * Saves a snapshot of the current notebook in the background, while it can
+	 * still be edited. A cancelled save leaves the file as it was.
+	 * @param file the file to save to
+	 * @param quit true if the program quits once the notebook is saved
+	 * @throws IllegalArgumentException if a task list could not be read to save
+	 */
+	private void save(File file, boolean quit) {
+		Notebook saved = notebook;
+		NotebookSnapshot snapshot = saved.snapshot(NotebookFormat.forFile(file));
+		background = new BackgroundTask<Void>("Saving " + file.getName(), "Unable to save file.") {
+			@Override
+			protected Void doInBackground() {
+				snapshot.save(file, this);
+				return null;
+			}
+
+			@Override
+			protected void succeeded(Void result) {
+				saved.snapshotSaved(snapshot, file);
+				if (quit) {
+					System.exit(0);  //Ignore SpotBugs warning here - this is the only place to quit the program!
+				}
+				if (saved == notebook) {
+					autosave(file);
+				}
+			}
+		};
+		background.execute();
 	}
 	
 	/**
@@ -242,6 +315,23 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 			return; //no need to do anything
 		}
 		notebook = new Notebook(notebookName);
+		autosave(null);
+	}
+
+	/**
+	 * Autosaves the current notebook to the file it was loaded from or saved to,
+	 * in place of any earlier autosave.
+	 * @param file the notebook's file, or null if it has none
+	 */
+	private void autosave(File file) {
+		if (autosaver != null) {
+			autosaver.close();
+			autosaver = null;
+		}
+		if (file != null) {
+			autosaver = new NotebookAutosaver(notebook, file, EventQueue::invokeLater);
+			autosaver.start();
+		}
 	}
 	
 	/**
@@ -275,6 +365,92 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 		new WolfTasksGUI();
 	}
 	
+	/**
+	 * Load or save of a notebook file that runs off the event dispatch thread.
+	 * The reader or writer reports its progress to a ProgressMonitor, whose
+	 * Cancel button cancels the task; the reader or writer stops at its next
+	 * block or task list. The result is used on the event dispatch thread, once
+	 * the task is done.
+	 * @param <T> the result of the task
+	 */
+	private abstract class BackgroundTask<T> extends SwingWorker<T, Void> implements NotebookProgress {
+		
+		/** Milliseconds between checks of the monitor's Cancel button */
+		private static final int CANCEL_POLL = 100;
+		
+		/** Dialog showing the progress */
+		private ProgressMonitor monitor;
+		/** Timer that checks the monitor's Cancel button */
+		private Timer cancelTimer;
+		/** Message shown if the task fails */
+		private String failureMessage;
+		
+		/**
+		 * Creates the task and its progress dialog. Called on the event dispatch
+		 * thread.
+		 * @param note text of the progress dialog
+		 * @param failureMessage message shown if the task fails
+		 */
+		BackgroundTask(String note, String failureMessage) {
+			this.failureMessage = failureMessage;
+			monitor = new ProgressMonitor(WolfTasksGUI.this, note, null, 0, 100);
+			addPropertyChangeListener(e -> {
+				if ("progress".equals(e.getPropertyName())) {
+					monitor.setProgress((Integer) e.getNewValue());
+				}
+			});
+			cancelTimer = new Timer(CANCEL_POLL, e -> {
+				if (monitor.isCanceled()) {
+					cancel(false);
+				}
+			});
+			cancelTimer.start();
+		}
+		
+		/**
+		 * Reports progress to the monitor. Called on the background thread.
+		 * @param done the amount of work done
+		 * @param total the amount of work in all
+		 */
+		@Override
+		public void progress(long done, long total) {
+			if (total > 0) {
+				setProgress((int) Math.min(100, done * 100 / total));
+			}
+		}
+		
+		/**
+		 * Closes the progress dialog and uses the result, unless the task was
+		 * cancelled. Called on the event dispatch thread.
+		 */
+		@Override
+		protected void done() {
+			cancelTimer.stop();
+			monitor.close();
+			background = null;
+			if (!isCancelled()) {
+				try {
+					succeeded(get());
+				} catch (ExecutionException e) {
+					if (!(e.getCause() instanceof CancellationException)) {
+						JOptionPane.showMessageDialog(WolfTasksGUI.this, failureMessage);
+					}
+				} catch (IllegalArgumentException e) {
+					JOptionPane.showMessageDialog(WolfTasksGUI.this, failureMessage);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			updateNotebook();
+		}
+		
+		/**
+		 * Uses the result of the task. Called on the event dispatch thread.
+		 * @param result the result of the task
+		 */
+		protected abstract void succeeded(T result);
+	}
+	
 	/**
 	 * JPanel for TaskList.
 	 */
@@ -290,6 +466,8 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 		private JLabel lblActiveTaskList;
 		/** Combo box for ServiceGroup list */
 		private JComboBox<String> comboTaskLists;
+		/** Names last put in comboTaskLists, so it is only refilled when they change */
+		private String[] comboTaskListNames;
 		/** Label for number of completed tasks */
 		private JLabel lblCompletedTasks;
 		/** Button to add a task list */
@@ -458,10 +636,13 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 				btnEditTaskList.setEnabled(true);
 				btnRemoveTaskList.setEnabled(true);
 				
-				comboTaskLists.removeAllItems();
 				String [] taskListNames = notebook.getTaskListsNames();
-				for (int i = 0; i < taskListNames.length; i++) {
-					comboTaskLists.addItem(taskListNames[i]);
+				if (!Arrays.equals(taskListNames, comboTaskListNames)) {
+					comboTaskLists.removeAllItems();
+					for (int i = 0; i < taskListNames.length; i++) {
+						comboTaskLists.addItem(taskListNames[i]);
+					}
+					comboTaskListNames = taskListNames;
 				}
 				
 				comboTaskLists.setSelectedItem(taskListName);
@@ -483,6 +664,12 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 		/**
 		 * IncidentTableModel is the object underlying the JTable object that displays
 		 * the list of Incidents to the user.
+		 * 
+		 * Rows are not copied: each cell the JTable paints is read from the current
+		 * TaskList when it is needed, so only the visible rows are ever read. After
+		 * a Task is added, edited, removed, completed or moved, the rows it touched
+		 * are reported with their own event; the whole table is only reported
+		 * changed when another TaskList is shown or the rows are out of step.
 		 * @author Dr. Sarah Heckman (sarah_heckman@ncsu.edu)
 		 */
 		private class TaskTableModel extends AbstractTableModel {
@@ -491,8 +678,10 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 			private static final long serialVersionUID = 1L;
 			/** Column names for the table */
 			private String [] columnNames = {"Task List", "Task Title"};
-			/** Data stored in the table */
-			private Object [][] data;
+			/** TaskList shown in the table - null if no notebook created. */
+			private AbstractTaskList taskList;
+			/** Number of rows the table was last told about */
+			private int rowCount;
 			
 			/**
 			 * Constructs the IncidentTableModel by requesting the latest information
@@ -515,9 +704,7 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 			 * @return the number of rows in the table.
 			 */
 			public int getRowCount() {
-				if (data == null) 
-					return 0;
-				return data.length;
+				return rowCount;
 			}
 			
 			/**
@@ -536,31 +723,92 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 			 * @return the data at the given location.
 			 */
 			public Object getValueAt(int row, int col) {
-				if (data == null)
+				if (taskList == null || row >= taskList.getTasks().size())
 					return null;
-				return data[row][col];
+				return taskList.getTaskAsArray(row)[col];
 			}
 			
 			/**
-			 * Sets the given value to the given {row, col} location.
-			 * @param value Object to modify in the data.
-			 * @param row the row index
-			 * @param col the column index
+			 * Updates the given model with Tasks information from a TaskList. The
+			 * whole table is reported changed only if the current TaskList is not
+			 * the one shown, or its number of Tasks is not the number of rows.
 			 */
-			public void setValueAt(Object value, int row, int col) {
-				data[row][col] = value;
-				fireTableCellUpdated(row, col);
+			private void updateData() {
+				AbstractTaskList currentTaskList = notebook == null ? null : notebook.getCurrentTaskList();
+				int size = currentTaskList == null ? 0 : currentTaskList.getTasks().size();
+				if (currentTaskList != taskList || size != rowCount) {
+					taskList = currentTaskList;
+					rowCount = size;
+					fireTableDataChanged();
+				}
 			}
 			
 			/**
-			 * Updates the given model with Tasks information from a TaskList.
+			 * Reports a Task added to the end of the shown TaskList.
 			 */
-			private void updateData() {
-				if (notebook != null) {
-					AbstractTaskList currentTaskList = notebook.getCurrentTaskList();
-					data = currentTaskList.getTasksAsArray();
+			private void taskAdded() {
+				if (inStep(rowCount + 1)) {
+					rowCount++;
+					fireTableRowsInserted(rowCount - 1, rowCount - 1);
 				}
 			}
+			
+			/**
+			 * Reports the rows of Tasks that were edited or moved in the shown
+			 * TaskList.
+			 * @param first the first row touched
+			 * @param last the last row touched
+			 */
+			private void tasksUpdated(int first, int last) {
+				first = Math.max(first, 0);
+				last = Math.min(last, rowCount - 1);
+				if (inStep(rowCount) && first <= last) {
+					fireTableRowsUpdated(first, last);
+				}
+			}
+			
+			/**
+			 * Reports a Task removed from the shown TaskList.
+			 * @param row the row the Task was in
+			 */
+			private void taskRemoved(int row) {
+				if (inStep(rowCount - 1)) {
+					rowCount--;
+					fireTableRowsDeleted(row, row);
+				}
+			}
+			
+			/**
+			 * Reports a Task completed in the shown TaskList. It is removed, and a
+			 * recurring Task's copy may be added to the end.
+			 * @param row the row the Task was in
+			 */
+			private void taskCompleted(int row) {
+				int size = taskList == null ? 0 : taskList.getTasks().size();
+				if (size == rowCount) {
+					rowCount--;
+					fireTableRowsDeleted(row, row);
+					taskAdded();
+				} else {
+					taskRemoved(row);
+				}
+			}
+			
+			/**
+			 * Checks that the shown TaskList is still the current one and has the
+			 * expected number of Tasks. If not, the whole table is updated.
+			 * @param size the number of Tasks expected
+			 * @return true if the rows can be reported one by one
+			 */
+			private boolean inStep(int size) {
+				if (notebook != null && taskList == notebook.getCurrentTaskList()
+						&& taskList.getTasks().size() == size) {
+					return true;
+				}
+				taskList = null;
+				updateData();
+				return false;
+			}
 		}
 		
 	}
@@ -765,8 +1013,10 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 					if (idx == -1) {
 						Task t = new Task(txtTaskName.getText(), txtDescription.getText(), checkRecurring.isSelected(), checkActive.isSelected());
 						notebook.addTask(t);
+						pnlTaskList.tableModel.taskAdded();
 					} else {
 						notebook.editTask(idx, txtTaskName.getText(), txtDescription.getText(), checkRecurring.isSelected(), checkActive.isSelected());
+						pnlTaskList.tableModel.tasksUpdated(idx, idx);
 					}
 					setTask(-1);
 				} catch (IllegalArgumentException iae) {
@@ -774,7 +1024,8 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 				}
 			} else if (e.getSource() == btnRemove) {
 				try {
-					notebook.getCurrentTaskList().removeTask(idx);
+					notebook.removeTask(idx);
+					pnlTaskList.tableModel.taskRemoved(idx);
 					setTask(-1);
 				} catch (IllegalArgumentException iae) {
 					JOptionPane.showMessageDialog(WolfTasksGUI.this, iae.getMessage());
@@ -783,8 +1034,8 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 				}
 			} else if (e.getSource() == btnComplete) {
 				try {
-					Task t = notebook.getCurrentTaskList().getTask(idx);
-					t.completeTask();
+					notebook.completeTask(idx);
+					pnlTaskList.tableModel.taskCompleted(idx);
 					setTask(-1);
 				} catch (IllegalArgumentException iae) {
 					JOptionPane.showMessageDialog(WolfTasksGUI.this, iae.getMessage());
@@ -801,7 +1052,8 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 				}
 			} else if (e.getSource() == btnMoveUp) {
 				try {
-					notebook.getCurrentTaskList().getTasks().moveUp(idx);
+					notebook.moveTaskUp(idx);
+					pnlTaskList.tableModel.tasksUpdated(idx - 1, idx);
 				} catch (IllegalArgumentException iae) {
 					JOptionPane.showMessageDialog(WolfTasksGUI.this, iae.getMessage());
 				} catch (IndexOutOfBoundsException ioobe) {
@@ -809,7 +1061,8 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 				}
 			} else if (e.getSource() == btnMoveDown) {
 				try {
-					notebook.getCurrentTaskList().getTasks().moveDown(idx);
+					notebook.moveTaskDown(idx);
+					pnlTaskList.tableModel.tasksUpdated(idx, idx + 1);
 				} catch (IllegalArgumentException iae) {
 					JOptionPane.showMessageDialog(WolfTasksGUI.this, iae.getMessage());
 				} catch (IndexOutOfBoundsException ioobe) {
@@ -817,7 +1070,8 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 				}
 			} else if (e.getSource() == btnMoveToFront) {
 				try {
-					notebook.getCurrentTaskList().getTasks().moveToFront(idx);
+					notebook.moveTaskToFront(idx);
+					pnlTaskList.tableModel.tasksUpdated(0, idx);
 				} catch (IllegalArgumentException iae) {
 					JOptionPane.showMessageDialog(WolfTasksGUI.this, iae.getMessage());
 				} catch (IndexOutOfBoundsException ioobe) {
@@ -825,7 +1079,8 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 				}
 			} else if (e.getSource() == btnMoveToBack) {
 				try {
-					notebook.getCurrentTaskList().getTasks().moveToBack(idx);
+					notebook.moveTaskToBack(idx);
+					pnlTaskList.tableModel.tasksUpdated(idx, Integer.MAX_VALUE);
 				} catch (IllegalArgumentException iae) {
 					JOptionPane.showMessageDialog(WolfTasksGUI.this, iae.getMessage());
 				} catch (IndexOutOfBoundsException ioobe) {
@@ -880,4 +1135,4 @@ public class WolfTasksGUI extends JFrame implements ActionListener {
 		
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
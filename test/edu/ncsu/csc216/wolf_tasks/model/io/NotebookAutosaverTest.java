@@ -0,0 +1,150 @@
+package edu.ncsu.csc216.wolf_tasks.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.wolf_tasks.model.notebook.Notebook;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.Task;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.TaskList;
+
+/**
+ * Tests the NotebookAutosaver class. The test thread is the Notebook's thread:
+ * it edits the Notebook and runs the tasks the autosaver hands to that thread.
+ *
+ * @author Michael Warstler
+ */
+public class NotebookAutosaverTest {
+
+	/** Time in milliseconds that edits must pause for before a save */
+	private static final long DELAY = 20;
+	/** Time in milliseconds to wait for the autosaver */
+	private static final long TIMEOUT = 10000;
+
+	/** Tasks handed to the Notebook's thread */
+	private BlockingQueue<Runnable> notebookTasks = new LinkedBlockingQueue<Runnable>();
+
+	/**
+	 * Test that a burst of edits is saved once, and that edits made while a save
+	 * is in flight lead to exactly one follow-up save.
+	 */
+	@Test
+	public void testCoalescing() throws IOException, InterruptedException {
+		File file = File.createTempFile("autosaved", ".txt");
+		Notebook notebook = new Notebook("Autosaved");
+		notebook.addTaskList(new TaskList("Chores", 0));
+		notebook.saveNotebook(file);
+		NotebookAutosaver autosaver = new NotebookAutosaver(notebook, file, notebookTasks::add, DELAY);
+		autosaver.start();
+		assertThrows(IllegalStateException.class, () -> autosaver.start());
+
+		// Twenty edits, then the snapshot covers all of them.
+		for (int i = 0; i < 20; i++) {
+			notebook.addTask(new Task("Task " + i, "Details", false, false));
+		}
+		runNotebookTask(); // takes the snapshot.
+		assertTrue(autosaver.isSaving());
+
+		// Edits while the save is in flight leave the Notebook changed.
+		notebook.addTask(new Task("Late", "Details", false, true));
+		notebook.addTask(new Task("Later", "Details", false, true));
+		runNotebookTask(); // reports the snapshot saved.
+		await(() -> autosaver.getSaveCount() == 1 && !autosaver.isSaving());
+		assertTrue(notebook.isChanged());
+		assertEquals(19, autosaver.getSkippedCount());
+		assertTrue(autosaver.getLastLatency() > 0);
+
+		// Exactly one follow-up save.
+		runNotebookTask();
+		runNotebookTask();
+		await(() -> autosaver.getSaveCount() == 2 && !autosaver.isSaving());
+		assertFalse(notebook.isChanged());
+		assertEquals(20, autosaver.getSkippedCount());
+		Thread.sleep(DELAY * 5);
+		assertTrue(notebookTasks.isEmpty());
+		assertEquals(2, autosaver.getSaveCount());
+		assertEquals(0, autosaver.getFailureCount());
+		assertNull(autosaver.getLastFailure());
+		assertTrue(autosaver.getMaxLatency() >= autosaver.getLastLatency());
+		assertTrue(autosaver.getAverageLatency() > 0);
+		autosaver.close();
+
+		Notebook saved = NotebookReader.readNotebookFile(file);
+		saved.setCurrentTaskList("Chores");
+		assertEquals(22, saved.getCurrentTaskList().getTasks().size());
+		assertEquals("Later", saved.getCurrentTaskList().getTask(21).getTaskName());
+		file.delete();
+	}
+
+	/**
+	 * Test that a failed save is counted and retried, and that the autosaver
+	 * checks its parameters.
+	 */
+	@Test
+	public void testFailure() throws IOException, InterruptedException {
+		File directory = Files.createTempDirectory("notebooks").toFile();
+		File file = new File(new File(directory, "missing"), "notebook.wtnb");
+		Notebook notebook = new Notebook("Autosaved");
+		NotebookAutosaver autosaver = new NotebookAutosaver(notebook, file, notebookTasks::add, DELAY);
+		assertEquals(file, autosaver.getFile());
+		autosaver.start();
+
+		runNotebookTask();
+		await(() -> autosaver.getFailureCount() == 1 && !autosaver.isSaving());
+		assertTrue(autosaver.getLastFailure() instanceof IllegalArgumentException);
+		assertTrue(notebook.isChanged());
+		assertEquals(0, autosaver.getSaveCount());
+
+		// Retried after the delay, this time into a directory that exists.
+		assertTrue(file.getParentFile().mkdir());
+		runNotebookTask();
+		runNotebookTask();
+		await(() -> autosaver.getSaveCount() == 1 && !autosaver.isSaving());
+		assertFalse(notebook.isChanged());
+		assertNull(autosaver.getLastFailure());
+		autosaver.close();
+		assertThrows(IllegalStateException.class, () -> autosaver.start());
+		assertEquals("Autosaved", NotebookReader.readBinaryNotebookFile(file).getNotebookName());
+		file.delete();
+		file.getParentFile().delete();
+		directory.delete();
+
+		assertThrows(IllegalArgumentException.class, () -> new NotebookAutosaver(null, file, Runnable::run));
+		assertThrows(IllegalArgumentException.class, () -> new NotebookAutosaver(notebook, null, Runnable::run));
+		assertThrows(IllegalArgumentException.class, () -> new NotebookAutosaver(notebook, file, null));
+		assertThrows(IllegalArgumentException.class, () -> new NotebookAutosaver(notebook, file, Runnable::run, 0));
+	}
+
+	/**
+	 * Runs the next task the autosaver hands to the Notebook's thread.
+	 *
+	 * @throws InterruptedException if interrupted while waiting.
+	 */
+	private void runNotebookTask() throws InterruptedException {
+		Runnable task = notebookTasks.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+		assertNotNull(task);
+		task.run();
+	}
+
+	/**
+	 * Waits until a condition holds.
+	 *
+	 * @param condition is the condition.
+	 * @throws InterruptedException if interrupted while waiting.
+	 */
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < deadline);
+			Thread.sleep(1);
+		}
+	}
+}
@@ -0,0 +1,240 @@
+package edu.ncsu.csc216.wolf_tasks.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.wolf_tasks.model.notebook.Notebook;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.AbstractTaskList;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.Task;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.TaskList;
+
+/**
+ * Tests the NotebookConverter class and the binary NotebookFormat.
+ *
+ * @author Michael Warstler
+ */
+public class NotebookConverterTest {
+
+	/**
+	 * Test that a text file converted to binary and back is the same as the text
+	 * file saved directly.
+	 */
+	@Test
+	public void testRoundTrip() throws IOException {
+		File directory = Files.createTempDirectory("notebooks").toFile();
+		File binaryFile = new File(directory, "notebook.wtnb");
+		File textFile = new File(directory, "notebook.txt");
+		File savedFile = new File(directory, "saved.txt");
+		NotebookReader.readNotebookFile(new File("test-files/valid_record.txt")).saveNotebook(savedFile);
+
+		NotebookConverter.textToBinary(new File("test-files/valid_record.txt"), binaryFile);
+		byte[] bytes = Files.readAllBytes(binaryFile.toPath());
+		assertArrayEquals("WTNB".getBytes(), Arrays.copyOf(bytes, 4));
+
+		NotebookConverter.binaryToText(binaryFile, textFile);
+		assertArrayEquals(Files.readAllBytes(savedFile.toPath()), Files.readAllBytes(textFile.toPath()));
+
+		// The binary file reads back the same Notebook.
+		Notebook expected = NotebookReader.readNotebookFile(new File("test-files/valid_record.txt"));
+		Notebook actual = NotebookReader.readNotebookFileByExtension(binaryFile);
+		assertEquals(expected.getNotebookName(), actual.getNotebookName());
+		assertArrayEquals(expected.getTaskListsNames(), actual.getTaskListsNames());
+		for (String name : expected.getTaskListsNames()) {
+			expected.setCurrentTaskList(name);
+			actual.setCurrentTaskList(name);
+			assertArrayEquals(expected.getCurrentTaskList().getTasksAsArray(),
+					actual.getCurrentTaskList().getTasksAsArray());
+		}
+		assertArrayEquals(expected.getCurrentTaskList().getTasksAsArray(), actual.getCurrentTaskList().getTasksAsArray());
+
+		binaryFile.delete();
+		textFile.delete();
+		savedFile.delete();
+		directory.delete();
+	}
+
+	/**
+	 * Test that saveNotebook() picks the format by extension, and that Strings the
+	 * text format cannot hold survive the binary format.
+	 */
+	@Test
+	public void testSaveByExtension() throws IOException {
+		Notebook notebook = new Notebook("Caf\u00e9 \u2603");
+		notebook.addTaskList(new TaskList("School", 4));
+		notebook.setCurrentTaskList("School");
+		notebook.addTask(new Task("Read, then # write", "Line 1\n* Line 2\n\u00e9\ud83d\ude00", true, true));
+		notebook.addTask(new Task("Lone \ud800 surrogate", "", false, false));
+
+		File binaryFile = File.createTempFile("notebook", ".WTNB");
+		notebook.saveNotebook(binaryFile);
+		assertFalse(notebook.isChanged());
+		Notebook copy = NotebookReader.readNotebookFileByExtension(binaryFile);
+		assertEquals("Caf\u00e9 \u2603", copy.getNotebookName());
+		copy.setCurrentTaskList("School");
+		AbstractTaskList school = copy.getCurrentTaskList();
+		assertEquals(4, school.getCompletedCount());
+		assertEquals(2, school.getTasks().size());
+		assertEquals("Read, then # write", school.getTask(0).getTaskName());
+		assertEquals("Line 1\n* Line 2\n\u00e9\ud83d\ude00", school.getTask(0).getTaskDescription());
+		assertTrue(school.getTask(0).isRecurring());
+		assertTrue(school.getTask(0).isActive());
+		assertEquals("Lone ? surrogate", school.getTask(1).getTaskName());
+		assertEquals("", school.getTask(1).getTaskDescription());
+		copy.setCurrentTaskList("Active Tasks");
+		assertEquals(1, copy.getCurrentTaskList().getTasks().size());
+		binaryFile.delete();
+
+		assertEquals(NotebookFormat.BINARY, NotebookFormat.forFile(new File("a.wtnb")));
+		assertEquals(NotebookFormat.TEXT, NotebookFormat.forFile(new File("a.txt")));
+		assertEquals(NotebookFormat.TEXT, NotebookFormat.forFile(new File("wtnb")));
+		assertThrows(IllegalArgumentException.class, () -> notebook.saveNotebook(binaryFile, null));
+	}
+
+	/**
+	 * Test that an indexed binary file is opened without reading any Tasks, that
+	 * each TaskList reads its Tasks when it is needed, and that the Active Tasks
+	 * list reads only the TaskLists with active Tasks.
+	 */
+	@Test
+	public void testIndexedNotebookFile() throws IOException {
+		Notebook notebook = new Notebook("Indexed");
+		notebook.addTaskList(new TaskList("Chores", 1));
+		notebook.addTask(new Task("Dishes", "Wash", true, true));
+		notebook.addTask(new Task("Laundry", "Fold", false, false));
+		notebook.addTaskList(new TaskList("School", 0));
+		notebook.addTask(new Task("Read", "Chapter 1", false, false));
+		notebook.addTaskList(new TaskList("Work", 2));
+		notebook.addTask(new Task("Email", "Reply", false, true));
+		File binaryFile = File.createTempFile("notebook", ".wtnb");
+		notebook.saveNotebook(binaryFile);
+
+		Notebook indexed = NotebookReader.readNotebookFileByExtension(binaryFile);
+		assertEquals("Indexed", indexed.getNotebookName());
+		assertArrayEquals(notebook.getTaskListsNames(), indexed.getTaskListsNames());
+		indexed.setCurrentTaskList("School");
+		AbstractTaskList school = indexed.getCurrentTaskList();
+		assertFalse(school.isLoaded());
+		indexed.setCurrentTaskList("Chores");
+		AbstractTaskList chores = indexed.getCurrentTaskList();
+		assertFalse(chores.isLoaded());
+		assertEquals(1, chores.getCompletedCount());
+
+		// The Active Tasks list loads Chores and Work, but not School.
+		indexed.setCurrentTaskList("Active Tasks");
+		String[][] active = indexed.getCurrentTaskList().getTasksAsArray();
+		assertEquals(2, active.length);
+		assertEquals("Chores", active[0][0]);
+		assertEquals("Dishes", active[0][1]);
+		assertEquals("Work", active[1][0]);
+		assertEquals("Email", active[1][1]);
+		assertTrue(chores.isLoaded());
+		assertFalse(school.isLoaded());
+
+		// Selecting School loads it.
+		indexed.setCurrentTaskList("School");
+		assertEquals("Read", indexed.getCurrentTaskList().getTask(0).getTaskName());
+		assertTrue(school.isLoaded());
+
+		// Saving reads every TaskList and writes the same file.
+		File copyFile = File.createTempFile("copy", ".wtnb");
+		indexed.saveNotebook(copyFile);
+		assertArrayEquals(Files.readAllBytes(binaryFile.toPath()), Files.readAllBytes(copyFile.toPath()));
+
+		// A TaskList whose Tasks were overwritten cannot load, and the Notebook cannot
+		// be saved, but it stays unloaded and the rest of the Notebook still works.
+		Notebook broken = NotebookReader.readIndexedNotebookFile(binaryFile);
+		byte[] bytes = Files.readAllBytes(binaryFile.toPath());
+		Arrays.fill(bytes, 14, bytes.length - 40, (byte) 0);
+		Files.write(binaryFile.toPath(), bytes);
+		broken.setCurrentTaskList("School");
+		AbstractTaskList brokenSchool = broken.getCurrentTaskList();
+		assertThrows(IllegalStateException.class, () -> brokenSchool.getTasks());
+		assertFalse(brokenSchool.isLoaded());
+		assertThrows(IllegalArgumentException.class, () -> broken.saveNotebook(copyFile));
+		assertArrayEquals(notebook.getTaskListsNames(), broken.getTaskListsNames());
+		binaryFile.delete();
+		copyFile.delete();
+	}
+
+	/**
+	 * Test that a version 1 binary file, which has no active counts or lengths in
+	 * its table, is still read.
+	 */
+	@Test
+	public void testVersion1File() throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		body.write(NotebookFormat.MAGIC);
+		body.write(NotebookFormat.UNINDEXED_VERSION);
+		body.write(new byte[Long.BYTES]);
+		writeString(body, "Old");
+		int offset = body.size();
+		body.write(NotebookFormat.ACTIVE);
+		writeString(body, "Dishes");
+		writeString(body, "Wash");
+		int tableOffset = body.size();
+		body.write(1); // TaskList count
+		writeString(body, "Chores");
+		body.write(3); // completed count
+		body.write(1); // Task count
+		body.write(offset);
+		byte[] bytes = body.toByteArray();
+		bytes[TABLE_OFFSET_END] = (byte) tableOffset;
+		File binaryFile = File.createTempFile("notebook", ".wtnb");
+		Files.write(binaryFile.toPath(), bytes);
+
+		Notebook notebook = NotebookReader.readNotebookFileByExtension(binaryFile);
+		assertEquals("Old", notebook.getNotebookName());
+		assertEquals(1, notebook.getCurrentTaskList().getTasks().size());
+		notebook.setCurrentTaskList("Chores");
+		assertTrue(notebook.getCurrentTaskList().isLoaded());
+		assertEquals(3, notebook.getCurrentTaskList().getCompletedCount());
+		assertEquals("Wash", notebook.getCurrentTaskList().getTask(0).getTaskDescription());
+		binaryFile.delete();
+	}
+
+	/** Position of the last byte of the table offset in the binary format */
+	private static final int TABLE_OFFSET_END = NotebookFormat.TABLE_OFFSET_POSITION + Long.BYTES - 1;
+
+	/**
+	 * Writes a String shorter than 128 bytes as the binary format does.
+	 *
+	 * @param out  is the stream to write to.
+	 * @param text is the ASCII text.
+	 */
+	private static void writeString(ByteArrayOutputStream out, String text) {
+		out.write(text.length());
+		out.write(text.getBytes(), 0, text.length());
+	}
+
+	/**
+	 * Test that files that are not complete binary notebooks are rejected.
+	 */
+	@Test
+	public void testInvalidBinaryFile() throws IOException {
+		File binaryFile = File.createTempFile("notebook", ".wtnb");
+		NotebookConverter.textToBinary(new File("test-files/valid_record.txt"), binaryFile);
+		byte[] bytes = Files.readAllBytes(binaryFile.toPath());
+
+		// A text file, a truncated file, and a file with a bad version.
+		assertThrows(IllegalArgumentException.class,
+				() -> NotebookReader.readBinaryNotebookFile(new File("test-files/valid_record.txt")));
+		for (int length : new int[] { 0, 3, 12, bytes.length / 2, bytes.length - 1 }) {
+			Files.write(binaryFile.toPath(), Arrays.copyOf(bytes, length));
+			assertThrows(IllegalArgumentException.class, () -> NotebookReader.readBinaryNotebookFile(binaryFile));
+		}
+		bytes[4] = NotebookFormat.VERSION + 1;
+		Files.write(binaryFile.toPath(), bytes);
+		assertThrows(IllegalArgumentException.class, () -> NotebookReader.readBinaryNotebookFile(binaryFile));
+		assertThrows(IllegalArgumentException.class,
+				() -> NotebookConverter.binaryToText(binaryFile, new File("test-files/unused.txt")));
+		assertFalse(new File("test-files/unused.txt").exists());
+		binaryFile.delete();
+	}
+}
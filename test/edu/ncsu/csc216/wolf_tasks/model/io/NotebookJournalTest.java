@@ -0,0 +1,319 @@
+package edu.ncsu.csc216.wolf_tasks.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.wolf_tasks.model.notebook.Notebook;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.AbstractTaskList;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.Task;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.TaskList;
+
+/**
+ * Tests the NotebookJournal class.
+ *
+ * @author Michael Warstler
+ */
+public class NotebookJournalTest {
+
+	/** Size of a journal with no records */
+	private static final int HEADER_SIZE = 21;
+
+	/**
+	 * Test that every kind of change is journaled and replayed by open() without
+	 * the Notebook being saved.
+	 */
+	@Test
+	public void testReplay() throws IOException {
+		for (String extension : new String[] { ".txt", ".wtnb" }) {
+			File file = File.createTempFile("journaled", extension);
+			Notebook notebook = new Notebook("Journaled");
+			notebook.addTaskList(new TaskList("Chores", 0));
+			notebook.addTask(new Task("Dishes", "Wash", true, true));
+			NotebookJournal journal = NotebookJournal.create(notebook, file);
+			byte[] checkpoint = Files.readAllBytes(file.toPath());
+			assertEquals(HEADER_SIZE, journal.getJournalFile().length());
+
+			TaskList school = new TaskList("School", 2);
+			school.addTask(new Task("Read", "Chapter 1", false, true));
+			notebook.addTaskList(school);
+			notebook.addTask(new Task("Write", "Essay", false, false));
+			notebook.addTask(new Task("Study", "Caf\u00e9 notes", true, true));
+			notebook.moveTaskToFront(2);
+			notebook.moveTaskDown(0);
+			notebook.moveTaskUp(2);
+			notebook.moveTaskToBack(0);
+			notebook.editTask(1, "Write more", "Essay 2", true, false);
+			// An invalid edit changes nothing, so there is nothing to journal.
+			assertThrows(IllegalArgumentException.class, () -> notebook.editTask(1, "Write less", null, false, true));
+			notebook.completeTask(0);
+			notebook.editTaskList("Classes");
+			notebook.addTaskList(new TaskList("Work", 0));
+			notebook.addTask(new Task("Email", "Reply", false, false));
+			notebook.removeTask(0);
+			notebook.removeTaskList();
+			// Complete a recurring Task through the Active Tasks list.
+			notebook.setCurrentTaskList("Active Tasks");
+			notebook.completeTask(0);
+			journal.sync();
+			assertTrue(journal.getCommitCount() >= 1);
+			journal.close();
+			assertNull(notebook.getObserver());
+
+			// The file is still the checkpoint; the journal holds the changes.
+			assertArrayEquals(checkpoint, Files.readAllBytes(file.toPath()));
+			NotebookJournal reopened = NotebookJournal.open(file);
+			assertEquals(dump(notebook), dump(reopened.getNotebook()));
+			assertTrue(reopened.getNotebook().isChanged());
+
+			// Changes after the replay are added to the same journal.
+			reopened.getNotebook().setCurrentTaskList("Chores");
+			reopened.getNotebook().addTask(new Task("Sweep", "Floor", false, true));
+			reopened.close();
+			Notebook again = NotebookJournal.open(file).getNotebook();
+			assertEquals(dump(reopened.getNotebook()), dump(again));
+			((NotebookJournal) again.getObserver()).close();
+
+			journal.getJournalFile().delete();
+			file.delete();
+		}
+	}
+
+	/**
+	 * Test that a torn or corrupt record at the end of the journal is cut off, and
+	 * the records before it are replayed.
+	 */
+	@Test
+	public void testTornRecord() throws IOException {
+		File file = File.createTempFile("journaled", ".txt");
+		Notebook notebook = new Notebook("Journaled");
+		notebook.addTaskList(new TaskList("Chores", 0));
+		NotebookJournal journal = NotebookJournal.create(notebook, file);
+		notebook.addTask(new Task("Dishes", "Wash", false, true));
+		journal.sync();
+		String expected = dump(notebook);
+		long length = journal.getJournalFile().length();
+		notebook.setCurrentTaskList("Chores");
+		notebook.addTask(new Task("Laundry", "Fold", false, true));
+		journal.close();
+		byte[] bytes = Files.readAllBytes(journal.getJournalFile().toPath());
+
+		// The second record is cut short, then has a bad CRC.
+		for (int cut : new int[] { 1, 4, (int) (bytes.length - length) - 1 }) {
+			Files.write(journal.getJournalFile().toPath(), Arrays.copyOf(bytes, bytes.length - cut));
+			NotebookJournal reopened = NotebookJournal.open(file);
+			assertEquals(expected, dump(reopened.getNotebook()));
+			reopened.close();
+			assertEquals(length, journal.getJournalFile().length());
+		}
+		bytes[bytes.length - 6]++;
+		Files.write(journal.getJournalFile().toPath(), bytes);
+		NotebookJournal reopened = NotebookJournal.open(file);
+		assertEquals(expected, dump(reopened.getNotebook()));
+		reopened.close();
+		assertEquals(length, journal.getJournalFile().length());
+
+		// The second record has a good CRC but a byte past its payload: it is not
+		// applied at all, not applied and then cut off.
+		bytes[bytes.length - 6]--;
+		int payloadLength = bytes[(int) length];
+		byte[] payload = Arrays.copyOfRange(bytes, (int) length + 1, (int) length + 1 + payloadLength + 1);
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		ByteBuffer padded = ByteBuffer.allocate((int) length + 1 + payload.length + Integer.BYTES);
+		padded.put(bytes, 0, (int) length).put((byte) payload.length).put(payload).putInt((int) crc.getValue());
+		Files.write(journal.getJournalFile().toPath(), padded.array());
+		reopened = NotebookJournal.open(file);
+		assertEquals(expected, dump(reopened.getNotebook()));
+		reopened.close();
+		assertEquals(length, journal.getJournalFile().length());
+
+		journal.getJournalFile().delete();
+		file.delete();
+	}
+
+	/**
+	 * Test that saving the Notebook to its file, or growing the journal past its
+	 * checkpoint size, starts an empty journal, and that a journal that does not
+	 * match the file is discarded.
+	 */
+	@Test
+	public void testCheckpoint() throws IOException {
+		File file = File.createTempFile("journaled", ".wtnb");
+		Notebook notebook = new Notebook("Journaled");
+		NotebookJournal journal = NotebookJournal.create(notebook, file);
+		notebook.addTaskList(new TaskList("Chores", 0));
+		notebook.addTask(new Task("Dishes", "Wash", false, true));
+		journal.sync();
+		assertTrue(journal.getJournalFile().length() > HEADER_SIZE);
+
+		// A save to another file is not a checkpoint.
+		File other = File.createTempFile("other", ".txt");
+		notebook.saveNotebook(other);
+		journal.sync();
+		assertTrue(journal.getJournalFile().length() > HEADER_SIZE);
+		other.delete();
+
+		journal.checkpoint();
+		assertEquals(HEADER_SIZE, journal.getJournalFile().length());
+		assertFalse(notebook.isChanged());
+
+		// The change that crosses the checkpoint size hands the checkpoint to the
+		// checkpointer thread; sync() waits for it. Only the editing thread marks
+		// the Notebook saved, so it stays changed.
+		journal.setCheckpointSize(1);
+		notebook.addTask(new Task("Laundry", "Fold", false, false));
+		journal.sync();
+		assertEquals(HEADER_SIZE, journal.getJournalFile().length());
+		assertTrue(notebook.isChanged());
+		Notebook checkpointed = NotebookReader.readNotebookFileByExtension(file);
+		assertEquals(dump(notebook), dump(checkpointed));
+		assertThrows(IllegalArgumentException.class, () -> journal.setCheckpointSize(0));
+		journal.setCheckpointSize(NotebookJournal.DEFAULT_CHECKPOINT_SIZE);
+		notebook.addTask(new Task("Sweep", "Floor", false, false));
+		journal.close();
+
+		NotebookJournal reopened = NotebookJournal.open(file);
+		assertEquals(dump(notebook), dump(reopened.getNotebook()));
+		reopened.close();
+
+		// The file is replaced behind the journal's back: the journal is stale.
+		Notebook replaced = new Notebook("Replaced");
+		replaced.saveNotebook(file);
+		NotebookJournal stale = NotebookJournal.open(file);
+		assertEquals(dump(replaced), dump(stale.getNotebook()));
+		stale.close();
+		assertEquals(HEADER_SIZE, stale.getJournalFile().length());
+
+		assertThrows(IllegalArgumentException.class, () -> NotebookJournal.open(new File("test-files/missing.txt")));
+		stale.getJournalFile().delete();
+		file.delete();
+	}
+
+	/**
+	 * Test that saving a snapshot to the file rebases the journal on it, keeping
+	 * only the changes made since the snapshot was taken, without the Notebook
+	 * being saved again, including when a save overlaps the snapshot's.
+	 */
+	@Test
+	public void testSnapshotRebase() throws IOException {
+		File file = File.createTempFile("journaled", ".txt");
+		Notebook notebook = new Notebook("Journaled");
+		notebook.addTaskList(new TaskList("Chores", 0));
+		NotebookJournal journal = NotebookJournal.create(notebook, file);
+		NotebookFormat format = NotebookFormat.forFile(file);
+
+		// Changes after the snapshot are all the journal keeps.
+		notebook.addTask(new Task("Dishes", "Wash", false, true));
+		NotebookSnapshot snapshot = notebook.snapshot(format);
+		journal.sync();
+		long before = journal.getJournalFile().length();
+		notebook.addTask(new Task("Laundry", "Fold", false, true));
+		journal.sync();
+		long record = journal.getJournalFile().length() - before;
+		snapshot.save(file);
+		byte[] saved = Files.readAllBytes(file.toPath());
+		notebook.snapshotSaved(snapshot, file);
+		journal.sync();
+		assertArrayEquals(saved, Files.readAllBytes(file.toPath()));
+		assertEquals(HEADER_SIZE + record, journal.getJournalFile().length());
+		assertTrue(notebook.isChanged());
+		journal.close();
+		NotebookJournal reopened = NotebookJournal.open(file);
+		assertEquals(dump(notebook), dump(reopened.getNotebook()));
+
+		// A save of the whole Notebook lands before the snapshot's save.
+		Notebook edited = reopened.getNotebook();
+		edited.setCurrentTaskList("Chores");
+		edited.editTask(0, "Dishes", "Dry", false, true);
+		snapshot = edited.snapshot(format);
+		edited.addTask(new Task("Sweep", "Floor", false, false));
+		edited.saveNotebook(file);
+		edited.setCurrentTaskList("Chores");
+		edited.removeTask(0);
+		snapshot.save(file);
+		edited.snapshotSaved(snapshot, file);
+		reopened.close();
+		reopened = NotebookJournal.open(file);
+		assertEquals(dump(edited), dump(reopened.getNotebook()));
+
+		// A save of the whole Notebook lands after the snapshot's save.
+		edited = reopened.getNotebook();
+		edited.setCurrentTaskList("Chores");
+		edited.editTask(0, "Dishes", "Stack", false, true);
+		snapshot = edited.snapshot(format);
+		edited.addTask(new Task("Mop", "Floor", false, false));
+		snapshot.save(file);
+		edited.saveNotebook(file);
+		edited.setCurrentTaskList("Chores");
+		edited.moveTaskToFront(2);
+		edited.snapshotSaved(snapshot, file);
+		reopened.close();
+		reopened = NotebookJournal.open(file);
+		assertEquals(dump(edited), dump(reopened.getNotebook()));
+
+		// Two snapshots are in flight, and the older one's save lands last. The
+		// journal follows both, so it rebases on the older one rather than saving.
+		edited = reopened.getNotebook();
+		edited.setCurrentTaskList("Chores");
+		edited.editTask(0, "Mop", "Kitchen", false, true);
+		NotebookSnapshot older = edited.snapshot(format);
+		edited.addTask(new Task("Vacuum", "Rugs", false, true));
+		snapshot = edited.snapshot(format);
+		edited.setCurrentTaskList("Chores");
+		edited.removeTask(1);
+		snapshot.save(file);
+		edited.snapshotSaved(snapshot, file);
+		older.save(file);
+		saved = Files.readAllBytes(file.toPath());
+		edited.snapshotSaved(older, file);
+		reopened.sync();
+		assertArrayEquals(saved, Files.readAllBytes(file.toPath()));
+		reopened.close();
+		reopened = NotebookJournal.open(file);
+		assertEquals(dump(edited), dump(reopened.getNotebook()));
+
+		// A snapshot of the current Notebook leaves an empty journal.
+		edited = reopened.getNotebook();
+		snapshot = edited.snapshot(format);
+		snapshot.save(file);
+		edited.snapshotSaved(snapshot, file);
+		assertFalse(edited.isChanged());
+		reopened.close();
+		assertEquals(HEADER_SIZE, journal.getJournalFile().length());
+		reopened = NotebookJournal.open(file);
+		assertEquals(dump(edited), dump(reopened.getNotebook()));
+		reopened.close();
+
+		journal.getJournalFile().delete();
+		file.delete();
+	}
+
+	/**
+	 * Describes every list of a Notebook, with the current list set back to the
+	 * Active Tasks list. Other tests of the package compare Notebooks with it too.
+	 *
+	 * @param notebook is the Notebook.
+	 * @return is the description.
+	 */
+	static String dump(Notebook notebook) {
+		StringBuilder s = new StringBuilder(notebook.getNotebookName());
+		for (String name : notebook.getTaskListsNames()) {
+			notebook.setCurrentTaskList(name);
+			AbstractTaskList list = notebook.getCurrentTaskList();
+			s.append("\n# ").append(name).append(",").append(list.getCompletedCount());
+			for (Task task : list.getTasks()) {
+				s.append("\n").append(task.toString());
+			}
+		}
+		notebook.setCurrentTaskList("Active Tasks");
+		return s.toString();
+	}
+}
@@ -0,0 +1,79 @@
+package edu.ncsu.csc216.wolf_tasks.model.io;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.wolf_tasks.model.notebook.Notebook;
+
+/**
+ * Test the NotebookParser class.
+ * 
+ * @author Michael Warstler
+ */
+public class NotebookParserTest {
+
+	/**
+	 * Test that a file gives the same Notebook however its characters are split
+	 * into blocks, including a "\r\n" split across two blocks.
+	 */
+	@Test
+	public void testParseInBlocks() {
+		String contents = "! School\r\n# CSC 216,35\r\n* Homework 7,active\r\nStart early\r\n"
+				+ "* Watch lectures,recurring\r\n# Habits,0\r\n* Exercise,active,recurring\r\n";
+		char[] chars = contents.toCharArray();
+		for (int block = 1; block <= chars.length; block++) {
+			NotebookParser parser = new NotebookParser();
+			for (int start = 0; start < chars.length; start += block) {
+				char[] part = Arrays.copyOfRange(chars, start, Math.min(chars.length, start + block));
+				parser.parse(part, part.length);
+			}
+			Notebook notebook = parser.finish();
+			assertEquals("School", notebook.getNotebookName());
+			assertEquals(2, notebook.getCurrentTaskList().getTasks().size());
+			notebook.setCurrentTaskList("CSC 216");
+			assertEquals(35, notebook.getCurrentTaskList().getCompletedCount());
+			assertEquals(2, notebook.getCurrentTaskList().getTasks().size());
+			assertEquals("Start early", notebook.getCurrentTaskList().getTask(0).getTaskDescription());
+			assertEquals("", notebook.getCurrentTaskList().getTask(1).getTaskDescription());
+		}
+	}
+
+	/**
+	 * Test that an invalid first line is rejected.
+	 */
+	@Test
+	public void testInvalidHeader() {
+		String[] invalid = { "", "   \n ", "School\n# List,0", "!\n# List,0", "!School", "! Active Tasks" };
+		for (String contents : invalid) {
+			NotebookParser parser = new NotebookParser();
+			assertThrows(IllegalArgumentException.class, () -> {
+				parser.parse(contents.toCharArray(), contents.length());
+				parser.finish();
+			});
+		}
+	}
+
+	/**
+	 * Test splitFields() and isInteger() methods.
+	 */
+	@Test
+	public void testFields() {
+		assertEquals(Arrays.asList("Task", "active"), NotebookParser.splitFields("Task,active"));
+		assertEquals(Arrays.asList("Task"), NotebookParser.splitFields(",Task,"));
+		assertEquals(Arrays.asList("Task", "", "active"), NotebookParser.splitFields("Task,,active"));
+		assertEquals(Arrays.asList(""), NotebookParser.splitFields(",,"));
+		assertEquals(0, NotebookParser.splitFields("").size());
+		assertEquals(0, NotebookParser.splitFields(",").size());
+
+		assertTrue(NotebookParser.isInteger("35"));
+		assertTrue(NotebookParser.isInteger("-2"));
+		assertTrue(NotebookParser.isInteger("+2"));
+		assertFalse(NotebookParser.isInteger(" 3"));
+		assertFalse(NotebookParser.isInteger("-"));
+		assertFalse(NotebookParser.isInteger(""));
+		assertFalse(NotebookParser.isInteger("3a"));
+	}
+}
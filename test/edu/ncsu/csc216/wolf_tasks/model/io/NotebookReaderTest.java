@@ -3,12 +3,19 @@ package edu.ncsu.csc216.wolf_tasks.model.io;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
 
 import org.junit.jupiter.api.Test;
 
 import edu.ncsu.csc216.wolf_tasks.model.notebook.Notebook;
 import edu.ncsu.csc216.wolf_tasks.model.tasks.AbstractTaskList;
 import edu.ncsu.csc216.wolf_tasks.model.tasks.Task;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.TaskList;
 
 /**
  * Test the NotebookReader class.
@@ -77,5 +84,312 @@ public class NotebookReaderTest {
 		} catch (IllegalArgumentException e) {
 			assertEquals("Unable to load file.", e.getMessage());
 		}
+		assertThrows(IllegalArgumentException.class,
+				() -> NotebookReader.readNotebookFile(new File("test-files/no_such_file.txt")));
+	}
+
+	/**
+	 * Test that invalid TaskList and Task records are skipped.
+	 */
+	@Test
+	public void testSkippedRecords() {
+		// Only a notebook name.
+		Notebook notebook = NotebookReader.readNotebookFile(new File("test-files/notebook0.txt"));
+		assertEquals("Summer Plans", notebook.getNotebookName());
+		assertEquals(1, notebook.getTaskListsNames().length);
+
+		// TaskLists without a completed count, without a name, or with a negative count.
+		for (String fileName : new String[] { "notebook4.txt", "notebook5.txt", "notebook6.txt" }) {
+			notebook = NotebookReader.readNotebookFile(new File("test-files/" + fileName));
+			assertEquals("Personal", notebook.getNotebookName());
+			assertEquals(1, notebook.getTaskListsNames().length);
+		}
+
+		// Task without a name.
+		notebook = NotebookReader.readNotebookFile(new File("test-files/notebook7.txt"));
+		notebook.setCurrentTaskList("Habits");
+		assertEquals(1, notebook.getCurrentTaskList().getTasks().size());
+		assertEquals("Floss", notebook.getCurrentTaskList().getTask(0).getTaskName());
+	}
+
+	/**
+	 * Test that mixed line endings, trailing whitespace, and '#' or '*' in the
+	 * middle of a line are read the same way the original Scanner based reader
+	 * read them.
+	 */
+	@Test
+	public void testLineEndingsAndMarkers() throws IOException {
+		File file = File.createTempFile("notebook", ".txt");
+		file.deleteOnExit();
+		String contents = "\n  ! My Notebook \r# Chores,2\r\n* Dishes,active\rAfter dinner\n\n"
+				+ "* Laundry,recurring\nWhites * Darks # Car*Bus,0\nOil*Tires,active  \n\n";
+		Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+
+		Notebook notebook = NotebookReader.readNotebookFile(file);
+		assertEquals("My Notebook", notebook.getNotebookName());
+		String[] names = notebook.getTaskListsNames();
+		assertEquals(3, names.length);
+		assertEquals("Car*Bus", names[1]);
+		assertEquals("Chores", names[2]);
+
+		// A '*' in the middle of a description starts a new Task.
+		notebook.setCurrentTaskList("Chores");
+		AbstractTaskList chores = notebook.getCurrentTaskList();
+		assertEquals(2, chores.getCompletedCount());
+		assertEquals(3, chores.getTasks().size());
+		assertEquals("After dinner", chores.getTask(0).getTaskDescription());
+		assertTrue(chores.getTask(0).isActive());
+		assertEquals("Whites", chores.getTask(1).getTaskDescription());
+		assertEquals("Darks", chores.getTask(2).getTaskName());
+
+		// A '*' on the TaskList's first line is part of the name, a line after it
+		// without a '*' is a Task, and the last line of the file is trimmed.
+		notebook.setCurrentTaskList("Car*Bus");
+		AbstractTaskList car = notebook.getCurrentTaskList();
+		assertEquals(2, car.getTasks().size());
+		assertEquals("Oil", car.getTask(0).getTaskName());
+		assertEquals("Tires", car.getTask(1).getTaskName());
+		assertTrue(car.getTask(1).isActive());
+	}
+
+	/**
+	 * Test that readMappedNotebookFile() reads each test file, and files with mixed
+	 * line endings or bytes that cannot be decoded, the same as readNotebookFile().
+	 */
+	@Test
+	public void testReadMappedNotebookFile() throws IOException {
+		for (String name : new String[] { "valid_record", "notebook0", "notebook1", "notebook2", "notebook3",
+				"notebook4", "notebook5", "notebook6", "notebook7" }) {
+			assertSameNotebook(new File("test-files/" + name + ".txt"), NotebookReader::readMappedNotebookFile);
+		}
+
+		File file = File.createTempFile("notebook", ".txt");
+		file.deleteOnExit();
+		String contents = "\n  ! My Notebook \r# Chores,2\r\n* Dishes,active\rAfter dinner\n\n"
+				+ "* Laundry,RECURRING,active\nWhites * Darks # Car*Bus,0\nOil*Tires,active  \n"
+				+ "* ,Wash,\n\n* Bad,,active\n#Empty,1";
+		Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+		assertSameNotebook(file, NotebookReader::readMappedNotebookFile);
+
+		byte[] invalid = "! My Notebook\n# Chores,0\n* Dishes\nAfter dinner\n".getBytes(StandardCharsets.UTF_8);
+		invalid[invalid.length - 5] = (byte) 0xFF;
+		Files.write(file.toPath(), invalid);
+		assertSameNotebook(file, NotebookReader::readMappedNotebookFile);
+
+		assertThrows(IllegalArgumentException.class,
+				() -> NotebookReader.readMappedNotebookFile(new File("test-files/missing.txt")));
+	}
+
+	/**
+	 * Test that a Task read from a mapped file reads its fields when asked, and
+	 * keeps values that are set before they are read.
+	 */
+	@Test
+	public void testMappedTasks() throws IOException {
+		File file = File.createTempFile("notebook", ".txt");
+		file.deleteOnExit();
+		String contents = "! My Notebook\n# Chores,0\n* Dishes ,recurring,active\nAfter dinner\r\nDry too\n"
+				+ "* Laundry\nWhites\n";
+		Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+		Notebook notebook = NotebookReader.readMappedNotebookFile(file);
+		notebook.setCurrentTaskList("Chores");
+		AbstractTaskList chores = notebook.getCurrentTaskList();
+
+		Task dishes = chores.getTask(0);
+		assertEquals("* Dishes,recurring,active\nAfter dinner\nDry too", dishes.toString());
+		Task laundry = chores.getTask(1);
+		laundry.setTaskDescrption("Colors");
+		assertEquals("Laundry", laundry.getTaskName());
+		assertEquals("Colors", laundry.getTaskDescription());
+		laundry.setTaskName("Wash");
+		assertEquals("Wash", laundry.getTaskName());
+		assertThrows(IllegalArgumentException.class, () -> laundry.setTaskName(""));
+
+		// Completing a recurring Task adds a copy with the same fields.
+		dishes.completeTask();
+		Task copy = chores.getTask(1);
+		assertNotSame(dishes, copy);
+		assertEquals("Dishes", copy.getTaskName());
+		assertEquals("After dinner\nDry too", copy.getTaskDescription());
+		assertEquals(1, chores.getCompletedCount());
+	}
+
+	/**
+	 * Test that readParallelNotebookFile() reads each test file, and a file large
+	 * enough to be split between threads, the same as readNotebookFile().
+	 */
+	@Test
+	public void testReadParallelNotebookFile() throws IOException {
+		for (String name : new String[] { "valid_record", "notebook0", "notebook1", "notebook2", "notebook3",
+				"notebook4", "notebook5", "notebook6", "notebook7" }) {
+			assertSameNotebook(new File("test-files/" + name + ".txt"), NotebookReader::readParallelNotebookFile);
+		}
+
+		// About 4 MB, with invalid TaskLists and Tasks and '#' in the middle of lines.
+		StringBuilder contents = new StringBuilder("! Big Notebook\r\n");
+		for (int i = 0; i < 2000; i++) {
+			contents.append("# List ").append(i).append(i % 97 == 0 ? ",x\n" : ",3\n");
+			for (int j = 0; j < 40; j++) {
+				contents.append("* Task ").append(j).append(j % 5 == 0 ? ",active" : "").append(j % 31 == 0 ? ",bad" : "")
+						.append("\r\nFirst line of ").append(j).append(j % 13 == 0 ? " # Inline,1" : "")
+						.append("\nSecond line\n");
+			}
+		}
+		File file = File.createTempFile("notebook", ".txt");
+		file.deleteOnExit();
+		Files.write(file.toPath(), contents.toString().getBytes(StandardCharsets.UTF_8));
+		assertSameNotebook(file, NotebookReader::readParallelNotebookFile);
+
+		assertThrows(IllegalArgumentException.class,
+				() -> NotebookReader.readParallelNotebookFile(new File("test-files/missing.txt")));
+	}
+
+	/**
+	 * Test that readDeferredNotebookFile() reads each test file the same as
+	 * readNotebookFile(), and that each TaskList parses its Tasks only when they
+	 * are needed.
+	 */
+	@Test
+	public void testReadDeferredNotebookFile() throws IOException {
+		for (String name : new String[] { "valid_record", "notebook0", "notebook1", "notebook2", "notebook3",
+				"notebook4", "notebook5", "notebook6", "notebook7" }) {
+			assertSameNotebook(new File("test-files/" + name + ".txt"), NotebookReader::readDeferredNotebookFile);
+		}
+
+		File file = File.createTempFile("notebook", ".txt");
+		file.deleteOnExit();
+		String contents = "! My Notebook\n# Chores,2\n* Dishes,active\nAfter dinner\n* Laundry\nWhites\n"
+				+ "# School,0\n* Read,recurring\nChapter 1\n# Work,1\n* Email,ACTIVE\n* ,active\n#Bad\n* Lost,active\n";
+		Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+		assertSameNotebook(file, NotebookReader::readDeferredNotebookFile);
+
+		// The names are read, but no Tasks.
+		Notebook notebook = NotebookReader.readDeferredNotebookFile(file);
+		assertArrayEquals(new String[] { "Active Tasks", "Chores", "School", "Work" }, notebook.getTaskListsNames());
+		notebook.setCurrentTaskList("School");
+		AbstractTaskList school = notebook.getCurrentTaskList();
+		notebook.setCurrentTaskList("Work");
+		AbstractTaskList work = notebook.getCurrentTaskList();
+		assertFalse(school.isLoaded());
+		assertFalse(work.isLoaded());
+		assertEquals(1, work.getCompletedCount());
+
+		// The Active Tasks list parses Chores and Work, but not School.
+		notebook.setCurrentTaskList("Active Tasks");
+		String[][] active = notebook.getCurrentTaskList().getTasksAsArray();
+		assertEquals(2, active.length);
+		assertEquals("Dishes", active[0][1]);
+		assertEquals("Email", active[1][1]);
+		assertTrue(work.isLoaded());
+		assertFalse(school.isLoaded());
+		assertEquals("Chapter 1", school.getTask(0).getTaskDescription());
+		assertTrue(school.isLoaded());
+
+		assertThrows(IllegalArgumentException.class,
+				() -> NotebookReader.readDeferredNotebookFile(new File("test-files/missing.txt")));
+	}
+
+	/**
+	 * Test that a read reports the bytes read as it goes and can be cancelled.
+	 */
+	@Test
+	public void testProgress() throws IOException {
+		File file = File.createTempFile("notebook", ".txt");
+		Notebook large = new Notebook("Large");
+		large.addTaskList(new TaskList("Chores", 0));
+		for (int i = 0; i < 10000; i++) {
+			large.addTask(new Task("Task " + i, "Description of task " + i, false, i % 10 == 0));
+		}
+		large.saveNotebook(file);
+
+		Progress progress = new Progress(-1);
+		Notebook notebook = NotebookReader.readNotebookFileByExtension(file, progress);
+		assertEquals("Large", notebook.getNotebookName());
+		assertTrue(progress.done.size() > 2);
+		for (int i = 1; i < progress.done.size(); i++) {
+			assertTrue(progress.done.get(i) >= progress.done.get(i - 1));
+		}
+		assertEquals(file.length(), (long) progress.done.get(progress.done.size() - 1));
+		assertEquals(file.length(), progress.total);
+
+		// Cancelled after the first block.
+		Progress cancelling = new Progress(1);
+		assertThrows(CancellationException.class, () -> NotebookReader.readNotebookFile(file, cancelling));
+		assertEquals(1, cancelling.done.size());
+
+		// A binary file only has its table read.
+		File binary = File.createTempFile("notebook", ".wtnb");
+		large.saveNotebook(binary);
+		progress = new Progress(-1);
+		assertEquals("Large", NotebookReader.readNotebookFileByExtension(binary, progress).getNotebookName());
+		assertEquals(binary.length(), (long) progress.done.get(0));
+		assertThrows(CancellationException.class,
+				() -> NotebookReader.readNotebookFileByExtension(binary, new Progress(0)));
+		file.delete();
+		binary.delete();
+	}
+
+	/**
+	 * Progress that records what it is told, and cancels after a number of
+	 * reports.
+	 */
+	private static class Progress implements NotebookProgress {
+		/** Work done at each report */
+		private ArrayList<Long> done = new ArrayList<Long>();
+		/** Total work at the last report */
+		private long total;
+		/** Number of reports after which the work is cancelled, or -1 */
+		private int cancelAfter;
+
+		/**
+		 * Constructs a Progress.
+		 *
+		 * @param cancelAfter is the number of reports to cancel after, or -1.
+		 */
+		Progress(int cancelAfter) {
+			this.cancelAfter = cancelAfter;
+		}
+
+		@Override
+		public void progress(long done, long total) {
+			this.done.add(done);
+			this.total = total;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelAfter != -1 && done.size() >= cancelAfter;
+		}
+	}
+
+	/**
+	 * Checks that a reader and readNotebookFile() read a file the same way, or both
+	 * fail.
+	 *
+	 * @param file   is the file to read.
+	 * @param reader is the reader to check.
+	 */
+	private void assertSameNotebook(File file, Function<File, Notebook> reader) {
+		Notebook expected;
+		try {
+			expected = NotebookReader.readNotebookFile(file);
+		} catch (IllegalArgumentException e) {
+			assertThrows(IllegalArgumentException.class, () -> reader.apply(file));
+			return;
+		}
+		Notebook actual = reader.apply(file);
+		assertEquals(expected.getNotebookName(), actual.getNotebookName());
+		assertArrayEquals(expected.getTaskListsNames(), actual.getTaskListsNames());
+		for (String name : expected.getTaskListsNames()) {
+			expected.setCurrentTaskList(name);
+			actual.setCurrentTaskList(name);
+			AbstractTaskList expectedList = expected.getCurrentTaskList();
+			AbstractTaskList actualList = actual.getCurrentTaskList();
+			assertEquals(expectedList.getCompletedCount(), actualList.getCompletedCount());
+			assertEquals(expectedList.getTasks().size(), actualList.getTasks().size());
+			for (int i = 0; i < expectedList.getTasks().size(); i++) {
+				assertEquals(expectedList.getTask(i).toString(), actualList.getTask(i).toString());
+			}
+		}
 	}
 }
@@ -4,11 +4,20 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
 import java.util.Scanner;
 
 import org.junit.jupiter.api.Test;
 
+import edu.ncsu.csc216.wolf_tasks.model.io.NotebookWriter.Durability;
 import edu.ncsu.csc216.wolf_tasks.model.notebook.Notebook;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.AbstractTaskList;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.Task;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.TaskList;
+import edu.ncsu.csc216.wolf_tasks.model.util.SortedList;
 
 /**
  * Tests the NotebookWriter class.
@@ -37,6 +46,234 @@ public class NotebookWriterTest {
 		checkFiles("test-files/valid_record.txt", "test-files/actual_output.txt");
 	}
 
+	/**
+	 * Test that each Durability replaces an existing file with the same contents
+	 * and leaves no temporary file behind.
+	 */
+	@Test
+	public void testDurability() throws IOException {
+		Notebook notebook = NotebookReader.readNotebookFile(new File("test-files/valid_record.txt"));
+		File directory = Files.createTempDirectory("notebooks").toFile();
+		File outputFile = new File(directory, "notebook.txt");
+		Files.write(outputFile.toPath(), "! Old Notebook\n".getBytes());
+
+		for (Durability durability : Durability.values()) {
+			notebook.setSaveDurability(durability);
+			notebook.setChanged(true);
+			notebook.saveNotebook(outputFile);
+			assertFalse(notebook.isChanged());
+			checkFiles("test-files/valid_record.txt", outputFile.getPath());
+			assertArrayEquals(new String[] { "notebook.txt" }, directory.list());
+		}
+		assertThrows(IllegalArgumentException.class, () -> notebook.setSaveDurability(null));
+		assertThrows(IllegalArgumentException.class, () -> new NotebookWriter(null));
+		outputFile.delete();
+		directory.delete();
+	}
+
+	/**
+	 * Test that a failed save throws and leaves nothing behind.
+	 */
+	@Test
+	public void testUnableToSave() throws IOException {
+		Notebook notebook = new Notebook("My Notebook");
+		File directory = Files.createTempDirectory("notebooks").toFile();
+		File outputFile = new File(new File(directory, "missing"), "notebook.txt");
+		try {
+			notebook.saveNotebook(outputFile);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Unable to save file.", e.getMessage());
+		}
+		assertTrue(notebook.isChanged());
+		assertEquals(0, directory.list().length);
+		directory.delete();
+	}
+
+	/**
+	 * Test that a Notebook larger than the writer's buffer is written the same as
+	 * Task.toString() formats it, and one writer can save it more than once.
+	 */
+	@Test
+	public void testLargeNotebook() throws IOException {
+		SortedList<TaskList> taskLists = new SortedList<TaskList>();
+		StringBuilder expected = new StringBuilder("! Big Notebook\n");
+		for (int i = 0; i < 20; i++) {
+			TaskList taskList = new TaskList("List " + (char) ('A' + i), i);
+			expected.append("# ").append(taskList.getTaskListName()).append(",").append(i).append("\n");
+			for (int j = 0; j < 400; j++) {
+				Task task = new Task("Task \u00e9" + j, "Description of task " + j + "\nSecond line",
+						j % 2 == 0, j % 3 == 0);
+				taskList.addTask(task);
+				expected.append(task.toString()).append("\n");
+			}
+			taskLists.add(taskList);
+		}
+		File outputFile = File.createTempFile("notebook", ".txt");
+		NotebookWriter writer = new NotebookWriter(Durability.NONE);
+		for (int k = 0; k < 2; k++) {
+			writer.writeNotebook(outputFile, "Big Notebook", taskLists);
+			byte[] actual = Files.readAllBytes(outputFile.toPath());
+			assertTrue(actual.length > 256 * 1024);
+			// Characters the default charset cannot encode are replaced, as a PrintStream would.
+			assertArrayEquals(expected.toString().getBytes(Charset.defaultCharset()), actual);
+		}
+		outputFile.delete();
+	}
+
+	/**
+	 * Test that a save copies the TaskLists that have not changed from the file
+	 * the Notebook was read from or last saved to, without loading them, and that
+	 * the file reads back the same as a full save.
+	 */
+	@Test
+	public void testIncrementalSave() throws IOException {
+		Notebook notebook = new Notebook("Incremental");
+		notebook.addTaskList(new TaskList("Chores", 1));
+		notebook.addTask(new Task("Dishes", "Wash", true, true));
+		notebook.addTaskList(new TaskList("School", 0));
+		notebook.addTask(new Task("Read", "Chapter 1", false, false));
+		notebook.addTaskList(new TaskList("Work", 2));
+		notebook.addTask(new Task("Email", "Reply", false, false));
+		File directory = Files.createTempDirectory("notebooks").toFile();
+
+		for (String name : new String[] { "notebook.txt", "notebook.wtnb" }) {
+			File file = new File(directory, name);
+			File fullFile = new File(directory, "full-" + name);
+			notebook.saveNotebook(file);
+			Notebook lazy = NotebookFormat.forFile(file) == NotebookFormat.BINARY
+					? NotebookReader.readIndexedNotebookFile(file)
+					: NotebookReader.readDeferredNotebookFile(file);
+
+			// Edit one list, rename another, and save over the file twice.
+			lazy.setCurrentTaskList("School");
+			lazy.addTask(new Task("Write", "Essay", false, true));
+			lazy.setCurrentTaskList("Work");
+			AbstractTaskList work = lazy.getCurrentTaskList();
+			lazy.editTaskList("Job");
+			lazy.saveNotebook(file);
+			lazy.setCurrentTaskList("School");
+			lazy.getCurrentTaskList().getTask(0).setTaskDescrption("Chapter 2");
+			lazy.saveNotebook(file);
+
+			// Chores was copied both times without being loaded. Renaming Work changed
+			// it, so it was written again.
+			lazy.setCurrentTaskList("Chores");
+			assertFalse(lazy.getCurrentTaskList().isLoaded());
+			assertTrue(work.isLoaded());
+
+			// A full save of the same Notebook writes the same contents.
+			Notebook expected = NotebookReader.readNotebookFileByExtension(file);
+			expected.saveNotebook(fullFile);
+			lazy.saveNotebook(fullFile);
+			assertArrayEquals(Files.readAllBytes(fullFile.toPath()), Files.readAllBytes(file.toPath()));
+			expected.setCurrentTaskList("School");
+			assertEquals("Chapter 2", expected.getCurrentTaskList().getTask(0).getTaskDescription());
+			expected.setCurrentTaskList("Job");
+			assertEquals("Email", expected.getCurrentTaskList().getTask(0).getTaskName());
+
+			// A file changed by something else is not copied from.
+			Notebook saved = NotebookReader.readNotebookFileByExtension(fullFile);
+			for (String listName : saved.getTaskListsNames()) {
+				saved.setCurrentTaskList(listName);
+				saved.getCurrentTaskList().getTasks();
+			}
+			Files.write(fullFile.toPath(), "! Replaced\n".getBytes());
+			saved.saveNotebook(fullFile);
+			assertArrayEquals(Files.readAllBytes(file.toPath()), Files.readAllBytes(fullFile.toPath()));
+			file.delete();
+			fullFile.delete();
+		}
+		directory.delete();
+	}
+
+	/**
+	 * Test that a snapshot copies only the TaskLists changed since the last save,
+	 * and saves the Notebook as it was when it was taken while the Notebook is
+	 * edited on another thread.
+	 */
+	@Test
+	public void testSnapshot() throws IOException, InterruptedException {
+		File directory = Files.createTempDirectory("notebooks").toFile();
+		for (String name : new String[] { "notebook.txt", "notebook.wtnb" }) {
+			File file = new File(directory, name);
+			File snapshotFile = new File(directory, "snapshot-" + name);
+			Notebook notebook = new Notebook("Snapshot");
+			notebook.addTaskList(new TaskList("Chores", 1));
+			notebook.addTask(new Task("Dishes", "Wash", true, true));
+			notebook.addTaskList(new TaskList("School", 0));
+			notebook.addTask(new Task("Read", "Chapter 1", false, false));
+			notebook.saveNotebook(file);
+			Notebook lazy = NotebookFormat.forFile(file) == NotebookFormat.BINARY
+					? NotebookReader.readIndexedNotebookFile(file)
+					: NotebookReader.readDeferredNotebookFile(file);
+
+			lazy.setCurrentTaskList("School");
+			lazy.addTask(new Task("Write", "Essay", false, true));
+			NotebookSnapshot snapshot = lazy.snapshot(NotebookFormat.forFile(file));
+			assertEquals("Snapshot", snapshot.getNotebookName());
+			assertArrayEquals(new String[] { "Chores", "School" }, snapshot.getTaskListsNames());
+			lazy.setCurrentTaskList("Chores");
+			assertFalse(lazy.getCurrentTaskList().isLoaded());
+			String expected = NotebookJournalTest.dump(lazy);
+
+			// The snapshot is saved on another thread while the Notebook changes.
+			Thread saver = new Thread(() -> snapshot.save(snapshotFile));
+			saver.start();
+			for (int i = 0; i < 200; i++) {
+				lazy.setCurrentTaskList("School");
+				lazy.addTask(new Task("Task " + i, "Details", false, i % 2 == 0));
+				lazy.editTask(0, "Read " + i, "Chapter " + i, false, false);
+			}
+			lazy.setCurrentTaskList("Chores");
+			lazy.editTaskList("Housework");
+			saver.join();
+			assertEquals(expected, NotebookJournalTest.dump(NotebookReader.readNotebookFileByExtension(snapshotFile)));
+
+			// The Notebook changed after the snapshot, so it is still changed.
+			lazy.setChanged(true);
+			lazy.snapshotSaved(snapshot, snapshotFile);
+			assertTrue(lazy.isChanged());
+			NotebookSnapshot current = lazy.snapshot(NotebookFormat.forFile(file));
+			current.save(file);
+			lazy.snapshotSaved(current, file);
+			assertFalse(lazy.isChanged());
+			assertEquals(NotebookJournalTest.dump(lazy),
+					NotebookJournalTest.dump(NotebookReader.readNotebookFileByExtension(file)));
+
+			// A cancelled save reports each TaskList before it and leaves the file.
+			byte[] before = Files.readAllBytes(file.toPath());
+			long[] reports = new long[2];
+			NotebookProgress cancelling = new NotebookProgress() {
+				@Override
+				public void progress(long done, long total) {
+					reports[0]++;
+					reports[1] = total;
+				}
+
+				@Override
+				public boolean isCancelled() {
+					return reports[0] == 2;
+				}
+			};
+			assertThrows(CancellationException.class, () -> current.save(file, cancelling));
+			assertArrayEquals(before, Files.readAllBytes(file.toPath()));
+			assertEquals(2, reports[1]);
+			String[] files = directory.list();
+			Arrays.sort(files);
+			assertArrayEquals(new String[] { name, "snapshot-" + name }, files);
+
+			// A section cannot be copied from a file changed since the snapshot.
+			NotebookSnapshot stale = lazy.snapshot(NotebookFormat.forFile(file));
+			Files.write(file.toPath(), "! Replaced\n".getBytes());
+			assertThrows(IllegalArgumentException.class, () -> stale.save(snapshotFile));
+			assertThrows(IllegalArgumentException.class, () -> lazy.snapshot(null));
+			file.delete();
+			snapshotFile.delete();
+		}
+		directory.delete();
+	}
+
 	/**
 	 * Citing method created from ActivityRecordIO in the WolfScheduler project.
 	 * 
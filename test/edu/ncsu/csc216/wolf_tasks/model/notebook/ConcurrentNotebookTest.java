@@ -0,0 +1,329 @@
+package edu.ncsu.csc216.wolf_tasks.model.notebook;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ncsu.csc216.wolf_tasks.model.io.NotebookReader;
+import edu.ncsu.csc216.wolf_tasks.model.notebook.NotebookObserver.Move;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.AbstractTaskList;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.Task;
+import edu.ncsu.csc216.wolf_tasks.model.tasks.TaskList;
+
+/**
+ * Tests the ConcurrentNotebook class.
+ *
+ * @author Michael Warstler
+ */
+public class ConcurrentNotebookTest {
+
+	/** Number of writes each writer thread makes in the stress test */
+	private static final int WRITES = 3000;
+	/** Most Tasks a queue holds in the stress test */
+	private static final int QUEUE_SIZE = 8;
+
+	/**
+	 * Test each method from one thread.
+	 */
+	@Test
+	public void testConcurrentNotebook() {
+		assertThrows(IllegalArgumentException.class, () -> new ConcurrentNotebook(null));
+		ConcurrentNotebook notebook = new ConcurrentNotebook(new Notebook("Shared"));
+		assertEquals("Shared", notebook.getNotebookName());
+		notebook.addTaskList(new TaskList("School", 0));
+		notebook.addTaskList(new TaskList("Chores", 0));
+		assertEquals("Chores", notebook.getCurrentTaskListName());
+		assertArrayEquals(new String[] { "Active Tasks", "Chores", "School" }, notebook.getTaskListsNames());
+
+		// Writes to another list leave the current list alone.
+		notebook.addTask("School", new Task("Read", "Chapter 1", false, true));
+		notebook.addTask("School", new Task("Write", "Essay", true, false));
+		notebook.moveTask("School", 1, Move.TO_FRONT);
+		notebook.editTask("School", 1, "Read more", "Chapter 2", false, true);
+		assertEquals("Chores", notebook.getCurrentTaskListName());
+		assertEquals(0, notebook.getCurrentTasksAsArray().length);
+		String[][] school = notebook.getTasksAsArray("School");
+		assertEquals("Write", school[0][1]);
+		assertEquals("Read more", school[1][1]);
+		assertEquals("School", notebook.getTasksAsArray("Active Tasks")[0][0]);
+
+		notebook.completeTask("Active Tasks", 0);
+		assertEquals(1, notebook.getTasksAsArray("School").length);
+		assertEquals(1, notebook.getTasksAsArray("School", 0, 5).length);
+		assertEquals(0, notebook.getTasksAsArray("School", 1, 5).length);
+		assertThrows(IndexOutOfBoundsException.class, () -> notebook.getTasksAsArray("School", -1, 5));
+		assertEquals("Write", notebook.removeTask("School", 0));
+		assertThrows(IllegalArgumentException.class, () -> notebook.moveTask("Active Tasks", 0, Move.UP));
+		assertThrows(IllegalArgumentException.class, () -> notebook.moveTask("School", 0, null));
+		assertThrows(IllegalArgumentException.class, () -> notebook.addTask("Missing", new Task("A", "B", false, false)));
+		assertThrows(IllegalArgumentException.class, () -> notebook.getTasksAsArray("school"));
+		assertThrows(IndexOutOfBoundsException.class, () -> notebook.removeTask("School", 0));
+
+		// Renaming or removing the current list.
+		notebook.editTaskList("Chores", "Errands");
+		assertEquals("Errands", notebook.getCurrentTaskListName());
+		notebook.removeTaskList("Errands");
+		assertEquals("Active Tasks", notebook.getCurrentTaskListName());
+		notebook.setCurrentTaskList("School");
+		assertEquals("School", notebook.getCurrentTaskListName());
+		assertThrows(IllegalArgumentException.class, () -> notebook.removeTaskList("Active Tasks"));
+		assertTrue(notebook.isChanged());
+	}
+
+	/**
+	 * Test that reads that would load Tasks from a file load them.
+	 */
+	@Test
+	public void testLoadingReads() throws IOException {
+		Notebook original = new Notebook("Lazy");
+		original.addTaskList(new TaskList("Chores", 0));
+		original.addTask(new Task("Dishes", "Wash", false, true));
+		original.addTaskList(new TaskList("School", 0));
+		original.addTask(new Task("Read", "Chapter 1", false, false));
+		File file = File.createTempFile("notebook", ".wtnb");
+		original.saveNotebook(file);
+
+		ConcurrentNotebook notebook = new ConcurrentNotebook(NotebookReader.readNotebookFileByExtension(file));
+		assertEquals("Dishes", notebook.getCurrentTasksAsArray()[0][1]);
+		assertEquals("Read", notebook.getTasksAsArray("School")[0][1]);
+		file.delete();
+	}
+
+	/**
+	 * Stress test: writer threads keep each of their queues to a run of
+	 * consecutively numbered Tasks while reader threads check that every read sees
+	 * such a run, and that the TaskList names are sorted.
+	 */
+	@Test
+	public void testStress() throws InterruptedException {
+		ConcurrentNotebook notebook = new ConcurrentNotebook(new Notebook("Stress"));
+		int writers = 2;
+		int readers = 4;
+		for (int w = 0; w < writers; w++) {
+			notebook.addTaskList(new TaskList("Queue " + w, 0));
+		}
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<Thread>();
+
+		for (int w = 0; w < writers; w++) {
+			String queue = "Queue " + w;
+			String scratch = "Scratch " + w;
+			threads.add(new Thread(() -> {
+				await(start);
+				for (int i = 0; i < WRITES && failure.get() == null; i++) {
+					notebook.addTask(queue, new Task(String.valueOf(i), "", false, i % 2 == 0));
+					if (i >= QUEUE_SIZE) {
+						notebook.removeTask(queue, 0);
+					}
+					if (i % 50 == 0) {
+						notebook.addTaskList(new TaskList(scratch, 0));
+						notebook.editTaskList(scratch, scratch + "!");
+						notebook.removeTaskList(scratch + "!");
+					}
+				}
+			}));
+		}
+		for (int r = 0; r < readers; r++) {
+			threads.add(new Thread(() -> {
+				await(start);
+				while (!done.get() && failure.get() == null) {
+					String[] names = notebook.getTaskListsNames();
+					assertEquals("Active Tasks", names[0]);
+					for (int i = 2; i < names.length; i++) {
+						assertTrue(names[i - 1].compareTo(names[i]) < 0);
+					}
+					for (int w = 0; w < writers; w++) {
+						String[][] rows = notebook.getTasksAsArray("Queue " + w);
+						assertTrue(rows.length <= QUEUE_SIZE + 1);
+						for (int i = 0; i < rows.length; i++) {
+							assertEquals(String.valueOf(i + 1), rows[i][0]);
+							if (i > 0) {
+								assertEquals(Integer.parseInt(rows[i - 1][1]) + 1, Integer.parseInt(rows[i][1]));
+							}
+						}
+					}
+					String[][] active = notebook.getTasksAsArray("Active Tasks");
+					for (int i = 1; i < active.length; i++) {
+						assertTrue(active[i - 1][0].compareTo(active[i][0]) <= 0);
+					}
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.setUncaughtExceptionHandler((t, e) -> failure.compareAndSet(null, e));
+			thread.start();
+		}
+		start.countDown();
+		for (int w = 0; w < writers; w++) {
+			threads.get(w).join();
+		}
+		done.set(true);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		if (failure.get() != null) {
+			fail(failure.get());
+		}
+
+		// Every write was applied.
+		for (int w = 0; w < writers; w++) {
+			String[][] rows = notebook.getTasksAsArray("Queue " + w);
+			assertEquals(QUEUE_SIZE, rows.length);
+			assertEquals(String.valueOf(WRITES - 1), rows[QUEUE_SIZE - 1][1]);
+		}
+		assertEquals(writers + 1, notebook.getTaskListsNames().length);
+		assertEquals(writers * QUEUE_SIZE / 2, notebook.getTasksAsArray("Active Tasks").length);
+	}
+
+	/**
+	 * Test that edits to different TaskLists do not wait for each other's locks,
+	 * and that edits to the same TaskList, or to active Tasks, do.
+	 */
+	@Test
+	public void testLockStriping() throws InterruptedException {
+		Notebook wrapped = new Notebook("Striped");
+		ConcurrentNotebook notebook = new ConcurrentNotebook(wrapped);
+		notebook.addTaskList(new TaskList("A", 0));
+		notebook.addTaskList(new TaskList("B", 0));
+		AbstractTaskList a = wrapped.findTaskList("A");
+		AbstractTaskList active = wrapped.findTaskList("Active Tasks");
+
+		// Hold the lock of A: an edit to B goes ahead, an edit to A waits.
+		long stamp = a.getLock().writeLock();
+		Thread toB = new Thread(() -> notebook.addTask("B", new Task("B1", "", false, false)));
+		toB.start();
+		toB.join(10000);
+		assertFalse(toB.isAlive());
+		Thread toA = new Thread(() -> notebook.addTask("A", new Task("A1", "", false, false)));
+		toA.start();
+		toA.join(200);
+		assertTrue(toA.isAlive());
+		a.getLock().unlockWrite(stamp);
+		toA.join(10000);
+		assertFalse(toA.isAlive());
+
+		// Hold the lock of the Active Tasks list: only active Tasks wait.
+		stamp = active.getLock().writeLock();
+		Thread inactive = new Thread(() -> notebook.moveTask("B", 0, Move.TO_BACK));
+		inactive.start();
+		inactive.join(10000);
+		assertFalse(inactive.isAlive());
+		Thread activating = new Thread(() -> notebook.editTask("B", 0, "B1", "", false, true));
+		activating.start();
+		activating.join(200);
+		assertTrue(activating.isAlive());
+		active.getLock().unlockWrite(stamp);
+		activating.join(10000);
+		assertFalse(activating.isAlive());
+		assertEquals("B1", notebook.getTasksAsArray("Active Tasks")[0][1]);
+	}
+
+	/**
+	 * Stress test: a writer thread per TaskList adds, moves, completes and edits
+	 * Tasks while readers read every list. Each list's completed count and Tasks
+	 * must match what its writer did.
+	 */
+	@Test
+	public void testStripedStress() throws InterruptedException {
+		ConcurrentNotebook notebook = new ConcurrentNotebook(new Notebook("Striped"));
+		int writers = 4;
+		for (int w = 0; w < writers; w++) {
+			notebook.addTaskList(new TaskList("List " + w, 0));
+		}
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int w = 0; w < writers; w++) {
+			String name = "List " + w;
+			threads.add(new Thread(() -> {
+				for (int i = 0; i < WRITES && failure.get() == null; i++) {
+					notebook.addTask(name, new Task("T" + i, "", i % 3 == 0, i % 2 == 0));
+					notebook.moveTask(name, 0, Move.TO_BACK);
+					if (i % 4 == 3) {
+						notebook.completeTask(name, 0);
+					}
+					if (i % 5 == 0) {
+						notebook.editTask(name, 0, "E" + i, "edited", false, i % 10 == 0);
+					}
+				}
+			}));
+		}
+		for (int r = 0; r < 2; r++) {
+			threads.add(new Thread(() -> {
+				while (!done.get() && failure.get() == null) {
+					for (int w = 0; w < writers; w++) {
+						String[][] rows = notebook.getTasksAsArray("List " + w);
+						for (int i = 0; i < rows.length; i++) {
+							assertEquals(String.valueOf(i + 1), rows[i][0]);
+							assertNotNull(rows[i][1]);
+						}
+					}
+					String[][] active = notebook.getTasksAsArray("Active Tasks");
+					for (int i = 1; i < active.length; i++) {
+						assertTrue(active[i - 1][0].compareTo(active[i][0]) <= 0);
+					}
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.setUncaughtExceptionHandler((t, e) -> failure.compareAndSet(null, e));
+			thread.start();
+		}
+		for (int w = 0; w < writers; w++) {
+			threads.get(w).join();
+		}
+		done.set(true);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		if (failure.get() != null) {
+			fail(failure.get());
+		}
+
+		// Replaying one writer's edits on a plain Notebook gives the same list.
+		Notebook expected = new Notebook("Expected");
+		expected.addTaskList(new TaskList("List 0", 0));
+		for (int i = 0; i < WRITES; i++) {
+			expected.addTask(new Task("T" + i, "", i % 3 == 0, i % 2 == 0));
+			expected.moveTaskToBack(0);
+			if (i % 4 == 3) {
+				expected.completeTask(0);
+			}
+			if (i % 5 == 0) {
+				expected.editTask(0, "E" + i, "edited", false, i % 10 == 0);
+			}
+		}
+		String[][] rows = expected.getCurrentTaskList().getTasksAsArray();
+		int activeCount = 0;
+		for (Task task : expected.getCurrentTaskList().getTasks()) {
+			activeCount += task.isActive() ? 1 : 0;
+		}
+		for (int w = 0; w < writers; w++) {
+			assertArrayEquals(rows, notebook.getTasksAsArray("List " + w));
+		}
+		assertEquals(writers * activeCount, notebook.getTasksAsArray("Active Tasks").length);
+	}
+
+	/**
+	 * Waits for the latch, ignoring interrupts.
+	 *
+	 * @param latch is the latch.
+	 */
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
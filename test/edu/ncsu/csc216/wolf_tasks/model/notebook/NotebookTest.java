@@ -2,10 +2,17 @@ package edu.ncsu.csc216.wolf_tasks.model.notebook;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
+import edu.ncsu.csc216.wolf_tasks.model.tasks.AbstractTaskList;
 import edu.ncsu.csc216.wolf_tasks.model.tasks.Task;
 import edu.ncsu.csc216.wolf_tasks.model.tasks.TaskList;
+import edu.ncsu.csc216.wolf_tasks.model.util.SortedList;
 
 /**
  * Test the Notebook class.
@@ -40,6 +47,27 @@ public class NotebookTest {
 		assertThrows(IllegalArgumentException.class, () -> new Notebook(ACTIVE_TASKS_NAME));
 	}
 
+	/**
+	 * Test constructing a Notebook with a supplied ISortedList implementation.
+	 */
+	@Test
+	public void testNotebookWithSortedList() {
+		// Linked SortedList can be used in place of the default skip list.
+		Notebook myNotebook = new Notebook("My Notebook", new SortedList<TaskList>());
+		myNotebook.addTaskList(new TaskList("School", 0));
+		myNotebook.addTaskList(new TaskList("Chores", 0));
+		String[] names = myNotebook.getTaskListsNames();
+		assertEquals(3, names.length);
+		assertEquals("Chores", names[1]);
+		assertEquals("School", names[2]);
+
+		// Null or non-empty lists are rejected.
+		assertThrows(IllegalArgumentException.class, () -> new Notebook("My Notebook", null));
+		SortedList<TaskList> used = new SortedList<TaskList>();
+		used.add(new TaskList("School", 0));
+		assertThrows(IllegalArgumentException.class, () -> new Notebook("My Notebook", used));
+	}
+
 	/**
 	 * Test addTaskList() method.
 	 */
@@ -65,6 +93,39 @@ public class NotebookTest {
 		assertThrows(IllegalArgumentException.class, () -> myNotebook.addTaskList(badTaskList2));
 	}
 
+	/**
+	 * Test addTaskLists() method.
+	 */
+	@Test
+	public void testAddTaskLists() {
+		Notebook myNotebook = new Notebook("My Notebook");
+		myNotebook.addTaskList(new TaskList("Job", 0));
+		myNotebook.setChanged(false);
+
+		// Add a batch with an active Task.
+		TaskList school = new TaskList("School", 3);
+		school.addTask(new Task(NAME, DESCRIPTION, false, true));
+		myNotebook.addTaskLists(Arrays.asList(school, new TaskList("Chores", 4)));
+		assertTrue(myNotebook.isChanged());
+		assertEquals("Job", myNotebook.getCurrentTaskList().getTaskListName());
+		String[] names = myNotebook.getTaskListsNames();
+		assertEquals(4, names.length);
+		assertEquals("Chores", names[1]);
+		assertEquals("Job", names[2]);
+		assertEquals("School", names[3]);
+		myNotebook.setCurrentTaskList(ACTIVE_TASKS_NAME);
+		assertEquals(1, myNotebook.getCurrentTaskList().getTasks().size());
+
+		// Invalid names reject the whole batch.
+		assertThrows(IllegalArgumentException.class,
+				() -> myNotebook.addTaskLists(Arrays.asList(new TaskList("Car", 0), new TaskList("JOB", 0))));
+		assertThrows(IllegalArgumentException.class,
+				() -> myNotebook.addTaskLists(Arrays.asList(new TaskList("Car", 0), new TaskList("car", 0))));
+		assertThrows(IllegalArgumentException.class,
+				() -> myNotebook.addTaskLists(Arrays.asList(new TaskList("active tasks", 0))));
+		assertEquals(4, myNotebook.getTaskListsNames().length);
+	}
+
 	/**
 	 * Test getTaskListsNames() method.
 	 */
@@ -96,6 +157,54 @@ public class NotebookTest {
 		assertEquals("Job", taskListsNamesArray[3]);
 		assertEquals("My List", taskListsNamesArray[4]);
 		assertEquals("School", taskListsNamesArray[5]);
+
+		// Each call returns its own copy, which the caller may change.
+		taskListsNamesArray[1] = "Changed";
+		String[] names = myNotebook.getTaskListsNames();
+		assertNotSame(taskListsNamesArray, names);
+		assertEquals("Car Work", names[1]);
+
+		// The names follow TaskLists being added, renamed or removed.
+		myNotebook.setCurrentTaskList("Job");
+		myNotebook.addTask(new Task(NAME, DESCRIPTION, false, true));
+		assertEquals("Job", myNotebook.getTaskListsNames()[3]);
+		myNotebook.editTaskList("Work");
+		assertArrayEquals(new String[] { ACTIVE_TASKS_NAME, "Car Work", "Chores", "My List", "School", "Work" },
+				myNotebook.getTaskListsNames());
+		myNotebook.removeTaskList();
+		assertEquals(5, myNotebook.getTaskListsNames().length);
+
+		// A renamed TaskList's active Tasks show its new name.
+		myNotebook.setCurrentTaskList("Chores");
+		myNotebook.addTask(new Task(NAME, DESCRIPTION, false, true));
+		myNotebook.setCurrentTaskList(ACTIVE_TASKS_NAME);
+		String[][] active = myNotebook.getCurrentTaskList().getTasksAsArray();
+		assertEquals("Chores", active[0][0]);
+		myNotebook.setCurrentTaskList("Chores");
+		myNotebook.editTaskList("Errands");
+		myNotebook.setCurrentTaskList(ACTIVE_TASKS_NAME);
+		assertEquals("Errands", myNotebook.getCurrentTaskList().getTasksAsArray()[0][0]);
+
+		// Removing or deactivating an active Task drops its row.
+		myNotebook.setCurrentTaskList("Errands");
+		myNotebook.addTask(new Task("Laundry", DESCRIPTION, false, true));
+		myNotebook.setCurrentTaskList(ACTIVE_TASKS_NAME);
+		assertEquals(2, myNotebook.getCurrentTaskList().getTasksAsArray().length);
+		myNotebook.setCurrentTaskList("Errands");
+		myNotebook.removeTask(0);
+		myNotebook.setCurrentTaskList(ACTIVE_TASKS_NAME);
+		assertEquals(1, myNotebook.getCurrentTaskList().getTasksAsArray().length);
+		myNotebook.setCurrentTaskList("Errands");
+		myNotebook.editTask(0, "Laundry", DESCRIPTION, false, false);
+		myNotebook.setCurrentTaskList(ACTIVE_TASKS_NAME);
+		assertEquals(0, myNotebook.getCurrentTaskList().getTasksAsArray().length);
+		myNotebook.setCurrentTaskList("Errands");
+		myNotebook.editTask(0, "Laundry", DESCRIPTION, false, true);
+		myNotebook.setCurrentTaskList(ACTIVE_TASKS_NAME);
+		assertEquals(1, myNotebook.getCurrentTaskList().getTasksAsArray().length);
+		myNotebook.setCurrentTaskList("Errands");
+		myNotebook.removeTaskList();
+		assertEquals(0, myNotebook.getCurrentTaskList().getTasksAsArray().length);
 	}
 
 	/**
@@ -172,6 +281,28 @@ public class NotebookTest {
 		assertThrows(IllegalArgumentException.class, () -> myNotebook.editTaskList("Car Work"));
 		assertThrows(IllegalArgumentException.class, () -> myNotebook.editTaskList("My List"));
 
+		// A name is checked as addTaskList() checks it: it may not be null or empty,
+		// be "Active Tasks" in any case, or differ from another TaskList's name only
+		// in case. A rejected name changes nothing.
+		myNotebook.setChanged(false);
+		long changeCount = myNotebook.getChangeCount();
+		assertThrows(IllegalArgumentException.class, () -> myNotebook.editTaskList(null));
+		assertThrows(IllegalArgumentException.class, () -> myNotebook.editTaskList(""));
+		assertThrows(IllegalArgumentException.class, () -> myNotebook.editTaskList("active tasks"));
+		assertThrows(IllegalArgumentException.class, () -> myNotebook.editTaskList("ACTIVE TASKS"));
+		assertThrows(IllegalArgumentException.class, () -> myNotebook.editTaskList("JOB"));
+		assertThrows(IllegalArgumentException.class, () -> myNotebook.editTaskList("car work"));
+		assertFalse(myNotebook.isChanged());
+		assertEquals(changeCount, myNotebook.getChangeCount());
+		assertSame(myTaskList4, myNotebook.getCurrentTaskList());
+		assertArrayEquals(new String[] { ACTIVE_TASKS_NAME, "Car Work", "Chores", "Job", "My List", "School" },
+				myNotebook.getTaskListsNames());
+
+		// Only the case of the current name may change.
+		myNotebook.editTaskList("CHORES");
+		assertEquals("CHORES", myNotebook.getCurrentTaskList().getTaskListName());
+		assertTrue(myNotebook.isChanged());
+
 		// Edit the currentTaskList and check for fields updating
 		myNotebook.setChanged(false);
 		myNotebook.editTaskList("New List Name"); // current was previously Chores.
@@ -179,6 +310,48 @@ public class NotebookTest {
 		assertTrue(myNotebook.isChanged());
 	}
 
+	/**
+	 * Test that the name index follows TaskLists through rename and removal.
+	 */
+	@Test
+	public void testTaskListNameIndex() {
+		Notebook myNotebook = new Notebook("My Notebook");
+		TaskList chores = new TaskList("Chores", 0);
+		myNotebook.addTaskList(chores);
+		myNotebook.addTaskList(new TaskList("Job", 0));
+
+		// Lookup is by exact name.
+		myNotebook.setCurrentTaskList("chores");
+		assertEquals(ACTIVE_TASKS_NAME, myNotebook.getCurrentTaskList().getTaskListName());
+		myNotebook.setCurrentTaskList(null);
+		assertEquals(ACTIVE_TASKS_NAME, myNotebook.getCurrentTaskList().getTaskListName());
+
+		// An invalid rename leaves the list where it was.
+		myNotebook.setCurrentTaskList("Chores");
+		assertThrows(IllegalArgumentException.class, () -> myNotebook.editTaskList("JOB"));
+		assertEquals("Chores", myNotebook.getTaskListsNames()[1]);
+		myNotebook.setCurrentTaskList("Chores");
+		assertSame(chores, myNotebook.getCurrentTaskList());
+
+		// A rename that changes only the case is found under the new name.
+		myNotebook.editTaskList("CHORES");
+		myNotebook.setCurrentTaskList("CHORES");
+		assertSame(chores, myNotebook.getCurrentTaskList());
+
+		// The old name is free after a rename.
+		myNotebook.editTaskList("House");
+		myNotebook.addTaskList(new TaskList("chores", 0));
+		myNotebook.setCurrentTaskList("House");
+		assertSame(chores, myNotebook.getCurrentTaskList());
+
+		// The name is free after a removal.
+		myNotebook.removeTaskList();
+		myNotebook.setCurrentTaskList("House");
+		assertEquals(ACTIVE_TASKS_NAME, myNotebook.getCurrentTaskList().getTaskListName());
+		myNotebook.addTaskList(new TaskList("house", 0));
+		assertEquals(4, myNotebook.getTaskListsNames().length);
+	}
+
 	/**
 	 * Test removeTaskList() method.
 	 */
@@ -296,6 +469,91 @@ public class NotebookTest {
 		assertEquals("Exercise", myNotebook.getCurrentTaskList().getTask(2).getTaskName());
 	}
 
+	/**
+	 * Test that the ActiveTaskList stays in order (by TaskList name, then Task
+	 * priority) through a random mix of Task and TaskList changes.
+	 */
+	@Test
+	public void testActiveTaskListUpdates() {
+		Notebook myNotebook = new Notebook("My Notebook");
+		ArrayList<TaskList> lists = new ArrayList<TaskList>();
+		String[] names = { "Job", "School", "Chores", "Car", "Music" };
+		for (String name : names) {
+			TaskList taskList = new TaskList(name, 0);
+			myNotebook.addTaskList(taskList);
+			lists.add(taskList);
+		}
+
+		Random random = new Random(216);
+		int next = 0;
+		for (int k = 0; k < 1500; k++) {
+			TaskList taskList = lists.get(random.nextInt(lists.size()));
+			myNotebook.setCurrentTaskList(taskList.getTaskListName());
+			int size = taskList.getTasks().size();
+			int op = random.nextInt(8);
+			if (op == 0 || size == 0) {
+				myNotebook.addTask(new Task("Task " + next++, DESCRIPTION, random.nextBoolean(), random.nextBoolean()));
+				continue;
+			}
+			int idx = random.nextInt(size);
+			Task task = taskList.getTask(idx);
+			if (op == 1) {
+				myNotebook.editTask(idx, task.getTaskName(), DESCRIPTION, task.isRecurring(), !task.isActive());
+			} else if (op == 2) {
+				taskList.removeTask(idx);
+			} else if (op == 3) {
+				task.completeTask();
+			} else if (op == 4) {
+				taskList.moveTaskUp(idx);
+			} else if (op == 5) {
+				taskList.moveTaskToBack(idx);
+			} else if (op == 6) {
+				taskList.moveTaskToFront(idx);
+			} else if (random.nextInt(10) == 0) {
+				// Rename the list, or remove it and add a new one.
+				if (random.nextBoolean()) {
+					myNotebook.editTaskList(taskList.getTaskListName() + " " + next++);
+				} else {
+					myNotebook.removeTaskList();
+					lists.remove(taskList);
+					TaskList newList = new TaskList("List " + next++, 0);
+					myNotebook.addTaskList(newList);
+					lists.add(newList);
+				}
+			}
+			assertActiveTasks(myNotebook, lists);
+		}
+		assertActiveTasks(myNotebook, lists);
+	}
+
+	/**
+	 * Checks that the Notebook's ActiveTaskList holds exactly the active Tasks of
+	 * the given TaskLists, ordered by TaskList name and then Task priority.
+	 * 
+	 * @param notebook is the Notebook to check.
+	 * @param lists    is the TaskLists in the Notebook.
+	 */
+	private void assertActiveTasks(Notebook notebook, ArrayList<TaskList> lists) {
+		ArrayList<TaskList> sorted = new ArrayList<TaskList>(lists);
+		Collections.sort(sorted);
+		ArrayList<Task> expected = new ArrayList<Task>();
+		for (TaskList taskList : sorted) {
+			for (Task task : taskList.getTasks()) {
+				if (task.isActive()) {
+					expected.add(task);
+				}
+			}
+		}
+		notebook.setCurrentTaskList(ACTIVE_TASKS_NAME);
+		assertEquals(expected.size(), notebook.getCurrentTaskList().getTasks().size());
+		String[][] rows = notebook.getCurrentTaskList().getTasksAsArray();
+		assertEquals(expected.size(), rows.length);
+		for (int i = 0; i < expected.size(); i++) {
+			assertSame(expected.get(i), notebook.getCurrentTaskList().getTask(i));
+			assertEquals(expected.get(i).getTaskName(), rows[i][1]);
+		}
+	}
+
 	/**
 	 * Test editTask() method.
 	 */
@@ -375,6 +633,20 @@ public class NotebookTest {
 		assertEquals("Yard Work", myNotebook.getCurrentTaskList().getTask(3).getTaskName());
 		assertEquals("Trip Planning", myNotebook.getCurrentTaskList().getTask(4).getTaskName());
 
+		// An invalid edit changes nothing.
+		myNotebook.setCurrentTaskList("My List");
+		myNotebook.setChanged(false);
+		assertThrows(IllegalArgumentException.class,
+				() -> myNotebook.editTask(0, "Bad Name", null, false, false));
+		assertThrows(IllegalArgumentException.class,
+				() -> myNotebook.editTask(0, "", "Bad Description", false, false));
+		assertThrows(IndexOutOfBoundsException.class,
+				() -> myNotebook.editTask(6, "Bad Name", "Bad Description", false, false));
+		assertFalse(myNotebook.isChanged());
+		assertEquals("New Name", myNotebook.getCurrentTaskList().getTask(0).getTaskName());
+		assertEquals("New Description", myNotebook.getCurrentTaskList().getTask(0).getTaskDescription());
+		assertTrue(myNotebook.getCurrentTaskList().getTask(0).isActive());
+
 		// Edit middle task in list. Task no longer Active
 		myNotebook.setCurrentTaskList("My List"); // change back to regular TaskList.
 		myNotebook.editTask(3, "Active to not Active", "No Longer Active", false, false); // myTask4
@@ -397,4 +669,48 @@ public class NotebookTest {
 		assertEquals("Yard Work", myNotebook.getCurrentTaskList().getTask(2).getTaskName());
 		assertEquals("Trip Planning", myNotebook.getCurrentTaskList().getTask(3).getTaskName());
 	}
+
+	/**
+	 * Test removeTask(), completeTask() and the move methods.
+	 */
+	@Test
+	public void testTaskOperations() {
+		Notebook myNotebook = new Notebook("My Notebook");
+		myNotebook.addTaskList(new TaskList("My List", 0));
+		myNotebook.addTask(new Task("Exercise", "Go for a walk", true, true));
+		myNotebook.addTask(new Task("Job", "Pizza delivery", false, true));
+		myNotebook.addTask(new Task("Piano Practice", "Starts at 5:30", false, false));
+
+		// Moves change the order and mark the Notebook changed.
+		myNotebook.setChanged(false);
+		myNotebook.moveTaskToBack(0);
+		assertTrue(myNotebook.isChanged());
+		myNotebook.moveTaskUp(2);
+		myNotebook.moveTaskToFront(2);
+		myNotebook.moveTaskDown(1);
+		AbstractTaskList myList = myNotebook.getCurrentTaskList();
+		assertEquals("Piano Practice", myList.getTask(0).getTaskName());
+		assertEquals("Exercise", myList.getTask(1).getTaskName());
+		assertEquals("Job", myList.getTask(2).getTaskName());
+
+		// Completing a recurring Task through Active Tasks adds a copy back.
+		myNotebook.setCurrentTaskList("Active Tasks");
+		assertThrows(IllegalArgumentException.class, () -> myNotebook.moveTaskUp(0));
+		myNotebook.completeTask(0);
+		assertEquals(1, myList.getCompletedCount());
+		assertEquals("Job", myList.getTask(1).getTaskName());
+		assertEquals("Exercise", myList.getTask(2).getTaskName());
+		assertEquals(2, myNotebook.getCurrentTaskList().getTasks().size());
+
+		// Removing from Active Tasks leaves the TaskList alone.
+		myNotebook.setChanged(false);
+		assertEquals("Job", myNotebook.removeTask(0).getTaskName());
+		assertFalse(myNotebook.isChanged());
+		assertEquals(3, myList.getTasks().size());
+		myNotebook.setCurrentTaskList("My List");
+		assertEquals("Piano Practice", myNotebook.removeTask(0).getTaskName());
+		assertTrue(myNotebook.isChanged());
+		assertEquals(2, myList.getTasks().size());
+		assertThrows(IndexOutOfBoundsException.class, () -> myNotebook.completeTask(2));
+	}
 }
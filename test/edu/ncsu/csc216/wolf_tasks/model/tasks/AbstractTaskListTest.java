@@ -2,6 +2,10 @@ package edu.ncsu.csc216.wolf_tasks.model.tasks;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 /**
@@ -71,6 +75,85 @@ public class AbstractTaskListTest {
 		assertEquals("Job", myTaskList.getTask(3).getTaskName());
 	}
 
+	/**
+	 * Test the moveTask methods and that every change is reported to the observer.
+	 */
+	@Test
+	public void testMoveTasksAndObserver() {
+		AbstractTaskList myTaskList = new TaskList("My List", 0);
+		ArrayList<String> events = new ArrayList<String>();
+		myTaskList.setObserver(new TaskListObserver() {
+			@Override
+			public void taskAdded(AbstractTaskList taskList, Task task) {
+				events.add("added " + task.getTaskName());
+			}
+
+			@Override
+			public void taskRemoved(AbstractTaskList taskList, Task task) {
+				events.add("removed " + task.getTaskName());
+			}
+
+			@Override
+			public void taskMoved(AbstractTaskList taskList, Task task) {
+				events.add("moved " + task.getTaskName());
+			}
+
+			@Override
+			public void taskActiveChanged(AbstractTaskList taskList, Task task) {
+				events.add("active " + task.getTaskName());
+			}
+
+			@Override
+			public void tasksLoaded(AbstractTaskList taskList) {
+				events.add("loaded " + taskList.getTaskListName());
+			}
+		});
+
+		Task myTask1 = new Task(NAME, DESCRIPTION, false, false);
+		Task myTask2 = new Task("Exercise", "Go for a walk", true, true);
+		Task myTask3 = new Task("Job", "Pizza delivery", false, false);
+		myTaskList.addTask(myTask1);
+		myTaskList.addTask(myTask2);
+		myTaskList.addTask(myTask3);
+
+		// Moves change the order and report the moved Task.
+		myTaskList.moveTaskUp(2);
+		assertEquals("Job", myTaskList.getTask(1).getTaskName());
+		myTaskList.moveTaskToFront(2);
+		assertEquals("Exercise", myTaskList.getTask(0).getTaskName());
+		myTaskList.moveTaskDown(0);
+		assertEquals("Exercise", myTaskList.getTask(1).getTaskName());
+		myTaskList.moveTaskToBack(0);
+		assertEquals("Exercise", myTaskList.getTask(0).getTaskName());
+		assertEquals("Job", myTaskList.getTask(1).getTaskName());
+		assertEquals(NAME, myTaskList.getTask(2).getTaskName());
+		assertThrows(IndexOutOfBoundsException.class, () -> myTaskList.moveTaskUp(3));
+
+		// Active changes, removes and completes are reported.
+		myTask3.setActive(true);
+		myTask3.setActive(true); // no change, no event.
+		myTaskList.removeTask(2);
+		myTaskList.completeTask(myTask2);
+		myTaskList.completeTask(myTask2); // not in list, no event.
+
+		assertEquals(10, events.size());
+		assertEquals("added " + NAME, events.get(0));
+		assertEquals("added Exercise", events.get(1));
+		assertEquals("added Job", events.get(2));
+		assertEquals("moved Job", events.get(3));
+		assertEquals("moved Exercise", events.get(4));
+		assertEquals("moved Exercise", events.get(5));
+		assertEquals("moved " + NAME, events.get(6));
+		assertEquals("active Job", events.get(7));
+		assertEquals("removed " + NAME, events.get(8));
+		assertEquals("removed Exercise", events.get(9));
+
+		// Without an observer nothing is reported.
+		myTaskList.setObserver(null);
+		myTaskList.removeTask(0);
+		assertEquals(10, events.size());
+	}
+
 	/**
 	 * Test remove() method for TaskList.
 	 */
@@ -169,4 +252,93 @@ public class AbstractTaskListTest {
 		assertEquals(4, myTaskList.getCompletedCount());
 		assertEquals(0, myTaskList.getTasks().size());
 	}
+
+	/**
+	 * Test that a TaskList with a TaskLoader reads its Tasks once, the first time
+	 * they are needed, and stays unloaded if the TaskLoader fails.
+	 */
+	@Test
+	public void testTaskLoader() {
+		Task myTask1 = new Task(NAME, DESCRIPTION, false, true);
+		Task myTask2 = new Task("Exercise", "Go for a walk", true, false);
+		int[] calls = new int[1];
+		TaskLoader loader = new TaskLoader() {
+			@Override
+			public List<Task> loadTasks() {
+				calls[0]++;
+				if (calls[0] == 1) {
+					throw new IllegalStateException("Unable to load task list.");
+				}
+				return Arrays.asList(myTask1, myTask2);
+			}
+
+			@Override
+			public boolean hasActiveTasks() {
+				return true;
+			}
+		};
+		assertThrows(IllegalArgumentException.class, () -> new TaskList("My List", 0, null));
+		AbstractTaskList myTaskList = new TaskList("My List", 2, loader);
+		ArrayList<String> events = new ArrayList<String>();
+		myTaskList.setObserver(new TaskListObserver() {
+			@Override
+			public void taskAdded(AbstractTaskList taskList, Task task) {
+				events.add("added " + task.getTaskName());
+			}
+
+			@Override
+			public void taskRemoved(AbstractTaskList taskList, Task task) {
+				events.add("removed " + task.getTaskName());
+			}
+
+			@Override
+			public void taskMoved(AbstractTaskList taskList, Task task) {
+				events.add("moved " + task.getTaskName());
+			}
+
+			@Override
+			public void taskActiveChanged(AbstractTaskList taskList, Task task) {
+				events.add("active " + task.getTaskName());
+			}
+
+			@Override
+			public void tasksLoaded(AbstractTaskList taskList) {
+				events.add("loaded " + taskList.getTaskListName());
+			}
+		});
+
+		// Nothing is read until a Task is needed.
+		assertEquals("My List", myTaskList.getTaskListName());
+		assertEquals(2, myTaskList.getCompletedCount());
+		assertFalse(myTaskList.isLoaded());
+		assertTrue(myTaskList.hasUnloadedActiveTasks());
+		assertEquals(0, calls[0]);
+
+		// A failed load leaves the list unloaded, and the next call tries again.
+		assertThrows(IllegalStateException.class, () -> myTaskList.getTask(0));
+		assertFalse(myTaskList.isLoaded());
+		long modificationCount = myTaskList.getModificationCount();
+		assertEquals(myTask1, myTaskList.getTask(0));
+		assertEquals(modificationCount, myTaskList.getModificationCount());
+		assertTrue(myTaskList.isLoaded());
+		assertFalse(myTaskList.hasUnloadedActiveTasks());
+		assertEquals(2, myTaskList.getTasks().size());
+		assertEquals("My List", myTask2.getTaskListName());
+		assertEquals(2, calls[0]);
+
+		// Only the load is reported, and later changes are reported as usual.
+		myTaskList.addTask(new Task("Job", "Pizza delivery", false, false));
+		assertEquals(3, myTaskList.getTasks().size());
+		assertEquals(2, calls[0]);
+		assertEquals(Arrays.asList("loaded My List", "added Job"), events);
+
+		// Changes to the list and to the fields of its Tasks are counted.
+		assertEquals(modificationCount + 1, myTaskList.getModificationCount());
+		myTask2.setTaskDescrption("Go for a run");
+		myTask2.setRecurring(true);
+		assertEquals(modificationCount + 2, myTaskList.getModificationCount());
+		myTaskList.moveTaskToBack(0);
+		myTaskList.setTaskListName("Renamed");
+		assertEquals(modificationCount + 4, myTaskList.getModificationCount());
+	}
 }
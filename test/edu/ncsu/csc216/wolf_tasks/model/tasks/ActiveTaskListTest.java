@@ -56,6 +56,31 @@ public class ActiveTaskListTest {
 		assertEquals(2, myActiveList.getTasks().size());
 		assertEquals("Exercise", myActiveList.getTask(0).getTaskName());
 		assertEquals("Job", myActiveList.getTask(1).getTaskName());
+
+		// Add at an index.
+		assertThrows(IllegalArgumentException.class, () -> myActiveList.addTask(0, myTask1));
+		Task myTask5 = new Task("Yard Work", "Mow the lawn", true, true);
+		myActiveList.addTask(1, myTask5);
+		assertEquals(3, myActiveList.getTasks().size());
+		assertEquals("Yard Work", myActiveList.getTask(1).getTaskName());
+		assertEquals("Job", myActiveList.getTask(2).getTaskName());
+	}
+
+	/**
+	 * Test that Tasks in an ActiveTaskList may not be moved.
+	 */
+	@Test
+	public void testMoveTasks() {
+		ActiveTaskList myActiveList = new ActiveTaskList();
+		myActiveList.addTask(new Task("Exercise", "Go for a walk", true, true));
+		myActiveList.addTask(new Task("Job", "Pizza delivery", false, true));
+
+		assertThrows(IllegalArgumentException.class, () -> myActiveList.moveTaskUp(1));
+		assertThrows(IllegalArgumentException.class, () -> myActiveList.moveTaskDown(0));
+		assertThrows(IllegalArgumentException.class, () -> myActiveList.moveTaskToFront(1));
+		assertThrows(IllegalArgumentException.class, () -> myActiveList.moveTaskToBack(0));
+		assertEquals("Exercise", myActiveList.getTask(0).getTaskName());
+		assertEquals("Job", myActiveList.getTask(1).getTaskName());
 	}
 
 	/**
@@ -117,6 +142,29 @@ public class ActiveTaskListTest {
 		assertEquals("Piano Practice", activeTasksArray[2][1]);
 		assertEquals("List 3", activeTasksArray[3][0]);
 		assertEquals("Job", activeTasksArray[3][1]);
+
+		// Each row on its own.
+		for (int i = 0; i < activeTasksArray.length; i++) {
+			assertArrayEquals(activeTasksArray[i], myActiveList.getTaskAsArray(i));
+		}
+
+		// A range of rows, and the same rows through a visitor.
+		String[][] page = myActiveList.getTasksAsArray(1, 2);
+		assertEquals(2, page.length);
+		assertArrayEquals(activeTasksArray[1], page[0]);
+		assertArrayEquals(activeTasksArray[2], page[1]);
+		StringBuilder visited = new StringBuilder();
+		assertEquals(2, myActiveList.visitTasks(2, 5, (idx, firstColumn, task) -> {
+			visited.append(firstColumn).append(':').append(task.getTaskName()).append(' ');
+			return true;
+		}));
+		assertEquals("List 2:Piano Practice List 3:Job ", visited.toString());
+
+		// Each call returns its own copy, and the rows follow changes to the Tasks.
+		activeTasksArray[3][1] = "Changed";
+		assertEquals("Job", myActiveList.getTasksAsArray()[3][1]);
+		myTask4.setTaskName("Internship");
+		assertEquals("Internship", myActiveList.getTasksAsArray()[3][1]);
 	}
 
 	/**
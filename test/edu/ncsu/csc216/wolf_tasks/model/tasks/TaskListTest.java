@@ -44,6 +44,66 @@ public class TaskListTest {
 		assertEquals("Piano Practice", taskListArray[2][1]);
 		assertEquals("4", taskListArray[3][0]);
 		assertEquals("Job", taskListArray[3][1]);
+
+		// Each row on its own.
+		for (int i = 0; i < taskListArray.length; i++) {
+			assertArrayEquals(taskListArray[i], myTaskList.getTaskAsArray(i));
+		}
+		assertThrows(IndexOutOfBoundsException.class, () -> myTaskList.getTaskAsArray(4));
+
+		// Each call returns its own copy, which the caller may change.
+		String[][] again = myTaskList.getTasksAsArray();
+		assertNotSame(taskListArray, again);
+		assertNotSame(taskListArray[0], again[0]);
+		taskListArray[0][1] = "Changed";
+		taskListArray[1] = null;
+		again = myTaskList.getTasksAsArray();
+		assertEquals(NAME, again[0][1]);
+		assertEquals("Exercise", again[1][1]);
+
+		// The rows follow changes to the list and its Tasks.
+		myTask3.setTaskName("Guitar Practice");
+		assertEquals("Guitar Practice", myTaskList.getTasksAsArray()[2][1]);
+		myTaskList.moveTaskToFront(3);
+		assertEquals("Job", myTaskList.getTasksAsArray()[0][1]);
+		myTaskList.completeTask(myTask1);
+		assertEquals(3, myTaskList.getTasksAsArray().length);
+	}
+
+	/**
+	 * Test getTasksAsArray(offset, limit) and visitTasks() methods.
+	 */
+	@Test
+	public void testTasksInRange() {
+		TaskList myTaskList = new TaskList("My List", 0);
+		for (int i = 0; i < 10; i++) {
+			myTaskList.addTask(new Task("Task " + i, DESCRIPTION, false, false));
+		}
+		String[][] all = myTaskList.getTasksAsArray();
+
+		// Pages of three rows.
+		String[][] page = myTaskList.getTasksAsArray(3, 3);
+		assertEquals(3, page.length);
+		for (int i = 0; i < page.length; i++) {
+			assertArrayEquals(all[3 + i], page[i]);
+		}
+		assertEquals(1, myTaskList.getTasksAsArray(9, 3).length);
+		assertEquals("10", myTaskList.getTasksAsArray(9, 3)[0][0]);
+		assertEquals(0, myTaskList.getTasksAsArray(10, 3).length);
+		assertEquals(0, myTaskList.getTasksAsArray(20, 3).length);
+		assertEquals(0, myTaskList.getTasksAsArray(0, 0).length);
+		assertEquals(10, myTaskList.getTasksAsArray(0, Integer.MAX_VALUE).length);
+		assertThrows(IndexOutOfBoundsException.class, () -> myTaskList.getTasksAsArray(-1, 3));
+		assertThrows(IndexOutOfBoundsException.class, () -> myTaskList.getTasksAsArray(0, -1));
+
+		// The visitor sees the same rows, and can stop early.
+		StringBuilder visited = new StringBuilder();
+		assertEquals(4, myTaskList.visitTasks(5, 10, (idx, firstColumn, task) -> {
+			visited.append(idx).append(':').append(firstColumn).append(':').append(task.getTaskName()).append(' ');
+			return idx < 8;
+		}));
+		assertEquals("5:6:Task 5 6:7:Task 6 7:8:Task 7 8:9:Task 8 ", visited.toString());
+		assertEquals(5, myTaskList.visitTasks(5, 10, (idx, firstColumn, task) -> true));
 	}
 
 	/**
@@ -60,6 +60,18 @@ public class TaskTest {
 		assertTrue(myTask.isActive());
 	}
 
+	/**
+	 * Test checkTaskInformation() accepts exactly what the constructor does.
+	 */
+	@Test
+	public void testCheckTaskInformation() {
+		Task.checkTaskInformation(NAME, DESCRIPTION);
+		Task.checkTaskInformation(NAME, "");
+		assertThrows(IllegalArgumentException.class, () -> Task.checkTaskInformation(null, DESCRIPTION));
+		assertThrows(IllegalArgumentException.class, () -> Task.checkTaskInformation("", DESCRIPTION));
+		assertThrows(IllegalArgumentException.class, () -> Task.checkTaskInformation(NAME, null));
+	}
+
 	/**
 	 * Test toString() method.
 	 */
@@ -0,0 +1,271 @@
+package edu.ncsu.csc216.wolf_tasks.model.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the ISortedList contract, run against each implementation by a
+ * subclass that provides new, empty lists. The larger tests check the
+ * implementation against the linked SortedList.
+ *
+ * @author Michael Warstler
+ */
+public abstract class AbstractSortedListTest {
+
+	/**
+	 * Creates an empty list of the implementation under test.
+	 *
+	 * @param <E> is the type of the elements.
+	 * @return is the new list.
+	 */
+	protected abstract <E extends Comparable<E>> ISortedList<E> createList();
+
+	/**
+	 * Test add() method.
+	 */
+	@Test
+	public void testAdd() {
+		ISortedList<String> myList = createList();
+
+		// Add element and check
+		myList.add("Berry");
+		assertEquals(1, myList.size());
+		assertEquals("Berry", myList.get(0));
+
+		// Add to end, beginning and middle
+		myList.add("Dogs");
+		myList.add("Apples");
+		myList.add("Cats");
+		assertEquals(4, myList.size());
+		assertEquals("Apples", myList.get(0));
+		assertEquals("Berry", myList.get(1));
+		assertEquals("Cats", myList.get(2));
+		assertEquals("Dogs", myList.get(3));
+
+		// Check Exceptions
+		assertThrows(NullPointerException.class, () -> myList.add(null));
+		assertThrows(IllegalArgumentException.class, () -> myList.add("Cats"));
+		assertEquals(4, myList.size());
+	}
+
+	/**
+	 * Test remove() method.
+	 */
+	@Test
+	public void testRemove() {
+		ISortedList<String> myList = createList();
+		myList.add("Berry");
+		myList.add("Dogs");
+		myList.add("Cats");
+		myList.add("Dragons");
+		myList.add("Boats");
+
+		assertThrows(IndexOutOfBoundsException.class, () -> myList.remove(-4));
+		assertThrows(IndexOutOfBoundsException.class, () -> myList.remove(5));
+
+		// Remove from end, beginning and middle.
+		assertEquals("Dragons", myList.remove(4));
+		assertEquals("Berry", myList.remove(0));
+		assertEquals("Cats", myList.remove(1));
+		assertEquals(2, myList.size());
+		assertEquals("Boats", myList.get(0));
+		assertEquals("Dogs", myList.get(1));
+	}
+
+	/**
+	 * Test contains() and get() methods.
+	 */
+	@Test
+	public void testContainsAndGet() {
+		ISortedList<String> myList = createList();
+		myList.add("Berry");
+		myList.add("Dogs");
+		myList.add("Cats");
+
+		assertTrue(myList.contains("Berry"));
+		assertTrue(myList.contains("Dogs"));
+		assertFalse(myList.contains("Grapes"));
+		assertFalse(myList.contains(null));
+
+		assertThrows(IndexOutOfBoundsException.class, () -> myList.get(-1));
+		assertThrows(IndexOutOfBoundsException.class, () -> myList.get(3));
+	}
+
+	/**
+	 * Test that a large number of random adds and removes keep the same order and
+	 * indexes as the linked SortedList.
+	 */
+	@Test
+	public void testMatchesSortedList() {
+		ISortedList<Integer> myList = createList();
+		SortedList<Integer> linkedList = new SortedList<Integer>();
+		Random random = new Random(216);
+
+		for (int i = 0; i < 3000; i++) {
+			if (linkedList.size() > 0 && random.nextInt(3) == 0) {
+				int idx = random.nextInt(linkedList.size());
+				assertEquals(linkedList.remove(idx), myList.remove(idx));
+			} else {
+				Integer value = random.nextInt(5000);
+				if (linkedList.contains(value)) {
+					assertTrue(myList.contains(value));
+					assertThrows(IllegalArgumentException.class, () -> myList.add(value));
+				} else {
+					linkedList.add(value);
+					myList.add(value);
+				}
+			}
+		}
+
+		assertEquals(linkedList.size(), myList.size());
+		for (int i = 0; i < linkedList.size(); i++) {
+			assertEquals(linkedList.get(i), myList.get(i));
+			assertEquals(i, myList.indexOf(linkedList.get(i)));
+		}
+		assertEquals(-1, myList.indexOf(-1));
+		assertEquals(-1, myList.indexOf(null));
+
+		// Remove every other element through the iterator.
+		Iterator<Integer> it = myList.iterator();
+		Iterator<Integer> expected = linkedList.iterator();
+		boolean remove = true;
+		while (it.hasNext()) {
+			assertEquals(expected.next(), it.next());
+			if (remove) {
+				it.remove();
+				expected.remove();
+			}
+			remove = !remove;
+		}
+		assertFalse(expected.hasNext());
+		assertEquals(linkedList.size(), myList.size());
+		for (int i = 0; i < linkedList.size(); i++) {
+			assertEquals(linkedList.get(i), myList.get(i));
+		}
+	}
+
+	/**
+	 * Test iterator() method, including remove in place and fail-fast behavior.
+	 */
+	@Test
+	public void testIterator() {
+		ISortedList<String> myList = createList();
+		myList.add("Dogs");
+		myList.add("Berry");
+		myList.add("Cats");
+		myList.add("Apples");
+
+		// Iterate in order.
+		Iterator<String> it = myList.iterator();
+		assertThrows(IllegalStateException.class, () -> it.remove());
+		assertEquals("Apples", it.next());
+		assertEquals("Berry", it.next());
+
+		// Remove in place and continue.
+		it.remove();
+		assertThrows(IllegalStateException.class, () -> it.remove());
+		assertEquals(3, myList.size());
+		assertEquals("Cats", it.next());
+		assertEquals("Dogs", it.next());
+		assertFalse(it.hasNext());
+		assertThrows(NoSuchElementException.class, () -> it.next());
+
+		// Remove the first and last elements through the iterator.
+		Iterator<String> it2 = myList.iterator();
+		it2.next();
+		it2.remove();
+		it2.next();
+		it2.next();
+		it2.remove();
+		assertEquals(1, myList.size());
+		assertEquals("Cats", myList.get(0));
+
+		// Changing the list outside the iterator is detected.
+		Iterator<String> it3 = myList.iterator();
+		myList.add("Eels");
+		assertThrows(ConcurrentModificationException.class, () -> it3.next());
+	}
+
+	/**
+	 * Test addAll() method.
+	 */
+	@Test
+	public void testAddAll() {
+		ISortedList<String> myList = createList();
+		myList.add("Cats");
+		myList.add("Fish");
+
+		// Batch is sorted and merged around the existing elements.
+		myList.addAll(Arrays.asList("Eels", "Ants", "Dogs", "Goats"));
+		assertEquals(6, myList.size());
+		assertEquals("Ants", myList.get(0));
+		assertEquals("Cats", myList.get(1));
+		assertEquals("Dogs", myList.get(2));
+		assertEquals("Eels", myList.get(3));
+		assertEquals("Fish", myList.get(4));
+		assertEquals("Goats", myList.get(5));
+
+		// Duplicates within the batch or with the list leave the list unchanged.
+		assertThrows(IllegalArgumentException.class, () -> myList.addAll(Arrays.asList("Bats", "Bats")));
+		assertThrows(IllegalArgumentException.class, () -> myList.addAll(Arrays.asList("Bats", "Fish")));
+		assertThrows(NullPointerException.class, () -> myList.addAll(Arrays.asList("Bats", null)));
+		assertThrows(NullPointerException.class, () -> myList.addAll(null));
+		assertEquals(6, myList.size());
+		assertFalse(myList.contains("Bats"));
+
+		// List keeps working after a bulk add.
+		myList.add("Bats");
+		assertEquals("Bats", myList.get(1));
+		assertEquals("Cats", myList.remove(2));
+		assertEquals(6, myList.size());
+		assertEquals("Dogs", myList.get(2));
+		assertEquals(5, myList.indexOf("Goats"));
+	}
+
+	/**
+	 * Test that a large bulk add followed by random adds and removes keeps the
+	 * same order as the linked SortedList.
+	 */
+	@Test
+	public void testAddAllMatchesSortedList() {
+		ISortedList<Integer> myList = createList();
+		SortedList<Integer> linkedList = new SortedList<Integer>();
+		Random random = new Random(216);
+		ArrayList<Integer> batch = new ArrayList<Integer>();
+		for (int i = 0; i < 1000; i++) {
+			batch.add(i * 3);
+		}
+		Collections.shuffle(batch, random);
+		myList.add(1);
+		linkedList.add(1);
+		myList.addAll(batch);
+		linkedList.addAll(batch);
+
+		for (int i = 0; i < 1000; i++) {
+			if (random.nextBoolean()) {
+				int idx = random.nextInt(linkedList.size());
+				assertEquals(linkedList.remove(idx), myList.remove(idx));
+			} else {
+				Integer value = random.nextInt(3000) * 3 + 2;
+				if (!linkedList.contains(value)) {
+					linkedList.add(value);
+					myList.add(value);
+				}
+			}
+		}
+		assertEquals(linkedList.size(), myList.size());
+		for (int i = 0; i < linkedList.size(); i++) {
+			assertEquals(linkedList.get(i), myList.get(i));
+			assertEquals(i, myList.indexOf(linkedList.get(i)));
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package edu.ncsu.csc216.wolf_tasks.model.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the SkipSortedList class, through the ISortedList tests it shares with
+ * the other implementations.
+ *
+ * @author Michael Warstler
+ */
+public class SkipSortedListTest extends AbstractSortedListTest {
+
+	@Override
+	protected <E extends Comparable<E>> ISortedList<E> createList() {
+		return new SkipSortedList<E>();
+	}
+
+	/**
+	 * Test constructor for SkipSortedList.
+	 */
+	@Test
+	public void testSkipSortedList() {
+		SkipSortedList<String> myList = new SkipSortedList<String>();
+		assertEquals(0, myList.size());
+	}
+}
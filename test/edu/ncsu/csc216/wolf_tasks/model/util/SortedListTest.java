@@ -2,8 +2,16 @@ package edu.ncsu.csc216.wolf_tasks.model.util;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
 import org.junit.jupiter.api.Test;
 
+import edu.ncsu.csc216.wolf_tasks.model.tasks.TaskList;
+
 /**
  * Test the SortedList Class.
  * 
@@ -20,6 +28,31 @@ public class SortedListTest {
 		assertEquals(0, myList.size());
 	}
 
+	/**
+	 * Test getModificationCount() method.
+	 */
+	@Test
+	public void testGetModificationCount() {
+		SortedList<String> myList = new SortedList<String>();
+		myList.add("b");
+		myList.addAll(Arrays.asList("a", "c"));
+		int count = myList.getModificationCount();
+
+		// Reads do not count.
+		myList.get(1);
+		myList.contains("c");
+		for (String s : myList) {
+			assertNotNull(s);
+		}
+		assertEquals(count, myList.getModificationCount());
+
+		// A failed add does not count, and a remove does.
+		assertThrows(IllegalArgumentException.class, () -> myList.add("a"));
+		assertEquals(count, myList.getModificationCount());
+		myList.remove(0);
+		assertTrue(myList.getModificationCount() > count);
+	}
+
 	/**
 	 * Test add() method.
 	 */
@@ -137,6 +170,22 @@ public class SortedListTest {
 		assertFalse(myList.contains("Grapes"));
 	}
 
+	/**
+	 * Test indexOf() method.
+	 */
+	@Test
+	public void testIndexOf() {
+		SortedList<String> myList = new SortedList<String>();
+		myList.add("Berry");
+		myList.add("Dogs");
+		myList.add("Cats");
+
+		assertEquals(0, myList.indexOf("Berry"));
+		assertEquals(1, myList.indexOf("Cats"));
+		assertEquals(2, myList.indexOf("Dogs"));
+		assertEquals(-1, myList.indexOf("Grapes"));
+	}
+
 	/**
 	 * Test get() method (exceptions).
 	 */
@@ -155,4 +204,103 @@ public class SortedListTest {
 		assertThrows(IndexOutOfBoundsException.class, () -> myList.get(-4));
 		assertThrows(IndexOutOfBoundsException.class, () -> myList.get(8));
 	}
+
+	/**
+	 * Test iterator() method, including remove in place and fail-fast behavior.
+	 */
+	@Test
+	public void testIterator() {
+		SortedList<String> myList = new SortedList<String>();
+		myList.add("Dogs");
+		myList.add("Berry");
+		myList.add("Cats");
+		myList.add("Apples");
+
+		// Iterate in order.
+		Iterator<String> it = myList.iterator();
+		assertThrows(IllegalStateException.class, () -> it.remove());
+		assertEquals("Apples", it.next());
+		assertEquals("Berry", it.next());
+
+		// Remove in place and continue.
+		it.remove();
+		assertThrows(IllegalStateException.class, () -> it.remove());
+		assertEquals(3, myList.size());
+		assertEquals("Cats", it.next());
+		assertEquals("Dogs", it.next());
+		assertFalse(it.hasNext());
+		assertThrows(NoSuchElementException.class, () -> it.next());
+
+		// Remove the first and last elements through the iterator.
+		Iterator<String> it2 = myList.iterator();
+		it2.next();
+		it2.remove();
+		it2.next();
+		it2.next();
+		it2.remove();
+		assertEquals(1, myList.size());
+		assertEquals("Cats", myList.get(0));
+
+		// Changing the list outside the iterator is detected.
+		Iterator<String> it3 = myList.iterator();
+		myList.add("Eels");
+		assertThrows(ConcurrentModificationException.class, () -> it3.next());
+	}
+
+	/**
+	 * Test addAll() method.
+	 */
+	@Test
+	public void testAddAll() {
+		SortedList<String> myList = new SortedList<String>();
+		myList.add("Cats");
+		myList.add("Fish");
+
+		// Batch is sorted and merged around the existing elements.
+		myList.addAll(Arrays.asList("Eels", "Ants", "Dogs", "Goats"));
+		assertEquals(6, myList.size());
+		assertEquals("Ants", myList.get(0));
+		assertEquals("Cats", myList.get(1));
+		assertEquals("Dogs", myList.get(2));
+		assertEquals("Eels", myList.get(3));
+		assertEquals("Fish", myList.get(4));
+		assertEquals("Goats", myList.get(5));
+
+		// Duplicates within the batch or with the list leave the list unchanged.
+		assertThrows(IllegalArgumentException.class, () -> myList.addAll(Arrays.asList("Bats", "Bats")));
+		assertThrows(IllegalArgumentException.class, () -> myList.addAll(Arrays.asList("Bats", "Fish")));
+		assertThrows(NullPointerException.class, () -> myList.addAll(Arrays.asList("Bats", null)));
+		assertThrows(NullPointerException.class, () -> myList.addAll(null));
+		assertEquals(6, myList.size());
+		assertFalse(myList.contains("Bats"));
+
+		// List keeps working after a bulk add.
+		myList.add("Bats");
+		assertEquals("Bats", myList.get(1));
+		assertEquals("Cats", myList.remove(2));
+		assertEquals(6, myList.size());
+		assertEquals("Dogs", myList.get(2));
+		assertEquals(5, myList.indexOf("Goats"));
+	}
+
+	/**
+	 * Test that every ISortedList treats elements that compare equal as
+	 * duplicates, even if they are not equal(), in add() and addAll() alike.
+	 */
+	@Test
+	public void testDuplicatesCompareEqual() {
+		ArrayList<ISortedList<TaskList>> lists = new ArrayList<ISortedList<TaskList>>();
+		lists.add(new SortedList<TaskList>());
+		lists.add(new SkipSortedList<TaskList>());
+		lists.add(new TreeSortedList<TaskList>());
+		for (ISortedList<TaskList> myList : lists) {
+			myList.add(new TaskList("Chores", 0));
+			assertThrows(IllegalArgumentException.class, () -> myList.add(new TaskList("Chores", 1)));
+			assertThrows(IllegalArgumentException.class,
+					() -> myList.addAll(Arrays.asList(new TaskList("School", 0), new TaskList("Chores", 1))));
+			assertThrows(IllegalArgumentException.class,
+					() -> myList.addAll(Arrays.asList(new TaskList("Work", 0), new TaskList("Work", 1))));
+			assertEquals(1, myList.size());
+		}
+	}
 }
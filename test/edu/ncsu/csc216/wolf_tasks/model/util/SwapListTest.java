@@ -2,6 +2,12 @@ package edu.ncsu.csc216.wolf_tasks.model.util;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
 /**
@@ -21,6 +27,35 @@ public class SwapListTest {
 		assertEquals(0, myList.size());
 	}
 
+	/**
+	 * Test getModificationCount() method.
+	 */
+	@Test
+	public void testGetModificationCount() {
+		SwapList<String> myList = new SwapList<String>();
+		myList.add("a");
+		myList.add("b");
+		myList.add(0, "c");
+		int count = myList.getModificationCount();
+
+		// Reads and moves that leave the order as it was do not count.
+		myList.get(1);
+		myList.indexOf("b");
+		myList.moveUp(0);
+		myList.moveDown(2);
+		assertEquals(count, myList.getModificationCount());
+
+		// Every change does.
+		myList.moveToBack(0);
+		assertTrue(myList.getModificationCount() > count);
+		count = myList.getModificationCount();
+		assertTrue(myList.removeElement("b"));
+		assertTrue(myList.getModificationCount() > count);
+		count = myList.getModificationCount();
+		assertFalse(myList.removeElement("b"));
+		assertEquals(count, myList.getModificationCount());
+	}
+
 	/**
 	 * Test add() method.
 	 */
@@ -311,4 +346,244 @@ public class SwapListTest {
 		assertThrows(IndexOutOfBoundsException.class, () -> myList.get(-4));
 		assertThrows(IndexOutOfBoundsException.class, () -> myList.get(3));
 	}
+
+	/**
+	 * Test iterator() method, including remove in place and fail-fast behavior.
+	 */
+	@Test
+	public void testIterator() {
+		SwapList<String> myList = new SwapList<String>();
+		myList.add("Dogs");
+		myList.add("Berry");
+		myList.add("Cats");
+		myList.add("Apples");
+
+		// Iterate in order.
+		Iterator<String> it = myList.iterator();
+		assertThrows(IllegalStateException.class, () -> it.remove());
+		assertEquals("Dogs", it.next());
+		assertEquals("Berry", it.next());
+
+		// Remove in place and continue.
+		it.remove();
+		assertThrows(IllegalStateException.class, () -> it.remove());
+		assertEquals(3, myList.size());
+		assertEquals("Cats", it.next());
+		assertEquals("Apples", it.next());
+		assertFalse(it.hasNext());
+		assertThrows(NoSuchElementException.class, () -> it.next());
+
+		// Remove the first and last elements through the iterator.
+		Iterator<String> it2 = myList.iterator();
+		it2.next();
+		it2.remove();
+		it2.next();
+		it2.next();
+		it2.remove();
+		assertEquals(1, myList.size());
+		assertEquals("Cats", myList.get(0));
+
+		// Changing the list outside the iterator is detected.
+		Iterator<String> it3 = myList.iterator();
+		myList.add("Eels");
+		assertThrows(ConcurrentModificationException.class, () -> it3.next());
+		Iterator<String> it4 = myList.iterator();
+		myList.moveToFront(1);
+		assertThrows(ConcurrentModificationException.class, () -> it4.next());
+	}
+
+	/**
+	 * Test that removals and moves keep the same index order as a plain array list
+	 * once elements wrap around the end of the circular array.
+	 */
+	@Test
+	public void testWrapAround() {
+		SwapList<Integer> myList = new SwapList<Integer>();
+		ArrayList<Integer> expected = new ArrayList<Integer>();
+
+		// Removing from the front moves the head, so later adds wrap around.
+		for (int i = 0; i < 8; i++) {
+			myList.add(i);
+		}
+		myList.remove(0);
+		myList.remove(0);
+		myList.remove(0);
+		for (int i = 8; i < 12; i++) {
+			myList.add(i);
+		}
+		for (int i = 3; i < 12; i++) {
+			expected.add(i);
+		}
+		assertEquals(expected.size(), myList.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i), myList.get(i));
+		}
+
+		// Random mix of operations, including growing the array.
+		Random random = new Random(216);
+		int next = 12;
+		for (int k = 0; k < 2000; k++) {
+			int op = random.nextInt(6);
+			if (op == 0 || expected.isEmpty()) {
+				myList.add(next);
+				expected.add(next);
+				next++;
+				continue;
+			}
+			int idx = random.nextInt(expected.size());
+			if (op == 1) {
+				assertEquals(expected.remove(idx), myList.remove(idx));
+			} else if (op == 2) {
+				myList.moveUp(idx);
+				if (idx > 0) {
+					expected.add(idx - 1, expected.remove(idx));
+				}
+			} else if (op == 3) {
+				myList.moveDown(idx);
+				if (idx < expected.size() - 1) {
+					expected.add(idx + 1, expected.remove(idx));
+				}
+			} else if (op == 4) {
+				myList.moveToFront(idx);
+				expected.add(0, expected.remove(idx));
+			} else {
+				myList.moveToBack(idx);
+				expected.add(expected.remove(idx));
+			}
+			assertEquals(expected.size(), myList.size());
+		}
+		int i = 0;
+		for (Integer value : myList) {
+			assertEquals(expected.get(i), value);
+			i++;
+		}
+	}
+
+	/**
+	 * Test add() at an index, shifting from either side of the list and keeping the
+	 * identity position index correct.
+	 */
+	@Test
+	public void testAddAtIndex() {
+		SwapList<String> myList = new SwapList<String>();
+		myList.add(0, "Cats");
+		myList.add(0, "Apples");
+		myList.add(2, "Eels");
+		myList.add(1, "Berry");
+		myList.add(3, "Dogs");
+		assertEquals(5, myList.size());
+		assertEquals("Apples", myList.get(0));
+		assertEquals("Berry", myList.get(1));
+		assertEquals("Cats", myList.get(2));
+		assertEquals("Dogs", myList.get(3));
+		assertEquals("Eels", myList.get(4));
+
+		// Check Exceptions
+		assertThrows(IndexOutOfBoundsException.class, () -> myList.add(-1, "Fish"));
+		assertThrows(IndexOutOfBoundsException.class, () -> myList.add(6, "Fish"));
+		assertThrows(NullPointerException.class, () -> myList.add(0, null));
+		assertThrows(IllegalArgumentException.class, () -> myList.add(0, "Cats"));
+		assertEquals(5, myList.size());
+
+		// Random inserts and removes match a plain array list.
+		SwapList<Object> indexed = new SwapList<Object>(true);
+		ArrayList<Object> expected = new ArrayList<Object>();
+		Random random = new Random(216);
+		for (int k = 0; k < 2000; k++) {
+			if (expected.isEmpty() || random.nextInt(3) != 0) {
+				int idx = random.nextInt(expected.size() + 1);
+				Object element = new Object();
+				indexed.add(idx, element);
+				expected.add(idx, element);
+			} else {
+				int idx = random.nextInt(expected.size());
+				assertSame(expected.remove(idx), indexed.remove(idx));
+			}
+		}
+		assertEquals(expected.size(), indexed.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertSame(expected.get(i), indexed.get(i));
+			assertEquals(i, indexed.indexOf(expected.get(i)));
+		}
+	}
+
+	/**
+	 * Test indexOf() and removeElement() methods with and without the identity
+	 * position index.
+	 */
+	@Test
+	public void testIndexOfAndRemoveElement() {
+		SwapList<String> myList = new SwapList<String>();
+		myList.add("Berry");
+		myList.add("Dogs");
+		myList.add("Cats");
+
+		// Without an index, elements are compared with equals().
+		assertEquals(1, myList.indexOf(new String("Dogs")));
+		assertEquals(-1, myList.indexOf("Grapes"));
+		assertTrue(myList.removeElement(new String("Berry")));
+		assertFalse(myList.removeElement("Berry"));
+		assertEquals(2, myList.size());
+		assertEquals("Dogs", myList.get(0));
+
+		// With an index, elements are compared by identity.
+		SwapList<Object> indexed = new SwapList<Object>(true);
+		Object first = new Object();
+		Object second = new Object();
+		indexed.add(first);
+		indexed.add(second);
+		assertEquals(0, indexed.indexOf(first));
+		assertEquals(1, indexed.indexOf(second));
+		assertEquals(-1, indexed.indexOf(new Object()));
+		assertThrows(IllegalArgumentException.class, () -> indexed.add(first));
+		indexed.moveToFront(1);
+		assertEquals(0, indexed.indexOf(second));
+		assertEquals(1, indexed.indexOf(first));
+		assertTrue(indexed.removeElement(second));
+		assertFalse(indexed.removeElement(second));
+		assertEquals(0, indexed.indexOf(first));
+	}
+
+	/**
+	 * Test that the identity position index stays correct through shifts, swaps,
+	 * wrap around and growth.
+	 */
+	@Test
+	public void testIndexedPositions() {
+		SwapList<Object> myList = new SwapList<Object>(true);
+		ArrayList<Object> expected = new ArrayList<Object>();
+		Random random = new Random(216);
+		for (int k = 0; k < 2000; k++) {
+			int op = random.nextInt(6);
+			if (op == 0 || expected.isEmpty()) {
+				Object element = new Object();
+				myList.add(element);
+				expected.add(element);
+				continue;
+			}
+			int idx = random.nextInt(expected.size());
+			if (op == 1) {
+				assertTrue(myList.removeElement(expected.remove(idx)));
+			} else if (op == 2) {
+				myList.moveUp(idx);
+				if (idx > 0) {
+					expected.add(idx - 1, expected.remove(idx));
+				}
+			} else if (op == 3) {
+				myList.remove(idx);
+				expected.remove(idx);
+			} else if (op == 4) {
+				myList.moveToFront(idx);
+				expected.add(0, expected.remove(idx));
+			} else {
+				myList.moveToBack(idx);
+				expected.add(expected.remove(idx));
+			}
+		}
+		assertEquals(expected.size(), myList.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(i, myList.indexOf(expected.get(i)));
+			assertSame(expected.get(i), myList.get(i));
+		}
+	}
 }
@@ -0,0 +1,91 @@
+package edu.ncsu.csc216.wolf_tasks.model.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the TreeSortedList class, through the ISortedList tests it shares with
+ * the other implementations and checks of its balance.
+ *
+ * @author Michael Warstler
+ */
+public class TreeSortedListTest extends AbstractSortedListTest {
+
+	@Override
+	protected <E extends Comparable<E>> ISortedList<E> createList() {
+		return new TreeSortedList<E>();
+	}
+
+	/**
+	 * Test constructor for TreeSortedList.
+	 */
+	@Test
+	public void testTreeSortedList() {
+		TreeSortedList<String> myList = new TreeSortedList<String>();
+		assertEquals(0, myList.size());
+		assertEquals(0, myList.height());
+	}
+
+	/**
+	 * Test that the tree stays within the AVL height bound of
+	 * 1.44 * log2(n + 2) when elements are added in ascending or descending
+	 * order, which would make an unbalanced tree a linked list, and as elements
+	 * are removed from one end or at random.
+	 */
+	@Test
+	public void testHeight() {
+		// Ascending adds.
+		TreeSortedList<Integer> ascending = new TreeSortedList<Integer>();
+		for (int i = 0; i < 4000; i++) {
+			ascending.add(i);
+			assertBalanced(ascending);
+		}
+
+		// Descending adds.
+		TreeSortedList<Integer> descending = new TreeSortedList<Integer>();
+		for (int i = 4000; i > 0; i--) {
+			descending.add(i);
+			assertBalanced(descending);
+		}
+
+		// Removes from the front, then at random.
+		for (int i = 0; i < 2000; i++) {
+			ascending.remove(0);
+			assertBalanced(ascending);
+		}
+		Random random = new Random(216);
+		while (descending.size() > 0) {
+			descending.remove(random.nextInt(descending.size()));
+			assertBalanced(descending);
+		}
+
+		// Random adds after a bulk add.
+		TreeSortedList<Integer> bulk = new TreeSortedList<Integer>();
+		ArrayList<Integer> batch = new ArrayList<Integer>();
+		for (int i = 0; i < 3000; i++) {
+			batch.add(i * 2);
+		}
+		Collections.shuffle(batch, random);
+		bulk.addAll(batch);
+		assertBalanced(bulk);
+		for (int i = 0; i < 1000; i++) {
+			bulk.add(i * 6 + 1);
+			assertBalanced(bulk);
+		}
+	}
+
+	/**
+	 * Checks that the height of a tree is within the AVL bound for its size.
+	 *
+	 * @param list is the tree.
+	 */
+	private static void assertBalanced(TreeSortedList<Integer> list) {
+		double bound = 1.44 * Math.log(list.size() + 2) / Math.log(2);
+		assertTrue(list.height() <= bound, "height " + list.height() + " for " + list.size() + " elements");
+	}
+}